@@ -0,0 +1,97 @@
+package com.example.brightbuds_app.activities;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.brightbuds_app.services.ReportRenderEngine;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares serial and parallel rendering of the charts report.
+ *
+ * Synthetic reports of 1, 5 and 20 children are rendered with both modes
+ * through ReportRenderEngine.renderBlocking and the wall time of each is
+ * logged under the ChartsReportBenchmark tag. Each run is preceded by one
+ * untimed run so class loading and the section pool start up do not count.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ChartsReportBenchmarkTest {
+
+    private static final String TAG = "ChartsReportBenchmark";
+
+    private static final int[] CHILD_COUNTS = {1, 5, 20};
+    private static final String[] MODULE_IDS = {
+            "MODULE_FEED_THE_MONSTER", "MODULE_MATCH_LETTER", "MODULE_MEMORY_MATCH",
+            "MODULE_WORD_BUILDER", "MODULE_ABC_SONG", "MODULE_123_SONG"
+    };
+
+    @Test
+    public void serialAndParallelRenderTimes() throws Exception {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        ReportRenderEngine engine = ReportRenderEngine.getInstance(context);
+
+        File dir = new File(context.getCacheDir(), "report_benchmark");
+        assertTrue(dir.isDirectory() || dir.mkdirs());
+
+        for (int count : CHILD_COUNTS) {
+            List<AllChildrenChartsPdfActivity.ChildPdfData> children = buildChildren(count);
+            File file = new File(dir, "benchmark_" + count + ".pdf");
+
+            engine.renderBlocking(file, new AllChildrenChartsPdfActivity.ChartsReportJob(children, false));
+            long serialMs = engine.renderBlocking(file,
+                    new AllChildrenChartsPdfActivity.ChartsReportJob(children, false));
+            assertTrue(file.length() > 0);
+
+            engine.renderBlocking(file, new AllChildrenChartsPdfActivity.ChartsReportJob(children, true));
+            long parallelMs = engine.renderBlocking(file,
+                    new AllChildrenChartsPdfActivity.ChartsReportJob(children, true));
+            assertTrue(file.length() > 0);
+
+            Log.i(TAG, String.format(Locale.US,
+                    "%d children: serial %d ms, parallel %d ms (%.1fx)",
+                    count, serialMs, parallelMs,
+                    parallelMs > 0 ? (double) serialMs / parallelMs : 0.0));
+
+            if (!file.delete()) {
+                Log.w(TAG, "Could not delete " + file.getName());
+            }
+        }
+    }
+
+    private static List<AllChildrenChartsPdfActivity.ChildPdfData> buildChildren(int count) {
+        List<AllChildrenChartsPdfActivity.ChildPdfData> children = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            AllChildrenChartsPdfActivity.ChildPdfData child = new AllChildrenChartsPdfActivity.ChildPdfData();
+            child.childId = "benchmark_" + i;
+            child.childName = "Benchmark child " + (i + 1);
+            child.overallAvgScore = 40 + (i * 7) % 60;
+            child.overallAccuracyFraction = 0.5 + ((i * 13) % 50) / 100.0;
+            child.overallAvgTimeSeconds = 20 + (i * 11) % 90;
+
+            for (int m = 0; m < MODULE_IDS.length; m++) {
+                AllChildrenChartsPdfActivity.ModuleMetrics mm = new AllChildrenChartsPdfActivity.ModuleMetrics();
+                mm.moduleId = MODULE_IDS[m];
+                mm.totalPlays = 3 + (i + m) % 12;
+                mm.totalStars = mm.totalPlays * (1 + (i + m) % 3);
+                mm.totalTimeMs = mm.totalPlays * (30_000L + m * 5_000L);
+                mm.totalScore = mm.totalPlays * (50 + (i * m) % 50);
+                mm.scoreCount = mm.totalPlays;
+                child.moduleMetricsMap.put(mm.moduleId, mm);
+            }
+            children.add(child);
+        }
+        return children;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.brightbuds_app.services;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Counts database file opens for the local work of one game session:
+ * cache the progress row, record the session, read the analytics summary
+ * and the unsynced rows, then mark the row synced.
+ *
+ * Before the shared helper, each of those calls built its own
+ * DatabaseHelper and closed it afterwards, so one session cost
+ * CALLS_PER_SESSION opens. Now the whole session costs none once the
+ * process has opened the database.
+ */
+@RunWith(AndroidJUnit4.class)
+public class DatabaseOpenCountTest {
+
+    private static final String CHILD_ID = "open_count_test_child";
+    private static final String MODULE_ID = "open_count_test_module";
+    private static final String PROGRESS_ID = "open_count_test_progress";
+
+    // insertOrUpdateProgress, recordGameSession, getChildAnalyticsSummary,
+    // getUnsyncedProgressDetails, markProgressAsSynced
+    private static final int CALLS_PER_SESSION = 5;
+
+    private DatabaseHelper db;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        db = DatabaseHelper.getInstance(context);
+        // The first open of the process is not part of a session
+        db.getWritableDatabase();
+    }
+
+    @After
+    public void tearDown() {
+        SQLiteDatabase sql = db.getWritableDatabase();
+        sql.delete(DatabaseHelper.TABLE_CHILD_PROGRESS,
+                DatabaseHelper.COLUMN_CHILD_ID + " = ?", new String[]{CHILD_ID});
+        sql.delete(DatabaseHelper.TABLE_GAME_SESSIONS,
+                DatabaseHelper.COLUMN_SESSION_CHILD_ID + " = ?", new String[]{CHILD_ID});
+        sql.delete(DatabaseHelper.TABLE_CHILD_ANALYTICS,
+                DatabaseHelper.COLUMN_ANALYTICS_CHILD_ID + " = ?", new String[]{CHILD_ID});
+    }
+
+    @Test
+    public void gameSessionDoesNotReopenDatabase() {
+        int before = DatabaseHelper.getOpenCount();
+
+        runOneSession();
+        runOneSession();
+
+        int opens = DatabaseHelper.getOpenCount() - before;
+        assertEquals("Database opens for two game sessions (was "
+                + 2 * CALLS_PER_SESSION + " before the shared helper)", 0, opens);
+    }
+
+    private void runOneSession() {
+        long now = System.currentTimeMillis();
+
+        db.insertOrUpdateProgress(PROGRESS_ID, "open_count_test_parent", CHILD_ID, MODULE_ID,
+                80, "completed", now, 60_000L);
+        db.recordGameSession(CHILD_ID, MODULE_ID, now - 60_000L, now, 80, 8, 10, 2, 1);
+
+        try (Cursor summary = db.getChildAnalyticsSummary(CHILD_ID)) {
+            assertTrue(summary.moveToFirst());
+        }
+        db.getUnsyncedProgressDetails();
+        db.markProgressAsSynced(PROGRESS_ID);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.brightbuds_app.services;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that the hot queries on child_progress, SyncQueue and
+ * game_sessions are served by an index on the real schema after all
+ * migrations have run.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HotQueryPlanTest {
+
+    @Test
+    public void hotQueriesUseIndexes() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        DatabaseHelper db = DatabaseHelper.getInstance(context);
+
+        List<String> scans = DatabaseHelper.findFullScansInHotQueries(db.getReadableDatabase());
+
+        assertTrue("Hot query fell back to a table scan: " + scans, scans.isEmpty());
+    }
+}
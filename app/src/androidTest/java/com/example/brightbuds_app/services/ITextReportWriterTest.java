@@ -0,0 +1,76 @@
+package com.example.brightbuds_app.services;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.itextpdf.text.pdf.PdfReader;
+import com.itextpdf.text.pdf.parser.PdfTextExtractor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Writes a table report whose child and family names fall outside
+ * Windows-1252 and reads the text back, to check that parent entered
+ * names print as typed.
+ */
+@RunWith(AndroidJUnit4.class)
+public class ITextReportWriterTest {
+
+    private static final int PAGE_WIDTH = 595;
+    private static final int PAGE_HEIGHT = 842;
+
+    // Polish, Czech, Greek and Cyrillic names; none of them fit in Windows-1252
+    private static final String[] NAMES = {
+            "Łucja Wiśniewska", "Tomáš Dvořák", "Άννα Παπαδοπούλου", "Дмитрий Ковалёв"
+    };
+
+    private Context context;
+    private File output;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        output = new File(context.getCacheDir(), "unicode_names_report.pdf");
+    }
+
+    @After
+    public void tearDown() {
+        output.delete();
+    }
+
+    @Test
+    public void namesOutsideWinAnsiAreWrittenAsTyped() throws Exception {
+        ITextReportWriter writer = new ITextReportWriter(context.getAssets(), output,
+                PAGE_WIDTH, PAGE_HEIGHT, 40, 100, "BrightBuds all children report",
+                null, null, null);
+        writer.startPage();
+        int y = 160;
+        for (String name : NAMES) {
+            writer.drawText(name, 50, y, 12f, false);
+            writer.drawText(name, 300, y, 12f, true);
+            y += 20;
+        }
+        writer.close();
+
+        PdfReader reader = new PdfReader(output.getAbsolutePath());
+        try {
+            assertEquals(1, reader.getNumberOfPages());
+            String text = PdfTextExtractor.getTextFromPage(reader, 1);
+            for (String name : NAMES) {
+                assertTrue("Missing " + name + " in:\n" + text, text.contains(name));
+            }
+        } finally {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.brightbuds_app.services;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.OptIn;
+import androidx.media3.common.C;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.DataSource;
+import androidx.media3.datasource.DataSpec;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.QueueDispatcher;
+import okio.Buffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Plays a video twice through VideoCache.dataSourceFactory against a local
+ * MockWebServer standing in for Firebase Storage. The server answers like
+ * a slow link: the body starts after BODY_DELAY_MS and is throttled.
+ *
+ * The first play has to reach the server; the second has to come from
+ * disk with no request and without waiting on the slow link. Time to first
+ * byte and to the whole video are logged under the VideoCacheLatency tag
+ * for both plays.
+ *
+ * The reads use the storage path as cache key, the same key mediaItem
+ * gives the player. Debug builds allow cleartext to localhost for this.
+ */
+@OptIn(markerClass = UnstableApi.class)
+@RunWith(AndroidJUnit4.class)
+public class VideoCacheTest {
+
+    private static final String TAG = "VideoCacheLatency";
+
+    private static final int VIDEO_BYTES = 256 * 1024;
+    private static final long BODY_DELAY_MS = 300;
+    // About 400 ms for the whole video on top of the delay
+    private static final long THROTTLE_BYTES = 64 * 1024;
+    private static final long THROTTLE_PERIOD_MS = 100;
+
+    private MockWebServer server;
+    private VideoCache videoCache;
+
+    @Before
+    public void setUp() throws IOException {
+        // Answer anything unexpected with an error instead of blocking
+        QueueDispatcher dispatcher = new QueueDispatcher();
+        dispatcher.setFailFast(true);
+        server = new MockWebServer();
+        server.setDispatcher(dispatcher);
+        server.start();
+
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        videoCache = VideoCache.getInstance(context);
+    }
+
+    @After
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void secondPlayMakesNoUpstreamRequest() throws IOException {
+        byte[] video = new byte[VIDEO_BYTES];
+        new Random(22).nextBytes(video);
+        server.enqueue(new MockResponse()
+                .setBody(new Buffer().write(video))
+                .setBodyDelay(BODY_DELAY_MS, TimeUnit.MILLISECONDS)
+                .throttleBody(THROTTLE_BYTES, THROTTLE_PERIOD_MS, TimeUnit.MILLISECONDS));
+
+        // Unique per run so an earlier run's cache entry cannot answer the first play
+        String path = "videos/test_" + System.nanoTime() + ".mp4";
+        Uri uri = Uri.parse(server.url("/" + path).toString());
+        assertFalse(videoCache.isFullyCached(path));
+
+        Play cold = play(path, uri);
+        assertArrayEquals(video, cold.bytes);
+        assertEquals(1, server.getRequestCount());
+        assertTrue(videoCache.isFullyCached(path));
+
+        Play warm = play(path, uri);
+        assertArrayEquals(video, warm.bytes);
+        assertEquals("Second play reached the server", 1, server.getRequestCount());
+
+        Log.i(TAG, String.format(Locale.US,
+                "Cold: first byte %d ms, whole video %d ms. Warm: first byte %d ms, whole video %d ms",
+                cold.firstByteMs, cold.totalMs, warm.firstByteMs, warm.totalMs));
+
+        // The cold play really went over the slow link
+        assertTrue(cold.firstByteMs >= BODY_DELAY_MS);
+        // The warm play starts and finishes before the link would even send its first byte
+        assertTrue("Warm first byte took " + warm.firstByteMs + " ms",
+                warm.firstByteMs < BODY_DELAY_MS);
+        assertTrue("Warm play took " + warm.totalMs + " ms", warm.totalMs < BODY_DELAY_MS);
+    }
+
+    private static final class Play {
+        byte[] bytes;
+        long firstByteMs;
+        long totalMs;
+    }
+
+    private Play play(String path, Uri uri) throws IOException {
+        DataSource source = videoCache.dataSourceFactory().createDataSource();
+        DataSpec spec = new DataSpec.Builder()
+                .setUri(uri)
+                .setKey(path)
+                .build();
+        Play play = new Play();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long start = SystemClock.elapsedRealtime();
+        try {
+            source.open(spec);
+            byte[] buffer = new byte[16 * 1024];
+            int read;
+            while ((read = source.read(buffer, 0, buffer.length)) != C.RESULT_END_OF_INPUT) {
+                if (out.size() == 0 && read > 0) {
+                    play.firstByteMs = SystemClock.elapsedRealtime() - start;
+                }
+                out.write(buffer, 0, read);
+            }
+        } finally {
+            source.close();
+        }
+        play.totalMs = SystemClock.elapsedRealtime() - start;
+        play.bytes = out.toByteArray();
+        return play;
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.brightbuds_app.utils;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import com.example.brightbuds_app.BuildConfig;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Times encrypt then decrypt round trips three ways and logs the cost of
+ * each under the EncryptionBenchmark tag:
+ *  - deriving the key for every value, as EncryptionUtil did before the
+ *    key was cached (clearKey before each call reproduces that)
+ *  - the cached key and per thread Cipher
+ *  - encryptAll and decryptAll over the whole list
+ */
+@RunWith(AndroidJUnit4.class)
+public class EncryptionBenchmarkTest {
+
+    private static final String TAG = "EncryptionBenchmark";
+
+    private static final int CALLS = 20;
+    private static final String SAMPLE = "brightbuds benchmark value";
+
+    @Before
+    public void setUp() {
+        assumeTrue("BRIGHTBUDS_KEY is not set for this build",
+                BuildConfig.BRIGHTBUDS_KEY != null && !BuildConfig.BRIGHTBUDS_KEY.isEmpty());
+        EncryptionUtil.clearKey();
+    }
+
+    @After
+    public void tearDown() {
+        EncryptionUtil.clearKey();
+    }
+
+    @Test
+    public void cachedKeyIsFasterThanDerivingPerCall() {
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < CALLS; i++) {
+            EncryptionUtil.clearKey();
+            String encrypted = EncryptionUtil.encrypt(SAMPLE);
+            EncryptionUtil.clearKey();
+            assertEquals(SAMPLE, EncryptionUtil.decrypt(encrypted));
+        }
+        long uncachedNs = SystemClock.elapsedRealtimeNanos() - start;
+
+        EncryptionUtil.encrypt(SAMPLE); // the one derivation the cached path pays, outside the timing
+        start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < CALLS; i++) {
+            assertEquals(SAMPLE, EncryptionUtil.decrypt(EncryptionUtil.encrypt(SAMPLE)));
+        }
+        long cachedNs = SystemClock.elapsedRealtimeNanos() - start;
+
+        List<String> values = new ArrayList<>(CALLS);
+        for (int i = 0; i < CALLS; i++) values.add(SAMPLE);
+        start = SystemClock.elapsedRealtimeNanos();
+        List<String> roundTrip = EncryptionUtil.decryptAll(EncryptionUtil.encryptAll(values));
+        long bulkNs = SystemClock.elapsedRealtimeNanos() - start;
+        assertEquals(values, roundTrip);
+
+        Log.i(TAG, String.format(Locale.US,
+                "%d round trips, ms each: derive every call %.2f, cached key %.3f, bulk %.3f",
+                CALLS,
+                uncachedNs / 1e6 / CALLS,
+                cachedNs / 1e6 / CALLS,
+                bulkNs / 1e6 / CALLS));
+
+        assertTrue("Cached key should beat deriving per call", cachedNs < uncachedNs);
+    }
+}
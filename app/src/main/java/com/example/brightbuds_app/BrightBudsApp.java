@@ -1,8 +1,21 @@
 package com.example.brightbuds_app;
 
+import android.app.Activity;
 import android.app.Application;
+import android.os.Bundle;
 import android.util.Log;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.brightbuds_app.services.AudioEngine;
+import com.example.brightbuds_app.services.ContentPrefetcher;
+import com.example.brightbuds_app.services.DatabaseHelper;
+import com.example.brightbuds_app.services.ProgressWriteQueue;
+import com.example.brightbuds_app.services.SongPlayerPool;
+import com.example.brightbuds_app.services.SpeechService;
+import com.example.brightbuds_app.utils.ReportAssetCache;
+import com.example.brightbuds_app.utils.SecureSettingsStore;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.FirebaseOptions;
 
@@ -27,6 +40,66 @@ public class BrightBudsApp extends Application {
             Log.e("BrightBudsApp", "❌ Firebase initialization failed", e);
         }
 
+        // Create the single local database owner. It stays open for the whole process.
+        DatabaseHelper.getInstance(this);
+
+        // Flush queued local progress writes whenever a screen goes to the background.
+        ProgressWriteQueue writeQueue = ProgressWriteQueue.getInstance(this);
+
+        // Preload sound effects now. Paused screens hand the music to the next screen.
+        AudioEngine audio = AudioEngine.getInstance(this);
+
+        // Bind text to speech once and warm the spoken vocabulary cache.
+        SpeechService.getInstance(this);
+
+        // Load and decrypt secure settings in the background; unsaved changes are saved on pause.
+        SecureSettingsStore secureSettings = SecureSettingsStore.getInstance(this);
+
+        // Download module media for offline use while charging on an unmetered network.
+        ContentPrefetcher.schedule(this);
+
+        registerActivityLifecycleCallbacks(new ActivityLifecycleCallbacks() {
+            @Override
+            public void onActivityPaused(@NonNull Activity activity) {
+                writeQueue.flush();
+                secureSettings.flush();
+                audio.onScreenPaused();
+            }
+
+            @Override
+            public void onActivityCreated(@NonNull Activity activity, @Nullable Bundle savedInstanceState) { }
+
+            @Override
+            public void onActivityStarted(@NonNull Activity activity) { }
+
+            @Override
+            public void onActivityResumed(@NonNull Activity activity) { }
+
+            @Override
+            public void onActivityStopped(@NonNull Activity activity) { }
+
+            @Override
+            public void onActivitySaveInstanceState(@NonNull Activity activity, @NonNull Bundle outState) { }
+
+            @Override
+            public void onActivityDestroyed(@NonNull Activity activity) { }
+        });
+
         // Optional: You can add crash logging, analytics, or performance monitoring here.
     }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // Report artwork is cheap to decode again, so give it back under pressure.
+        ReportAssetCache.getInstance(this).onTrimMemory(level);
+        AudioEngine.getInstance(this).onTrimMemory(level);
+        SongPlayerPool.getInstance(this).onTrimMemory(level);
+    }
+
+    @Override
+    public void onLowMemory() {
+        super.onLowMemory();
+        ReportAssetCache.getInstance(this).clear();
+    }
 }
@@ -79,7 +79,7 @@ public class AddFamilyMemberActivity extends AppCompatActivity
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_add_family_member);
 
-        dbHelper = new DatabaseHelper(this);
+        dbHelper = DatabaseHelper.getInstance(this);
         currentParentId = dbHelper.getCurrentParentLocalId();
 
         imgFamilyPhoto = findViewById(R.id.imgFamilyPhoto);
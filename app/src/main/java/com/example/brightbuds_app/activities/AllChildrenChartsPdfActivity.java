@@ -1,16 +1,13 @@
 package com.example.brightbuds_app.activities;
 
 import android.content.Intent;
-import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.pdf.PdfDocument;
 import android.os.Bundle;
 import android.os.Environment;
 import android.util.Log;
 import android.view.View;
-import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -20,26 +17,23 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.FileProvider;
 
 import com.example.brightbuds_app.R;
-import com.github.mikephil.charting.animation.Easing;
-import com.github.mikephil.charting.charts.BarChart;
-import com.github.mikephil.charting.charts.RadarChart;
-import com.github.mikephil.charting.components.Legend;
-import com.github.mikephil.charting.components.XAxis;
-import com.github.mikephil.charting.components.YAxis;
+import com.example.brightbuds_app.models.ModuleSummary;
+import com.example.brightbuds_app.services.ReportDataLoader;
+import com.example.brightbuds_app.services.ReportRenderEngine;
+import com.example.brightbuds_app.services.ReportRepository;
+import com.example.brightbuds_app.services.StreamingPdfWriter;
+import com.example.brightbuds_app.utils.ChartPageRenderer;
 import com.github.mikephil.charting.data.BarData;
 import com.github.mikephil.charting.data.BarDataSet;
 import com.github.mikephil.charting.data.BarEntry;
 import com.github.mikephil.charting.data.RadarData;
 import com.github.mikephil.charting.data.RadarDataSet;
 import com.github.mikephil.charting.data.RadarEntry;
-import com.github.mikephil.charting.formatter.IndexAxisValueFormatter;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -64,8 +58,10 @@ import java.util.Map;
 public class AllChildrenChartsPdfActivity extends AppCompatActivity {
 
     private static final String TAG = "AllChildrenChartsPdf";
+    private static final String RENDER_KEY = "all_children_charts";
 
-    private FirebaseFirestore db;
+    private ReportRepository reportRepository;
+    private ReportDataLoader reportDataLoader;
     private String parentId;
 
     private TextView tvPdfStatus;
@@ -82,12 +78,19 @@ public class AllChildrenChartsPdfActivity extends AppCompatActivity {
     private final List<ChildPdfData> childDataList = new ArrayList<>();
     private File lastPdfFile;
 
+    // PDF rendering
+    private ReportRenderEngine renderEngine;
+    private final ReportRenderEngine.Listener renderListener = this::onRenderStateChanged;
+    private boolean emailWhenRendered;
+
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_all_children_charts_pdf);
 
-        db = FirebaseFirestore.getInstance();
+        reportRepository = new ReportRepository(this);
+        reportDataLoader = new ReportDataLoader();
+        renderEngine = ReportRenderEngine.getInstance(this);
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
         parentId = user != null ? user.getUid() : null;
 
@@ -121,12 +124,7 @@ public class AllChildrenChartsPdfActivity extends AppCompatActivity {
                         Toast.LENGTH_SHORT).show();
                 return;
             }
-            lastPdfFile = generatePdfForAllChildren();
-            if (lastPdfFile != null) {
-                Toast.makeText(this,
-                        "PDF saved: " + lastPdfFile.getName(),
-                        Toast.LENGTH_SHORT).show();
-            }
+            startPdfRender(false);
         };
 
         // Shared click logic for Email
@@ -137,16 +135,11 @@ public class AllChildrenChartsPdfActivity extends AppCompatActivity {
                         Toast.LENGTH_SHORT).show();
                 return;
             }
-            if (lastPdfFile == null || !lastPdfFile.exists()) {
-                lastPdfFile = generatePdfForAllChildren();
-            }
-            if (lastPdfFile == null) {
-                Toast.makeText(this,
-                        "Unable to generate PDF.",
-                        Toast.LENGTH_SHORT).show();
+            if (lastPdfFile != null && lastPdfFile.exists()) {
+                sharePdfByEmail(lastPdfFile);
                 return;
             }
-            sharePdfByEmail(lastPdfFile);
+            startPdfRender(true);
         };
 
         // Attach listeners to both icons and labels
@@ -159,6 +152,26 @@ public class AllChildrenChartsPdfActivity extends AppCompatActivity {
         loadAllChildProfiles();
     }
 
+    @Override
+    protected void onStart() {
+        super.onStart();
+        renderEngine.addListener(RENDER_KEY, renderListener);
+    }
+
+    @Override
+    protected void onStop() {
+        renderEngine.removeListener(RENDER_KEY, renderListener);
+        super.onStop();
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (isFinishing()) {
+            renderEngine.cancel(RENDER_KEY);
+        }
+        super.onDestroy();
+    }
+
     // region Data loading
 
     private void loadAllChildProfiles() {
@@ -170,482 +183,187 @@ public class AllChildrenChartsPdfActivity extends AppCompatActivity {
         tvPdfStatus.setText("Loading children...");
         childDataList.clear();
 
-        db.collection("child_profiles")
-                .whereEqualTo("parentId", parentId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    for (DocumentSnapshot doc : snapshot) {
-                        String id = doc.getId();
-                        String name = doc.getString("name");
-                        if (name == null) {
-                            name = "";
-                        }
-                        String trimmed = name.trim();
-
-                        // Completed profile rule
-                        if (trimmed.isEmpty()) {
-                            continue;
-                        }
-                        if (trimmed.equals("Child 1")
-                                || trimmed.equals("Child 2")
-                                || trimmed.equals("Child 3")
-                                || trimmed.equals("Child 4")
-                                || trimmed.equals("Child 5")) {
-                            continue;
-                        }
-
-                        ChildPdfData child = new ChildPdfData();
-                        child.childId = id;
-                        child.childName = trimmed;
-                        childDataList.add(child);
-                    }
+        // Profiles and, when the report cache is stale, family metrics in one round trip
+        boolean includeMetrics = reportRepository.needsCloudRefresh(parentId);
+        reportDataLoader.loadFamily(parentId, includeMetrics, new ReportDataLoader.Callback() {
+            @Override
+            public void onLoaded(ReportDataLoader.ReportData result) {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
 
-                    if (childDataList.isEmpty()) {
-                        tvPdfStatus.setText("No completed child profiles to include.");
-                        return;
+                for (DocumentSnapshot doc : result.getProfiles()) {
+                    String id = doc.getId();
+                    String name = doc.getString("name");
+                    if (name == null) {
+                        name = "";
                     }
+                    String trimmed = name.trim();
 
-                    tvPdfStatus.setText("Loading analytics and progress...");
-                    loadMetricsForChildIndex(0);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to load child_profiles", e);
-                    tvPdfStatus.setText("Failed to load children.");
-                    Toast.makeText(this, "Failed to load children", Toast.LENGTH_SHORT).show();
-                });
-    }
-
-    private void loadMetricsForChildIndex(int index) {
-        if (index >= childDataList.size()) {
-            tvPdfStatus.setText("Data ready. Tap Download or Email PDF.");
-            return;
-        }
-
-        ChildPdfData child = childDataList.get(index);
-
-        // Load analytics first
-        db.collection("child_analytics")
-                .whereEqualTo("child_id", child.childId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    double totalScore = 0.0;
-                    double totalAccuracy = 0.0;
-                    double totalTimeMs = 0.0;
-                    int count = 0;
-
-                    for (DocumentSnapshot doc : snapshot) {
-                        Double avgScore = doc.getDouble("avgScore");
-                        Double accuracy = doc.getDouble("accuracy");
-                        Double avgTimeMs = doc.getDouble("avgTimeMs");
-
-                        if (avgScore != null) totalScore += avgScore;
-                        if (accuracy != null) totalAccuracy += accuracy;
-                        if (avgTimeMs != null) totalTimeMs += avgTimeMs;
-                        count++;
+                    // Completed profile rule
+                    if (trimmed.isEmpty()) {
+                        continue;
                     }
-
-                    if (count > 0) {
-                        child.overallAvgScore = totalScore / count;
-                        child.overallAccuracyFraction = totalAccuracy / count;
-                        child.overallAvgTimeSeconds = (totalTimeMs / count) / 1000.0;
+                    if (trimmed.equals("Child 1")
+                            || trimmed.equals("Child 2")
+                            || trimmed.equals("Child 3")
+                            || trimmed.equals("Child 4")
+                            || trimmed.equals("Child 5")) {
+                        continue;
                     }
 
-                    // Now load progress
-                    loadProgressForChildIndex(index, child);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to load child_analytics for " + child.childId, e);
-                    loadProgressForChildIndex(index, child);
-                });
-    }
-
-    private void loadProgressForChildIndex(int index, ChildPdfData child) {
-        db.collection("child_progress")
-                .whereEqualTo("child_id", child.childId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    Map<String, ModuleMetrics> moduleMap = new HashMap<>();
-
-                    for (DocumentSnapshot doc : snapshot) {
-                        String moduleId = doc.getString("module_id");
-                        if (moduleId == null) {
-                            continue;
-                        }
-
-                        Long stars = doc.getLong("stars");
-                        Long plays = doc.getLong("totalPlays");
-                        Long timeMs = doc.getLong("totalTimeMs");
-                        Long lastScore = doc.getLong("lastScore");
+                    ChildPdfData child = new ChildPdfData();
+                    child.childId = id;
+                    child.childName = trimmed;
+                    childDataList.add(child);
+                }
 
-                        ModuleMetrics mm = moduleMap.get(moduleId);
-                        if (mm == null) {
-                            mm = new ModuleMetrics();
-                            mm.moduleId = moduleId;
-                            moduleMap.put(moduleId, mm);
-                        }
-                        if (stars != null) mm.totalStars += stars.intValue();
-                        if (timeMs != null) mm.totalTimeMs += timeMs;
-                        if (plays != null) mm.totalPlays += plays.intValue();
-                        if (lastScore != null) {
-                            mm.totalScore += lastScore.intValue();
-                            mm.scoreCount += 1;
-                        }
-                    }
+                if (childDataList.isEmpty()) {
+                    tvPdfStatus.setText("No completed child profiles to include.");
+                    return;
+                }
 
-                    child.moduleMetricsMap = moduleMap;
+                tvPdfStatus.setText("Loading analytics and progress...");
+                loadMetricsForAllChildren(result);
+            }
 
-                    // Next child
-                    loadMetricsForChildIndex(index + 1);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to load child_progress for " + child.childId, e);
-                    loadMetricsForChildIndex(index + 1);
-                });
+            @Override
+            public void onFailure(Exception e) {
+                Log.e(TAG, "Failed to load child_profiles", e);
+                tvPdfStatus.setText("Failed to load children.");
+                Toast.makeText(AllChildrenChartsPdfActivity.this, "Failed to load children", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
-    // endregion
-
-    // region PDF generation
-
-    private File generatePdfForAllChildren() {
-        if (childDataList.isEmpty()) {
-            Toast.makeText(this, "No completed profiles to include.", Toast.LENGTH_SHORT).show();
-            return null;
+    // Loads module metrics for every child from the local report store in one query
+    private void loadMetricsForAllChildren(ReportDataLoader.ReportData prefetched) {
+        List<String> childIds = new ArrayList<>();
+        for (ChildPdfData child : childDataList) {
+            childIds.add(child.childId);
         }
 
-        PdfDocument pdf = new PdfDocument();
-
-        int pageWidth = 595;  // approx A4 at 72 dpi
-        int pageHeight = 842;
-        int margin = 40;
-
-        Paint textPaint = new Paint();
-        textPaint.setColor(Color.BLACK);
-        textPaint.setTextSize(12f);
-
-        Paint headingPaint = new Paint();
-        headingPaint.setColor(Color.BLACK);
-        headingPaint.setTextSize(16f);
-        headingPaint.setFakeBoldText(true);
-
-        Paint titlePaint = new Paint();
-        titlePaint.setColor(Color.BLACK);
-        titlePaint.setTextSize(20f);
-        titlePaint.setFakeBoldText(true);
-
-        Paint linePaint = new Paint();
-        linePaint.setColor(Color.LTGRAY);
-        linePaint.setStrokeWidth(1f);
-
-        // Start first page
-        PdfDocument.PageInfo pageInfo =
-                new PdfDocument.PageInfo.Builder(pageWidth, pageHeight, 1).create();
-        PdfDocument.Page page = pdf.startPage(pageInfo);
-        Canvas canvas = page.getCanvas();
-
-        int y = margin;
-
-        // Overall title
-        canvas.drawText("BrightBuds - All Children Charts Report", margin, y, titlePaint);
-        y += 30;
-
-        for (int i = 0; i < childDataList.size(); i++) {
-            ChildPdfData child = childDataList.get(i);
-
-            // New section - check page space
-            if (y > pageHeight - 350) {
-                pdf.finishPage(page);
-                pageInfo = new PdfDocument.PageInfo.Builder(pageWidth, pageHeight,
-                        pdf.getPages().size() + 1).create();
-                page = pdf.startPage(pageInfo);
-                canvas = page.getCanvas();
-                y = margin;
+        reportRepository.loadModuleSummaries(parentId, childIds, prefetched, (summariesByChild, refreshed) -> {
+            if (isFinishing() || isDestroyed()) {
+                return;
             }
-
-            // Child name heading
-            canvas.drawText("Child: " + child.childName, margin, y, headingPaint);
-            y += 20;
-
-            // Metrics summary
-            String metricsLine1 = String.format(
-                    Locale.US,
-                    "Average score: %.1f%%   Accuracy: %.1f%%   Speed score: %.1f",
-                    child.overallAvgScore,
-                    child.overallAccuracyFraction * 100.0,
-                    computeSpeedScore(child.overallAvgTimeSeconds)
-            );
-            canvas.drawText(metricsLine1, margin, y, textPaint);
-            y += 18;
-
-            int totalStarsAll = 0;
-            int totalPlaysAll = 0;
-            long totalTimeMsAll = 0;
-            if (child.moduleMetricsMap != null) {
-                for (ModuleMetrics mm : child.moduleMetricsMap.values()) {
-                    totalStarsAll += mm.totalStars;
-                    totalPlaysAll += mm.totalPlays;
-                    totalTimeMsAll += mm.totalTimeMs;
-                }
+            for (ChildPdfData child : childDataList) {
+                applySummaries(child, summariesByChild.get(child.childId));
             }
-            double totalMinutes = totalTimeMsAll / 60000.0;
-            String metricsLine2 = String.format(
-                    Locale.US,
-                    "Total stars: %d   Total plays: %d   Time spent: %.1f min",
-                    totalStarsAll,
-                    totalPlaysAll,
-                    totalMinutes
-            );
-            canvas.drawText(metricsLine2, margin, y, textPaint);
-            y += 24;
-
-            // Chart area width and height
-            int chartWidth = pageWidth - 2 * margin;
-            int chartHeight = 140;
+            // Any earlier file was built from older numbers
+            lastPdfFile = null;
+            tvPdfStatus.setText("Data ready. Tap Download or Email PDF.");
+        });
+    }
 
-            // Chart 1 - Stars per module
-            Bitmap starsBitmap = buildStarsPerModuleBitmap(child, chartWidth, chartHeight);
-            if (starsBitmap != null) {
-                if (y + chartHeight > pageHeight - margin) {
-                    pdf.finishPage(page);
-                    pageInfo = new PdfDocument.PageInfo.Builder(pageWidth, pageHeight,
-                            pdf.getPages().size() + 1).create();
-                    page = pdf.startPage(pageInfo);
-                    canvas = page.getCanvas();
-                    y = margin;
-                }
-                canvas.drawBitmap(starsBitmap, margin, y, null);
-                y += chartHeight + 14;
-                canvas.drawText(
-                        "This chart shows where your child is earning the most stars. Higher bars mean more consistent success in those modules.",
-                        margin,
-                        y,
-                        textPaint
-                );
-                y += 32;
+    private void applySummaries(ChildPdfData child, @Nullable List<ModuleSummary> summaries) {
+        Map<String, ModuleMetrics> moduleMap = new HashMap<>();
+        child.overallAvgScore = 0.0;
+        child.overallAccuracyFraction = 0.0;
+        child.overallAvgTimeSeconds = 0.0;
+
+        if (summaries != null && !summaries.isEmpty()) {
+            double totalScore = 0.0;
+            double totalAccuracy = 0.0;
+            double totalTimeMs = 0.0;
+
+            for (ModuleSummary s : summaries) {
+                totalScore += s.getAverageScore();
+                totalAccuracy += s.getAccuracyRatio();
+                totalTimeMs += s.getAverageTimeMs();
+
+                ModuleMetrics mm = new ModuleMetrics();
+                mm.moduleId = s.getModuleId();
+                mm.totalStars = s.getTotalStars();
+                mm.totalPlays = s.getTotalPlays();
+                mm.totalTimeMs = s.getTotalTimeMs();
+                mm.totalScore = s.getTotalScore();
+                mm.scoreCount = s.getSessionCount();
+                moduleMap.put(mm.moduleId, mm);
             }
 
-            // Chart 2 - Time per module
-            Bitmap timeBitmap = buildTimePerModuleBitmap(child, chartWidth, chartHeight);
-            if (timeBitmap != null) {
-                if (y + chartHeight > pageHeight - margin) {
-                    pdf.finishPage(page);
-                    pageInfo = new PdfDocument.PageInfo.Builder(pageWidth, pageHeight,
-                            pdf.getPages().size() + 1).create();
-                    page = pdf.startPage(pageInfo);
-                    canvas = page.getCanvas();
-                    y = margin;
-                }
-                canvas.drawBitmap(timeBitmap, margin, y, null);
-                y += chartHeight + 14;
-                canvas.drawText(
-                        "This chart shows how your child’s time is spread across activities. Taller bars show modules where your child spends more time learning.",
-                        margin,
-                        y,
-                        textPaint
-                );
-                y += 32;
-            }
+            int count = summaries.size();
+            child.overallAvgScore = totalScore / count;
+            child.overallAccuracyFraction = totalAccuracy / count;
+            child.overallAvgTimeSeconds = (totalTimeMs / count) / 1000.0;
+        }
 
-            // Chart 3 - Radar (score, accuracy, speed)
-            Bitmap radarBitmap = buildRadarBitmap(child, chartWidth, chartHeight);
-            if (radarBitmap != null) {
-                if (y + chartHeight > pageHeight - margin) {
-                    pdf.finishPage(page);
-                    pageInfo = new PdfDocument.PageInfo.Builder(pageWidth, pageHeight,
-                            pdf.getPages().size() + 1).create();
-                    page = pdf.startPage(pageInfo);
-                    canvas = page.getCanvas();
-                    y = margin;
-                }
-                canvas.drawBitmap(radarBitmap, margin, y, null);
-                y += chartHeight + 14;
-                canvas.drawText(
-                        "This chart combines accuracy, score and speed. A larger shape towards the outer edges indicates stronger performance across all three aspects.",
-                        margin,
-                        y,
-                        textPaint
-                );
-                y += 34;
-            }
+        child.moduleMetricsMap = moduleMap;
+    }
 
-            // Divider line between children
-            canvas.drawLine(margin, y, pageWidth - margin, y, linePaint);
-            y += 20;
-        }
+    // endregion
 
-        pdf.finishPage(page);
+    // region PDF generation
 
+    // Rendering runs on the report engine thread; the result arrives in onRenderStateChanged
+    private void startPdfRender(boolean emailWhenDone) {
         File dir = getExternalFilesDir(Environment.DIRECTORY_DOCUMENTS);
         if (dir == null) {
             dir = getFilesDir();
         }
 
         File file = new File(dir, "BrightBuds_AllChildrenChartsReport.pdf");
-        try (FileOutputStream out = new FileOutputStream(file)) {
-            pdf.writeTo(out);
-            pdf.close();
-            tvPdfStatus.setText("PDF generated.");
-            return file;
-        } catch (IOException e) {
-            Log.e(TAG, "Failed to save PDF", e);
-            pdf.close();
-            Toast.makeText(this, "Failed to save PDF", Toast.LENGTH_SHORT).show();
-            return null;
-        }
-    }
-
-    // endregion
-
-    // region Chart bitmaps
-
-    private Bitmap buildStarsPerModuleBitmap(ChildPdfData child, int width, int height) {
-        if (child.moduleMetricsMap == null || child.moduleMetricsMap.isEmpty()) {
-            return null;
-        }
-
-        List<BarEntry> entries = new ArrayList<>();
-        List<String> labels = new ArrayList<>();
-        int index = 0;
-        for (ModuleMetrics mm : child.moduleMetricsMap.values()) {
-            entries.add(new BarEntry(index, mm.totalStars));
-            labels.add(moduleIdToLabel(mm.moduleId));
-            index++;
-        }
-
-        BarDataSet dataSet = new BarDataSet(entries, "Stars per module");
-        dataSet.setColor(Color.parseColor("#FFC107"));
-        dataSet.setValueTextColor(Color.WHITE);
-        dataSet.setValueTextSize(8f);
-
-        BarData data = new BarData(dataSet);
-        data.setBarWidth(0.6f);
-
-        BarChart chart = new BarChart(this);
-        configureBarChart(chart, labels);
-        chart.setData(data);
-        chart.animateY(1000, Easing.EaseInOutQuad);
-
-        return renderChartToBitmap(chart, width, height);
-    }
-
-    private Bitmap buildTimePerModuleBitmap(ChildPdfData child, int width, int height) {
-        if (child.moduleMetricsMap == null || child.moduleMetricsMap.isEmpty()) {
-            return null;
-        }
-
-        List<BarEntry> entries = new ArrayList<>();
-        List<String> labels = new ArrayList<>();
-        int index = 0;
-        for (ModuleMetrics mm : child.moduleMetricsMap.values()) {
-            double minutes = mm.totalTimeMs / 60000.0;
-            entries.add(new BarEntry(index, (float) minutes));
-            labels.add(moduleIdToLabel(mm.moduleId));
-            index++;
-        }
-
-        BarDataSet dataSet = new BarDataSet(entries, "Time per module (min)");
-        dataSet.setColor(Color.parseColor("#03A9F4"));
-        dataSet.setValueTextColor(Color.WHITE);
-        dataSet.setValueTextSize(8f);
-
-        BarData data = new BarData(dataSet);
-        data.setBarWidth(0.6f);
 
-        BarChart chart = new BarChart(this);
-        configureBarChart(chart, labels);
-        chart.setData(data);
-        chart.animateX(1000, Easing.EaseInOutQuad);
-
-        return renderChartToBitmap(chart, width, height);
+        emailWhenRendered = emailWhenDone;
+        // Children render as parallel sections on multi core devices. Each
+        // child then starts on a new page, so the page count can differ from
+        // a serial render of the same report.
+        boolean parallel = Runtime.getRuntime().availableProcessors() > 1;
+        renderEngine.submit(RENDER_KEY, file, new ChartsReportJob(childDataList, parallel));
     }
 
-    private Bitmap buildRadarBitmap(ChildPdfData child, int width, int height) {
-        List<RadarEntry> entries = new ArrayList<>();
-
-        float score = (float) child.overallAvgScore;
-        float accuracyPercent = (float) (child.overallAccuracyFraction * 100.0);
-        float speedScore = computeSpeedScore(child.overallAvgTimeSeconds);
-
-        entries.add(new RadarEntry(score));
-        entries.add(new RadarEntry(accuracyPercent));
-        entries.add(new RadarEntry(speedScore));
-
-        RadarDataSet set = new RadarDataSet(entries, child.childName);
-        set.setLineWidth(2f);
-        set.setDrawFilled(true);
-        set.setFillAlpha(120);
-        set.setValueTextSize(8f);
-        set.setValueTextColor(Color.WHITE);
+    private void onRenderStateChanged(ReportRenderEngine.RenderState state) {
+        boolean running = state.status == ReportRenderEngine.Status.RUNNING;
+        iconDownloadPdf.setEnabled(!running);
+        tvDownloadLabel.setEnabled(!running);
+        iconEmailPdf.setEnabled(!running);
+        tvEmailLabel.setEnabled(!running);
+
+        switch (state.status) {
+            case RUNNING:
+                tvPdfStatus.setText(state.unitsTotal > 0
+                        ? "Generating PDF... child " + state.unitsDone + " of " + state.unitsTotal
+                        : "Generating PDF...");
+                break;
+
+            case COMPLETED:
+                lastPdfFile = state.file;
+                renderEngine.clearState(RENDER_KEY);
+                if (lastPdfFile == null) {
+                    break;
+                }
+                tvPdfStatus.setText("PDF generated.");
+                Toast.makeText(this,
+                        "PDF saved: " + lastPdfFile.getName(),
+                        Toast.LENGTH_SHORT).show();
 
-        int color = pickColorForName(child.childName);
-        set.setColor(color);
-        set.setFillColor(color);
+                if (emailWhenRendered) {
+                    emailWhenRendered = false;
+                    sharePdfByEmail(lastPdfFile);
+                }
+                break;
 
-        RadarData radarData = new RadarData(set);
+            case FAILED:
+                emailWhenRendered = false;
+                renderEngine.clearState(RENDER_KEY);
+                tvPdfStatus.setText("Failed to generate PDF.");
+                Toast.makeText(this, "Failed to save PDF", Toast.LENGTH_SHORT).show();
+                break;
 
-        RadarChart radar = new RadarChart(this);
-        configureRadarChart(radar);
-        radar.setData(radarData);
-        String[] labels = new String[]{"Avg score", "Accuracy", "Speed"};
-        radar.getXAxis().setValueFormatter(new IndexAxisValueFormatter(labels));
-        radar.animateXY(1200, 1200, Easing.EaseInOutQuad, Easing.EaseInOutQuad);
+            case CANCELLED:
+                tvPdfStatus.setText("PDF generation cancelled.");
+                break;
 
-        return renderChartToBitmap(radar, width, height);
+            default:
+                break;
+        }
     }
 
-    private Bitmap renderChartToBitmap(com.github.mikephil.charting.charts.Chart<?> chart,
-                                       int width,
-                                       int height) {
-        chart.setLayoutParams(new ViewGroup.LayoutParams(width, height));
-        int widthSpec = ViewGroup.MeasureSpec.makeMeasureSpec(width, ViewGroup.MeasureSpec.EXACTLY);
-        int heightSpec = ViewGroup.MeasureSpec.makeMeasureSpec(height, ViewGroup.MeasureSpec.EXACTLY);
-        chart.measure(widthSpec, heightSpec);
-        chart.layout(0, 0, width, height);
-        return chart.getChartBitmap();
-    }
+    // endregion
 
-    private void configureBarChart(BarChart chart, List<String> xLabels) {
-        chart.getDescription().setEnabled(false);
-        chart.setDrawGridBackground(false);
-        chart.setTouchEnabled(false);
-        chart.setNoDataText("No data");
-        chart.getAxisRight().setEnabled(false);
-
-        XAxis xAxis = chart.getXAxis();
-        xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
-        xAxis.setGranularity(1f);
-        xAxis.setDrawGridLines(false);
-        xAxis.setTextColor(Color.WHITE);
-        xAxis.setValueFormatter(new IndexAxisValueFormatter(xLabels));
-
-        YAxis left = chart.getAxisLeft();
-        left.setTextColor(Color.WHITE);
-        left.setAxisMinimum(0f);
-
-        Legend legend = chart.getLegend();
-        legend.setTextColor(Color.WHITE);
-    }
+    // region Chart helpers
 
-    private void configureRadarChart(RadarChart radar) {
-        radar.getDescription().setEnabled(false);
-        radar.setDrawWeb(true);
-        radar.setWebLineWidth(0.5f);
-        radar.setWebColor(Color.LTGRAY);
-        radar.setWebLineWidthInner(0.4f);
-        radar.setWebColorInner(Color.LTGRAY);
-        radar.setWebAlpha(120);
-        radar.setTouchEnabled(false);
-
-        radar.getYAxis().setAxisMinimum(0f);
-        radar.getYAxis().setAxisMaximum(100f);
-        radar.getYAxis().setTextColor(Color.WHITE);
-        radar.getXAxis().setTextColor(Color.WHITE);
-
-        Legend legend = radar.getLegend();
-        legend.setTextColor(Color.WHITE);
-    }
-
-    private float computeSpeedScore(double avgTimeSeconds) {
+    private static float computeSpeedScore(double avgTimeSeconds) {
         if (avgTimeSeconds <= 0) return 0f;
         double t = avgTimeSeconds;
         double raw = 120.0 - t;
@@ -653,7 +371,7 @@ public class AllChildrenChartsPdfActivity extends AppCompatActivity {
         return (float) raw;
     }
 
-    private int pickColorForName(String name) {
+    private static int pickColorForName(String name) {
         int hash = name.hashCode();
         int r = 80 + Math.abs(hash % 120);
         int g = 80 + Math.abs((hash / 31) % 120);
@@ -662,7 +380,7 @@ public class AllChildrenChartsPdfActivity extends AppCompatActivity {
     }
 
     // Convert module_id to friendly label
-    private String moduleIdToLabel(String moduleId) {
+    private static String moduleIdToLabel(String moduleId) {
         if (moduleId == null) {
             return "Module";
         }
@@ -759,7 +477,8 @@ public class AllChildrenChartsPdfActivity extends AppCompatActivity {
 
     // region Helper classes
 
-    private static class ChildPdfData {
+    // Package private for ChartsReportBenchmarkTest
+    static class ChildPdfData {
         String childId;
         String childName;
 
@@ -768,9 +487,23 @@ public class AllChildrenChartsPdfActivity extends AppCompatActivity {
         double overallAvgTimeSeconds;
 
         Map<String, ModuleMetrics> moduleMetricsMap = new HashMap<>();
+
+        // Render jobs get their own copy; a cloud refresh rewrites these fields
+        ChildPdfData copy() {
+            ChildPdfData c = new ChildPdfData();
+            c.childId = childId;
+            c.childName = childName;
+            c.overallAvgScore = overallAvgScore;
+            c.overallAccuracyFraction = overallAccuracyFraction;
+            c.overallAvgTimeSeconds = overallAvgTimeSeconds;
+            c.moduleMetricsMap = moduleMetricsMap != null
+                    ? new HashMap<>(moduleMetricsMap)
+                    : new HashMap<>();
+            return c;
+        }
     }
 
-    private static class ModuleMetrics {
+    static class ModuleMetrics {
         String moduleId;
         int totalStars;
         int totalPlays;
@@ -779,5 +512,319 @@ public class AllChildrenChartsPdfActivity extends AppCompatActivity {
         int scoreCount;
     }
 
+    /**
+     * Draws the charts report for a snapshot of the children. Charts are
+     * built with the application context and never attached to a window,
+     * so the whole job can run off the main thread.
+     *
+     * In parallel mode every child is a section of its own: it starts on a
+     * new page, renders on the engine's section pool and is merged back in
+     * child order. Serial mode flows children one after another on the
+     * render thread, as before, and lets a child share a page with the one
+     * before it when there is room. The two modes therefore paginate
+     * differently: a parallel report never puts two children on one page
+     * and can run to more pages.
+     */
+    static final class ChartsReportJob implements ReportRenderEngine.ReportJob {
+
+        private static final int PAGE_WIDTH = 595;  // approx A4 at 72 dpi
+        private static final int PAGE_HEIGHT = 842;
+        private static final int MARGIN = 40;
+
+        private static final int CHART_WIDTH = PAGE_WIDTH - 2 * MARGIN;
+        private static final int CHART_HEIGHT = 140;
+        private static final String[] RADAR_LABELS = {"Avg score", "Accuracy", "Speed"};
+
+        private final List<ChildPdfData> children;
+        private final boolean parallel;
+
+        // Chart views are expensive, so section threads share them through this pool
+        private final List<ChartPageRenderer> idleCharts = new ArrayList<>();
+
+        ChartsReportJob(List<ChildPdfData> children, boolean parallel) {
+            this.children = new ArrayList<>(children.size());
+            for (ChildPdfData child : children) {
+                this.children.add(child.copy());
+            }
+            this.parallel = parallel;
+        }
+
+        @Override
+        public void render(ReportRenderEngine.RenderContext renderContext) throws Exception {
+            if (parallel && children.size() > 1) {
+                renderParallel(renderContext);
+            } else {
+                renderSerial(renderContext);
+            }
+        }
+
+        private void renderSerial(ReportRenderEngine.RenderContext renderContext) throws Exception {
+            ChartPageRenderer charts =
+                    new ChartPageRenderer(renderContext.getAppContext(), CHART_WIDTH, CHART_HEIGHT);
+            PageCursor page = new PageCursor(renderContext.openPdf(PAGE_WIDTH, PAGE_HEIGHT));
+
+            // Start first page
+            page.newPage();
+            drawTitle(page);
+
+            for (int i = 0; i < children.size(); i++) {
+                renderContext.throwIfCancelled();
+                drawChild(page, charts, children.get(i), true);
+                renderContext.setProgress(i + 1, children.size());
+            }
+
+            page.writer.finishPage();
+        }
+
+        private void renderParallel(ReportRenderEngine.RenderContext renderContext) throws Exception {
+            List<ReportRenderEngine.Section> sections = new ArrayList<>(children.size());
+            for (int i = 0; i < children.size(); i++) {
+                ChildPdfData child = children.get(i);
+                boolean first = i == 0;
+                sections.add(writer -> {
+                    renderContext.throwIfCancelled();
+                    ChartPageRenderer charts = acquireCharts(renderContext);
+                    try {
+                        PageCursor page = new PageCursor(writer);
+                        page.newPage();
+                        if (first) {
+                            drawTitle(page);
+                        }
+                        drawChild(page, charts, child, false);
+                    } finally {
+                        releaseCharts(charts);
+                    }
+                });
+            }
+            renderContext.renderSections(PAGE_WIDTH, PAGE_HEIGHT, sections);
+        }
+
+        private ChartPageRenderer acquireCharts(ReportRenderEngine.RenderContext renderContext) {
+            synchronized (idleCharts) {
+                if (!idleCharts.isEmpty()) {
+                    return idleCharts.remove(idleCharts.size() - 1);
+                }
+            }
+            return new ChartPageRenderer(renderContext.getAppContext(), CHART_WIDTH, CHART_HEIGHT);
+        }
+
+        private void releaseCharts(ChartPageRenderer charts) {
+            synchronized (idleCharts) {
+                idleCharts.add(charts);
+            }
+        }
+
+        private void drawTitle(PageCursor page) {
+            // Overall title
+            page.canvas.drawText("BrightBuds - All Children Charts Report", MARGIN, page.y, page.titlePaint);
+            page.y += 30;
+        }
+
+        private void drawChild(PageCursor page, ChartPageRenderer charts,
+                               ChildPdfData child, boolean mayShareFirstPage) throws IOException {
+            // New section - check page space
+            if (mayShareFirstPage && page.y > PAGE_HEIGHT - 350) {
+                page.newPage();
+            }
+
+            // Child name heading
+            page.canvas.drawText("Child: " + child.childName, MARGIN, page.y, page.headingPaint);
+            page.y += 20;
+
+            // Metrics summary
+            String metricsLine1 = String.format(
+                    Locale.US,
+                    "Average score: %.1f%%   Accuracy: %.1f%%   Speed score: %.1f",
+                    child.overallAvgScore,
+                    child.overallAccuracyFraction * 100.0,
+                    computeSpeedScore(child.overallAvgTimeSeconds)
+            );
+            page.canvas.drawText(metricsLine1, MARGIN, page.y, page.textPaint);
+            page.y += 18;
+
+            int totalStarsAll = 0;
+            int totalPlaysAll = 0;
+            long totalTimeMsAll = 0;
+            if (child.moduleMetricsMap != null) {
+                for (ModuleMetrics mm : child.moduleMetricsMap.values()) {
+                    totalStarsAll += mm.totalStars;
+                    totalPlaysAll += mm.totalPlays;
+                    totalTimeMsAll += mm.totalTimeMs;
+                }
+            }
+            double totalMinutes = totalTimeMsAll / 60000.0;
+            String metricsLine2 = String.format(
+                    Locale.US,
+                    "Total stars: %d   Total plays: %d   Time spent: %.1f min",
+                    totalStarsAll,
+                    totalPlaysAll,
+                    totalMinutes
+            );
+            page.canvas.drawText(metricsLine2, MARGIN, page.y, page.textPaint);
+            page.y += 24;
+
+            boolean hasModules = child.moduleMetricsMap != null
+                    && !child.moduleMetricsMap.isEmpty();
+            List<String> moduleLabels = hasModules ? buildModuleLabels(child) : null;
+
+            // Chart 1 - Stars per module
+            if (hasModules) {
+                page.ensureChartSpace();
+                charts.drawBarChart(page.canvas, MARGIN, page.y, buildStarsPerModuleData(child), moduleLabels);
+                page.y += CHART_HEIGHT + 14;
+                page.canvas.drawText(
+                        "This chart shows where your child is earning the most stars. Higher bars mean more consistent success in those modules.",
+                        MARGIN,
+                        page.y,
+                        page.textPaint
+                );
+                page.y += 32;
+            }
+
+            // Chart 2 - Time per module
+            if (hasModules) {
+                page.ensureChartSpace();
+                charts.drawBarChart(page.canvas, MARGIN, page.y, buildTimePerModuleData(child), moduleLabels);
+                page.y += CHART_HEIGHT + 14;
+                page.canvas.drawText(
+                        "This chart shows how your child’s time is spread across activities. Taller bars show modules where your child spends more time learning.",
+                        MARGIN,
+                        page.y,
+                        page.textPaint
+                );
+                page.y += 32;
+            }
+
+            // Chart 3 - Radar (score, accuracy, speed)
+            page.ensureChartSpace();
+            charts.drawRadarChart(page.canvas, MARGIN, page.y, buildRadarData(child), RADAR_LABELS);
+            page.y += CHART_HEIGHT + 14;
+            page.canvas.drawText(
+                    "This chart combines accuracy, score and speed. A larger shape towards the outer edges indicates stronger performance across all three aspects.",
+                    MARGIN,
+                    page.y,
+                    page.textPaint
+            );
+            page.y += 34;
+
+            // Divider line between children
+            page.canvas.drawLine(MARGIN, page.y, PAGE_WIDTH - MARGIN, page.y, page.linePaint);
+            page.y += 20;
+        }
+
+        /** Writer, current canvas, y position and paints of one document. */
+        private static final class PageCursor {
+            final StreamingPdfWriter writer;
+            final Paint textPaint = new Paint();
+            final Paint headingPaint = new Paint();
+            final Paint titlePaint = new Paint();
+            final Paint linePaint = new Paint();
+            Canvas canvas;
+            int y;
+
+            PageCursor(StreamingPdfWriter writer) {
+                this.writer = writer;
+
+                textPaint.setColor(Color.BLACK);
+                textPaint.setTextSize(12f);
+
+                headingPaint.setColor(Color.BLACK);
+                headingPaint.setTextSize(16f);
+                headingPaint.setFakeBoldText(true);
+
+                titlePaint.setColor(Color.BLACK);
+                titlePaint.setTextSize(20f);
+                titlePaint.setFakeBoldText(true);
+
+                linePaint.setColor(Color.LTGRAY);
+                linePaint.setStrokeWidth(1f);
+            }
+
+            void newPage() throws IOException {
+                canvas = writer.startPage();
+                y = MARGIN;
+            }
+
+            void ensureChartSpace() throws IOException {
+                if (y + CHART_HEIGHT > PAGE_HEIGHT - MARGIN) {
+                    newPage();
+                }
+            }
+        }
+
+        // Charts are drawn without animation; animators need a looper
+        // thread and would only show the first frame anyway.
+
+        private List<String> buildModuleLabels(ChildPdfData child) {
+            List<String> labels = new ArrayList<>();
+            for (ModuleMetrics mm : child.moduleMetricsMap.values()) {
+                labels.add(moduleIdToLabel(mm.moduleId));
+            }
+            return labels;
+        }
+
+        private BarData buildStarsPerModuleData(ChildPdfData child) {
+            List<BarEntry> entries = new ArrayList<>();
+            int index = 0;
+            for (ModuleMetrics mm : child.moduleMetricsMap.values()) {
+                entries.add(new BarEntry(index, mm.totalStars));
+                index++;
+            }
+
+            BarDataSet dataSet = new BarDataSet(entries, "Stars per module");
+            dataSet.setColor(Color.parseColor("#FFC107"));
+            dataSet.setValueTextColor(Color.WHITE);
+            dataSet.setValueTextSize(8f);
+
+            BarData data = new BarData(dataSet);
+            data.setBarWidth(0.6f);
+            return data;
+        }
+
+        private BarData buildTimePerModuleData(ChildPdfData child) {
+            List<BarEntry> entries = new ArrayList<>();
+            int index = 0;
+            for (ModuleMetrics mm : child.moduleMetricsMap.values()) {
+                double minutes = mm.totalTimeMs / 60000.0;
+                entries.add(new BarEntry(index, (float) minutes));
+                index++;
+            }
+
+            BarDataSet dataSet = new BarDataSet(entries, "Time per module (min)");
+            dataSet.setColor(Color.parseColor("#03A9F4"));
+            dataSet.setValueTextColor(Color.WHITE);
+            dataSet.setValueTextSize(8f);
+
+            BarData data = new BarData(dataSet);
+            data.setBarWidth(0.6f);
+            return data;
+        }
+
+        private RadarData buildRadarData(ChildPdfData child) {
+            List<RadarEntry> entries = new ArrayList<>();
+
+            float score = (float) child.overallAvgScore;
+            float accuracyPercent = (float) (child.overallAccuracyFraction * 100.0);
+            float speedScore = computeSpeedScore(child.overallAvgTimeSeconds);
+
+            entries.add(new RadarEntry(score));
+            entries.add(new RadarEntry(accuracyPercent));
+            entries.add(new RadarEntry(speedScore));
+
+            RadarDataSet set = new RadarDataSet(entries, child.childName);
+            set.setLineWidth(2f);
+            set.setDrawFilled(true);
+            set.setFillAlpha(120);
+            set.setValueTextSize(8f);
+            set.setValueTextColor(Color.WHITE);
+
+            int color = pickColorForName(child.childName);
+            set.setColor(color);
+            set.setFillColor(color);
+
+            return new RadarData(set);
+        }
+    }
+
     // endregion
 }
@@ -1,13 +1,7 @@
 package com.example.brightbuds_app.activities;
 
 import android.content.Intent;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.Rect;
-import android.graphics.pdf.PdfDocument;
 import android.os.Bundle;
 import android.os.Environment;
 import android.util.Log;
@@ -24,14 +18,16 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.FileProvider;
 
 import com.example.brightbuds_app.R;
+import com.example.brightbuds_app.services.ITextReportWriter;
+import com.example.brightbuds_app.services.ReportDataLoader;
+import com.example.brightbuds_app.services.ReportRenderEngine;
+import com.example.brightbuds_app.services.ReportRepository;
+import com.example.brightbuds_app.utils.ReportAssetCache;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -48,8 +44,10 @@ import java.util.List;
 public class AllChildrenReportActivity extends AppCompatActivity {
 
     private static final String TAG = "AllChildrenReportAct";
+    private static final String RENDER_KEY = "all_children_report";
 
-    private FirebaseFirestore db;
+    private ReportDataLoader reportDataLoader;
+    private ReportRepository reportRepository;
     private String parentId;
 
     private LinearLayout layoutTablesContainer;
@@ -63,12 +61,19 @@ public class AllChildrenReportActivity extends AppCompatActivity {
 
     private File lastAllChildrenPdf;
 
+    // PDF rendering
+    private ReportRenderEngine renderEngine;
+    private final ReportRenderEngine.Listener renderListener = this::onRenderStateChanged;
+    private boolean emailWhenRendered;
+
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_all_children_report);
 
-        db = FirebaseFirestore.getInstance();
+        reportDataLoader = new ReportDataLoader();
+        reportRepository = new ReportRepository(this);
+        renderEngine = ReportRenderEngine.getInstance(this);
         parentId = FirebaseAuth.getInstance().getUid();
 
         layoutTablesContainer = findViewById(R.id.layoutTablesContainerAll);
@@ -98,6 +103,26 @@ public class AllChildrenReportActivity extends AppCompatActivity {
         loadAllChildrenSummary();
     }
 
+    @Override
+    protected void onStart() {
+        super.onStart();
+        renderEngine.addListener(RENDER_KEY, renderListener);
+    }
+
+    @Override
+    protected void onStop() {
+        renderEngine.removeListener(RENDER_KEY, renderListener);
+        super.onStop();
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (isFinishing()) {
+            renderEngine.cancel(RENDER_KEY);
+        }
+        super.onDestroy();
+    }
+
     private void loadAllChildrenSummary() {
         if (parentId == null) {
             Toast.makeText(this, "Please log in again", Toast.LENGTH_SHORT).show();
@@ -107,51 +132,64 @@ public class AllChildrenReportActivity extends AppCompatActivity {
         tvPlaceholder.setText("Loading children...");
         childSummaries.clear();
 
-        db.collection("child_profiles")
-                .whereEqualTo("parentId", parentId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    // Default placeholder names to exclude from reports
-                    List<String> defaultNames = Arrays.asList(
-                            "Child 1", "Child 2", "Child 3", "Child 4", "Child 5"
-                    );
-
-                    for (DocumentSnapshot doc : snapshot) {
-                        try {
-                            String id = doc.getId();
-                            String name = doc.getString("name");
-                            if (name == null) {
-                                name = "";
-                            }
-                            String trimmedName = name.trim();
-
-                            // Skip blank or default placeholder profiles
-                            if (trimmedName.isEmpty() || defaultNames.contains(trimmedName)) {
-                                continue;
-                            }
-
-                            Long progress = doc.getLong("progress");
-                            Long stars = doc.getLong("stars");
-
-                            ChildSummary cs = new ChildSummary();
-                            cs.childId = id;
-                            cs.childName = trimmedName;
-                            cs.progress = progress != null ? progress.intValue() : 0;
-                            cs.stars = stars != null ? stars.intValue() : 0;
-
-                            childSummaries.add(cs);
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error mapping child profile", e);
+        // The table only needs the profiles
+        reportDataLoader.loadFamily(parentId, false, new ReportDataLoader.Callback() {
+            @Override
+            public void onLoaded(ReportDataLoader.ReportData data) {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+
+                // Default placeholder names to exclude from reports
+                List<String> defaultNames = Arrays.asList(
+                        "Child 1", "Child 2", "Child 3", "Child 4", "Child 5"
+                );
+
+                List<String> childIds = new ArrayList<>();
+                for (DocumentSnapshot doc : data.getProfiles()) {
+                    childIds.add(doc.getId());
+                    try {
+                        String id = doc.getId();
+                        String name = doc.getString("name");
+                        if (name == null) {
+                            name = "";
                         }
+                        String trimmedName = name.trim();
+
+                        // Skip blank or default placeholder profiles
+                        if (trimmedName.isEmpty() || defaultNames.contains(trimmedName)) {
+                            continue;
+                        }
+
+                        Long progress = doc.getLong("progress");
+                        Long stars = doc.getLong("stars");
+
+                        ChildSummary cs = new ChildSummary();
+                        cs.childId = id;
+                        cs.childName = trimmedName;
+                        cs.progress = progress != null ? progress.intValue() : 0;
+                        cs.stars = stars != null ? stars.intValue() : 0;
+
+                        childSummaries.add(cs);
+                    } catch (Exception e) {
+                        Log.e(TAG, "Error mapping child profile", e);
                     }
+                }
+
+                buildTable();
+
+                // Warms the report cache for the chart screens without holding up the table
+                reportRepository.refreshInBackground(parentId, childIds);
+            }
 
-                    buildTable();
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to load child_profiles", e);
-                    tvPlaceholder.setText("Failed to load children.");
-                    Toast.makeText(this, "Failed to load children", Toast.LENGTH_SHORT).show();
-                });
+            @Override
+            public void onFailure(Exception e) {
+                Log.e(TAG, "Failed to load child_profiles", e);
+                tvPlaceholder.setText("Failed to load children.");
+                Toast.makeText(AllChildrenReportActivity.this,
+                        "Failed to load children", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void buildTable() {
@@ -224,12 +262,7 @@ public class AllChildrenReportActivity extends AppCompatActivity {
             return;
         }
 
-        lastAllChildrenPdf = generateAllChildrenPdf();
-        if (lastAllChildrenPdf != null) {
-            Toast.makeText(this,
-                    "PDF saved: " + lastAllChildrenPdf.getName(),
-                    Toast.LENGTH_SHORT).show();
-        }
+        startPdfRender(false);
     }
 
     private void onEmailAllPdfClicked() {
@@ -238,134 +271,16 @@ public class AllChildrenReportActivity extends AppCompatActivity {
             return;
         }
 
-        if (lastAllChildrenPdf == null || !lastAllChildrenPdf.exists()) {
-            lastAllChildrenPdf = generateAllChildrenPdf();
-        }
-        if (lastAllChildrenPdf == null) {
-            Toast.makeText(this, "Unable to generate PDF", Toast.LENGTH_SHORT).show();
+        if (lastAllChildrenPdf != null && lastAllChildrenPdf.exists()) {
+            shareAllChildrenPdfByEmail(lastAllChildrenPdf);
             return;
         }
 
-        shareAllChildrenPdfByEmail(lastAllChildrenPdf);
+        startPdfRender(true);
     }
 
-    private File generateAllChildrenPdf() {
-        PdfDocument pdf = new PdfDocument();
-
-        int pageWidth = 595;
-        int pageHeight = 842;
-        int margin = 40;
-        int headerHeight = 90;
-
-        Paint paint = new Paint();
-        Paint headerPaint = new Paint();
-        Paint whitePanelPaint = new Paint();
-        Paint linePaint = new Paint();
-
-        headerPaint.setColor(Color.parseColor("#1976D2"));
-        headerPaint.setStyle(Paint.Style.FILL);
-
-        whitePanelPaint.setColor(Color.WHITE);
-        whitePanelPaint.setStyle(Paint.Style.FILL);
-        whitePanelPaint.setAlpha(235);
-
-        linePaint.setColor(Color.LTGRAY);
-        linePaint.setStrokeWidth(1f);
-
-        Bitmap bgBitmap = null;
-        Bitmap pageBgScaled = null;
-        Bitmap logoBitmap = null;
-        Bitmap logoScaled = null;
-
-        try {
-            bgBitmap = BitmapFactory.decodeResource(getResources(), R.drawable.bluestar_background);
-            if (bgBitmap != null) {
-                pageBgScaled = Bitmap.createScaledBitmap(bgBitmap, pageWidth, pageHeight, true);
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error loading bluestar_background", e);
-        }
-
-        try {
-            logoBitmap = BitmapFactory.decodeResource(getResources(), R.drawable.ic_brightbuds_logo);
-            if (logoBitmap != null) {
-                logoScaled = Bitmap.createScaledBitmap(logoBitmap, 70, 70, true);
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error loading ic_brightbuds_logo", e);
-        }
-
-        int[] yHolder = new int[1];
-        PdfDocument.Page page = startNewPage(
-                pdf,
-                pageWidth,
-                pageHeight,
-                margin,
-                headerHeight,
-                paint,
-                headerPaint,
-                whitePanelPaint,
-                pageBgScaled,
-                logoScaled,
-                yHolder
-        );
-        Canvas canvas = page.getCanvas();
-        int y = yHolder[0];
-
-        paint.setFakeBoldText(false);
-        paint.setColor(Color.BLACK);
-        paint.setTextSize(14f);
-
-        String subtitle = "Summary for all completed child profiles";
-        canvas.drawText(subtitle, margin + 10, y, paint);
-        y += 30;
-
-        paint.setFakeBoldText(true);
-        paint.setTextSize(16f);
-        canvas.drawText("All children summary", margin + 10, y, paint);
-        y += 20;
-
-        paint.setTextSize(12f);
-        canvas.drawLine(margin + 10, y, pageWidth - margin - 10, y, linePaint);
-        y += 18;
-
-        canvas.drawText("Child", margin + 10, y, paint);
-        canvas.drawText("Progress", margin + 210, y, paint);
-        canvas.drawText("Stars", margin + 350, y, paint);
-        y += 16;
-        canvas.drawLine(margin + 10, y, pageWidth - margin - 10, y, linePaint);
-        y += 16;
-
-        paint.setFakeBoldText(false);
-
-        for (ChildSummary cs : childSummaries) {
-            if (y > pageHeight - margin - 80) {
-                pdf.finishPage(page);
-                page = startNewPage(
-                        pdf,
-                        pageWidth,
-                        pageHeight,
-                        margin,
-                        headerHeight,
-                        paint,
-                        headerPaint,
-                        whitePanelPaint,
-                        pageBgScaled,
-                        logoScaled,
-                        yHolder
-                );
-                canvas = page.getCanvas();
-                y = yHolder[0];
-            }
-
-            canvas.drawText(cs.childName, margin + 10, y, paint);
-            canvas.drawText(cs.progress + "%", margin + 210, y, paint);
-            canvas.drawText(String.valueOf(cs.stars), margin + 350, y, paint);
-            y += 18;
-        }
-
-        pdf.finishPage(page);
-
+    // Rendering runs on the report engine thread; the result arrives in onRenderStateChanged
+    private void startPdfRender(boolean emailWhenDone) {
         File dir = getExternalFilesDir(Environment.DIRECTORY_DOCUMENTS);
         if (dir == null) {
             dir = getFilesDir();
@@ -373,74 +288,49 @@ public class AllChildrenReportActivity extends AppCompatActivity {
 
         File file = new File(dir, "BrightBuds_All_Children_Report.pdf");
 
-        try (FileOutputStream out = new FileOutputStream(file)) {
-            pdf.writeTo(out);
-            pdf.close();
-            return file;
-        } catch (IOException e) {
-            Log.e(TAG, "Failed to save all children PDF", e);
-            pdf.close();
-            Toast.makeText(this, "Failed to save PDF", Toast.LENGTH_SHORT).show();
-            return null;
-        }
+        emailWhenRendered = emailWhenDone;
+        renderEngine.submit(RENDER_KEY, file, new AllChildrenReportJob(childSummaries));
     }
 
-    private PdfDocument.Page startNewPage(
-            PdfDocument pdf,
-            int pageWidth,
-            int pageHeight,
-            int margin,
-            int headerHeight,
-            Paint paint,
-            Paint headerPaint,
-            Paint whitePanelPaint,
-            Bitmap pageBgScaled,
-            Bitmap logoScaled,
-            int[] yHolder
-    ) {
-        PdfDocument.PageInfo pageInfo =
-                new PdfDocument.PageInfo.Builder(pageWidth, pageHeight, pdf.getPages().size() + 1).create();
-        PdfDocument.Page page = pdf.startPage(pageInfo);
-        Canvas canvas = page.getCanvas();
-
-        if (pageBgScaled != null) {
-            canvas.drawBitmap(pageBgScaled, 0, 0, null);
-        }
-
-        Rect panelRect = new Rect(
-                margin / 2,
-                headerHeight,
-                pageWidth - margin / 2,
-                pageHeight - margin / 2
-        );
-        canvas.drawRoundRect(
-                panelRect.left,
-                panelRect.top,
-                panelRect.right,
-                panelRect.bottom,
-                20,
-                20,
-                whitePanelPaint
-        );
-
-        Rect headerRect = new Rect(0, 0, pageWidth, headerHeight);
-        canvas.drawRect(headerRect, headerPaint);
-
-        if (logoScaled != null) {
-            int logoX = margin;
-            int logoY = headerRect.centerY() - (logoScaled.getHeight() / 2);
-            canvas.drawBitmap(logoScaled, logoX, logoY, null);
+    private void onRenderStateChanged(ReportRenderEngine.RenderState state) {
+        boolean running = state.status == ReportRenderEngine.Status.RUNNING;
+        btnDownloadAllPdf.setEnabled(!running);
+        btnEmailAllPdf.setEnabled(!running);
+
+        switch (state.status) {
+            case RUNNING:
+                tvPlaceholder.setText(state.unitsTotal > 0
+                        ? "Generating PDF... " + state.unitsDone + " of " + state.unitsTotal
+                        : "Generating PDF...");
+                break;
+
+            case COMPLETED:
+                tvPlaceholder.setText("");
+                lastAllChildrenPdf = state.file;
+                renderEngine.clearState(RENDER_KEY);
+                if (lastAllChildrenPdf == null) {
+                    break;
+                }
+                Toast.makeText(this,
+                        "PDF saved: " + lastAllChildrenPdf.getName(),
+                        Toast.LENGTH_SHORT).show();
+
+                if (emailWhenRendered) {
+                    emailWhenRendered = false;
+                    shareAllChildrenPdfByEmail(lastAllChildrenPdf);
+                }
+                break;
+
+            case FAILED:
+                tvPlaceholder.setText("");
+                emailWhenRendered = false;
+                renderEngine.clearState(RENDER_KEY);
+                Toast.makeText(this, "Failed to save PDF", Toast.LENGTH_SHORT).show();
+                break;
+
+            default:
+                break;
         }
-
-        paint.setColor(Color.WHITE);
-        paint.setTextSize(20f);
-        paint.setFakeBoldText(true);
-        canvas.drawText("BrightBuds all children report",
-                margin + 100, headerRect.centerY() + 5, paint);
-
-        int y = headerHeight + 40;
-        yHolder[0] = y;
-        return page;
     }
 
     private void shareAllChildrenPdfByEmail(File file) {
@@ -481,4 +371,70 @@ public class AllChildrenReportActivity extends AppCompatActivity {
         int progress;
         int stars;
     }
+
+    /**
+     * Draws the all children summary table. Holds its own copy of the rows
+     * so it can run on the render thread.
+     */
+    private static final class AllChildrenReportJob implements ReportRenderEngine.ReportJob {
+
+        private static final int PAGE_WIDTH = 595;
+        private static final int PAGE_HEIGHT = 842;
+        private static final int MARGIN = 40;
+        private static final int HEADER_HEIGHT = 90;
+
+        private final List<ChildSummary> rows;
+
+        AllChildrenReportJob(List<ChildSummary> rows) {
+            this.rows = new ArrayList<>(rows);
+        }
+
+        @Override
+        public void render(ReportRenderEngine.RenderContext context) throws Exception {
+            // Background, header and logo are stored once and shared by every page
+            ReportAssetCache assets = ReportAssetCache.getInstance(context.getAppContext());
+            ITextReportWriter writer = context.openBrandedPdf(PAGE_WIDTH, PAGE_HEIGHT,
+                    MARGIN, HEADER_HEIGHT, "BrightBuds all children report",
+                    assets.getPageBackground(PAGE_WIDTH, PAGE_HEIGHT), assets.getLogo());
+
+            int y = startNewPage(writer);
+
+            String subtitle = "Summary for all completed child profiles";
+            writer.drawText(subtitle, MARGIN + 10, y, 14f, false);
+            y += 30;
+
+            writer.drawText("All children summary", MARGIN + 10, y, 16f, true);
+            y += 20;
+
+            writer.drawLine(MARGIN + 10, y, PAGE_WIDTH - MARGIN - 10, y);
+            y += 18;
+
+            writer.drawText("Child", MARGIN + 10, y, 12f, true);
+            writer.drawText("Progress", MARGIN + 210, y, 12f, true);
+            writer.drawText("Stars", MARGIN + 350, y, 12f, true);
+            y += 16;
+            writer.drawLine(MARGIN + 10, y, PAGE_WIDTH - MARGIN - 10, y);
+            y += 16;
+
+            for (int i = 0; i < rows.size(); i++) {
+                context.throwIfCancelled();
+                if (y > PAGE_HEIGHT - MARGIN - 80) {
+                    y = startNewPage(writer);
+                }
+
+                ChildSummary cs = rows.get(i);
+                writer.drawText(cs.childName, MARGIN + 10, y, 12f, false);
+                writer.drawText(cs.progress + "%", MARGIN + 210, y, 12f, false);
+                writer.drawText(String.valueOf(cs.stars), MARGIN + 350, y, 12f, false);
+                y += 18;
+                context.setProgress(i + 1, rows.size());
+            }
+        }
+
+        /** Starts a page with the shared artwork and returns the first body line. */
+        private int startNewPage(ITextReportWriter writer) {
+            writer.startPage();
+            return HEADER_HEIGHT + 40;
+        }
+    }
 }
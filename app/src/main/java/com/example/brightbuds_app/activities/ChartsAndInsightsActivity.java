@@ -12,6 +12,9 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.brightbuds_app.R;
+import com.example.brightbuds_app.models.ModuleSummary;
+import com.example.brightbuds_app.services.ReportDataLoader;
+import com.example.brightbuds_app.services.ReportRepository;
 import com.github.mikephil.charting.animation.Easing;
 import com.github.mikephil.charting.charts.BarChart;
 import com.github.mikephil.charting.charts.RadarChart;
@@ -30,7 +33,6 @@ import com.google.android.gms.tasks.Tasks;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -55,7 +57,8 @@ public class ChartsAndInsightsActivity extends AppCompatActivity {
 
     private static final String TAG = "ChartsAndInsights";
 
-    private FirebaseFirestore db;
+    private ReportRepository reportRepository;
+    private ReportDataLoader reportDataLoader;
     private String parentId;
 
     // Charts
@@ -73,7 +76,8 @@ public class ChartsAndInsightsActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_charts_insights);
 
-        db = FirebaseFirestore.getInstance();
+        reportRepository = new ReportRepository(this);
+        reportDataLoader = new ReportDataLoader();
         FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
         parentId = user != null ? user.getUid() : null;
 
@@ -156,139 +160,113 @@ public class ChartsAndInsightsActivity extends AppCompatActivity {
         tvPlaceholder.setText("Loading charts...");
         childDataList.clear();
 
-        db.collection("child_profiles")
-                .whereEqualTo("parentId", parentId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    for (DocumentSnapshot doc : snapshot) {
-                        String id = doc.getId();
-                        String name = doc.getString("name");
-                        if (name == null) {
-                            name = "";
-                        }
-                        String trimmed = name.trim();
-
-                        // Skip blank and default names
-                        if (trimmed.isEmpty()) {
-                            continue;
-                        }
-                        if (trimmed.equals("Child 1")
-                                || trimmed.equals("Child 2")
-                                || trimmed.equals("Child 3")
-                                || trimmed.equals("Child 4")
-                                || trimmed.equals("Child 5")) {
-                            continue;
-                        }
-
-                        ChildChartData data = new ChildChartData();
-                        data.childId = id;
-                        data.childName = trimmed;
-                        childDataList.add(data);
+        // Profiles and, when the report cache is stale, family metrics in one round trip
+        boolean includeMetrics = reportRepository.needsCloudRefresh(parentId);
+        reportDataLoader.loadFamily(parentId, includeMetrics, new ReportDataLoader.Callback() {
+            @Override
+            public void onLoaded(ReportDataLoader.ReportData result) {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+
+                for (DocumentSnapshot doc : result.getProfiles()) {
+                    String id = doc.getId();
+                    String name = doc.getString("name");
+                    if (name == null) {
+                        name = "";
                     }
+                    String trimmed = name.trim();
 
-                    if (childDataList.isEmpty()) {
-                        tvPlaceholder.setText("No completed child profiles to show charts.");
-                        chartStarsPerChild.clear();
-                        chartProgressPerChild.clear();
-                        chartMostPlayedPerChild.clear();
-                        chartRadarPerChild.clear();
-                        return;
+                    // Skip blank and default names
+                    if (trimmed.isEmpty()) {
+                        continue;
+                    }
+                    if (trimmed.equals("Child 1")
+                            || trimmed.equals("Child 2")
+                            || trimmed.equals("Child 3")
+                            || trimmed.equals("Child 4")
+                            || trimmed.equals("Child 5")) {
+                        continue;
                     }
 
-                    // Load analytics and progress for each child one by one
-                    loadMetricsForChildIndex(0);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to load child_profiles", e);
-                    tvPlaceholder.setText("Failed to load charts.");
-                    Toast.makeText(this, "Failed to load child profiles", Toast.LENGTH_SHORT).show();
-                });
+                    ChildChartData data = new ChildChartData();
+                    data.childId = id;
+                    data.childName = trimmed;
+                    childDataList.add(data);
+                }
+
+                if (childDataList.isEmpty()) {
+                    tvPlaceholder.setText("No completed child profiles to show charts.");
+                    chartStarsPerChild.clear();
+                    chartProgressPerChild.clear();
+                    chartMostPlayedPerChild.clear();
+                    chartRadarPerChild.clear();
+                    return;
+                }
+
+                loadMetricsForAllChildren(result);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Log.e(TAG, "Failed to load child_profiles", e);
+                tvPlaceholder.setText("Failed to load charts.");
+                Toast.makeText(ChartsAndInsightsActivity.this, "Failed to load child profiles", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
-    private void loadMetricsForChildIndex(int index) {
-        if (index >= childDataList.size()) {
-            // All children loaded
+    // Loads module metrics for every child from the local report store in one query
+    private void loadMetricsForAllChildren(ReportDataLoader.ReportData prefetched) {
+        List<String> childIds = new ArrayList<>();
+        for (ChildChartData child : childDataList) {
+            childIds.add(child.childId);
+        }
+
+        reportRepository.loadModuleSummaries(parentId, childIds, prefetched, (summariesByChild, refreshed) -> {
+            if (isFinishing() || isDestroyed()) {
+                return;
+            }
+            for (ChildChartData child : childDataList) {
+                applySummaries(child, summariesByChild.get(child.childId));
+            }
             tvPlaceholder.setText("");
             buildAllCharts();
+        });
+    }
+
+    private void applySummaries(ChildChartData child, @Nullable List<ModuleSummary> summaries) {
+        child.totalStars = 0;
+        child.overallAvgScore = 0.0;
+        child.overallAccuracyFraction = 0.0;
+        child.overallAvgTimeSeconds = 0.0;
+        child.mostPlayedModuleId = null;
+        child.mostPlayedPlays = 0;
+
+        if (summaries == null || summaries.isEmpty()) {
             return;
         }
 
-        ChildChartData child = childDataList.get(index);
-
-        // Load analytics for this child
-        db.collection("child_analytics")
-                .whereEqualTo("child_id", child.childId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    double totalScore = 0.0;
-                    double totalAccuracy = 0.0;
-                    double totalTimeMs = 0.0;
-                    int count = 0;
-
-                    for (DocumentSnapshot doc : snapshot) {
-                        Double avgScore = doc.getDouble("avgScore");
-                        Double accuracy = doc.getDouble("accuracy");
-                        Double avgTimeMs = doc.getDouble("avgTimeMs");
-
-                        if (avgScore != null) totalScore += avgScore;
-                        if (accuracy != null) totalAccuracy += accuracy;
-                        if (avgTimeMs != null) totalTimeMs += avgTimeMs;
-                        count++;
-                    }
-
-                    if (count > 0) {
-                        child.overallAvgScore = totalScore / count;           // already 0-100
-                        child.overallAccuracyFraction = totalAccuracy / count; // 0-1 fraction
-                        child.overallAvgTimeSeconds = (totalTimeMs / count) / 1000.0;
-                    }
+        double totalScore = 0.0;
+        double totalAccuracy = 0.0;
+        double totalTimeMs = 0.0;
 
-                    // After analytics, load progress
-                    loadProgressForChildIndex(index, child);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to load child_analytics for " + child.childId, e);
-                    // Continue with next child even if this fails
-                    loadProgressForChildIndex(index, child);
-                });
-    }
+        for (ModuleSummary s : summaries) {
+            totalScore += s.getAverageScore();
+            totalAccuracy += s.getAccuracyRatio();
+            totalTimeMs += s.getAverageTimeMs();
+            child.totalStars += s.getTotalStars();
 
-    private void loadProgressForChildIndex(int index, ChildChartData child) {
-        db.collection("child_progress")
-                .whereEqualTo("child_id", child.childId)
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    int totalStars = 0;
-                    String mostModuleId = null;
-                    int mostPlays = 0;
-
-                    for (DocumentSnapshot doc : snapshot) {
-                        Long stars = doc.getLong("stars");
-                        Long plays = doc.getLong("totalPlays");
-                        String moduleId = doc.getString("module_id");
-
-                        if (stars != null) {
-                            totalStars += stars.intValue();
-                        }
-
-                        int p = plays != null ? plays.intValue() : 0;
-                        if (p > mostPlays && moduleId != null) {
-                            mostPlays = p;
-                            mostModuleId = moduleId;
-                        }
-                    }
+            if (s.getTotalPlays() > child.mostPlayedPlays) {
+                child.mostPlayedPlays = s.getTotalPlays();
+                child.mostPlayedModuleId = s.getModuleId();
+            }
+        }
 
-                    child.totalStars = totalStars;
-                    child.mostPlayedModuleId = mostModuleId;
-                    child.mostPlayedPlays = mostPlays;
-
-                    // Next child
-                    loadMetricsForChildIndex(index + 1);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to load child_progress for " + child.childId, e);
-                    // Still continue to next child
-                    loadMetricsForChildIndex(index + 1);
-                });
+        int count = summaries.size();
+        child.overallAvgScore = totalScore / count;           // already 0-100
+        child.overallAccuracyFraction = totalAccuracy / count; // 0-1 fraction
+        child.overallAvgTimeSeconds = (totalTimeMs / count) / 1000.0;
     }
 
     private void buildAllCharts() {
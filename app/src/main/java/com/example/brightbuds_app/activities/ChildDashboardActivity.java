@@ -4,13 +4,7 @@ import android.animation.ObjectAnimator;
 import android.animation.ValueAnimator;
 import android.content.Intent;
 import android.content.SharedPreferences;
-import android.media.AudioAttributes;
-import android.media.AudioManager;
-import android.media.MediaPlayer;
-import android.media.SoundPool;
-import android.os.Build;
 import android.os.Bundle;
-import android.speech.tts.TextToSpeech;
 import android.text.TextUtils;
 import android.view.View;
 import android.widget.ImageButton;
@@ -21,20 +15,18 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.brightbuds_app.R;
-
-import java.util.Locale;
+import com.example.brightbuds_app.services.AudioEngine;
+import com.example.brightbuds_app.services.SongPlayerPool;
+import com.example.brightbuds_app.services.SpeechService;
+import com.example.brightbuds_app.utils.DrawableRegistry;
 
 public class ChildDashboardActivity extends AppCompatActivity {
 
     private ImageView imgChildAvatar;
     private ImageView imgBubbles;
 
-    private TextToSpeech textToSpeech;
-    private SoundPool soundPool;
-    private int cardFlipSoundId;
-
-    // Background music for dashboard
-    private MediaPlayer bgMusic;
+    private SpeechService speech;
+    private AudioEngine audio;
 
     private String childId;
     private String childName;
@@ -49,8 +41,7 @@ public class ChildDashboardActivity extends AppCompatActivity {
         initViews();
         setupHeader();
         setupTts();
-        setupSoundPool();
-        setupBackgroundMusic();
+        audio = AudioEngine.getInstance(this);
         setupButtonClicks();
         setupHomeButton();
         startBackgroundAnimations();
@@ -79,69 +70,22 @@ public class ChildDashboardActivity extends AppCompatActivity {
         }
 
         // Resolve avatar using the key passed from ChildSelectionActivity
-        if (!TextUtils.isEmpty(childAvatarKey)) {
-            int resId = getResources().getIdentifier(
-                    childAvatarKey,
-                    "drawable",
-                    getPackageName()
-            );
-            if (resId == 0) {
-                resId = R.drawable.ic_child_avatar_placeholder;
-            }
-            imgChildAvatar.setImageResource(resId);
-        } else {
-            imgChildAvatar.setImageResource(R.drawable.ic_child_avatar_placeholder);
-        }
+        imgChildAvatar.setImageResource(
+                DrawableRegistry.avatar(childAvatarKey, R.drawable.ic_child_avatar_placeholder));
     }
 
     private void setupTts() {
-        textToSpeech = new TextToSpeech(this, status -> {
-            if (status == TextToSpeech.SUCCESS) {
-                textToSpeech.setLanguage(Locale.US);
-                speakGreeting();
-            }
-        });
+        speech = SpeechService.getInstance(this);
+        speakGreeting();
     }
 
     private void speakGreeting() {
-        if (textToSpeech == null) return;
-
         String nameForSpeech = TextUtils.isEmpty(childName) ? "friend" : childName;
-        String phrase = "Hello " + nameForSpeech;
-        textToSpeech.speak(phrase, TextToSpeech.QUEUE_FLUSH, null, "child_greeting");
-    }
-
-    private void setupSoundPool() {
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            AudioAttributes attrs = new AudioAttributes.Builder()
-                    .setUsage(AudioAttributes.USAGE_GAME)
-                    .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
-                    .build();
-            soundPool = new SoundPool.Builder()
-                    .setMaxStreams(4)
-                    .setAudioAttributes(attrs)
-                    .build();
-        } else {
-            soundPool = new SoundPool(4, AudioManager.STREAM_MUSIC, 0);
-        }
-
-        cardFlipSoundId = soundPool.load(this, R.raw.card_flip, 1);
-    }
-
-    // creative_fun background music
-    private void setupBackgroundMusic() {
-        bgMusic = MediaPlayer.create(this, R.raw.creative_fun);
-        if (bgMusic != null) {
-            bgMusic.setLooping(true);
-            bgMusic.setVolume(0.3f, 0.3f);
-            bgMusic.start();
-        }
+        speech.speak("Hello " + nameForSpeech);
     }
 
     private void playCardFlip() {
-        if (soundPool != null && cardFlipSoundId != 0) {
-            soundPool.play(cardFlipSoundId, 1f, 1f, 1, 0, 1f);
-        }
+        audio.playEffect(R.raw.card_flip);
     }
 
     private void setupButtonClicks() {
@@ -209,29 +153,20 @@ public class ChildDashboardActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        audio.playMusic(R.raw.creative_fun, 0.3f);
+        // Have the child's favourite song ready before a song button is tapped
+        SongPlayerPool.getInstance(this).preloadFavourite(childId, null);
+    }
+
     @Override
     protected void onDestroy() {
         super.onDestroy();
 
-        if (textToSpeech != null) {
-            textToSpeech.stop();
-            textToSpeech.shutdown();
-        }
-
-        if (soundPool != null) {
-            soundPool.release();
-            soundPool = null;
-        }
-
-        if (bgMusic != null) {
-            try {
-                if (bgMusic.isPlaying()) {
-                    bgMusic.stop();
-                }
-            } catch (Exception ignored) {
-            }
-            bgMusic.release();
-            bgMusic = null;
+        if (speech != null) {
+            speech.stop();
         }
     }
 }
@@ -57,7 +57,7 @@ public class ChildReportActivity extends AppCompatActivity {
         recyclerReports = findViewById(R.id.recyclerReports);
         recyclerReports.setLayoutManager(new LinearLayoutManager(this));
 
-        dbHelper = new DatabaseHelper(this);
+        dbHelper = DatabaseHelper.getInstance(this);
 
         // Try to read child information from the intent extras
         String childId = getIntent().getStringExtra("child_id");
@@ -2,7 +2,6 @@ package com.example.brightbuds_app.activities;
 
 import android.animation.ObjectAnimator;
 import android.content.Intent;
-import android.media.MediaPlayer;
 import android.os.Bundle;
 import android.text.TextUtils;
 import android.view.animation.LinearInterpolator;
@@ -17,6 +16,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.brightbuds_app.R;
 import com.example.brightbuds_app.models.ChildProfile;
+import com.example.brightbuds_app.services.AudioEngine;
 import com.example.brightbuds_app.services.DatabaseHelper;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
@@ -30,9 +30,6 @@ public class ChildSelectionActivity extends AppCompatActivity {
     private Button btnParentSettings;     // CHANGED FROM ImageView TO Button
     private ImageView imgBubbles;
 
-    private MediaPlayer bgPlayer;
-    private MediaPlayer flipPlayer;
-
     private final List<ChildProfile> childProfiles = new ArrayList<>();
     private ChildAdapter childAdapter;
     private DatabaseHelper databaseHelper;
@@ -45,13 +42,12 @@ public class ChildSelectionActivity extends AppCompatActivity {
         setContentView(R.layout.activity_child_selection);
 
         auth = FirebaseAuth.getInstance();
-        databaseHelper = new DatabaseHelper(this);
+        databaseHelper = DatabaseHelper.getInstance(this);
 
         initViews();
         setupRecycler();
         loadChildProfilesForCurrentParent();
         setupSettingsButton();
-        startBackgroundMusic();
         startBubbleAnimation();
     }
 
@@ -139,22 +135,9 @@ public class ChildSelectionActivity extends AppCompatActivity {
     }
 
     private void onChildSelected(ChildProfile child) {
-        if (flipPlayer != null) {
-            flipPlayer.release();
-            flipPlayer = null;
-        }
-
-        flipPlayer = MediaPlayer.create(this, R.raw.card_flip);
-        if (flipPlayer != null) {
-            flipPlayer.setOnCompletionListener(mp -> {
-                mp.release();
-                flipPlayer = null;
-                openChildDashboard(child);
-            });
-            flipPlayer.start();
-        } else {
-            openChildDashboard(child);
-        }
+        // The shared sound pool keeps playing the flip while the dashboard opens
+        AudioEngine.getInstance(this).playEffect(R.raw.card_flip);
+        openChildDashboard(child);
     }
 
     private void openChildDashboard(ChildProfile child) {
@@ -166,18 +149,6 @@ public class ChildSelectionActivity extends AppCompatActivity {
     }
 
 
-    private void startBackgroundMusic() {
-        if (bgPlayer == null) {
-            bgPlayer = MediaPlayer.create(this, R.raw.happy_children);
-            if (bgPlayer != null) {
-                bgPlayer.setLooping(true);
-                bgPlayer.start();
-            }
-        } else if (!bgPlayer.isPlaying()) {
-            bgPlayer.start();
-        }
-    }
-
     private void startBubbleAnimation() {
         if (imgBubbles == null) return;
 
@@ -194,37 +165,13 @@ public class ChildSelectionActivity extends AppCompatActivity {
         animator.start();
     }
 
-    @Override
-    protected void onPause() {
-        super.onPause();
-        if (bgPlayer != null && bgPlayer.isPlaying()) {
-            bgPlayer.pause();
-        }
-    }
-
     @Override
     protected void onResume() {
         super.onResume();
-        if (bgPlayer != null && !bgPlayer.isPlaying()) {
-            bgPlayer.start();
-        }
+        AudioEngine.getInstance(this).playMusic(R.raw.happy_children, 1f);
         loadChildProfilesForCurrentParent();
     }
 
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (bgPlayer != null) {
-            bgPlayer.stop();
-            bgPlayer.release();
-            bgPlayer = null;
-        }
-        if (flipPlayer != null) {
-            flipPlayer.release();
-            flipPlayer = null;
-        }
-    }
-
     // RecyclerView adapter
     private static class ChildAdapter extends RecyclerView.Adapter<ChildAdapter.ChildViewHolder> {
 
@@ -1,7 +1,6 @@
 package com.example.brightbuds_app.activities;
 
 import android.content.Intent;
-import android.media.MediaPlayer;
 import android.os.Bundle;
 import android.text.TextUtils;
 import android.util.Log;
@@ -21,8 +20,10 @@ import com.example.brightbuds_app.R;
 import com.example.brightbuds_app.adapters.AvatarSelectionAdapter;
 import com.example.brightbuds_app.interfaces.DataCallbacks;
 import com.example.brightbuds_app.models.ChildProfile;
+import com.example.brightbuds_app.services.AudioEngine;
 import com.example.brightbuds_app.services.ChildProfileDAO;
 import com.example.brightbuds_app.services.ChildProfileService;
+import com.example.brightbuds_app.utils.DrawableRegistry;
 import com.google.firebase.auth.FirebaseAuth;
 
 
@@ -46,14 +47,7 @@ public class EditChildActivity extends AppCompatActivity {
     private AvatarSelectionAdapter avatarAdapter;
 
     // Avatar drawables
-    private final int[] avatarResIds = new int[]{
-            R.drawable.avatar_1,
-            R.drawable.avatar_2,
-            R.drawable.avatar_3,
-            R.drawable.avatar_4,
-            R.drawable.avatar_5,
-            R.drawable.avatar_6
-    };
+    private final int[] avatarResIds = DrawableRegistry.avatarChoices();
 
     // Selected avatar key saved in ChildProfile
     private String selectedAvatarKey = "ic_child_avatar_placeholder";
@@ -69,9 +63,6 @@ public class EditChildActivity extends AppCompatActivity {
     // Optional: which card slot launched this screen (1 to 5)
     private int slotIndex = -1;
 
-    // Background music
-    private MediaPlayer bgMusic;
-
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -111,7 +102,6 @@ public class EditChildActivity extends AppCompatActivity {
         }
 
         setupSaveButton();
-        startBackgroundMusic();
     }
 
     private void initViews() {
@@ -413,51 +403,9 @@ public class EditChildActivity extends AppCompatActivity {
         return true;
     }
 
-    // Background music helpers
-
-    private void startBackgroundMusic() {
-        bgMusic = MediaPlayer.create(this, R.raw.classical_music);
-        if (bgMusic != null) {
-            bgMusic.setLooping(true);
-            bgMusic.setVolume(0.2f, 0.2f);
-            bgMusic.start();
-        }
-    }
-
-    @Override
-    protected void onPause() {
-        super.onPause();
-        if (bgMusic != null && bgMusic.isPlaying()) {
-            try {
-                bgMusic.pause();
-            } catch (Exception ignored) {
-            }
-        }
-    }
-
     @Override
     protected void onResume() {
         super.onResume();
-        if (bgMusic != null && !bgMusic.isPlaying()) {
-            try {
-                bgMusic.start();
-            } catch (Exception ignored) {
-            }
-        }
-    }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (bgMusic != null) {
-            try {
-                if (bgMusic.isPlaying()) {
-                    bgMusic.stop();
-                }
-            } catch (Exception ignored) {
-            }
-            bgMusic.release();
-            bgMusic = null;
-        }
+        AudioEngine.getInstance(this).playMusic(R.raw.classical_music, 0.2f);
     }
 }
@@ -1,7 +1,6 @@
 package com.example.brightbuds_app.activities;
 
 import android.content.Intent;
-import android.media.MediaPlayer;
 import android.net.Uri;
 import android.os.Bundle;
 import android.text.TextUtils;
@@ -17,6 +16,7 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.brightbuds_app.R;
+import com.example.brightbuds_app.services.AudioEngine;
 
 /**
  * FeedbackActivity
@@ -41,15 +41,12 @@ public class FeedbackActivity extends AppCompatActivity {
     private ImageButton btnClose;
     private ImageView btnSendFeedback;
 
-    private MediaPlayer bgMusic;
-
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_feedback);
 
         initViews();
-        initMusic();
         setupListeners();
     }
 
@@ -64,16 +61,6 @@ public class FeedbackActivity extends AppCompatActivity {
         btnSendFeedback = findViewById(R.id.btnSendFeedback);
     }
 
-    private void initMusic() {
-        // Play classical music softly in the background
-        bgMusic = MediaPlayer.create(this, R.raw.classical_music);
-        if (bgMusic != null) {
-            bgMusic.setLooping(true);
-            bgMusic.setVolume(0.25f, 0.25f);
-            bgMusic.start();
-        }
-    }
-
     private void setupListeners() {
 
         // Character counter for feedback message
@@ -166,38 +153,10 @@ public class FeedbackActivity extends AppCompatActivity {
         }
     }
 
-    private void stopMusic() {
-        if (bgMusic != null) {
-            try {
-                if (bgMusic.isPlaying()) {
-                    bgMusic.stop();
-                }
-            } catch (Exception ignored) {
-            }
-            bgMusic.release();
-            bgMusic = null;
-        }
-    }
-
-    @Override
-    protected void onPause() {
-        super.onPause();
-        if (bgMusic != null && bgMusic.isPlaying()) {
-            bgMusic.pause();
-        }
-    }
-
     @Override
     protected void onResume() {
         super.onResume();
-        if (bgMusic != null && !bgMusic.isPlaying()) {
-            bgMusic.start();
-        }
-    }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        stopMusic();
+        // Play classical music softly in the background
+        AudioEngine.getInstance(this).playMusic(R.raw.classical_music, 0.25f);
     }
 }
@@ -2,6 +2,8 @@ package com.example.brightbuds_app.activities;
 
 import android.content.Intent;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.ImageView;
@@ -11,12 +13,17 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.brightbuds_app.R;
 import com.example.brightbuds_app.models.Module;
+import com.example.brightbuds_app.services.ContentPrefetcher;
+import com.example.brightbuds_app.services.ModuleCatalogStore;
 import com.example.brightbuds_app.services.ModuleService;
 import com.example.brightbuds_app.services.ProgressService;
 import com.google.android.material.button.MaterialButton;
 import com.google.android.material.textview.MaterialTextView;
+import com.google.firebase.analytics.FirebaseAnalytics;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 /**
  * GameModulesActivity
@@ -30,13 +37,25 @@ import java.util.List;
  *   - moduleId
  *   - moduleTitle
  *   - storagePath (for video modules only)
+ *
+ * Video modules that ContentPrefetcher has fully downloaded, and whose
+ * media is still in the caches, are marked as available offline. The rows
+ * are shown first and marked once that check is done.
+ *
+ * The time from opening the screen to the first filled grid is logged and
+ * sent to Analytics as module_grid_open, marked cold when the catalog had
+ * to come from disk or Firestore and warm when it was already in memory.
  */
 public class GameModulesActivity extends AppCompatActivity {
 
+    private static final String TAG = "GameModulesActivity";
+
     private LinearLayout container;
-    private final ModuleService moduleService = new ModuleService();
+    private ModuleService moduleService;
     private ProgressService progressService;
     private String childId;
+    private Set<String> offlineModuleIds = Collections.emptySet();
+    private List<Module> shownModules;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -44,6 +63,7 @@ public class GameModulesActivity extends AppCompatActivity {
         setContentView(R.layout.activity_game_modules);
 
         container = findViewById(R.id.modulesContainer);
+        moduleService = new ModuleService(this);
         progressService = new ProgressService(this);
 
         // Child that is currently using these modules
@@ -63,20 +83,20 @@ public class GameModulesActivity extends AppCompatActivity {
                 .inflate(R.layout.item_module_loading, container, false);
         container.addView(loading);
 
+        long openedAtMs = SystemClock.elapsedRealtime();
+        boolean warm = ModuleCatalogStore.getInstance(this).isInMemory();
+
         moduleService.getAllModules(new ModuleService.ModulesCallback() {
             @Override
             public void onSuccess(List<Module> modules) {
-                container.removeAllViews();
-
-                if (modules == null || modules.isEmpty()) {
-                    addEmpty("No modules available yet.");
-                    return;
-                }
+                showModules(modules);
+                reportOpenLatency(SystemClock.elapsedRealtime() - openedAtMs, warm);
+            }
 
-                for (Module m : modules) {
-                    if (m != null && m.isActive()) {
-                        addModuleRow(m);
-                    }
+            @Override
+            public void onUpdated(List<Module> modules) {
+                if (!isFinishing()) {
+                    showModules(modules);
                 }
             }
 
@@ -92,6 +112,46 @@ public class GameModulesActivity extends AppCompatActivity {
         });
     }
 
+    private void showModules(List<Module> modules) {
+        shownModules = modules;
+        renderModules(modules);
+
+        if (modules == null || modules.isEmpty()) return;
+        ContentPrefetcher.getInstance(this).loadOfflineModuleIds(modules, ids -> {
+            // Skip when the screen closed or a newer catalog replaced this one
+            if (isFinishing() || shownModules != modules) return;
+            if (!ids.equals(offlineModuleIds)) {
+                offlineModuleIds = ids;
+                renderModules(modules);
+            }
+        });
+    }
+
+    private void renderModules(List<Module> modules) {
+        container.removeAllViews();
+
+        if (modules == null || modules.isEmpty()) {
+            addEmpty("No modules available yet.");
+            return;
+        }
+
+        for (Module m : modules) {
+            if (m != null && m.isActive()) {
+                addModuleRow(m);
+            }
+        }
+    }
+
+    private void reportOpenLatency(long elapsedMs, boolean warm) {
+        String start = warm ? "warm" : "cold";
+        Log.i(TAG, "⏱️ Module grid " + start + " open in " + elapsedMs + " ms");
+
+        Bundle params = new Bundle();
+        params.putString("start", start);
+        params.putLong("latency_ms", elapsedMs);
+        FirebaseAnalytics.getInstance(this).logEvent("module_grid_open", params);
+    }
+
     // -------------------------------------------------
     // BUILD ONE MODULE ROW
     // -------------------------------------------------
@@ -135,6 +195,10 @@ public class GameModulesActivity extends AppCompatActivity {
             subtitle.setText("Interactive learning module.");
         }
 
+        if (module.getStoragePath() != null && offlineModuleIds.contains(module.getId())) {
+            subtitle.append(" Available offline.");
+        }
+
         // Icon mapping
         icon.setImageResource(getModuleIcon(displayTitle));
 
@@ -2,7 +2,6 @@ package com.example.brightbuds_app.activities;
 
 import android.animation.ObjectAnimator;
 import android.content.Intent;
-import android.media.MediaPlayer;
 import android.os.Bundle;
 import android.view.animation.LinearInterpolator;
 import android.widget.ImageButton;
@@ -13,6 +12,7 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.brightbuds_app.R;
+import com.example.brightbuds_app.services.AudioEngine;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 
@@ -24,7 +24,6 @@ public class LandingActivity extends AppCompatActivity {
     private TextView tvLockedHint;
 
     private boolean isParentLoggedIn;
-    private MediaPlayer bgPlayer;
 
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
@@ -43,7 +42,6 @@ public class LandingActivity extends AppCompatActivity {
         checkParentLoginState();
 
         if (isParentLoggedIn) {
-            stopBackgroundMusic();
             Intent intent = new Intent(this, ChildSelectionActivity.class);
             startActivity(intent);
             finish();
@@ -52,22 +50,7 @@ public class LandingActivity extends AppCompatActivity {
 
         // Guest mode
         setupLockedModulesForGuest();
-        startBackgroundMusic();
-    }
-
-
-    @Override
-    protected void onPause() {
-        super.onPause();
-        if (bgPlayer != null && bgPlayer.isPlaying()) {
-            bgPlayer.pause();
-        }
-    }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        stopBackgroundMusic();
+        AudioEngine.getInstance(this).playMusic(R.raw.creative_fun, 1f);
     }
 
     private void initViews() {
@@ -157,24 +140,4 @@ public class LandingActivity extends AppCompatActivity {
             animator.start();
         }
     }
-
-    private void startBackgroundMusic() {
-        if (bgPlayer == null) {
-            bgPlayer = MediaPlayer.create(this, R.raw.creative_fun);
-            if (bgPlayer != null) {
-                bgPlayer.setLooping(true);
-                bgPlayer.start();
-            }
-        } else if (!bgPlayer.isPlaying()) {
-            bgPlayer.start();
-        }
-    }
-
-    private void stopBackgroundMusic() {
-        if (bgPlayer != null) {
-            bgPlayer.stop();
-            bgPlayer.release();
-            bgPlayer = null;
-        }
-    }
 }
@@ -2,7 +2,6 @@ package com.example.brightbuds_app.activities;
 
 import android.animation.ObjectAnimator;
 import android.content.Intent;
-import android.media.MediaPlayer;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
@@ -13,13 +12,12 @@ import androidx.annotation.Nullable;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.brightbuds_app.R;
+import com.example.brightbuds_app.services.AudioEngine;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 
 public class LauncherActivity extends AppCompatActivity {
 
-    private MediaPlayer clapPlayer;
-
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -28,10 +26,7 @@ public class LauncherActivity extends AppCompatActivity {
         ImageView imgBubbles = findViewById(R.id.imgBubbles);
 
         // Play clap sound once when splash shows
-        clapPlayer = MediaPlayer.create(this, R.raw.clap_sound);
-        if (clapPlayer != null) {
-            clapPlayer.start();
-        }
+        AudioEngine.getInstance(this).playEffect(R.raw.clap_sound);
 
         // Simple floating animation for bubbles
         if (imgBubbles != null) {
@@ -67,14 +62,4 @@ public class LauncherActivity extends AppCompatActivity {
         startActivity(intent);
         finish();
     }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (clapPlayer != null) {
-            clapPlayer.stop();
-            clapPlayer.release();
-            clapPlayer = null;
-        }
-    }
 }
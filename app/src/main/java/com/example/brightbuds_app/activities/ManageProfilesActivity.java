@@ -16,6 +16,7 @@ import com.example.brightbuds_app.R;
 import com.example.brightbuds_app.models.ChildProfile;
 import com.example.brightbuds_app.services.ChildProfileDAO;
 import com.example.brightbuds_app.utils.Constants;
+import com.example.brightbuds_app.utils.DrawableRegistry;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.DocumentSnapshot;
@@ -335,11 +336,7 @@ public class ManageProfilesActivity extends AppCompatActivity {
     }
 
     private int resolveAvatarResId(String avatarKey) {
-        if (TextUtils.isEmpty(avatarKey)) {
-            return R.drawable.ic_child_placeholder;
-        }
-        int resId = getResources().getIdentifier(avatarKey, "drawable", getPackageName());
-        return resId == 0 ? R.drawable.ic_child_placeholder : resId;
+        return DrawableRegistry.avatar(avatarKey, R.drawable.ic_child_placeholder);
     }
 
     @Override
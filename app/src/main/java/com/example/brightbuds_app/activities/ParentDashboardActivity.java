@@ -6,7 +6,6 @@ import android.content.Intent;
 import android.graphics.Bitmap;
 import android.graphics.Color;
 import android.graphics.PorterDuff;
-import android.media.MediaPlayer;
 import android.net.ConnectivityManager;
 import android.net.Network;
 import android.net.NetworkCapabilities;
@@ -28,6 +27,8 @@ import androidx.appcompat.app.AppCompatActivity;
 
 import com.bumptech.glide.Glide;
 import com.example.brightbuds_app.R;
+import com.example.brightbuds_app.services.AudioEngine;
+import com.example.brightbuds_app.utils.EncryptionUtil;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.DocumentSnapshot;
@@ -80,8 +81,7 @@ public class ParentDashboardActivity extends AppCompatActivity {
     private TextView txtEmail;
 
     // Media
-    private MediaPlayer bgMusicPlayer;
-    private MediaPlayer cardFlipPlayer;
+    private AudioEngine audio;
 
     // Firebase
     private FirebaseAuth auth;
@@ -90,7 +90,6 @@ public class ParentDashboardActivity extends AppCompatActivity {
 
     // State
     private boolean pinVerified = false;
-    private boolean isMuted = false;
 
     // Activity Result for picking image
     private ActivityResultLauncher<Intent> pickImageLauncher;
@@ -107,7 +106,7 @@ public class ParentDashboardActivity extends AppCompatActivity {
 
         initViews();
         initImagePickers();
-        initSounds();
+        audio = AudioEngine.getInstance(this);
         bindParentInfo();
         setupClickListeners();
         updateOfflineBanner();
@@ -184,27 +183,8 @@ public class ParentDashboardActivity extends AppCompatActivity {
         );
     }
 
-    private void initSounds() {
-        try {
-            bgMusicPlayer = MediaPlayer.create(this, R.raw.classical_music);
-            if (bgMusicPlayer != null) {
-                bgMusicPlayer.setLooping(true);
-                bgMusicPlayer.setVolume(0.25f, 0.25f);
-            }
-        } catch (Exception ignored) { }
-
-        try {
-            cardFlipPlayer = MediaPlayer.create(this, R.raw.card_flip);
-        } catch (Exception ignored) { }
-    }
-
     private void playCardFlipSound() {
-        if (isMuted) return;
-        try {
-            if (cardFlipPlayer != null) {
-                cardFlipPlayer.start();
-            }
-        } catch (Exception ignored) { }
+        audio.playEffect(R.raw.card_flip);
     }
 
     private void bindParentInfo() {
@@ -361,6 +341,8 @@ public class ParentDashboardActivity extends AppCompatActivity {
 
     // Logout and go to LandingActivity
     private void goToLoginAndFinish() {
+        // The session is over, so forget the derived encryption key
+        EncryptionUtil.clearKey();
         Intent intent = new Intent(ParentDashboardActivity.this, LandingActivity.class);
         intent.addFlags(Intent.FLAG_ACTIVITY_CLEAR_TOP | Intent.FLAG_ACTIVITY_NEW_TASK);
         startActivity(intent);
@@ -442,27 +424,17 @@ public class ParentDashboardActivity extends AppCompatActivity {
         // Mute button
         btnMute.setOnClickListener(v -> {
             if (!pinVerified) return;
-            isMuted = !isMuted;
+            // Mute applies to the whole app and is remembered across launches
+            boolean muted = !audio.isMuted();
+            audio.setMuted(muted);
             updateMuteIcon();
-            logParentAction(isMuted ? "mute_on" : "mute_off");
-
-            if (bgMusicPlayer != null) {
-                try {
-                    if (isMuted && bgMusicPlayer.isPlaying()) {
-                        bgMusicPlayer.pause();
-                    } else if (!isMuted && !bgMusicPlayer.isPlaying()) {
-                        bgMusicPlayer.start();
-                    }
-                } catch (Exception ignored) { }
-            }
+            logParentAction(muted ? "mute_on" : "mute_off");
         });
 
         // Logout button
         btnLogout.setOnClickListener(v -> {
             if (!pinVerified) return;
-            if (!isMuted) {
-                playCardFlipSound();
-            }
+            playCardFlipSound();
             logParentAction("logout_clicked");
             auth.signOut();
             goToLoginAndFinish();
@@ -498,17 +470,12 @@ public class ParentDashboardActivity extends AppCompatActivity {
     }
 
     private void startBackgroundMusic() {
-        if (isMuted) return;
-        try {
-            if (bgMusicPlayer != null && !bgMusicPlayer.isPlaying()) {
-                bgMusicPlayer.start();
-            }
-        } catch (Exception ignored) { }
+        audio.playMusic(R.raw.classical_music, 0.25f);
     }
 
     private void updateMuteIcon() {
         if (btnMute == null) return;
-        if (isMuted) {
+        if (audio.isMuted()) {
             btnMute.setColorFilter(Color.RED, PorterDuff.Mode.SRC_ATOP);
             btnMute.setAlpha(0.8f);
         } else {
@@ -517,44 +484,12 @@ public class ParentDashboardActivity extends AppCompatActivity {
         }
     }
 
-    @Override
-    protected void onPause() {
-        super.onPause();
-        if (bgMusicPlayer != null && bgMusicPlayer.isPlaying()) {
-            try {
-                bgMusicPlayer.pause();
-            } catch (Exception ignored) { }
-        }
-    }
-
     @Override
     protected void onResume() {
         super.onResume();
         updateOfflineBanner();
-        if (pinVerified && !isMuted && bgMusicPlayer != null && !bgMusicPlayer.isPlaying()) {
-            try {
-                bgMusicPlayer.start();
-            } catch (Exception ignored) { }
-        }
-    }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (bgMusicPlayer != null) {
-            try {
-                if (bgMusicPlayer.isPlaying()) {
-                    bgMusicPlayer.stop();
-                }
-            } catch (Exception ignored) { }
-            bgMusicPlayer.release();
-            bgMusicPlayer = null;
-        }
-        if (cardFlipPlayer != null) {
-            try {
-                cardFlipPlayer.release();
-            } catch (Exception ignored) { }
-            cardFlipPlayer = null;
+        if (pinVerified) {
+            startBackgroundMusic();
         }
     }
 
@@ -1,13 +1,7 @@
 package com.example.brightbuds_app.activities;
 
 import android.content.Intent;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
-import android.graphics.Canvas;
 import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.Rect;
-import android.graphics.pdf.PdfDocument;
 import android.os.Bundle;
 import android.os.Environment;
 import android.util.Log;
@@ -27,18 +21,19 @@ import androidx.appcompat.app.AppCompatActivity;
 import androidx.core.content.FileProvider;
 
 import com.example.brightbuds_app.R;
+import com.example.brightbuds_app.services.ITextReportWriter;
+import com.example.brightbuds_app.services.ReportDataLoader;
+import com.example.brightbuds_app.services.ReportRenderEngine;
+import com.example.brightbuds_app.utils.ReportAssetCache;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.DocumentSnapshot;
-import com.google.firebase.firestore.FirebaseFirestore;
-import com.google.firebase.firestore.Query;
 
 import java.io.File;
-import java.io.FileOutputStream;
-import java.io.IOException;
 import java.text.DateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
@@ -56,8 +51,9 @@ import java.util.Locale;
 public class ParentReportActivity extends AppCompatActivity {
 
     private static final String TAG = "ParentReportActivity";
+    private static final String RENDER_KEY = "parent_report";
 
-    private FirebaseFirestore db;
+    private ReportDataLoader reportDataLoader;
     private String parentId;
 
     // UI
@@ -79,12 +75,18 @@ public class ParentReportActivity extends AppCompatActivity {
     // Last generated PDF
     private File lastPdfFile;
 
+    // PDF rendering
+    private ReportRenderEngine renderEngine;
+    private final ReportRenderEngine.Listener renderListener = this::onRenderStateChanged;
+    private ChildItem pendingEmailChild;
+
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_parent_report);
 
-        db = FirebaseFirestore.getInstance();
+        reportDataLoader = new ReportDataLoader();
+        renderEngine = ReportRenderEngine.getInstance(this);
         parentId = FirebaseAuth.getInstance().getUid();
 
         spinnerChild = findViewById(R.id.spinnerChild);
@@ -128,6 +130,26 @@ public class ParentReportActivity extends AppCompatActivity {
         });
     }
 
+    @Override
+    protected void onStart() {
+        super.onStart();
+        renderEngine.addListener(RENDER_KEY, renderListener);
+    }
+
+    @Override
+    protected void onStop() {
+        renderEngine.removeListener(RENDER_KEY, renderListener);
+        super.onStop();
+    }
+
+    @Override
+    protected void onDestroy() {
+        if (isFinishing()) {
+            renderEngine.cancel(RENDER_KEY);
+        }
+        super.onDestroy();
+    }
+
     // region Child loading
 
     private void loadChildrenForSpinner() {
@@ -138,55 +160,62 @@ public class ParentReportActivity extends AppCompatActivity {
 
         childItems.clear();
 
-        db.collection("child_profiles")
-                .whereEqualTo("parentId", parentId)
-                .orderBy("name")
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    // default placeholder names to EXCLUDE from reports
-                    List<String> defaultNames = Arrays.asList(
-                            "Child 1", "Child 2", "Child 3", "Child 4", "Child 5"
-                    );
-
-                    for (DocumentSnapshot doc : snapshot) {
-                        String id = doc.getId();
-                        String name = doc.getString("name");
-                        if (name == null) {
-                            name = "";
-                        }
-                        name = name.trim();
-
-                        // Skip blank or default placeholder profiles
-                        if (name.isEmpty() || defaultNames.contains(name)) {
-                            continue;
-                        }
-
-                        childItems.add(new ChildItem(id, name));
-                    }
+        reportDataLoader.loadFamily(parentId, false, new ReportDataLoader.Callback() {
+            @Override
+            public void onLoaded(ReportDataLoader.ReportData data) {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+
+                // default placeholder names to EXCLUDE from reports
+                List<String> defaultNames = Arrays.asList(
+                        "Child 1", "Child 2", "Child 3", "Child 4", "Child 5"
+                );
 
-                    if (childItems.isEmpty()) {
-                        Toast.makeText(this,
-                                "No completed child profiles found for this parent",
-                                Toast.LENGTH_SHORT).show();
+                for (DocumentSnapshot doc : data.getProfiles()) {
+                    String id = doc.getId();
+                    String name = doc.getString("name");
+                    if (name == null) {
+                        name = "";
                     }
+                    name = name.trim();
 
-                    List<String> names = new ArrayList<>();
-                    for (ChildItem item : childItems) {
-                        names.add(item.name);
+                    // Skip blank or default placeholder profiles
+                    if (name.isEmpty() || defaultNames.contains(name)) {
+                        continue;
                     }
 
-                    ArrayAdapter<String> adapter = new ArrayAdapter<>(
-                            this,
-                            android.R.layout.simple_spinner_item,
-                            names
-                    );
-                    adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
-                    spinnerChild.setAdapter(adapter);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to load children", e);
-                    Toast.makeText(this, "Failed to load children", Toast.LENGTH_SHORT).show();
-                });
+                    childItems.add(new ChildItem(id, name));
+                }
+                Collections.sort(childItems, (a, b) -> a.name.compareTo(b.name));
+
+                if (childItems.isEmpty()) {
+                    Toast.makeText(ParentReportActivity.this,
+                            "No completed child profiles found for this parent",
+                            Toast.LENGTH_SHORT).show();
+                }
+
+                List<String> names = new ArrayList<>();
+                for (ChildItem item : childItems) {
+                    names.add(item.name);
+                }
+
+                ArrayAdapter<String> adapter = new ArrayAdapter<>(
+                        ParentReportActivity.this,
+                        android.R.layout.simple_spinner_item,
+                        names
+                );
+                adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+                spinnerChild.setAdapter(adapter);
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Log.e(TAG, "Failed to load children", e);
+                Toast.makeText(ParentReportActivity.this,
+                        "Failed to load children", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private ChildItem getSelectedChild() {
@@ -216,76 +245,68 @@ public class ParentReportActivity extends AppCompatActivity {
         layoutTablesContainer.removeViews(1, layoutTablesContainer.getChildCount() - 1);
         tvTablesPlaceholder.setText("Loading progress and analytics data...");
 
-        loadProgressThenAnalytics(child.id);
+        loadProgressAndAnalytics(child.id);
     }
 
-    private void loadProgressThenAnalytics(String childId) {
-        db.collection("child_progress")
-                .whereEqualTo("child_id", childId)
-                .orderBy("module_id", Query.Direction.ASCENDING)
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    for (DocumentSnapshot doc : snapshot) {
-                        try {
-                            ProgressRow row = new ProgressRow();
-                            row.moduleId = safeString(doc.getString("module_id"));
-                            Long score = doc.getLong("lastScore");
-                            Long stars = doc.getLong("stars");
-                            Long plays = doc.getLong("totalPlays");
-                            Long timeMs = doc.getLong("totalTimeMs");
-
-                            row.score = score != null ? score.intValue() : 0;
-                            row.stars = stars != null ? stars.intValue() : 0;
-                            row.plays = plays != null ? plays.intValue() : 0;
-                            row.timeMs = timeMs != null ? timeMs : 0L;
-
-                            progressList.add(row);
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error mapping progress doc", e);
-                        }
+    // Progress and analytics are fetched together and joined in one callback
+    private void loadProgressAndAnalytics(String childId) {
+        reportDataLoader.loadChild(childId, new ReportDataLoader.Callback() {
+            @Override
+            public void onLoaded(ReportDataLoader.ReportData data) {
+                if (isFinishing() || isDestroyed()) {
+                    return;
+                }
+
+                for (DocumentSnapshot doc : data.getProgressForChild(childId)) {
+                    try {
+                        ProgressRow row = new ProgressRow();
+                        row.moduleId = safeString(doc.getString("module_id"));
+                        Long score = doc.getLong("lastScore");
+                        Long stars = doc.getLong("stars");
+                        Long plays = doc.getLong("totalPlays");
+                        Long timeMs = doc.getLong("totalTimeMs");
+
+                        row.score = score != null ? score.intValue() : 0;
+                        row.stars = stars != null ? stars.intValue() : 0;
+                        row.plays = plays != null ? plays.intValue() : 0;
+                        row.timeMs = timeMs != null ? timeMs : 0L;
+
+                        progressList.add(row);
+                    } catch (Exception e) {
+                        Log.e(TAG, "Error mapping progress doc", e);
                     }
-
-                    loadAnalytics(childId);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to load child_progress", e);
-                    showLoading(false);
-                    Toast.makeText(this, "Failed to load progress", Toast.LENGTH_SHORT).show();
-                });
-    }
-
-    private void loadAnalytics(String childId) {
-        db.collection("child_analytics")
-                .whereEqualTo("child_id", childId)
-                .orderBy("module_id", Query.Direction.ASCENDING)
-                .get()
-                .addOnSuccessListener(snapshot -> {
-                    for (DocumentSnapshot doc : snapshot) {
-                        try {
-                            AnalyticsRow row = new AnalyticsRow();
-                            row.moduleId = safeString(doc.getString("module_id"));
-                            Double avgScore = doc.getDouble("avgScore");
-                            Double accuracy = doc.getDouble("accuracy");
-                            Double avgTimeMs = doc.getDouble("avgTimeMs");
-
-                            row.avgScore = avgScore != null ? avgScore : 0.0;
-                            row.accuracyFraction = accuracy != null ? accuracy : 0.0;
-                            row.avgTimeMs = avgTimeMs != null ? avgTimeMs : 0.0;
-
-                            analyticsList.add(row);
-                        } catch (Exception e) {
-                            Log.e(TAG, "Error mapping analytics doc", e);
-                        }
+                }
+
+                for (DocumentSnapshot doc : data.getAnalyticsForChild(childId)) {
+                    try {
+                        AnalyticsRow row = new AnalyticsRow();
+                        row.moduleId = safeString(doc.getString("module_id"));
+                        Double avgScore = doc.getDouble("avgScore");
+                        Double accuracy = doc.getDouble("accuracy");
+                        Double avgTimeMs = doc.getDouble("avgTimeMs");
+
+                        row.avgScore = avgScore != null ? avgScore : 0.0;
+                        row.accuracyFraction = accuracy != null ? accuracy : 0.0;
+                        row.avgTimeMs = avgTimeMs != null ? avgTimeMs : 0.0;
+
+                        analyticsList.add(row);
+                    } catch (Exception e) {
+                        Log.e(TAG, "Error mapping analytics doc", e);
                     }
+                }
+
+                showLoading(false);
+                buildTablesUI();
+            }
 
-                    showLoading(false);
-                    buildTablesUI();
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "Failed to load child_analytics", e);
-                    showLoading(false);
-                    Toast.makeText(this, "Failed to load analytics", Toast.LENGTH_SHORT).show();
-                });
+            @Override
+            public void onFailure(Exception e) {
+                Log.e(TAG, "Failed to load progress and analytics", e);
+                showLoading(false);
+                Toast.makeText(ParentReportActivity.this,
+                        "Failed to load progress", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     private void buildTablesUI() {
@@ -417,10 +438,7 @@ public class ParentReportActivity extends AppCompatActivity {
             return;
         }
 
-        lastPdfFile = generatePdfReport(child);
-        if (lastPdfFile != null) {
-            Toast.makeText(this, "PDF saved: " + lastPdfFile.getName(), Toast.LENGTH_SHORT).show();
-        }
+        startPdfRender(child, false);
     }
 
     private void onEmailPdfClicked() {
@@ -430,279 +448,66 @@ public class ParentReportActivity extends AppCompatActivity {
             return;
         }
 
-        if (lastPdfFile == null || !lastPdfFile.exists()) {
-            lastPdfFile = generatePdfReport(child);
-        }
-        if (lastPdfFile == null) {
-            Toast.makeText(this, "Unable to generate PDF", Toast.LENGTH_SHORT).show();
+        if (lastPdfFile != null && lastPdfFile.exists()) {
+            sharePdfByEmail(lastPdfFile, child);
             return;
         }
 
-        sharePdfByEmail(lastPdfFile, child);
+        startPdfRender(child, true);
     }
 
-    private File generatePdfReport(ChildItem child) {
-        PdfDocument pdf = new PdfDocument();
-
-        int pageWidth = 595;
-        int pageHeight = 842;
-        int margin = 40;
-        int headerHeight = 90;
-
-        Paint paint = new Paint();
-        Paint headerPaint = new Paint();
-        Paint whitePanelPaint = new Paint();
-        Paint linePaint = new Paint();
-
-        headerPaint.setColor(Color.parseColor("#1976D2"));
-        headerPaint.setStyle(Paint.Style.FILL);
-
-        whitePanelPaint.setColor(Color.WHITE);
-        whitePanelPaint.setStyle(Paint.Style.FILL);
-        whitePanelPaint.setAlpha(235);
-
-        linePaint.setColor(Color.LTGRAY);
-        linePaint.setStrokeWidth(1f);
-
-        Bitmap bgBitmap = null;
-        Bitmap pageBgScaled = null;
-        Bitmap logoBitmap = null;
-        Bitmap logoScaled = null;
-
-        try {
-            bgBitmap = BitmapFactory.decodeResource(getResources(), R.drawable.bluestar_background);
-            if (bgBitmap != null) {
-                pageBgScaled = Bitmap.createScaledBitmap(bgBitmap, pageWidth, pageHeight, true);
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error loading bluestar_background", e);
-        }
-
-        try {
-            logoBitmap = BitmapFactory.decodeResource(getResources(), R.drawable.ic_brightbuds_logo);
-            if (logoBitmap != null) {
-                logoScaled = Bitmap.createScaledBitmap(logoBitmap, 70, 70, true);
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error loading ic_brightbuds_logo", e);
-        }
-
-        int[] yHolder = new int[1];
-
-        PdfDocument.Page page = startNewPage(
-                pdf,
-                pageWidth,
-                pageHeight,
-                margin,
-                headerHeight,
-                paint,
-                headerPaint,
-                whitePanelPaint,
-                pageBgScaled,
-                logoScaled,
-                yHolder
-        );
-        Canvas canvas = page.getCanvas();
-        int y = yHolder[0];
-
-        paint.setFakeBoldText(false);
-        paint.setColor(Color.BLACK);
-        paint.setTextSize(14f);
-
-        String childLine = "Child: " + child.name;
-        String dateLine = "Date: " + DateFormat.getDateInstance().format(new Date());
-
-        canvas.drawText(childLine, margin + 10, y, paint);
-        y += 20;
-        canvas.drawText(dateLine, margin + 10, y, paint);
-        y += 30;
-
-        // Progress summary
-        paint.setFakeBoldText(true);
-        paint.setTextSize(16f);
-        canvas.drawText("Progress summary", margin + 10, y, paint);
-        y += 20;
-
-        paint.setTextSize(12f);
-        canvas.drawLine(margin + 10, y, pageWidth - margin - 10, y, linePaint);
-        y += 18;
-
-        canvas.drawText("Module", margin + 10, y, paint);
-        canvas.drawText("Score", margin + 160, y, paint);
-        canvas.drawText("Stars", margin + 240, y, paint);
-        canvas.drawText("Plays", margin + 310, y, paint);
-        canvas.drawText("Time (min)", margin + 400, y, paint);
-        y += 16;
-        canvas.drawLine(margin + 10, y, pageWidth - margin - 10, y, linePaint);
-        y += 16;
-
-        paint.setFakeBoldText(false);
-
-        for (ProgressRow row : progressList) {
-            if (y > pageHeight - margin - 80) {
-                pdf.finishPage(page);
-                page = startNewPage(
-                        pdf,
-                        pageWidth,
-                        pageHeight,
-                        margin,
-                        headerHeight,
-                        paint,
-                        headerPaint,
-                        whitePanelPaint,
-                        pageBgScaled,
-                        logoScaled,
-                        yHolder
-                );
-                canvas = page.getCanvas();
-                y = yHolder[0];
-            }
-
-            double minutes = row.timeMs / 60000.0;
-            String timeStr = String.format(Locale.US, "%.1f", minutes);
-
-            canvas.drawText(row.moduleId, margin + 10, y, paint);
-            canvas.drawText(row.score + "%", margin + 160, y, paint);
-            canvas.drawText(String.valueOf(row.stars), margin + 240, y, paint);
-            canvas.drawText(String.valueOf(row.plays), margin + 310, y, paint);
-            canvas.drawText(timeStr, margin + 400, y, paint);
-            y += 18;
-        }
-
-        y += 30;
-
-        // Analytics summary
-        paint.setFakeBoldText(true);
-        paint.setTextSize(16f);
-        canvas.drawText("Analytics summary", margin + 10, y, paint);
-        y += 20;
-
-        paint.setTextSize(12f);
-        canvas.drawLine(margin + 10, y, pageWidth - margin - 10, y, linePaint);
-        y += 18;
-
-        canvas.drawText("Module", margin + 10, y, paint);
-        canvas.drawText("Avg score", margin + 150, y, paint);
-        canvas.drawText("Accuracy", margin + 260, y, paint);
-        canvas.drawText("Avg time (s)", margin + 380, y, paint);
-        y += 16;
-        canvas.drawLine(margin + 10, y, pageWidth - margin - 10, y, linePaint);
-        y += 16;
-
-        paint.setFakeBoldText(false);
-
-        for (AnalyticsRow row : analyticsList) {
-            if (y > pageHeight - margin - 80) {
-                pdf.finishPage(page);
-                page = startNewPage(
-                        pdf,
-                        pageWidth,
-                        pageHeight,
-                        margin,
-                        headerHeight,
-                        paint,
-                        headerPaint,
-                        whitePanelPaint,
-                        pageBgScaled,
-                        logoScaled,
-                        yHolder
-                );
-                canvas = page.getCanvas();
-                y = yHolder[0];
-            }
-
-            double accuracyPercent = row.accuracyFraction * 100.0;
-            double avgTimeSeconds = row.avgTimeMs / 1000.0;
-
-            String avgScoreStr = String.format(Locale.US, "%.1f%%", row.avgScore);
-            String accuracyStr = String.format(Locale.US, "%.1f%%", accuracyPercent);
-            String timeStr = String.format(Locale.US, "%.1f", avgTimeSeconds);
-
-            canvas.drawText(row.moduleId, margin + 10, y, paint);
-            canvas.drawText(avgScoreStr, margin + 150, y, paint);
-            canvas.drawText(accuracyStr, margin + 260, y, paint);
-            canvas.drawText(timeStr, margin + 380, y, paint);
-            y += 18;
-        }
-
-        pdf.finishPage(page);
-
+    // Rendering runs on the report engine thread; the result arrives in onRenderStateChanged
+    private void startPdfRender(ChildItem child, boolean emailWhenDone) {
         File dir = getExternalFilesDir(Environment.DIRECTORY_DOCUMENTS);
         if (dir == null) {
             dir = getFilesDir();
         }
 
         String safeName = child.name.replaceAll("\\s+", "_");
-        String fileName = "BrightBuds_Report_" + safeName + ".pdf";
-        File file = new File(dir, fileName);
-
-        try (FileOutputStream out = new FileOutputStream(file)) {
-            pdf.writeTo(out);
-            pdf.close();
-            return file;
-        } catch (IOException e) {
-            Log.e(TAG, "Failed to save PDF", e);
-            pdf.close();
-            Toast.makeText(this, "Failed to save PDF", Toast.LENGTH_SHORT).show();
-            return null;
-        }
-    }
+        File file = new File(dir, "BrightBuds_Report_" + safeName + ".pdf");
 
-    private PdfDocument.Page startNewPage(
-            PdfDocument pdf,
-            int pageWidth,
-            int pageHeight,
-            int margin,
-            int headerHeight,
-            Paint paint,
-            Paint headerPaint,
-            Paint whitePanelPaint,
-            Bitmap pageBgScaled,
-            Bitmap logoScaled,
-            int[] yHolder
-    ) {
-        PdfDocument.PageInfo pageInfo =
-                new PdfDocument.PageInfo.Builder(pageWidth, pageHeight, pdf.getPages().size() + 1).create();
-        PdfDocument.Page page = pdf.startPage(pageInfo);
-        Canvas canvas = page.getCanvas();
-
-        if (pageBgScaled != null) {
-            canvas.drawBitmap(pageBgScaled, 0, 0, null);
-        }
-
-        Rect panelRect = new Rect(
-                margin / 2,
-                headerHeight,
-                pageWidth - margin / 2,
-                pageHeight - margin / 2
-        );
-        canvas.drawRoundRect(
-                panelRect.left,
-                panelRect.top,
-                panelRect.right,
-                panelRect.bottom,
-                20,
-                20,
-                whitePanelPaint
-        );
-
-        Rect headerRect = new Rect(0, 0, pageWidth, headerHeight);
-        canvas.drawRect(headerRect, headerPaint);
+        pendingEmailChild = emailWhenDone ? child : null;
+        renderEngine.submit(RENDER_KEY, file,
+                new ParentReportJob(child.name, progressList, analyticsList));
+    }
 
-        if (logoScaled != null) {
-            int logoX = margin;
-            int logoY = headerRect.centerY() - (logoScaled.getHeight() / 2);
-            canvas.drawBitmap(logoScaled, logoX, logoY, null);
+    private void onRenderStateChanged(ReportRenderEngine.RenderState state) {
+        boolean running = state.status == ReportRenderEngine.Status.RUNNING;
+        btnDownloadPdf.setEnabled(!running);
+        btnEmailPdf.setEnabled(!running);
+
+        switch (state.status) {
+            case RUNNING:
+                showLoading(true);
+                break;
+
+            case COMPLETED:
+                showLoading(false);
+                lastPdfFile = state.file;
+                renderEngine.clearState(RENDER_KEY);
+                if (lastPdfFile == null) {
+                    break;
+                }
+                Toast.makeText(this, "PDF saved: " + lastPdfFile.getName(), Toast.LENGTH_SHORT).show();
+
+                if (pendingEmailChild != null) {
+                    ChildItem child = pendingEmailChild;
+                    pendingEmailChild = null;
+                    sharePdfByEmail(lastPdfFile, child);
+                }
+                break;
+
+            case FAILED:
+                showLoading(false);
+                pendingEmailChild = null;
+                renderEngine.clearState(RENDER_KEY);
+                Toast.makeText(this, "Failed to save PDF", Toast.LENGTH_SHORT).show();
+                break;
+
+            default:
+                showLoading(false);
+                break;
         }
-
-        paint.setColor(Color.WHITE);
-        paint.setTextSize(20f);
-        paint.setFakeBoldText(true);
-        canvas.drawText("BrightBuds progress report", margin + 100, headerRect.centerY() + 5, paint);
-
-        int y = headerHeight + 30;
-        yHolder[0] = y;
-        return page;
     }
 
     private void sharePdfByEmail(File file, ChildItem child) {
@@ -770,5 +575,129 @@ public class ParentReportActivity extends AppCompatActivity {
         double avgTimeMs;
     }
 
+    /**
+     * Draws the single child report. Holds copies of the table rows so it
+     * can run on the render thread after the screen has changed.
+     */
+    private static final class ParentReportJob implements ReportRenderEngine.ReportJob {
+
+        private static final int PAGE_WIDTH = 595;
+        private static final int PAGE_HEIGHT = 842;
+        private static final int MARGIN = 40;
+        private static final int HEADER_HEIGHT = 90;
+
+        private final String childName;
+        private final List<ProgressRow> progressRows;
+        private final List<AnalyticsRow> analyticsRows;
+
+        ParentReportJob(String childName,
+                        List<ProgressRow> progressRows,
+                        List<AnalyticsRow> analyticsRows) {
+            this.childName = childName;
+            this.progressRows = new ArrayList<>(progressRows);
+            this.analyticsRows = new ArrayList<>(analyticsRows);
+        }
+
+        @Override
+        public void render(ReportRenderEngine.RenderContext context) throws Exception {
+            // Background, header and logo are stored once and shared by every page
+            ReportAssetCache assets = ReportAssetCache.getInstance(context.getAppContext());
+            ITextReportWriter writer = context.openBrandedPdf(PAGE_WIDTH, PAGE_HEIGHT,
+                    MARGIN, HEADER_HEIGHT, "BrightBuds progress report",
+                    assets.getPageBackground(PAGE_WIDTH, PAGE_HEIGHT), assets.getLogo());
+
+            int totalRows = progressRows.size() + analyticsRows.size();
+            int rowsDone = 0;
+
+            int y = startNewPage(writer);
+
+            String childLine = "Child: " + childName;
+            String dateLine = "Date: " + DateFormat.getDateInstance().format(new Date());
+
+            writer.drawText(childLine, MARGIN + 10, y, 14f, false);
+            y += 20;
+            writer.drawText(dateLine, MARGIN + 10, y, 14f, false);
+            y += 30;
+
+            // Progress summary
+            writer.drawText("Progress summary", MARGIN + 10, y, 16f, true);
+            y += 20;
+
+            writer.drawLine(MARGIN + 10, y, PAGE_WIDTH - MARGIN - 10, y);
+            y += 18;
+
+            writer.drawText("Module", MARGIN + 10, y, 12f, true);
+            writer.drawText("Score", MARGIN + 160, y, 12f, true);
+            writer.drawText("Stars", MARGIN + 240, y, 12f, true);
+            writer.drawText("Plays", MARGIN + 310, y, 12f, true);
+            writer.drawText("Time (min)", MARGIN + 400, y, 12f, true);
+            y += 16;
+            writer.drawLine(MARGIN + 10, y, PAGE_WIDTH - MARGIN - 10, y);
+            y += 16;
+
+            for (ProgressRow row : progressRows) {
+                context.throwIfCancelled();
+                if (y > PAGE_HEIGHT - MARGIN - 80) {
+                    y = startNewPage(writer);
+                }
+
+                double minutes = row.timeMs / 60000.0;
+                String timeStr = String.format(Locale.US, "%.1f", minutes);
+
+                writer.drawText(row.moduleId, MARGIN + 10, y, 12f, false);
+                writer.drawText(row.score + "%", MARGIN + 160, y, 12f, false);
+                writer.drawText(String.valueOf(row.stars), MARGIN + 240, y, 12f, false);
+                writer.drawText(String.valueOf(row.plays), MARGIN + 310, y, 12f, false);
+                writer.drawText(timeStr, MARGIN + 400, y, 12f, false);
+                y += 18;
+                context.setProgress(++rowsDone, totalRows);
+            }
+
+            y += 30;
+
+            // Analytics summary
+            writer.drawText("Analytics summary", MARGIN + 10, y, 16f, true);
+            y += 20;
+
+            writer.drawLine(MARGIN + 10, y, PAGE_WIDTH - MARGIN - 10, y);
+            y += 18;
+
+            writer.drawText("Module", MARGIN + 10, y, 12f, true);
+            writer.drawText("Avg score", MARGIN + 150, y, 12f, true);
+            writer.drawText("Accuracy", MARGIN + 260, y, 12f, true);
+            writer.drawText("Avg time (s)", MARGIN + 380, y, 12f, true);
+            y += 16;
+            writer.drawLine(MARGIN + 10, y, PAGE_WIDTH - MARGIN - 10, y);
+            y += 16;
+
+            for (AnalyticsRow row : analyticsRows) {
+                context.throwIfCancelled();
+                if (y > PAGE_HEIGHT - MARGIN - 80) {
+                    y = startNewPage(writer);
+                }
+
+                double accuracyPercent = row.accuracyFraction * 100.0;
+                double avgTimeSeconds = row.avgTimeMs / 1000.0;
+
+                String avgScoreStr = String.format(Locale.US, "%.1f%%", row.avgScore);
+                String accuracyStr = String.format(Locale.US, "%.1f%%", accuracyPercent);
+                String timeStr = String.format(Locale.US, "%.1f", avgTimeSeconds);
+
+                writer.drawText(row.moduleId, MARGIN + 10, y, 12f, false);
+                writer.drawText(avgScoreStr, MARGIN + 150, y, 12f, false);
+                writer.drawText(accuracyStr, MARGIN + 260, y, 12f, false);
+                writer.drawText(timeStr, MARGIN + 380, y, 12f, false);
+                y += 18;
+                context.setProgress(++rowsDone, totalRows);
+            }
+        }
+
+        /** Starts a page with the shared artwork and returns the first body line. */
+        private int startNewPage(ITextReportWriter writer) {
+            writer.startPage();
+            return HEADER_HEIGHT + 30;
+        }
+    }
+
     // endregion
 }
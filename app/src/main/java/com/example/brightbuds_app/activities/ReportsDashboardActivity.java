@@ -1,7 +1,6 @@
 package com.example.brightbuds_app.activities;
 
 import android.content.Intent;
-import android.media.MediaPlayer;
 import android.net.ConnectivityManager;
 import android.net.NetworkInfo;
 import android.os.Bundle;
@@ -12,6 +11,7 @@ import android.widget.Toast;
 import androidx.appcompat.app.AppCompatActivity;
 
 import com.example.brightbuds_app.R;
+import com.example.brightbuds_app.services.AudioEngine;
 
 /**
  * ReportsDashboardActivity
@@ -32,8 +32,6 @@ import com.example.brightbuds_app.R;
  */
 public class ReportsDashboardActivity extends AppCompatActivity {
 
-    private MediaPlayer bgMusic;
-
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
@@ -49,8 +47,6 @@ public class ReportsDashboardActivity extends AppCompatActivity {
         ImageView btnHomeReports  = findViewById(R.id.btnHomeReports);
         ImageView btnCloseReports = findViewById(R.id.btnCloseReports);
 
-        startBackgroundMusic();
-
         // Home goes back to ParentDashboardActivity
         btnHomeReports.setOnClickListener(v -> {
             Intent intent = new Intent(ReportsDashboardActivity.this, ParentDashboardActivity.class);
@@ -114,17 +110,6 @@ public class ReportsDashboardActivity extends AppCompatActivity {
         });
     }
 
-    private void startBackgroundMusic() {
-        try {
-            bgMusic = MediaPlayer.create(this, R.raw.classical_music);
-            if (bgMusic != null) {
-                bgMusic.setLooping(true);
-                bgMusic.setVolume(0.2f, 0.2f);
-                bgMusic.start();
-            }
-        } catch (Exception ignored) { }
-    }
-
     private boolean isOnline() {
         ConnectivityManager cm = (ConnectivityManager) getSystemService(CONNECTIVITY_SERVICE);
         if (cm == null) return false;
@@ -132,33 +117,9 @@ public class ReportsDashboardActivity extends AppCompatActivity {
         return ni != null && ni.isConnected();
     }
 
-    @Override
-    protected void onPause() {
-        super.onPause();
-        if (bgMusic != null && bgMusic.isPlaying()) {
-            bgMusic.pause();
-        }
-    }
-
     @Override
     protected void onResume() {
         super.onResume();
-        if (bgMusic != null && !bgMusic.isPlaying()) {
-            bgMusic.start();
-        }
-    }
-
-    @Override
-    protected void onDestroy() {
-        super.onDestroy();
-        if (bgMusic != null) {
-            try {
-                if (bgMusic.isPlaying()) {
-                    bgMusic.stop();
-                }
-            } catch (Exception ignored) { }
-            bgMusic.release();
-            bgMusic = null;
-        }
+        AudioEngine.getInstance(this).playMusic(R.raw.classical_music, 0.2f);
     }
 }
@@ -0,0 +1,188 @@
+package com.example.brightbuds_app.activities;
+
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.widget.ImageButton;
+
+import androidx.annotation.Nullable;
+import androidx.appcompat.app.AppCompatActivity;
+import androidx.media3.common.C;
+import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.ui.PlayerView;
+
+import com.example.brightbuds_app.R;
+import com.example.brightbuds_app.interfaces.DataCallbacks;
+import com.example.brightbuds_app.services.ProgressService;
+import com.example.brightbuds_app.services.SongPlayerPool;
+import com.example.brightbuds_app.services.SpeechService;
+import com.example.brightbuds_app.utils.AnalyticsSessionManager;
+
+/**
+ * Shared screen for the bundled song videos.
+ *
+ * ABCSongActivity, NumbersSongActivity and ShapesSongActivity only pick
+ * the song. The player comes from SongPlayerPool, already prepared when
+ * the song was preloaded or played before, and goes back to the pool when
+ * the screen closes. Stop rewinds the same player instead of building a
+ * new one. While a song is open, the song the child is likely to open
+ * next is preloaded.
+ */
+public abstract class SongPlayerActivity extends AppCompatActivity {
+
+    private final SongPlayerPool.Song song;
+
+    private PlayerView playerView;
+    private ExoPlayer player;
+    private SongPlayerPool pool;
+    private ImageButton btnPlay, btnPause, btnStop, btnHome, btnClose;
+
+    private ProgressService progressService;
+
+    private String childId;
+
+    private long sessionStartMs = 0L;
+    private boolean sessionStarted = false;
+    private boolean metricsSaved = false;
+
+    private SpeechService speech;
+    private AnalyticsSessionManager analyticsManager;
+
+    protected SongPlayerActivity(SongPlayerPool.Song song) {
+        this.song = song;
+    }
+
+    @Override
+    protected void onCreate(@Nullable Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_video_stream);
+
+        progressService = new ProgressService(this);
+
+        childId = getIntent().getStringExtra("child_id");
+
+        analyticsManager = new AnalyticsSessionManager(this, childId, song.moduleId);
+
+        playerView = findViewById(R.id.playerView);
+        btnPlay = findViewById(R.id.btnVideoPlay);
+        btnPause = findViewById(R.id.btnVideoPause);
+        btnStop = findViewById(R.id.btnVideoStop);
+        btnHome = findViewById(R.id.btnVideoHome);
+        btnClose = findViewById(R.id.btnVideoClose);
+
+        setupVideo();
+        setupButtons();
+        setupTts();
+    }
+
+    private void setupVideo() {
+        pool = SongPlayerPool.getInstance(this);
+        // Prepared and paused at the start; the child presses Play
+        player = pool.acquire(song);
+        playerView.setPlayer(player);
+        pool.preloadFavourite(childId, song);
+    }
+
+    private void setupButtons() {
+        btnPlay.setOnClickListener(v -> {
+            if (!sessionStarted) {
+                sessionStarted = true;
+                sessionStartMs = SystemClock.elapsedRealtime();
+                analyticsManager.startSession();
+            }
+
+            player.play();
+        });
+
+        btnPause.setOnClickListener(v -> player.pause());
+
+        btnStop.setOnClickListener(v -> {
+            player.pause();
+            player.seekTo(0);
+            saveMetricsIfNeeded();
+        });
+
+        btnHome.setOnClickListener(v -> {
+            saveMetricsIfNeeded();
+            finish();
+        });
+
+        btnClose.setOnClickListener(v -> {
+            saveMetricsIfNeeded();
+            finish();
+        });
+    }
+
+    private void setupTts() {
+        speech = SpeechService.getInstance(this);
+        speech.speak(song.prompt);
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        player.pause();
+        saveMetricsIfNeeded();
+    }
+
+    @Override
+    protected void onDestroy() {
+        saveMetricsIfNeeded();
+        if (speech != null) {
+            speech.stop();
+        }
+        if (player != null) {
+            playerView.setPlayer(null);
+            pool.recycle(song, player);
+            player = null;
+        }
+        super.onDestroy();
+    }
+
+    private void saveMetricsIfNeeded() {
+        if (metricsSaved) return;
+        if (!sessionStarted) return;        // child never pressed play
+        if (childId == null) return;
+
+        metricsSaved = true;
+
+        long endMs = SystemClock.elapsedRealtime();
+        long timeSpentMs = Math.max(0L, endMs - sessionStartMs);
+
+        long durationMs = player != null ? player.getDuration() : C.TIME_UNSET;
+        double fractionWatched = 0.0;
+        if (durationMs != C.TIME_UNSET && durationMs > 0) {
+            fractionWatched = timeSpentMs / (double) durationMs;
+        }
+
+        boolean completed = fractionWatched >= 0.8;
+        int score = completed ? 100 : 50;
+        int stars = completed ? 1 : 0;
+        int completedFlag = completed ? 1 : 0;
+        int plays = 1;   // one viewing session for this activity run
+
+        // 1. SQLite detailed analytics through AnalyticsSessionManager
+        analyticsManager.endSession(
+                score,
+                0,          // totalCorrect (songs do not have correct answers)
+                0,          // totalAttempts
+                stars,
+                completedFlag
+        );
+
+        // 2. Firestore summary with full song metrics
+        progressService.logVideoPlay(
+                childId,
+                song.moduleId,
+                score,
+                timeSpentMs,
+                stars,
+                completedFlag,
+                plays,
+                new DataCallbacks.GenericCallback() {
+                    @Override public void onSuccess(String message) { }
+
+                    @Override public void onFailure(Exception e) { }
+                }
+        );
+    }
+}
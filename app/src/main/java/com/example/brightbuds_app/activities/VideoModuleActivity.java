@@ -3,26 +3,44 @@ package com.example.brightbuds_app.activities;
 import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
+import android.os.SystemClock;
 import android.util.Log;
 import android.widget.ImageButton;
 import android.widget.Toast;
-import android.widget.VideoView;
 
+import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
 import androidx.appcompat.app.AppCompatActivity;
+import androidx.media3.common.C;
+import androidx.media3.common.PlaybackException;
+import androidx.media3.common.Player;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.HttpDataSource;
+import androidx.media3.exoplayer.ExoPlayer;
+import androidx.media3.exoplayer.source.DefaultMediaSourceFactory;
+import androidx.media3.ui.PlayerView;
 
 import com.example.brightbuds_app.R;
 import com.example.brightbuds_app.interfaces.DataCallbacks;
 import com.example.brightbuds_app.services.ProgressService;
-import com.example.brightbuds_app.services.StorageService;
 import com.example.brightbuds_app.services.DatabaseHelper;
+import com.example.brightbuds_app.services.VideoCache;
 import com.example.brightbuds_app.utils.AnalyticsSessionManager;
 
+/*
+ Plays a module video streamed from Firebase Storage through VideoCache.
+ The player is prepared as soon as the screen opens, so the first frame
+ shows once the first part has arrived instead of after the whole download.
+ */
+@OptIn(markerClass = UnstableApi.class)
 public class VideoModuleActivity extends AppCompatActivity {
 
     private static final String TAG = "VideoModuleActivity";
 
-    private VideoView videoView;
+    private PlayerView playerView;
+    private ExoPlayer player;
+    private VideoCache videoCache;
     private ImageButton btnPlay, btnPause, btnStop, btnHome, btnClose;
 
     private String storagePath;
@@ -42,12 +60,19 @@ public class VideoModuleActivity extends AppCompatActivity {
     private Handler timerHandler;
     private Runnable timerRunnable;
 
+    // Startup latency, from opening the screen to the first rendered frame
+    private long openedAtMs;
+    private boolean startedFromCache;
+    private boolean firstFrameLogged = false;
+    private boolean urlRetried = false;
+
     @Override
     protected void onCreate(@Nullable Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
-        setContentView(R.layout.activity_video_module);
+        setContentView(R.layout.activity_video_stream);
+        openedAtMs = SystemClock.elapsedRealtime();
 
-        videoView = findViewById(R.id.videoViewSong);
+        playerView = findViewById(R.id.playerView);
         btnPlay = findViewById(R.id.btnVideoPlay);
         btnPause = findViewById(R.id.btnVideoPause);
         btnStop = findViewById(R.id.btnVideoStop);
@@ -69,42 +94,90 @@ public class VideoModuleActivity extends AppCompatActivity {
 
         progressService = new ProgressService(this);
         analyticsManager = new AnalyticsSessionManager(this, childId, moduleId);
-        localDb = new DatabaseHelper(this);
+        localDb = DatabaseHelper.getInstance(this);
         timerHandler = new Handler();
 
+        setupPlayer();
         loadVideoFromFirebase(storagePath);
         setupControls();
     }
 
-    private void loadVideoFromFirebase(String path) {
-        StorageService.getInstance().getOrDownloadFile(
-                this,
-                path,
-                uri -> runOnUiThread(() -> setupVideoView(uri)),
-                e -> {
-                    Log.e(TAG, "Video download failed: " + e.getMessage());
-                    runOnUiThread(() ->
-                            Toast.makeText(this, "Video load error: " + e.getMessage(), Toast.LENGTH_LONG).show()
-                    );
+    private void setupPlayer() {
+        videoCache = VideoCache.getInstance(this);
+        player = new ExoPlayer.Builder(this)
+                .setMediaSourceFactory(new DefaultMediaSourceFactory(videoCache.dataSourceFactory()))
+                .build();
+        playerView.setPlayer(player);
+
+        player.addListener(new Player.Listener() {
+            @Override
+            public void onPlaybackStateChanged(int state) {
+                if (state == Player.STATE_ENDED) {
+                    endAnalyticsIfNeeded();
                 }
-        );
-    }
+            }
 
-    private void setupVideoView(Uri uri) {
-        videoView.setVideoURI(uri);
+            @Override
+            public void onRenderedFirstFrame() {
+                if (firstFrameLogged) return;
+                firstFrameLogged = true;
+                Log.i(TAG, "⏱️ First frame after " + (SystemClock.elapsedRealtime() - openedAtMs)
+                        + " ms (" + (startedFromCache ? "from cache" : "streamed") + "): " + storagePath);
+            }
 
-        videoView.setOnPreparedListener(mp -> {
+            @Override
+            public void onPlayerError(@NonNull PlaybackException error) {
+                onVideoError(error);
+            }
         });
+    }
 
-        videoView.setOnCompletionListener(mp -> {
-            endAnalyticsIfNeeded();
+    private void loadVideoFromFirebase(String path) {
+        startedFromCache = videoCache.isFullyCached(path);
+        videoCache.resolveUrl(path, new VideoCache.UrlCallback() {
+            @Override
+            public void onResolved(Uri uri) {
+                if (isFinishing() || player == null) return;
+                // Prepare straight away so the first part is buffered before Play is pressed
+                player.setMediaItem(videoCache.mediaItem(path, uri));
+                player.prepare();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                Log.e(TAG, "Video load failed: " + e.getMessage());
+                Toast.makeText(VideoModuleActivity.this,
+                        "Video load error: " + e.getMessage(), Toast.LENGTH_LONG).show();
+            }
         });
     }
 
+    // A stored URL whose token was revoked is resolved again once
+    private void onVideoError(PlaybackException error) {
+        Throwable cause = error.getCause();
+        if (!urlRetried && cause instanceof HttpDataSource.InvalidResponseCodeException) {
+            int code = ((HttpDataSource.InvalidResponseCodeException) cause).responseCode;
+            if (code == 401 || code == 403 || code == 404) {
+                urlRetried = true;
+                Log.w(TAG, "Video URL rejected with " + code + ", resolving again");
+                videoCache.invalidateUrl(storagePath);
+                loadVideoFromFirebase(storagePath);
+                return;
+            }
+        }
+        Log.e(TAG, "Video playback failed", error);
+        Toast.makeText(this, "Video load error: " + error.getMessage(), Toast.LENGTH_LONG).show();
+    }
+
+    private long videoDurationMs() {
+        long duration = player != null ? player.getDuration() : C.TIME_UNSET;
+        return duration == C.TIME_UNSET ? 0L : duration;
+    }
+
     private void setupControls() {
 
         btnPlay.setOnClickListener(v -> {
-            if (videoView == null) return;
+            if (player == null) return;
 
             if (!playbackStarted) {
                 playbackStarted = true;
@@ -115,21 +188,22 @@ public class VideoModuleActivity extends AppCompatActivity {
                 startTimer();
             }
 
-            if (!videoView.isPlaying()) {
-                videoView.start();
+            if (player.getPlaybackState() == Player.STATE_ENDED) {
+                player.seekTo(0);
             }
+            player.play();
         });
 
         btnPause.setOnClickListener(v -> {
-            if (videoView != null && videoView.isPlaying()) {
-                videoView.pause();
+            if (player != null) {
+                player.pause();
             }
         });
 
         btnStop.setOnClickListener(v -> {
-            if (videoView != null) {
-                videoView.stopPlayback();
-                videoView.resume();
+            if (player != null) {
+                player.pause();
+                player.seekTo(0);
             }
             endAnalyticsIfNeeded();
         });
@@ -168,7 +242,7 @@ public class VideoModuleActivity extends AppCompatActivity {
         long now = System.currentTimeMillis();
         long timeSpentMs = Math.max(0L, now - playbackStartMs);
 
-        int durationMs = videoView != null ? videoView.getDuration() : 0;
+        long durationMs = videoDurationMs();
         double fractionWatched = durationMs > 0 ? timeSpentMs / (double) durationMs : 0.0;
 
         boolean completedPlayback = fractionWatched >= 0.8;
@@ -250,8 +324,8 @@ public class VideoModuleActivity extends AppCompatActivity {
     @Override
     protected void onPause() {
         super.onPause();
-        if (videoView != null && videoView.isPlaying()) {
-            videoView.pause();
+        if (player != null) {
+            player.pause();
         }
         endAnalyticsIfNeeded();
     }
@@ -259,6 +333,11 @@ public class VideoModuleActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         endAnalyticsIfNeeded();
+        if (player != null) {
+            playerView.setPlayer(null);
+            player.release();
+            player = null;
+        }
         super.onDestroy();
     }
 }
@@ -9,6 +9,7 @@ import androidx.annotation.NonNull;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.brightbuds_app.R;
+import com.example.brightbuds_app.utils.DrawableRegistry;
 
 /**
  * Simple grid adapter that shows 6 avatar drawables and lets the user
@@ -54,7 +55,7 @@ public class AvatarSelectionAdapter
         int resId = avatarResIds[position];
         holder.imgAvatar.setImageResource(resId);
 
-        String resKey = getResourceNameSafe(holder.itemView, resId);
+        String resKey = DrawableRegistry.avatarKey(resId);
 
         boolean isSelected =
                 selectedKey != null && selectedKey.equals(resKey);
@@ -85,17 +86,4 @@ public class AvatarSelectionAdapter
             imgAvatar = itemView.findViewById(R.id.imgAvatarChoice);
         }
     }
-
-    /**
-     * Safely resolves the resource entry name used as avatarKey.
-     */
-    private String getResourceNameSafe(View anyView, int resId) {
-        try {
-            return anyView.getContext()
-                    .getResources()
-                    .getResourceEntryName(resId);
-        } catch (Exception e) {
-            return "ic_child_avatar_placeholder";
-        }
-    }
 }
@@ -1,6 +1,5 @@
 package com.example.brightbuds_app.adapters;
 
-import android.media.SoundPool;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
@@ -11,6 +10,7 @@ import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.brightbuds_app.R;
 import com.example.brightbuds_app.models.MemoryCard;
+import com.example.brightbuds_app.services.AudioEngine;
 
 import java.util.List;
 
@@ -23,17 +23,14 @@ public class MemoryMatchAdapter extends RecyclerView.Adapter<MemoryMatchAdapter.
     private final List<MemoryCard> cards;
     private final OnCardClickListener listener;
 
-    private final SoundPool soundPool;
-    private final int flipSoundId;
+    private final AudioEngine audio;
 
     public MemoryMatchAdapter(List<MemoryCard> cards,
                               OnCardClickListener listener,
-                              SoundPool soundPool,
-                              int flipSoundId) {
+                              AudioEngine audio) {
         this.cards = cards;
         this.listener = listener;
-        this.soundPool = soundPool;
-        this.flipSoundId = flipSoundId;
+        this.audio = audio;
     }
 
     @NonNull
@@ -65,9 +62,7 @@ public class MemoryMatchAdapter extends RecyclerView.Adapter<MemoryMatchAdapter.
         }
 
         holder.itemView.setOnClickListener(v -> {
-            if (soundPool != null) {
-                soundPool.play(flipSoundId, 1f, 1f, 1, 0, 1f);
-            }
+            audio.playEffect(R.raw.card_flip);
             if (listener != null) {
                 listener.onCardClick(holder.getAdapterPosition());
             }
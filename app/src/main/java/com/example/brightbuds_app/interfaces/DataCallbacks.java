@@ -1,7 +1,9 @@
 package com.example.brightbuds_app.interfaces;
 
 import com.example.brightbuds_app.models.ChildProfile;
+import com.example.brightbuds_app.models.ModuleSummary;
 import java.util.List;
+import java.util.Map;
 
 public interface DataCallbacks {
 
@@ -25,6 +27,15 @@ public interface DataCallbacks {
         void onFailure(Exception e);
     }
 
+    /**
+     * Delivers per child module summaries for report screens.
+     * May be called a second time after a background cloud refresh.
+     */
+    interface ReportSummariesCallback {
+        void onSummariesLoaded(Map<String, List<ModuleSummary>> summariesByChild,
+                               boolean refreshedFromCloud);
+    }
+
     public interface SaveCallback {
         void onSuccess();
     }
@@ -2,6 +2,9 @@ package com.example.brightbuds_app.models;
 
 import android.content.Context;
 
+import com.example.brightbuds_app.R;
+import com.example.brightbuds_app.utils.DrawableRegistry;
+
 /**
  * Represents a child profile that belongs to a parent.
  * Used both for local SQLite storage and Firestore sync.
@@ -244,24 +247,6 @@ public class ChildProfile {
      * or invalid.
      */
     public int resolveAvatarResId(Context context) {
-        String key = avatarKey;
-        if (key == null || key.trim().isEmpty()) {
-            key = "ic_child_avatar_placeholder";
-        }
-
-        int resId = context.getResources().getIdentifier(
-                key,
-                "drawable",
-                context.getPackageName()
-        );
-
-        if (resId == 0) {
-            resId = context.getResources().getIdentifier(
-                    "ic_child_avatar_placeholder",
-                    "drawable",
-                    context.getPackageName()
-            );
-        }
-        return resId;
+        return DrawableRegistry.avatar(avatarKey, R.drawable.ic_child_avatar_placeholder);
     }
 }
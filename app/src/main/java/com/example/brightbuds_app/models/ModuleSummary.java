@@ -18,6 +18,8 @@ public class ModuleSummary {
     private int totalCorrect;
     private int totalAttempts;
     private long totalTimeMs;
+    private int totalStars;
+    private int totalPlays;
 
     // Last session information for extra context
     private long lastPlayedMs;
@@ -79,6 +81,22 @@ public class ModuleSummary {
         this.totalTimeMs = totalTimeMs;
     }
 
+    public int getTotalStars() {
+        return totalStars;
+    }
+
+    public void setTotalStars(int totalStars) {
+        this.totalStars = totalStars;
+    }
+
+    public int getTotalPlays() {
+        return totalPlays;
+    }
+
+    public void setTotalPlays(int totalPlays) {
+        this.totalPlays = totalPlays;
+    }
+
     public long getLastPlayedMs() {
         return lastPlayedMs;
     }
@@ -129,6 +147,16 @@ public class ModuleSummary {
         return totalScore * 1.0 / sessionCount;
     }
 
+    /**
+     * Average time per session for this module.
+     */
+    public double getAverageTimeMs() {
+        if (sessionCount <= 0) {
+            return 0;
+        }
+        return totalTimeMs * 1.0 / sessionCount;
+    }
+
     /**
      * Overall accuracy ratio across all sessions.
      * 0 to 1 so that UI can convert to percentage.
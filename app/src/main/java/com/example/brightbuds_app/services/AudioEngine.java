@@ -0,0 +1,395 @@
+package com.example.brightbuds_app.services;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.media.AudioAttributes;
+import android.media.MediaPlayer;
+import android.media.SoundPool;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import android.util.SparseArray;
+import android.util.SparseBooleanArray;
+import android.util.SparseIntArray;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RawRes;
+
+import com.example.brightbuds_app.R;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * App wide audio: one SoundPool for short effects and one music channel.
+ *
+ * The effects are loaded into the SoundPool once when the app starts, so
+ * screens play them by resource id with no per screen loading.
+ *
+ * Screens ask for their background track with playMusic in onResume. The
+ * same track carries on across screens without restarting. A different
+ * track cross fades from the old one. BrightBudsApp calls onScreenPaused
+ * for every paused activity. If the next screen does not ask for music
+ * within a short hand off window, the music fades out. That covers screens
+ * without music and the app going to the background, without any onPause
+ * code in the screens. The last faded out track stays prepared, so
+ * returning to the previous screen resumes it without decoding it again.
+ *
+ * Sound files, such as cached speech clips, are loaded on first play and
+ * kept for the next one. At most MAX_FILE_SAMPLES of them stay loaded; the
+ * least recently played is unloaded first, and all of them once the app is
+ * in the background.
+ *
+ * Mute is app wide and kept in BrightBudsPrefs. While muted, effects are
+ * skipped and music is silent.
+ *
+ * Main thread only.
+ */
+public final class AudioEngine {
+
+    private static final String TAG = "AudioEngine";
+
+    private static final String PREFS_NAME = "BrightBudsPrefs";
+    private static final String KEY_MUTED = "audio_muted";
+
+    // Short effects loaded into the SoundPool at startup
+    private static final int[] PRELOADED_EFFECTS = {
+            R.raw.card_flip,
+            R.raw.correct,
+            R.raw.wrong,
+            R.raw.memory_correct,
+            R.raw.memory_wrong,
+            R.raw.clap_sound,
+            R.raw.well_done_sound
+    };
+
+    private static final int MAX_EFFECT_STREAMS = 4;
+    private static final int MAX_FILE_SAMPLES = 16;
+
+    // How long a paused screen keeps the music for the next screen
+    private static final long HANDOFF_MS = 400;
+    private static final long FADE_MS = 500;
+    private static final long FADE_STEP_MS = 40;
+    private static final float FADE_STEP = (float) FADE_STEP_MS / FADE_MS;
+
+    private static volatile AudioEngine instance;
+
+    private final Context appContext;
+    private final SharedPreferences prefs;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private final SoundPool soundPool;
+    private final SparseIntArray soundIds = new SparseIntArray();    // resId -> sample id
+    // file path -> sample id, access ordered so the eldest is the least recently played
+    private final Map<String, Integer> fileSoundIds = new LinkedHashMap<>(16, 0.75f, true);
+    private final SparseBooleanArray loaded = new SparseBooleanArray(); // sample id -> ready
+    private final SparseArray<Float> playWhenLoaded = new SparseArray<>(); // sample id -> volume
+
+    @Nullable private Track current;   // the track that should be heard
+    @Nullable private Track previous;  // fading out, or parked for a quick return
+
+    private boolean muted;
+    private boolean fading;
+
+    private final Runnable handoffTimeout = this::fadeOutMusic;
+    private final Runnable fadeStep = this::stepFade;
+
+    private static final class Track {
+        final int resId;
+        final MediaPlayer player;
+        float targetVolume;
+        float level;
+
+        Track(int resId, MediaPlayer player) {
+            this.resId = resId;
+            this.player = player;
+        }
+    }
+
+    public static AudioEngine getInstance(Context context) {
+        AudioEngine local = instance;
+        if (local == null) {
+            synchronized (AudioEngine.class) {
+                local = instance;
+                if (local == null) {
+                    local = new AudioEngine(context.getApplicationContext());
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private AudioEngine(Context appContext) {
+        this.appContext = appContext;
+        this.prefs = appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.muted = prefs.getBoolean(KEY_MUTED, false);
+
+        AudioAttributes attributes = new AudioAttributes.Builder()
+                .setUsage(AudioAttributes.USAGE_GAME)
+                .setContentType(AudioAttributes.CONTENT_TYPE_SONIFICATION)
+                .build();
+        soundPool = new SoundPool.Builder()
+                .setMaxStreams(MAX_EFFECT_STREAMS)
+                .setAudioAttributes(attributes)
+                .build();
+        soundPool.setOnLoadCompleteListener((pool, sampleId, status) -> {
+            if (status != 0) {
+                Log.w(TAG, "Effect " + sampleId + " failed to load: " + status);
+                return;
+            }
+            loaded.put(sampleId, true);
+            Float volume = playWhenLoaded.get(sampleId);
+            if (volume != null) {
+                playWhenLoaded.delete(sampleId);
+                if (!muted) {
+                    playSample(sampleId, volume);
+                }
+            }
+        });
+
+        for (int resId : PRELOADED_EFFECTS) {
+            soundIds.put(resId, soundPool.load(appContext, resId, 1));
+        }
+        Log.d(TAG, "🔊 Preloading " + PRELOADED_EFFECTS.length + " effects");
+    }
+
+    // region Effects
+
+    public void playEffect(@RawRes int resId) {
+        playEffect(resId, 1f);
+    }
+
+    /**
+     * Plays a short effect. An effect that is still loading, or is outside
+     * the preloaded set, plays as soon as it is ready.
+     */
+    public void playEffect(@RawRes int resId, float volume) {
+        if (muted) {
+            return;
+        }
+        int sampleId = soundIds.get(resId, 0);
+        if (sampleId == 0) {
+            sampleId = soundPool.load(appContext, resId, 1);
+            soundIds.put(resId, sampleId);
+        }
+        if (loaded.get(sampleId)) {
+            playSample(sampleId, volume);
+        } else {
+            playWhenLoaded.put(sampleId, volume);
+        }
+    }
+
+    /**
+     * Plays a short sound file, such as a cached speech clip. The file is
+     * loaded into the pool on first use. Returns the stream id, or 0 if the
+     * sound is skipped or plays once it has loaded.
+     */
+    public int playFile(String path, float volume) {
+        if (muted) {
+            return 0;
+        }
+        Integer sampleId = fileSoundIds.get(path);
+        if (sampleId == null) {
+            sampleId = soundPool.load(path, 1);
+            fileSoundIds.put(path, sampleId);
+            trimFileSamples(MAX_FILE_SAMPLES);
+        }
+        if (loaded.get(sampleId)) {
+            return playSample(sampleId, volume);
+        }
+        playWhenLoaded.put(sampleId, volume);
+        return 0;
+    }
+
+    // Unloads the least recently played files until at most max are loaded
+    private void trimFileSamples(int max) {
+        Iterator<Integer> it = fileSoundIds.values().iterator();
+        while (fileSoundIds.size() > max && it.hasNext()) {
+            int sampleId = it.next();
+            it.remove();
+            soundPool.unload(sampleId);
+            loaded.delete(sampleId);
+            playWhenLoaded.delete(sampleId);
+        }
+    }
+
+    public void stopStream(int streamId) {
+        if (streamId != 0) {
+            soundPool.stop(streamId);
+        }
+    }
+
+    private int playSample(int sampleId, float volume) {
+        return soundPool.play(sampleId, volume, volume, 1, 0, 1f);
+    }
+
+    // endregion
+
+    // region Music
+
+    /**
+     * Plays a looping background track at volume. Call from onResume. The
+     * same track keeps playing; another track cross fades in.
+     */
+    public void playMusic(@RawRes int resId, float volume) {
+        mainHandler.removeCallbacks(handoffTimeout);
+
+        if (current != null && current.resId == resId) {
+            current.targetVolume = volume;
+            startFade();
+            return;
+        }
+
+        Track next;
+        if (previous != null && previous.resId == resId) {
+            next = previous;
+            previous = null;
+        } else {
+            next = createTrack(resId);
+            if (next == null) {
+                return;
+            }
+        }
+
+        if (current != null) {
+            releaseTrack(previous);
+            previous = current;
+        }
+        current = next;
+        current.targetVolume = volume;
+        startFade();
+    }
+
+    /** Fades the music out now, for screens that want silence straight away. */
+    public void stopMusic() {
+        mainHandler.removeCallbacks(handoffTimeout);
+        fadeOutMusic();
+    }
+
+    /** Called by BrightBudsApp for every paused activity. */
+    public void onScreenPaused() {
+        mainHandler.removeCallbacks(handoffTimeout);
+        if (current != null) {
+            mainHandler.postDelayed(handoffTimeout, HANDOFF_MS);
+        }
+    }
+
+    private void fadeOutMusic() {
+        if (current == null) {
+            return;
+        }
+        releaseTrack(previous);
+        previous = current;
+        current = null;
+        startFade();
+    }
+
+    @Nullable
+    private Track createTrack(@RawRes int resId) {
+        MediaPlayer player = MediaPlayer.create(appContext, resId);
+        if (player == null) {
+            Log.w(TAG, "Could not create music player for " + resId);
+            return null;
+        }
+        player.setLooping(true);
+        player.setVolume(0f, 0f);
+        return new Track(resId, player);
+    }
+
+    private void releaseTrack(@Nullable Track track) {
+        if (track == null) {
+            return;
+        }
+        try {
+            if (track.player.isPlaying()) {
+                track.player.stop();
+            }
+        } catch (IllegalStateException ignored) { }
+        track.player.release();
+    }
+
+    private void startFade() {
+        if (!fading) {
+            fading = true;
+            mainHandler.post(fadeStep);
+        }
+    }
+
+    // Moves both tracks one step toward their volume; pauses tracks that reach silence
+    private void stepFade() {
+        boolean moving = false;
+        if (current != null) {
+            moving |= stepTrack(current, muted ? 0f : current.targetVolume);
+        }
+        if (previous != null) {
+            moving |= stepTrack(previous, 0f);
+        }
+
+        if (moving) {
+            mainHandler.postDelayed(fadeStep, FADE_STEP_MS);
+        } else {
+            fading = false;
+        }
+    }
+
+    // Returns true while the track is still moving toward target
+    private boolean stepTrack(Track track, float target) {
+        if (target > 0f && !track.player.isPlaying()) {
+            track.player.start();
+        }
+
+        if (track.level < target) {
+            track.level = Math.min(target, track.level + FADE_STEP);
+        } else if (track.level > target) {
+            track.level = Math.max(target, track.level - FADE_STEP);
+        }
+        track.player.setVolume(track.level, track.level);
+
+        if (track.level == target) {
+            if (target == 0f && track.player.isPlaying()) {
+                track.player.pause();
+            }
+            return false;
+        }
+        return true;
+    }
+
+    // endregion
+
+    // region Mute
+
+    public boolean isMuted() {
+        return muted;
+    }
+
+    public void setMuted(boolean muted) {
+        if (this.muted == muted) {
+            return;
+        }
+        this.muted = muted;
+        prefs.edit().putBoolean(KEY_MUTED, muted).apply();
+        if (muted) {
+            soundPool.autoPause();
+        } else {
+            soundPool.autoResume();
+        }
+        startFade();
+    }
+
+    // endregion
+
+    /** Releases the parked track and unloads sound files once the app is in the background. */
+    public void onTrimMemory(int level) {
+        if (level < ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            return;
+        }
+        if (previous != null && current == null) {
+            releaseTrack(previous);
+            previous = null;
+        }
+        trimFileSamples(0);
+    }
+}
@@ -4,6 +4,7 @@ import android.content.Context;
 import android.util.Log;
 
 import com.example.brightbuds_app.interfaces.DataCallbacks;
+import com.example.brightbuds_app.utils.EncryptionUtil;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import com.google.firebase.firestore.FirebaseFirestore;
@@ -158,6 +159,7 @@ public class AuthServices {
     // Logout
     public void logout() {
         auth.signOut();
+        EncryptionUtil.clearKey();
     }
 
 
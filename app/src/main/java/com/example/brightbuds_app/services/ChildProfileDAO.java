@@ -22,7 +22,7 @@ public class ChildProfileDAO {
     private final DatabaseHelper dbHelper;
 
     public ChildProfileDAO(Context context) {
-        this.dbHelper = new DatabaseHelper(context);
+        this.dbHelper = DatabaseHelper.getInstance(context);
     }
 
     /**
@@ -85,7 +85,6 @@ public class ChildProfileDAO {
                 values,
                 SQLiteDatabase.CONFLICT_REPLACE
         );
-        db.close();
     }
 
     public List<ChildProfile> getChildrenForParent(String parentId) {
@@ -121,7 +120,6 @@ public class ChildProfileDAO {
         }
 
         c.close();
-        db.close();
         return list;
     }
 
@@ -156,7 +154,6 @@ public class ChildProfileDAO {
         }
 
         c.close();
-        db.close();
         return child;
     }
 }
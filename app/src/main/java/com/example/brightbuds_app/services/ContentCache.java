@@ -0,0 +1,497 @@
+package com.example.brightbuds_app.services;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Size limited disk cache for downloaded content such as module videos.
+ *
+ * Each entry is stored under the SHA-256 of its key, so any storage path
+ * maps to a safe and unique file name. A journal file records every entry
+ * with its size and content hash, and every read, so the least recently
+ * used order survives restarts. When the total size goes over the byte
+ * budget, the least recently used entries are deleted.
+ *
+ * Writers download into newTempFile and hand the file to commit, which
+ * checks the size, hashes it and renames it into place. A half written
+ * download is never seen as an entry. On a read, an entry whose size no
+ * longer matches the journal is dropped, and its hash is checked once per
+ * process before it is first handed out.
+ *
+ * Hashing and file work can take a while, so call it off the main thread.
+ */
+public final class ContentCache {
+
+    private static final String TAG = "ContentCache";
+
+    private static final String DIR_NAME = "content";
+    private static final String JOURNAL = "journal";
+    private static final String JOURNAL_TMP = "journal.tmp";
+    private static final String MAGIC = "brightbuds.content-cache";
+    private static final String VERSION = "1";
+    private static final String TMP_SUFFIX = ".tmp";
+
+    private static final String CLEAN = "CLEAN";
+    private static final String READ = "READ";
+    private static final String REMOVE = "REMOVE";
+
+    public static final long DEFAULT_MAX_BYTES = 150L * 1024 * 1024;
+
+    // Journal lines that no longer describe an entry before it is rewritten
+    private static final int REBUILD_THRESHOLD = 500;
+
+    private static volatile ContentCache instance;
+
+    private final File directory;
+    private final File journalFile;
+
+    // Guarded by this. Access ordered, so iteration starts at the least recently used.
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long size;
+    private long maxBytes = DEFAULT_MAX_BYTES;
+    private int redundantOps;
+    private boolean loaded;
+    @Nullable private Writer journalWriter;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    private static final class Entry {
+        final String name;
+        final long length;
+        final String sha256;
+        boolean verified;
+
+        Entry(String name, long length, String sha256) {
+            this.name = name;
+            this.length = length;
+            this.sha256 = sha256;
+        }
+    }
+
+    /** Point in time counters, for logs and debug screens. */
+    public static final class Stats {
+        public final long hits;
+        public final long misses;
+        public final long evictions;
+        public final int entryCount;
+        public final long sizeBytes;
+        public final long maxBytes;
+
+        Stats(long hits, long misses, long evictions, int entryCount, long sizeBytes, long maxBytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.entryCount = entryCount;
+            this.sizeBytes = sizeBytes;
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US,
+                    "%d hits, %d misses, %d evictions, %d entries, %.1f of %.1f MB",
+                    hits, misses, evictions, entryCount,
+                    sizeBytes / 1048576.0, maxBytes / 1048576.0);
+        }
+    }
+
+    public static ContentCache getInstance(Context context) {
+        ContentCache local = instance;
+        if (local == null) {
+            synchronized (ContentCache.class) {
+                local = instance;
+                if (local == null) {
+                    local = new ContentCache(new File(context.getApplicationContext().getCacheDir(), DIR_NAME));
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private ContentCache(File directory) {
+        this.directory = directory;
+        this.journalFile = new File(directory, JOURNAL);
+    }
+
+    // region Public API
+
+    /**
+     * True when an entry for key is recorded. Unlike get it does not check
+     * the file, count a hit or move the entry up the LRU order.
+     */
+    public synchronized boolean contains(String key) {
+        ensureLoaded();
+        return entries.containsKey(nameFor(key));
+    }
+
+    /**
+     * The cached file for key, or null on a miss. An entry that fails its
+     * size or hash check is deleted and counts as a miss.
+     */
+    @Nullable
+    public File get(String key) {
+        String name = nameFor(key);
+        Entry entry;
+        synchronized (this) {
+            ensureLoaded();
+            entry = entries.get(name);
+            if (entry == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+        }
+
+        File file = new File(directory, name);
+        boolean valid = file.length() == entry.length
+                && (entry.verified || entry.sha256.equals(sha256(file)));
+
+        synchronized (this) {
+            if (entries.get(name) != entry) {
+                // Replaced or evicted while the hash was running
+                misses.incrementAndGet();
+                return null;
+            }
+            if (!valid) {
+                Log.w(TAG, "⚠️ Dropping corrupt cache entry for " + key);
+                removeEntry(name);
+                misses.incrementAndGet();
+                return null;
+            }
+            entry.verified = true;
+            appendJournal(READ + " " + name);
+            hits.incrementAndGet();
+            return file;
+        }
+    }
+
+    /** A fresh file for a download of key, to be passed to commit. */
+    public File newTempFile(String key) {
+        synchronized (this) {
+            ensureLoaded();
+        }
+        File tmp = new File(directory, nameFor(key) + "." + System.nanoTime() + TMP_SUFFIX);
+        if (tmp.exists() && !tmp.delete()) {
+            Log.w(TAG, "Could not clear " + tmp.getName());
+        }
+        return tmp;
+    }
+
+    /**
+     * Moves a finished download into the cache as key. expectedLength is
+     * the size the server reported, or -1 if unknown. Returns the cached
+     * file, or null if the download is incomplete or cannot be stored. The
+     * temp file is always consumed.
+     */
+    @Nullable
+    public File commit(String key, File tmp, long expectedLength) {
+        long length = tmp.length();
+        if (length <= 0 || (expectedLength >= 0 && length != expectedLength)) {
+            Log.w(TAG, "⚠️ Incomplete download for " + key + ": " + length + " of " + expectedLength + " bytes");
+            deleteQuietly(tmp);
+            return null;
+        }
+        String hash = sha256(tmp);
+        if (hash.isEmpty()) {
+            deleteQuietly(tmp);
+            return null;
+        }
+
+        String name = nameFor(key);
+        File file = new File(directory, name);
+        synchronized (this) {
+            ensureLoaded();
+            Entry old = entries.remove(name);
+            if (old != null) {
+                size -= old.length;
+            }
+            if (!tmp.renameTo(file)) {
+                Log.e(TAG, "❌ Could not move download into the cache: " + key);
+                deleteQuietly(tmp);
+                deleteQuietly(file);
+                if (old != null) {
+                    appendJournal(REMOVE + " " + name);
+                }
+                return null;
+            }
+
+            Entry entry = new Entry(name, length, hash);
+            entry.verified = true;
+            entries.put(name, entry);
+            size += length;
+            appendJournal(CLEAN + " " + name + " " + length + " " + hash);
+            trimToSize();
+        }
+        Log.d(TAG, "💾 Cached " + key + " (" + length + " bytes)");
+        return file;
+    }
+
+    public synchronized void remove(String key) {
+        ensureLoaded();
+        String name = nameFor(key);
+        if (entries.containsKey(name)) {
+            removeEntry(name);
+        }
+    }
+
+    /** Deletes every entry. Counters are kept. */
+    public synchronized void clear() {
+        ensureLoaded();
+        for (String name : entries.keySet()) {
+            deleteQuietly(new File(directory, name));
+        }
+        entries.clear();
+        size = 0;
+        rebuildJournal();
+        Log.i(TAG, "Content cache cleared");
+    }
+
+    /** Sets the byte budget and evicts down to it straight away. */
+    public synchronized void setMaxBytes(long maxBytes) {
+        ensureLoaded();
+        this.maxBytes = maxBytes;
+        trimToSize();
+    }
+
+    public synchronized Stats getStats() {
+        ensureLoaded();
+        return new Stats(hits.get(), misses.get(), evictions.get(), entries.size(), size, maxBytes);
+    }
+
+    // endregion
+
+    // region Eviction, caller holds this
+
+    private void trimToSize() {
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        // The newest entry is kept even if it alone is over budget
+        while (size > maxBytes && entries.size() > 1 && it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            it.remove();
+            size -= eldest.length;
+            deleteQuietly(new File(directory, eldest.name));
+            appendJournal(REMOVE + " " + eldest.name);
+            evictions.incrementAndGet();
+            Log.d(TAG, "Evicted " + eldest.name + " (" + eldest.length + " bytes)");
+        }
+    }
+
+    private void removeEntry(String name) {
+        Entry entry = entries.remove(name);
+        if (entry != null) {
+            size -= entry.length;
+        }
+        deleteQuietly(new File(directory, name));
+        appendJournal(REMOVE + " " + name);
+    }
+
+    // endregion
+
+    // region Journal, caller holds this
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.e(TAG, "❌ Could not create " + directory);
+            return;
+        }
+        if (journalFile.isFile()) {
+            readJournal();
+        }
+        deleteStrayFiles();
+        rebuildJournal();
+        trimToSize();
+        Log.d(TAG, "Content cache loaded: " + entries.size() + " entries, " + size + " bytes");
+    }
+
+    private void readJournal() {
+        try (BufferedReader reader = new BufferedReader(new FileReader(journalFile))) {
+            String header = reader.readLine();
+            if (!(MAGIC + " " + VERSION).equals(header)) {
+                Log.w(TAG, "Unknown journal header, starting empty");
+                return;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                readJournalLine(line);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Failed to read cache journal", e);
+        }
+
+        // Entries whose file was removed outside the cache, for example by the system
+        Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (new File(directory, entry.name).length() != entry.length) {
+                it.remove();
+                size -= entry.length;
+            }
+        }
+    }
+
+    private void readJournalLine(String line) {
+        String[] parts = line.split(" ");
+        if (parts.length < 2) {
+            return;
+        }
+        String name = parts[1];
+        switch (parts[0]) {
+            case CLEAN:
+                if (parts.length != 4) return;
+                try {
+                    Entry entry = new Entry(name, Long.parseLong(parts[2]), parts[3]);
+                    Entry old = entries.put(name, entry);
+                    if (old != null) size -= old.length;
+                    size += entry.length;
+                } catch (NumberFormatException ignored) { }
+                break;
+            case READ:
+                entries.get(name); // moves it to the most recently used end
+                break;
+            case REMOVE:
+                Entry old = entries.remove(name);
+                if (old != null) size -= old.length;
+                break;
+            default:
+                break;
+        }
+    }
+
+    // Unfinished downloads and files the journal does not know about
+    private void deleteStrayFiles() {
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (File f : files) {
+            String fileName = f.getName();
+            if (fileName.equals(JOURNAL) || entries.containsKey(fileName)) {
+                continue;
+            }
+            deleteQuietly(f);
+        }
+    }
+
+    // Writes only the live entries, least recently used first, and swaps it in
+    private void rebuildJournal() {
+        closeJournal();
+        File tmp = new File(directory, JOURNAL_TMP);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+            writer.write(MAGIC + " " + VERSION + "\n");
+            for (Entry entry : entries.values()) {
+                writer.write(CLEAN + " " + entry.name + " " + entry.length + " " + entry.sha256 + "\n");
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Failed to write cache journal", e);
+            deleteQuietly(tmp);
+            return;
+        }
+        if (!tmp.renameTo(journalFile)) {
+            Log.e(TAG, "❌ Could not replace cache journal");
+            return;
+        }
+        redundantOps = 0;
+    }
+
+    private void appendJournal(String line) {
+        try {
+            if (journalWriter == null) {
+                journalWriter = new BufferedWriter(new OutputStreamWriter(
+                        new FileOutputStream(journalFile, true), StandardCharsets.UTF_8));
+            }
+            journalWriter.write(line + "\n");
+            journalWriter.flush();
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Failed to append to cache journal", e);
+            closeJournal();
+        }
+
+        redundantOps++;
+        if (redundantOps >= REBUILD_THRESHOLD && redundantOps >= entries.size()) {
+            rebuildJournal();
+        }
+    }
+
+    private void closeJournal() {
+        if (journalWriter == null) {
+            return;
+        }
+        try {
+            journalWriter.close();
+        } catch (IOException ignored) { }
+        journalWriter = null;
+    }
+
+    // endregion
+
+    private static String nameFor(String key) {
+        return hex(digest().digest(key.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // SHA-256 of a file's contents as hex, or "" if it cannot be read
+    private static String sha256(File file) {
+        MessageDigest md = digest();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = new FileInputStream(file)) {
+            int n;
+            while ((n = in.read(buffer)) != -1) {
+                md.update(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Could not hash " + file.getName() + ": " + e.getMessage());
+            return "";
+        }
+        return hex(md.digest());
+    }
+
+    private static MessageDigest digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+
+    private static String hex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static void deleteQuietly(File file) {
+        if (file.exists() && !file.delete()) {
+            Log.w(TAG, "Could not delete " + file.getName());
+        }
+    }
+}
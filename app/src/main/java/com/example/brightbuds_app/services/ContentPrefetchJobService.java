@@ -0,0 +1,28 @@
+package com.example.brightbuds_app.services;
+
+import android.app.job.JobParameters;
+import android.app.job.JobService;
+import android.util.Log;
+
+/**
+ * Runs ContentPrefetcher when the system grants the prefetch job, which
+ * ContentPrefetcher.schedule registers for unmetered network and charging.
+ */
+public class ContentPrefetchJobService extends JobService {
+
+    private static final String TAG = "ContentPrefetchJob";
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        Log.d(TAG, "Starting offline content prefetch");
+        ContentPrefetcher.getInstance(this).run(complete -> jobFinished(params, false));
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        // Conditions were lost; the periodic job tries again next time
+        ContentPrefetcher.getInstance(this).cancel();
+        return false;
+    }
+}
@@ -0,0 +1,477 @@
+package com.example.brightbuds_app.services;
+
+import android.app.job.JobInfo;
+import android.app.job.JobScheduler;
+import android.content.ComponentName;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.OptIn;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.datasource.HttpDataSource;
+import androidx.media3.datasource.cache.CacheWriter;
+
+import com.example.brightbuds_app.models.Module;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Downloads the media of every module ahead of time, so modules open
+ * without a network.
+ *
+ * The run reads the module catalog from ModuleService. Module videos go
+ * into VideoCache, the cache the video screen streams from. Other media,
+ * such as icons stored in Firebase Storage, go into ContentCache through
+ * StorageService. At most MAX_CONCURRENT_DOWNLOADS run at once.
+ *
+ * When a run ends, a manifest in the files directory records which modules
+ * have all their media on disk. Both caches evict, so loadOfflineModuleIds
+ * checks the recorded modules against them again before answering.
+ *
+ * ContentPrefetchJobService runs this on an unmetered network while the
+ * device is charging. schedule() registers that job.
+ */
+@OptIn(markerClass = UnstableApi.class)
+public final class ContentPrefetcher {
+
+    private static final String TAG = "ContentPrefetcher";
+
+    private static final int JOB_ID = 2301;
+    private static final long JOB_INTERVAL_MS = TimeUnit.HOURS.toMillis(12);
+
+    private static final String MANIFEST_FILE = "offline_manifest.json";
+    private static final int MAX_CONCURRENT_DOWNLOADS = 2;
+    private static final long URL_TIMEOUT_S = 30;
+    private static final long IMAGE_TIMEOUT_S = 120;
+
+    private static volatile ContentPrefetcher instance;
+
+    private static final ExecutorService CHECK = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "offline-check");
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        return t;
+    });
+
+    private final Context appContext;
+    private final AtomicFile manifestFile;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    // Writers of the current run, so cancel() can stop them mid download
+    private final Set<CacheWriter> activeWriters = Collections.synchronizedSet(new HashSet<>());
+
+    // Module id -> every media path of the module is on disk. Guarded by this.
+    @Nullable private Map<String, Boolean> manifest;
+
+    public interface OnFinishedListener {
+        /** complete is false when the run was cancelled or a download failed. */
+        void onFinished(boolean complete);
+    }
+
+    public interface OfflineIdsCallback {
+        /** Called on the main thread. */
+        void onLoaded(Set<String> moduleIds);
+    }
+
+    public static ContentPrefetcher getInstance(Context context) {
+        ContentPrefetcher local = instance;
+        if (local == null) {
+            synchronized (ContentPrefetcher.class) {
+                local = instance;
+                if (local == null) {
+                    local = new ContentPrefetcher(context.getApplicationContext());
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private ContentPrefetcher(Context appContext) {
+        this.appContext = appContext;
+        this.manifestFile = new AtomicFile(new File(appContext.getFilesDir(), MANIFEST_FILE));
+    }
+
+    /** Registers the periodic prefetch job unless it is already pending. */
+    public static void schedule(Context context) {
+        JobScheduler scheduler = (JobScheduler) context.getSystemService(Context.JOB_SCHEDULER_SERVICE);
+        if (scheduler == null) {
+            return;
+        }
+        for (JobInfo job : scheduler.getAllPendingJobs()) {
+            if (job.getId() == JOB_ID) {
+                return;
+            }
+        }
+        JobInfo job = new JobInfo.Builder(JOB_ID,
+                new ComponentName(context, ContentPrefetchJobService.class))
+                .setRequiredNetworkType(JobInfo.NETWORK_TYPE_UNMETERED)
+                .setRequiresCharging(true)
+                .setPeriodic(JOB_INTERVAL_MS)
+                .build();
+        if (scheduler.schedule(job) == JobScheduler.RESULT_SUCCESS) {
+            Log.d(TAG, "📅 Offline content prefetch scheduled");
+        }
+    }
+
+    // region Offline status
+
+    /**
+     * Ids of the modules recorded as fully downloaded whose media is still
+     * in VideoCache or ContentCache. A recorded module that lost a file to
+     * eviction is marked not offline in the manifest.
+     */
+    public void loadOfflineModuleIds(List<Module> modules, OfflineIdsCallback callback) {
+        CHECK.execute(() -> {
+            Set<String> ids = new HashSet<>();
+            Set<String> evicted = new HashSet<>();
+            for (Module module : modules) {
+                if (module == null || module.getId() == null) continue;
+                boolean recorded;
+                synchronized (this) {
+                    recorded = Boolean.TRUE.equals(manifest().get(module.getId()));
+                }
+                if (!recorded) continue;
+                if (isMediaOnDisk(module)) {
+                    ids.add(module.getId());
+                } else {
+                    evicted.add(module.getId());
+                }
+            }
+            if (!evicted.isEmpty()) {
+                Log.d(TAG, "Media evicted for " + evicted.size() + " offline modules");
+                markNotOffline(evicted);
+            }
+            mainHandler.post(() -> callback.onLoaded(ids));
+        });
+    }
+
+    private boolean isMediaOnDisk(Module module) {
+        for (String path : mediaPaths(module)) {
+            boolean onDisk = isVideo(module, path)
+                    ? VideoCache.getInstance(appContext).isFullyCached(path)
+                    : ContentCache.getInstance(appContext).contains(path);
+            if (!onDisk) return false;
+        }
+        return true;
+    }
+
+    // endregion
+
+    // region Run
+
+    /**
+     * Starts a prefetch run unless one is running. The listener is called
+     * once, on a background thread, when the run ends.
+     */
+    public void run(OnFinishedListener listener) {
+        if (!running.compareAndSet(false, true)) {
+            Log.d(TAG, "Prefetch already running");
+            listener.onFinished(false);
+            return;
+        }
+        cancelled.set(false);
+
+        new ModuleService(appContext).getAllModules(new ModuleService.ModulesCallback() {
+            @Override
+            public void onSuccess(List<Module> modules) {
+                Thread t = new Thread(() -> prefetchAll(modules, listener), "content-prefetch");
+                t.setPriority(Thread.NORM_PRIORITY - 1);
+                t.start();
+            }
+
+            @Override
+            public void onError(Exception e) {
+                Log.e(TAG, "❌ Could not read module catalog for prefetch", e);
+                running.set(false);
+                listener.onFinished(false);
+            }
+        });
+    }
+
+    /** Stops the current run. Parts already downloaded stay cached. */
+    public void cancel() {
+        cancelled.set(true);
+        synchronized (activeWriters) {
+            for (CacheWriter writer : activeWriters) {
+                writer.cancel();
+            }
+        }
+    }
+
+    private void prefetchAll(List<Module> modules, OnFinishedListener listener) {
+        long start = System.currentTimeMillis();
+        ExecutorService pool = Executors.newFixedThreadPool(MAX_CONCURRENT_DOWNLOADS, r -> {
+            Thread t = new Thread(r, "content-prefetch-io");
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+
+        // Module id -> count of its media files that failed, and that a cancel skipped
+        Map<String, AtomicInteger> failures = new HashMap<>();
+        Map<String, AtomicInteger> skipped = new HashMap<>();
+        List<Runnable> tasks = new ArrayList<>();
+        for (Module module : modules) {
+            if (module == null || module.getId() == null) continue;
+            AtomicInteger failed = new AtomicInteger();
+            AtomicInteger notTried = new AtomicInteger();
+            failures.put(module.getId(), failed);
+            skipped.put(module.getId(), notTried);
+            for (String path : mediaPaths(module)) {
+                boolean video = isVideo(module, path);
+                tasks.add(() -> {
+                    if (cancelled.get()) {
+                        notTried.incrementAndGet();
+                        return;
+                    }
+                    boolean ok = video ? prefetchVideo(path) : prefetchFile(path);
+                    if (!ok) failed.incrementAndGet();
+                });
+            }
+        }
+
+        for (Runnable task : tasks) {
+            pool.execute(task);
+        }
+        pool.shutdown();
+        try {
+            while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                Log.d(TAG, "Prefetch still running");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+        }
+
+        Map<String, Boolean> result = new HashMap<>();
+        int ready = 0;
+        for (Map.Entry<String, AtomicInteger> e : failures.entrySet()) {
+            String id = e.getKey();
+            boolean complete;
+            if (e.getValue().get() > 0) {
+                complete = false;
+            } else if (skipped.get(id).get() > 0) {
+                // Not checked this time, so keep what the last run found
+                synchronized (this) {
+                    complete = Boolean.TRUE.equals(manifest().get(id));
+                }
+            } else {
+                complete = true;
+            }
+            result.put(id, complete);
+            if (complete) ready++;
+        }
+        saveManifest(result);
+
+        boolean complete = !cancelled.get() && ready == result.size();
+        Log.i(TAG, String.format(Locale.US, "📦 Prefetch %s: %d of %d modules offline, %d files, %d ms",
+                cancelled.get() ? "cancelled" : "finished",
+                ready, result.size(), tasks.size(), System.currentTimeMillis() - start));
+        running.set(false);
+        listener.onFinished(complete);
+    }
+
+    private boolean prefetchVideo(String path) {
+        VideoCache videoCache = VideoCache.getInstance(appContext);
+        if (videoCache.isFullyCached(path)) {
+            return true;
+        }
+
+        boolean urlRetried = false;
+        while (true) {
+            Uri uri = resolveUrl(videoCache, path);
+            if (uri == null || cancelled.get()) {
+                return false;
+            }
+
+            CacheWriter writer = videoCache.newCacheWriter(path, uri);
+            activeWriters.add(writer);
+            try {
+                writer.cache();
+                Log.d(TAG, "✅ Video cached: " + path);
+                return true;
+            } catch (IOException e) {
+                // A stored URL whose token was revoked is resolved again once
+                if (!urlRetried && !cancelled.get() && isRejectedUrl(e)) {
+                    urlRetried = true;
+                    Log.w(TAG, "Video URL rejected for " + path + ", resolving again");
+                    videoCache.invalidateUrl(path);
+                    continue;
+                }
+                if (!cancelled.get()) {
+                    Log.w(TAG, "Video prefetch failed for " + path + ": " + e.getMessage());
+                }
+                return false;
+            } finally {
+                activeWriters.remove(writer);
+            }
+        }
+    }
+
+    private static boolean isRejectedUrl(IOException e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof HttpDataSource.InvalidResponseCodeException) {
+                int code = ((HttpDataSource.InvalidResponseCodeException) t).responseCode;
+                return code == 401 || code == 403 || code == 404;
+            }
+        }
+        return false;
+    }
+
+    @Nullable
+    private Uri resolveUrl(VideoCache videoCache, String path) {
+        CountDownLatch done = new CountDownLatch(1);
+        Uri[] result = new Uri[1];
+        videoCache.resolveUrl(path, new VideoCache.UrlCallback() {
+            @Override
+            public void onResolved(Uri uri) {
+                result[0] = uri;
+                done.countDown();
+            }
+
+            @Override
+            public void onFailure(Exception e) {
+                done.countDown();
+            }
+        });
+        try {
+            done.await(URL_TIMEOUT_S, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return result[0];
+    }
+
+    private boolean prefetchFile(String path) {
+        CountDownLatch done = new CountDownLatch(1);
+        boolean[] cached = new boolean[1];
+        StorageService.getInstance().getOrDownloadFile(appContext, path,
+                uri -> {
+                    // A remote URL means the fallback answered, not the cache
+                    cached[0] = "file".equals(uri.getScheme());
+                    done.countDown();
+                },
+                e -> done.countDown());
+        try {
+            done.await(IMAGE_TIMEOUT_S, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return cached[0];
+    }
+
+    // Storage paths a module refers to. Icons can also be drawable names or web URLs.
+    private static List<String> mediaPaths(Module module) {
+        List<String> paths = new ArrayList<>();
+        if (isStoragePath(module.getStoragePath())) {
+            paths.add(module.getStoragePath());
+        }
+        if (isStoragePath(module.getIcon())) {
+            paths.add(module.getIcon());
+        }
+        return paths;
+    }
+
+    private static boolean isStoragePath(@Nullable String value) {
+        return value != null && value.contains("/") && !value.contains("://");
+    }
+
+    private static boolean isVideo(Module module, String path) {
+        String lower = path.toLowerCase(Locale.US);
+        return path.equals(module.getStoragePath())
+                && ("video".equalsIgnoreCase(module.getType())
+                || lower.endsWith(".mp4") || lower.endsWith(".webm") || lower.endsWith(".mkv"));
+    }
+
+    // endregion
+
+    // region Manifest
+
+    // Caller holds this
+    private Map<String, Boolean> manifest() {
+        if (manifest == null) {
+            manifest = readManifest();
+        }
+        return manifest;
+    }
+
+    private Map<String, Boolean> readManifest() {
+        Map<String, Boolean> out = new HashMap<>();
+        if (!manifestFile.getBaseFile().exists()) {
+            return out;
+        }
+        try {
+            JSONObject root = new JSONObject(new String(manifestFile.readFully(), StandardCharsets.UTF_8));
+            JSONArray modules = root.getJSONArray("modules");
+            for (int i = 0; i < modules.length(); i++) {
+                JSONObject m = modules.getJSONObject(i);
+                out.put(m.getString("id"), m.getBoolean("offline"));
+            }
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "❌ Failed to read offline manifest", e);
+        }
+        return out;
+    }
+
+    private synchronized void markNotOffline(Set<String> moduleIds) {
+        Map<String, Boolean> updated = new HashMap<>(manifest());
+        for (String id : moduleIds) {
+            updated.put(id, false);
+        }
+        saveManifest(updated);
+    }
+
+    private synchronized void saveManifest(Map<String, Boolean> result) {
+        manifest = result;
+        FileOutputStream out = null;
+        try {
+            JSONArray modules = new JSONArray();
+            for (Map.Entry<String, Boolean> e : result.entrySet()) {
+                modules.put(new JSONObject()
+                        .put("id", e.getKey())
+                        .put("offline", e.getValue()));
+            }
+            JSONObject root = new JSONObject()
+                    .put("updatedAt", System.currentTimeMillis())
+                    .put("modules", modules);
+
+            out = manifestFile.startWrite();
+            out.write(root.toString().getBytes(StandardCharsets.UTF_8));
+            manifestFile.finishWrite(out);
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "❌ Failed to save offline manifest", e);
+            if (out != null) {
+                manifestFile.failWrite(out);
+            }
+        }
+    }
+
+    // endregion
+}
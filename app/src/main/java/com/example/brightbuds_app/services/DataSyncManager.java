@@ -8,12 +8,13 @@ import com.example.brightbuds_app.models.Progress;
 import com.example.brightbuds_app.models.SyncItem;
 import com.google.firebase.firestore.FirebaseFirestore;
 
+import java.util.Collections;
 import java.util.List;
 
 /**
  * DataSyncManager
  * Syncs local SQLite to Firestore for:
- *  - child_progress (offline progress)
+ *  - child_progress (offline progress, uploaded in batches by ProgressBatchUploader)
  *  - optional queued operations (SyncQueue)
  */
 public class DataSyncManager {
@@ -21,15 +22,30 @@ public class DataSyncManager {
     private static final String TAG = "DataSyncManager";
 
     private final DatabaseHelper localDb;
+    private final ProgressWriteQueue writeQueue;
     private final FirebaseFirestore firestore;
+    private final ProgressBatchUploader uploader;
+
+    private int lastCoalescedCount = 0;
 
     public DataSyncManager(Context context) {
-        this.localDb = new DatabaseHelper(context);
+        this(context, ProgressBatchUploader.DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    /**
+     * @param maxInFlight number of Firestore batch commits allowed in flight at once
+     */
+    public DataSyncManager(Context context, int maxInFlight) {
+        this.localDb = DatabaseHelper.getInstance(context);
+        this.writeQueue = ProgressWriteQueue.getInstance(context);
         this.firestore = FirebaseFirestore.getInstance();
+        this.uploader = new ProgressBatchUploader(localDb, firestore, maxInFlight);
     }
 
     // Sync unsynced child_progress rows
     public void syncAllPendingChanges(DataCallbacks.GenericCallback callback) {
+        // Make sure queued local writes are on disk before reading them back
+        writeQueue.flushNow();
         List<Progress> unsynced = localDb.getUnsyncedProgressDetails();
 
         if (unsynced.isEmpty()) {
@@ -40,44 +56,7 @@ public class DataSyncManager {
         }
 
         Log.i(TAG, "🔄 Syncing " + unsynced.size() + " offline progress records...");
-        syncNextProgress(unsynced, 0, callback);
-    }
-
-    private void syncNextProgress(List<Progress> list,
-                                  int index,
-                                  DataCallbacks.GenericCallback callback) {
-
-        if (index >= list.size()) {
-            String msg = "✅ Sync complete for all progress records";
-            Log.i(TAG, msg);
-            callback.onSuccess(msg);
-            return;
-        }
-
-        Progress p = list.get(index);
-        String progressId = p.getProgressId();
-        if (progressId == null || progressId.isEmpty()) {
-            Log.w(TAG, "Skipping progress with no ID");
-            syncNextProgress(list, index + 1, callback);
-            return;
-        }
-
-        Log.d(TAG, "⬆️ Syncing progress " + progressId +
-                " child=" + p.getChildId() + " module=" + p.getModuleId());
-
-        firestore.collection("child_progress")
-                .document(progressId)
-                .set(p)
-                .addOnSuccessListener(unused -> {
-                    localDb.markProgressAsSynced(progressId);
-                    Log.d(TAG, "✅ Synced " + progressId);
-                    syncNextProgress(list, index + 1, callback);
-                })
-                .addOnFailureListener(e -> {
-                    Log.e(TAG, "❌ Failed to sync " + progressId, e);
-                    // Stop here; keep remaining as unsynced (retry later)
-                    callback.onFailure(e);
-                });
+        uploader.upload(unsynced, callback);
     }
 
     // sync generic queued operations
@@ -88,8 +67,19 @@ public class DataSyncManager {
             return;
         }
 
-        Log.i(TAG, "🔄 Syncing " + queue.size() + " queued operations...");
-        syncNextQueueItem(queue, 0, callback);
+        // Collapse repeated changes to the same record before uploading anything
+        SyncQueueCoalescer.Result coalesced = SyncQueueCoalescer.coalesce(queue);
+        localDb.applyCoalescedSyncQueue(coalesced.getItems(), coalesced.getSupersededIds());
+        lastCoalescedCount = coalesced.getRemovedCount();
+
+        Log.i(TAG, "🔄 Syncing " + coalesced.getItems().size() + " queued operations"
+                + " (coalesced away " + lastCoalescedCount + " of " + queue.size() + ")...");
+        syncNextQueueItem(coalesced.getItems(), 0, callback);
+    }
+
+    /** Number of queued operations removed by the last coalescing pass. */
+    public int getLastCoalescedCount() {
+        return lastCoalescedCount;
     }
 
     private void syncNextQueueItem(List<SyncItem> items,
@@ -97,7 +87,8 @@ public class DataSyncManager {
                                    DataCallbacks.GenericCallback callback) {
 
         if (index >= items.size()) {
-            callback.onSuccess("✅ All queued operations synced");
+            callback.onSuccess("✅ All queued operations synced ("
+                    + lastCoalescedCount + " merged before upload)");
             return;
         }
 
@@ -113,7 +104,7 @@ public class DataSyncManager {
                         .document(item.getRecordId())
                         .set(item)
                         .addOnSuccessListener(unused -> {
-                            localDb.markAsSynced(item.getTableName(), item.getRecordId());
+                            localDb.markSyncQueueItemsSynced(Collections.singletonList(item.getId()));
                             syncNextQueueItem(items, index + 1, callback);
                         })
                         .addOnFailureListener(callback::onFailure);
@@ -124,7 +115,7 @@ public class DataSyncManager {
                         .document(item.getRecordId())
                         .update("lastSynced", System.currentTimeMillis())
                         .addOnSuccessListener(unused -> {
-                            localDb.markAsSynced(item.getTableName(), item.getRecordId());
+                            localDb.markSyncQueueItemsSynced(Collections.singletonList(item.getId()));
                             syncNextQueueItem(items, index + 1, callback);
                         })
                         .addOnFailureListener(callback::onFailure);
@@ -135,7 +126,7 @@ public class DataSyncManager {
                         .document(item.getRecordId())
                         .delete()
                         .addOnSuccessListener(unused -> {
-                            localDb.markAsSynced(item.getTableName(), item.getRecordId());
+                            localDb.markSyncQueueItemsSynced(Collections.singletonList(item.getId()));
                             syncNextQueueItem(items, index + 1, callback);
                         })
                         .addOnFailureListener(callback::onFailure);
@@ -8,6 +8,7 @@ import android.database.sqlite.SQLiteOpenHelper;
 import android.util.Log;
 
 import com.example.brightbuds_app.models.FamilyMember;
+import com.example.brightbuds_app.models.ModuleSummary;
 import com.example.brightbuds_app.models.Progress;
 import com.example.brightbuds_app.models.SyncItem;
 import com.example.brightbuds_app.utils.ModuleIds;
@@ -20,18 +21,25 @@ import com.example.brightbuds_app.services.ProgressService;
 import com.example.brightbuds_app.utils.AnalyticsSessionManager;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Manages local data persistence for BrightBuds.
  * Handles child profiles, progress cache, sync queue, analytics and family members.
+ *
+ * One process wide instance is created in BrightBudsApp and kept open for the
+ * life of the app. The connection runs in WAL mode so readers never wait for
+ * a writer. Callers must not close the database returned by this helper.
  */
 public class DatabaseHelper extends SQLiteOpenHelper {
 
     private static final String TAG = "DatabaseHelper";
     private static final String DATABASE_NAME = "brightbuds.db";
-    // Version incremented to include family_members table.
-    private static final int DATABASE_VERSION = 6;
+    // Version incremented to add the report_remote_cache table.
+    private static final int DATABASE_VERSION = 10;
 
     // Table names
     public static final String TABLE_CHILD_PROFILE = "ChildProfile";
@@ -43,6 +51,9 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public static final String TABLE_GAME_SESSIONS = "game_sessions";
     public static final String TABLE_CHILD_ANALYTICS = "child_analytics";
 
+    // Cloud analytics copied locally for reports (other devices, reinstalls)
+    public static final String TABLE_REPORT_REMOTE_CACHE = "report_remote_cache";
+
     // Family members table
     public static final String TABLE_FAMILY = "family_members";
     public static final String COL_FAMILY_ID = "family_id";
@@ -112,6 +123,14 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     public static final String COLUMN_ANALYTICS_LAST_SESSION_TIME_MS = "last_session_time_ms";
     public static final String COLUMN_ANALYTICS_BEST_SCORE = "best_score";
 
+    // report_remote_cache columns (other counters reuse the child_analytics names)
+    public static final String COLUMN_REMOTE_CHILD_ID = "remote_child_id";
+    public static final String COLUMN_REMOTE_MODULE_ID = "remote_module_id";
+    public static final String COLUMN_REMOTE_PARENT_ID = "remote_parent_id";
+    public static final String COLUMN_REMOTE_TOTAL_STARS = "total_stars";
+    public static final String COLUMN_REMOTE_TOTAL_PLAYS = "total_plays";
+    public static final String COLUMN_REMOTE_FETCHED_AT_MS = "fetched_at_ms";
+
     // child_progress table
     private static final String CREATE_TABLE_PROGRESS =
             "CREATE TABLE IF NOT EXISTS " + TABLE_CHILD_PROGRESS + " (" +
@@ -189,6 +208,23 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     "PRIMARY KEY (" + COLUMN_ANALYTICS_CHILD_ID + ", " + COLUMN_ANALYTICS_MODULE_ID + ")" +
                     ")";
 
+    // report_remote_cache table
+    private static final String CREATE_TABLE_REPORT_REMOTE_CACHE =
+            "CREATE TABLE IF NOT EXISTS " + TABLE_REPORT_REMOTE_CACHE + " (" +
+                    COLUMN_REMOTE_CHILD_ID + " TEXT NOT NULL, " +
+                    COLUMN_REMOTE_MODULE_ID + " TEXT NOT NULL, " +
+                    COLUMN_REMOTE_PARENT_ID + " TEXT NOT NULL, " +
+                    COLUMN_ANALYTICS_SESSION_COUNT + " INTEGER NOT NULL DEFAULT 0, " +
+                    COLUMN_ANALYTICS_TOTAL_SCORE + " INTEGER NOT NULL DEFAULT 0, " +
+                    COLUMN_ANALYTICS_TOTAL_CORRECT + " INTEGER NOT NULL DEFAULT 0, " +
+                    COLUMN_ANALYTICS_TOTAL_ATTEMPTS + " INTEGER NOT NULL DEFAULT 0, " +
+                    COLUMN_ANALYTICS_TOTAL_TIME_MS + " INTEGER NOT NULL DEFAULT 0, " +
+                    COLUMN_REMOTE_TOTAL_STARS + " INTEGER NOT NULL DEFAULT 0, " +
+                    COLUMN_REMOTE_TOTAL_PLAYS + " INTEGER NOT NULL DEFAULT 0, " +
+                    COLUMN_REMOTE_FETCHED_AT_MS + " INTEGER NOT NULL DEFAULT 0, " +
+                    "PRIMARY KEY (" + COLUMN_REMOTE_CHILD_ID + ", " + COLUMN_REMOTE_MODULE_ID + ")" +
+                    ")";
+
     // family_members table
     private static final String CREATE_TABLE_FAMILY =
             "CREATE TABLE IF NOT EXISTS " + TABLE_FAMILY + " (" +
@@ -199,8 +235,170 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                     COL_FAMILY_IMAGE_PATH + " TEXT" +
                     ")";
 
-    public DatabaseHelper(Context context) {
+    // Indexes added in version 7.
+    // Covers getSessionsForChildAndModule, including its ORDER BY, without touching the table.
+    public static final String INDEX_GAME_SESSIONS_CHILD_MODULE = "idx_game_sessions_child_module_end";
+    private static final String CREATE_INDEX_GAME_SESSIONS_CHILD_MODULE =
+            "CREATE INDEX IF NOT EXISTS " + INDEX_GAME_SESSIONS_CHILD_MODULE +
+                    " ON " + TABLE_GAME_SESSIONS + " (" +
+                    COLUMN_SESSION_CHILD_ID + ", " +
+                    COLUMN_SESSION_MODULE_ID + ", " +
+                    COLUMN_SESSION_END_MS + " DESC, " +
+                    COLUMN_SESSION_START_MS + ", " +
+                    COLUMN_SESSION_TIME_MS + ", " +
+                    COLUMN_SESSION_SCORE + ", " +
+                    COLUMN_SESSION_TOTAL_CORRECT + ", " +
+                    COLUMN_SESSION_TOTAL_ATTEMPTS + ", " +
+                    COLUMN_SESSION_STARS_EARNED + ", " +
+                    COLUMN_SESSION_COMPLETED +
+                    ")";
+
+    // Partial index: only pending rows are indexed, so it stays small as history grows.
+    public static final String INDEX_PROGRESS_UNSYNCED = "idx_child_progress_unsynced";
+    private static final String CREATE_INDEX_PROGRESS_UNSYNCED =
+            "CREATE INDEX IF NOT EXISTS " + INDEX_PROGRESS_UNSYNCED +
+                    " ON " + TABLE_CHILD_PROGRESS + " (" + COLUMN_PROGRESS_ID + ")" +
+                    " WHERE " + COLUMN_SYNC_STATUS + " = 0";
+
+    // Partial index in queue order for getSyncQueue.
+    public static final String INDEX_SYNC_QUEUE_PENDING = "idx_sync_queue_pending";
+    private static final String CREATE_INDEX_SYNC_QUEUE_PENDING =
+            "CREATE INDEX IF NOT EXISTS " + INDEX_SYNC_QUEUE_PENDING +
+                    " ON " + TABLE_SYNC_QUEUE + " (" + COLUMN_CREATED_AT + ", " + COLUMN_SYNC_ID + ")" +
+                    " WHERE " + COLUMN_SYNC_STATUS + " = 0";
+
+    // Trigger added in version 8.
+    // Rolls each new game_sessions row into child_analytics inside the same statement,
+    // so the aggregate can never miss a session or race another writer.
+    // Plain INSERT OR IGNORE + UPDATE is used because UPSERT needs SQLite 3.24 (API 30).
+    public static final String TRIGGER_GAME_SESSIONS_ROLLUP = "trg_game_sessions_rollup";
+    private static final String CREATE_TRIGGER_GAME_SESSIONS_ROLLUP =
+            "CREATE TRIGGER IF NOT EXISTS " + TRIGGER_GAME_SESSIONS_ROLLUP +
+                    " AFTER INSERT ON " + TABLE_GAME_SESSIONS +
+                    " BEGIN " +
+                    "INSERT OR IGNORE INTO " + TABLE_CHILD_ANALYTICS + " (" +
+                    COLUMN_ANALYTICS_CHILD_ID + ", " + COLUMN_ANALYTICS_MODULE_ID + ")" +
+                    " VALUES (NEW." + COLUMN_SESSION_CHILD_ID + ", NEW." + COLUMN_SESSION_MODULE_ID + "); " +
+                    "UPDATE " + TABLE_CHILD_ANALYTICS + " SET " +
+                    COLUMN_ANALYTICS_SESSION_COUNT + " = " + COLUMN_ANALYTICS_SESSION_COUNT + " + 1, " +
+                    COLUMN_ANALYTICS_TOTAL_SCORE + " = " + COLUMN_ANALYTICS_TOTAL_SCORE +
+                    " + NEW." + COLUMN_SESSION_SCORE + ", " +
+                    COLUMN_ANALYTICS_TOTAL_CORRECT + " = " + COLUMN_ANALYTICS_TOTAL_CORRECT +
+                    " + NEW." + COLUMN_SESSION_TOTAL_CORRECT + ", " +
+                    COLUMN_ANALYTICS_TOTAL_ATTEMPTS + " = " + COLUMN_ANALYTICS_TOTAL_ATTEMPTS +
+                    " + NEW." + COLUMN_SESSION_TOTAL_ATTEMPTS + ", " +
+                    COLUMN_ANALYTICS_TOTAL_TIME_MS + " = " + COLUMN_ANALYTICS_TOTAL_TIME_MS +
+                    " + NEW." + COLUMN_SESSION_TIME_MS + ", " +
+                    COLUMN_ANALYTICS_LAST_PLAYED_MS + " = NEW." + COLUMN_SESSION_END_MS + ", " +
+                    COLUMN_ANALYTICS_LAST_SCORE + " = NEW." + COLUMN_SESSION_SCORE + ", " +
+                    COLUMN_ANALYTICS_LAST_ACCURACY + " = " +
+                    accuracyExpression("NEW." + COLUMN_SESSION_TOTAL_CORRECT,
+                            "NEW." + COLUMN_SESSION_TOTAL_ATTEMPTS) + ", " +
+                    COLUMN_ANALYTICS_LAST_SESSION_TIME_MS + " = NEW." + COLUMN_SESSION_TIME_MS + ", " +
+                    COLUMN_ANALYTICS_BEST_SCORE + " = MAX(" + COLUMN_ANALYTICS_BEST_SCORE +
+                    ", NEW." + COLUMN_SESSION_SCORE + ")" +
+                    " WHERE " + COLUMN_ANALYTICS_CHILD_ID + " = NEW." + COLUMN_SESSION_CHILD_ID +
+                    " AND " + COLUMN_ANALYTICS_MODULE_ID + " = NEW." + COLUMN_SESSION_MODULE_ID + "; " +
+                    "END";
+
+    // Recomputes every child_analytics row from game_sessions in one pass.
+    // The "last" columns come from the newest session per child and module.
+    private static final String REBUILD_CHILD_ANALYTICS =
+            "INSERT INTO " + TABLE_CHILD_ANALYTICS + " (" +
+                    COLUMN_ANALYTICS_CHILD_ID + ", " +
+                    COLUMN_ANALYTICS_MODULE_ID + ", " +
+                    COLUMN_ANALYTICS_SESSION_COUNT + ", " +
+                    COLUMN_ANALYTICS_TOTAL_SCORE + ", " +
+                    COLUMN_ANALYTICS_TOTAL_CORRECT + ", " +
+                    COLUMN_ANALYTICS_TOTAL_ATTEMPTS + ", " +
+                    COLUMN_ANALYTICS_TOTAL_TIME_MS + ", " +
+                    COLUMN_ANALYTICS_LAST_PLAYED_MS + ", " +
+                    COLUMN_ANALYTICS_LAST_SCORE + ", " +
+                    COLUMN_ANALYTICS_LAST_ACCURACY + ", " +
+                    COLUMN_ANALYTICS_LAST_SESSION_TIME_MS + ", " +
+                    COLUMN_ANALYTICS_BEST_SCORE + ")" +
+                    " SELECT a.child_id, a.module_id, a.session_count, a.total_score," +
+                    " a.total_correct, a.total_attempts, a.total_time_ms," +
+                    " l." + COLUMN_SESSION_END_MS + ", l." + COLUMN_SESSION_SCORE + ", " +
+                    accuracyExpression("l." + COLUMN_SESSION_TOTAL_CORRECT,
+                            "l." + COLUMN_SESSION_TOTAL_ATTEMPTS) + ", " +
+                    " l." + COLUMN_SESSION_TIME_MS + ", a.best_score" +
+                    " FROM (SELECT " +
+                    "g." + COLUMN_SESSION_CHILD_ID + " AS child_id, " +
+                    "g." + COLUMN_SESSION_MODULE_ID + " AS module_id, " +
+                    "COUNT(*) AS session_count, " +
+                    "SUM(g." + COLUMN_SESSION_SCORE + ") AS total_score, " +
+                    "SUM(g." + COLUMN_SESSION_TOTAL_CORRECT + ") AS total_correct, " +
+                    "SUM(g." + COLUMN_SESSION_TOTAL_ATTEMPTS + ") AS total_attempts, " +
+                    "SUM(g." + COLUMN_SESSION_TIME_MS + ") AS total_time_ms, " +
+                    "MAX(g." + COLUMN_SESSION_SCORE + ") AS best_score, " +
+                    "(SELECT x." + COLUMN_SESSION_ID + " FROM " + TABLE_GAME_SESSIONS + " x" +
+                    " WHERE x." + COLUMN_SESSION_CHILD_ID + " = g." + COLUMN_SESSION_CHILD_ID +
+                    " AND x." + COLUMN_SESSION_MODULE_ID + " = g." + COLUMN_SESSION_MODULE_ID +
+                    " ORDER BY x." + COLUMN_SESSION_END_MS + " DESC, x." + COLUMN_SESSION_ID + " DESC" +
+                    " LIMIT 1) AS last_id" +
+                    " FROM " + TABLE_GAME_SESSIONS + " g" +
+                    " GROUP BY g." + COLUMN_SESSION_CHILD_ID + ", g." + COLUMN_SESSION_MODULE_ID +
+                    ") a JOIN " + TABLE_GAME_SESSIONS + " l ON l." + COLUMN_SESSION_ID + " = a.last_id";
+
+    // Hot queries. The sync_status filters are literals so the partial indexes apply.
+    private static final String QUERY_UNSYNCED_PROGRESS =
+            "SELECT * FROM " + TABLE_CHILD_PROGRESS +
+                    " WHERE " + COLUMN_SYNC_STATUS + " = 0";
+
+    private static final String QUERY_PENDING_SYNC_QUEUE =
+            "SELECT * FROM " + TABLE_SYNC_QUEUE +
+                    " WHERE " + COLUMN_SYNC_STATUS + " = 0" +
+                    " ORDER BY " + COLUMN_CREATED_AT + " ASC, " + COLUMN_SYNC_ID + " ASC";
+
+    private static final String QUERY_SESSIONS_FOR_CHILD_MODULE =
+            "SELECT " +
+                    COLUMN_SESSION_ID + ", " +
+                    COLUMN_SESSION_START_MS + ", " +
+                    COLUMN_SESSION_END_MS + ", " +
+                    COLUMN_SESSION_TIME_MS + ", " +
+                    COLUMN_SESSION_SCORE + ", " +
+                    COLUMN_SESSION_TOTAL_CORRECT + ", " +
+                    COLUMN_SESSION_TOTAL_ATTEMPTS + ", " +
+                    COLUMN_SESSION_STARS_EARNED + ", " +
+                    COLUMN_SESSION_COMPLETED +
+                    " FROM " + TABLE_GAME_SESSIONS +
+                    " WHERE " + COLUMN_SESSION_CHILD_ID + " = ? AND " +
+                    COLUMN_SESSION_MODULE_ID + " = ?" +
+                    " ORDER BY " + COLUMN_SESSION_END_MS + " DESC";
+
+    // Counts real file opens so we can verify the shared connection stays open.
+    private static final AtomicInteger OPEN_COUNT = new AtomicInteger();
+
+    private static volatile DatabaseHelper instance;
+
+    /**
+     * Returns the shared helper for this process.
+     * Always built on the application context so no Activity is leaked.
+     */
+    public static DatabaseHelper getInstance(Context context) {
+        DatabaseHelper local = instance;
+        if (local == null) {
+            synchronized (DatabaseHelper.class) {
+                local = instance;
+                if (local == null) {
+                    local = new DatabaseHelper(context.getApplicationContext());
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    /** Number of times the database file has been opened in this process. */
+    public static int getOpenCount() {
+        return OPEN_COUNT.get();
+    }
+
+    private DatabaseHelper(Context context) {
         super(context, DATABASE_NAME, null, DATABASE_VERSION);
+        // Reads run on their own connections while a write is in progress.
+        setWriteAheadLoggingEnabled(true);
     }
 
     @Override
@@ -212,6 +410,9 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         db.execSQL(CREATE_TABLE_GAME_SESSIONS);
         db.execSQL(CREATE_TABLE_CHILD_ANALYTICS);
         db.execSQL(CREATE_TABLE_FAMILY);
+        db.execSQL(CREATE_TABLE_REPORT_REMOTE_CACHE);
+        createIndexes(db);
+        db.execSQL(CREATE_TRIGGER_GAME_SESSIONS_ROLLUP);
         Log.i(TAG, "Local database created successfully.");
     }
 
@@ -266,6 +467,59 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                 Log.e(TAG, "Failed to create family_members table", e);
             }
         }
+
+        // Upgrade to version 7 for query indexes.
+        if (oldVersion < 7) {
+            try {
+                createIndexes(db);
+                Log.i(TAG, "Indexes created for version 7");
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to create indexes", e);
+            }
+        }
+
+        // Upgrade to version 8 for the analytics rollup trigger.
+        if (oldVersion < 8) {
+            try {
+                db.execSQL(CREATE_TRIGGER_GAME_SESSIONS_ROLLUP);
+                Log.i(TAG, "Analytics trigger created for version 8");
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to create analytics trigger", e);
+            }
+        }
+
+        // Upgrade to version 9 for the report cache table.
+        if (oldVersion < 9) {
+            try {
+                db.execSQL(CREATE_TABLE_REPORT_REMOTE_CACHE);
+                Log.i(TAG, "Report cache table created for version 9");
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to create report_remote_cache table", e);
+            }
+        }
+
+        // Upgrade to version 10 for play counts in the report cache. It only
+        // holds cloud copies, so it is rebuilt and refilled on the next refresh.
+        if (oldVersion < 10) {
+            try {
+                db.execSQL("DROP TABLE IF EXISTS " + TABLE_REPORT_REMOTE_CACHE);
+                db.execSQL(CREATE_TABLE_REPORT_REMOTE_CACHE);
+                Log.i(TAG, "Report cache table rebuilt for version 10");
+            } catch (Exception e) {
+                Log.e(TAG, "Failed to rebuild report_remote_cache table", e);
+            }
+        }
+    }
+
+    private static String accuracyExpression(String correct, String attempts) {
+        return "CASE WHEN " + attempts + " > 0 THEN (" + correct + " * 1.0) / " + attempts +
+                " ELSE 0.0 END";
+    }
+
+    private void createIndexes(SQLiteDatabase db) {
+        db.execSQL(CREATE_INDEX_GAME_SESSIONS_CHILD_MODULE);
+        db.execSQL(CREATE_INDEX_PROGRESS_UNSYNCED);
+        db.execSQL(CREATE_INDEX_SYNC_QUEUE_PENDING);
     }
 
     @Override
@@ -274,6 +528,48 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         db.setForeignKeyConstraintsEnabled(true);
     }
 
+    @Override
+    public void onOpen(SQLiteDatabase db) {
+        super.onOpen(db);
+        int opens = OPEN_COUNT.incrementAndGet();
+        Log.d(TAG, "Database opened, total opens=" + opens);
+    }
+
+    /**
+     * Runs EXPLAIN QUERY PLAN on the hot queries and returns every plan step
+     * that scans a table without an index or sorts with a temp b-tree.
+     * An empty list means every hot query is served by an index.
+     * Checked by HotQueryPlanTest.
+     */
+    public static List<String> findFullScansInHotQueries(SQLiteDatabase db) {
+        List<String> offenders = new ArrayList<>();
+        collectScans(db, QUERY_UNSYNCED_PROGRESS, null, offenders);
+        collectScans(db, QUERY_PENDING_SYNC_QUEUE, null, offenders);
+        collectScans(db, QUERY_SESSIONS_FOR_CHILD_MODULE, new String[]{"c", "m"}, offenders);
+        return offenders;
+    }
+
+    private static void collectScans(SQLiteDatabase db,
+                                     String sql,
+                                     String[] args,
+                                     List<String> offenders) {
+        Cursor c = db.rawQuery("EXPLAIN QUERY PLAN " + sql, args);
+        try {
+            int detailIndex = c.getColumnIndexOrThrow("detail");
+            while (c.moveToNext()) {
+                String detail = c.getString(detailIndex);
+                if (detail == null) continue;
+                boolean tableScan = detail.startsWith("SCAN") && !detail.contains("USING");
+                boolean tempSort = detail.contains("TEMP B-TREE");
+                if (tableScan || tempSort) {
+                    offenders.add(detail + " <- " + sql);
+                }
+            }
+        } finally {
+            c.close();
+        }
+    }
+
     // PROGRESS CACHE
 
     // Default: treat as unsynced
@@ -301,6 +597,24 @@ public class DatabaseHelper extends SQLiteOpenHelper {
                                        boolean isSynced) {
 
         SQLiteDatabase db = this.getWritableDatabase();
+        ContentValues values = buildProgressValues(progressId, parentId, childId, moduleId,
+                score, status, timestamp, timeSpent, isSynced);
+
+        db.insertWithOnConflict(TABLE_CHILD_PROGRESS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
+
+        Log.d(TAG, "Cached progress [" + progressId + "] synced=" + isSynced);
+    }
+
+    /** Builds one child_progress row for insertOrUpdateProgressBatch. */
+    public static ContentValues buildProgressValues(String progressId,
+                                                    String parentId,
+                                                    String childId,
+                                                    String moduleId,
+                                                    int score,
+                                                    String status,
+                                                    long timestamp,
+                                                    long timeSpent,
+                                                    boolean isSynced) {
         ContentValues values = new ContentValues();
         values.put(COLUMN_PROGRESS_ID, progressId);
         values.put(COLUMN_PARENT_ID, parentId);
@@ -311,11 +625,31 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COLUMN_TIMESTAMP, timestamp);
         values.put(COLUMN_TIME_SPENT, timeSpent);
         values.put(COLUMN_SYNC_STATUS, isSynced ? 1 : 0);
+        return values;
+    }
 
-        db.insertWithOnConflict(TABLE_CHILD_PROGRESS, null, values, SQLiteDatabase.CONFLICT_REPLACE);
-        db.close();
+    /**
+     * Upserts many progress rows in one transaction, so a large family sync
+     * costs a single commit instead of one per row.
+     */
+    public void insertOrUpdateProgressBatch(List<ContentValues> rows) {
+        if (rows == null || rows.isEmpty()) {
+            return;
+        }
 
-        Log.d(TAG, "Cached progress [" + progressId + "] synced=" + isSynced);
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (ContentValues values : rows) {
+                db.insertWithOnConflict(TABLE_CHILD_PROGRESS, null, values,
+                        SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+
+        Log.d(TAG, "Cached " + rows.size() + " progress rows in one transaction");
     }
 
     /** Returns unsynced progress rows for cloud sync. */
@@ -323,11 +657,7 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         List<Progress> list = new ArrayList<>();
         SQLiteDatabase db = this.getReadableDatabase();
 
-        Cursor c = db.query(TABLE_CHILD_PROGRESS,
-                null,
-                COLUMN_SYNC_STATUS + "=?",
-                new String[]{"0"},
-                null, null, null);
+        Cursor c = db.rawQuery(QUERY_UNSYNCED_PROGRESS, null);
 
         while (c.moveToNext()) {
             Progress p = new Progress();
@@ -343,7 +673,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         }
 
         c.close();
-        db.close();
         return list;
     }
 
@@ -355,10 +684,33 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         db.update(TABLE_CHILD_PROGRESS, values,
                 COLUMN_PROGRESS_ID + "=?",
                 new String[]{progressId});
-        db.close();
         Log.d(TAG, "Marked progress as synced: " + progressId);
     }
 
+    /**
+     * Marks many progress rows as synced with one UPDATE ... WHERE progress_id IN (...).
+     * Callers keep lists at or below ProgressBatchUploader.MAX_BATCH_OPS,
+     * well under the SQLite bound parameter limit.
+     */
+    public void markProgressAsSynced(List<String> progressIds) {
+        if (progressIds == null || progressIds.isEmpty()) {
+            return;
+        }
+
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < progressIds.size(); i++) {
+            placeholders.append(i == 0 ? "?" : ",?");
+        }
+
+        SQLiteDatabase db = this.getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_SYNC_STATUS, 1);
+        int rows = db.update(TABLE_CHILD_PROGRESS, values,
+                COLUMN_PROGRESS_ID + " IN (" + placeholders + ")",
+                progressIds.toArray(new String[0]));
+        Log.d(TAG, "Marked " + rows + " progress rows as synced");
+    }
+
     // Generic for legacy SyncQueue
     public void markAsSynced(String tableName, String recordId) {
         SQLiteDatabase db = this.getWritableDatabase();
@@ -367,7 +719,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         db.update(tableName, values,
                 COLUMN_RECORD_ID + "=?",
                 new String[]{recordId});
-        db.close();
     }
 
     // SYNC QUEUE
@@ -379,19 +730,69 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         values.put(COLUMN_RECORD_ID, recordId);
         values.put(COLUMN_OPERATION, operation);
         db.insert(TABLE_SYNC_QUEUE, null, values);
-        db.close();
         Log.d(TAG, "Added to sync queue: " + tableName + " / " + recordId);
     }
 
+    /**
+     * Marks SyncQueue rows as done by sync id.
+     * Runs in one transaction, chunked to stay under the bound parameter limit.
+     */
+    public void markSyncQueueItemsSynced(List<String> syncIds) {
+        if (syncIds == null || syncIds.isEmpty()) {
+            return;
+        }
+
+        SQLiteDatabase db = getWritableDatabase();
+        ContentValues values = new ContentValues();
+        values.put(COLUMN_SYNC_STATUS, 1);
+
+        db.beginTransaction();
+        try {
+            for (int start = 0; start < syncIds.size(); start += 500) {
+                List<String> chunk = syncIds.subList(start, Math.min(syncIds.size(), start + 500));
+                StringBuilder placeholders = new StringBuilder();
+                for (int i = 0; i < chunk.size(); i++) {
+                    placeholders.append(i == 0 ? "?" : ",?");
+                }
+                db.update(TABLE_SYNC_QUEUE, values,
+                        COLUMN_SYNC_ID + " IN (" + placeholders + ")",
+                        chunk.toArray(new String[0]));
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        Log.d(TAG, "Marked " + syncIds.size() + " sync queue rows as done");
+    }
+
+    /**
+     * Persists the output of SyncQueueCoalescer in one transaction.
+     * Surviving rows take their merged operation and superseded rows are
+     * marked done, so a failed upload resumes from the coalesced queue.
+     */
+    public void applyCoalescedSyncQueue(List<SyncItem> survivors, List<String> supersededIds) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (SyncItem item : survivors) {
+                ContentValues values = new ContentValues();
+                values.put(COLUMN_OPERATION, item.getOperation());
+                db.update(TABLE_SYNC_QUEUE, values,
+                        COLUMN_SYNC_ID + "=?",
+                        new String[]{item.getId()});
+            }
+            markSyncQueueItemsSynced(supersededIds);
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
     public List<SyncItem> getSyncQueue() {
         List<SyncItem> queue = new ArrayList<>();
         SQLiteDatabase db = this.getReadableDatabase();
 
-        Cursor cursor = db.query(TABLE_SYNC_QUEUE,
-                null,
-                COLUMN_SYNC_STATUS + "=0",
-                null, null, null,
-                COLUMN_CREATED_AT + " ASC");
+        Cursor cursor = db.rawQuery(QUERY_PENDING_SYNC_QUEUE, null);
 
         while (cursor.moveToNext()) {
             SyncItem item = new SyncItem();
@@ -403,7 +804,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
         }
 
         cursor.close();
-        db.close();
         return queue;
     }
 
@@ -425,125 +825,39 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             sessionTimeMs = 0;
         }
 
+        ContentValues sessionValues = new ContentValues();
+        sessionValues.put(COLUMN_SESSION_CHILD_ID, childId);
+        sessionValues.put(COLUMN_SESSION_MODULE_ID, moduleId);
+        sessionValues.put(COLUMN_SESSION_START_MS, sessionStartMs);
+        sessionValues.put(COLUMN_SESSION_END_MS, sessionEndMs);
+        sessionValues.put(COLUMN_SESSION_TIME_MS, sessionTimeMs);
+        sessionValues.put(COLUMN_SESSION_SCORE, score);
+        sessionValues.put(COLUMN_SESSION_TOTAL_CORRECT, totalCorrect);
+        sessionValues.put(COLUMN_SESSION_TOTAL_ATTEMPTS, totalAttempts);
+        sessionValues.put(COLUMN_SESSION_STARS_EARNED, starsEarned);
+        sessionValues.put(COLUMN_SESSION_COMPLETED, completed);
+
+        // One statement: the game_sessions trigger updates child_analytics atomically.
+        getWritableDatabase().insert(TABLE_GAME_SESSIONS, null, sessionValues);
+    }
+
+    /**
+     * Recomputes child_analytics from game_sessions in one pass.
+     * Use when the aggregate has drifted, for example after sessions were
+     * imported or deleted outside recordGameSession.
+     */
+    public void rebuildChildAnalytics() {
         SQLiteDatabase db = getWritableDatabase();
+        long start = SystemClock.elapsedRealtime();
         db.beginTransaction();
         try {
-            ContentValues sessionValues = new ContentValues();
-            sessionValues.put(COLUMN_SESSION_CHILD_ID, childId);
-            sessionValues.put(COLUMN_SESSION_MODULE_ID, moduleId);
-            sessionValues.put(COLUMN_SESSION_START_MS, sessionStartMs);
-            sessionValues.put(COLUMN_SESSION_END_MS, sessionEndMs);
-            sessionValues.put(COLUMN_SESSION_TIME_MS, sessionTimeMs);
-            sessionValues.put(COLUMN_SESSION_SCORE, score);
-            sessionValues.put(COLUMN_SESSION_TOTAL_CORRECT, totalCorrect);
-            sessionValues.put(COLUMN_SESSION_TOTAL_ATTEMPTS, totalAttempts);
-            sessionValues.put(COLUMN_SESSION_STARS_EARNED, starsEarned);
-            sessionValues.put(COLUMN_SESSION_COMPLETED, completed);
-
-            db.insert(TABLE_GAME_SESSIONS, null, sessionValues);
-
-            updateChildAnalyticsInternal(
-                    db,
-                    childId,
-                    moduleId,
-                    score,
-                    totalCorrect,
-                    totalAttempts,
-                    sessionTimeMs,
-                    sessionEndMs
-            );
-
+            db.delete(TABLE_CHILD_ANALYTICS, null, null);
+            db.execSQL(REBUILD_CHILD_ANALYTICS);
             db.setTransactionSuccessful();
         } finally {
             db.endTransaction();
         }
-    }
-
-    // Updates aggregated analytics per child and module.
-    private void updateChildAnalyticsInternal(SQLiteDatabase db,
-                                              String childId,
-                                              String moduleId,
-                                              int score,
-                                              int totalCorrect,
-                                              int totalAttempts,
-                                              long sessionTimeMs,
-                                              long lastPlayedMs) {
-
-        String[] columns = new String[] {
-                COLUMN_ANALYTICS_SESSION_COUNT,
-                COLUMN_ANALYTICS_TOTAL_SCORE,
-                COLUMN_ANALYTICS_TOTAL_CORRECT,
-                COLUMN_ANALYTICS_TOTAL_ATTEMPTS,
-                COLUMN_ANALYTICS_TOTAL_TIME_MS,
-                COLUMN_ANALYTICS_BEST_SCORE
-        };
-
-        String selection = COLUMN_ANALYTICS_CHILD_ID + " = ? AND " + COLUMN_ANALYTICS_MODULE_ID + " = ?";
-        String[] selectionArgs = new String[] { childId, moduleId };
-
-        int sessionCount = 0;
-        int totalScore = 0;
-        int totalCorrectAll = 0;
-        int totalAttemptsAll = 0;
-        long totalTimeMs = 0L;
-        int bestScore = 0;
-
-        Cursor cursor = db.query(
-                TABLE_CHILD_ANALYTICS,
-                columns,
-                selection,
-                selectionArgs,
-                null,
-                null,
-                null
-        );
-
-        if (cursor != null) {
-            if (cursor.moveToFirst()) {
-                sessionCount = cursor.getInt(0);
-                totalScore = cursor.getInt(1);
-                totalCorrectAll = cursor.getInt(2);
-                totalAttemptsAll = cursor.getInt(3);
-                totalTimeMs = cursor.getLong(4);
-                bestScore = cursor.getInt(5);
-            }
-            cursor.close();
-        }
-
-        sessionCount = sessionCount + 1;
-        totalScore = totalScore + score;
-        totalCorrectAll = totalCorrectAll + totalCorrect;
-        totalAttemptsAll = totalAttemptsAll + totalAttempts;
-        totalTimeMs = totalTimeMs + sessionTimeMs;
-        if (score > bestScore) {
-            bestScore = score;
-        }
-
-        double lastAccuracy = 0.0;
-        if (totalAttempts > 0) {
-            lastAccuracy = (totalCorrect * 1.0) / totalAttempts;
-        }
-
-        ContentValues values = new ContentValues();
-        values.put(COLUMN_ANALYTICS_CHILD_ID, childId);
-        values.put(COLUMN_ANALYTICS_MODULE_ID, moduleId);
-        values.put(COLUMN_ANALYTICS_SESSION_COUNT, sessionCount);
-        values.put(COLUMN_ANALYTICS_TOTAL_SCORE, totalScore);
-        values.put(COLUMN_ANALYTICS_TOTAL_CORRECT, totalCorrectAll);
-        values.put(COLUMN_ANALYTICS_TOTAL_ATTEMPTS, totalAttemptsAll);
-        values.put(COLUMN_ANALYTICS_TOTAL_TIME_MS, totalTimeMs);
-        values.put(COLUMN_ANALYTICS_LAST_PLAYED_MS, lastPlayedMs);
-        values.put(COLUMN_ANALYTICS_LAST_SCORE, score);
-        values.put(COLUMN_ANALYTICS_LAST_ACCURACY, lastAccuracy);
-        values.put(COLUMN_ANALYTICS_LAST_SESSION_TIME_MS, sessionTimeMs);
-        values.put(COLUMN_ANALYTICS_BEST_SCORE, bestScore);
-
-        db.insertWithOnConflict(
-                TABLE_CHILD_ANALYTICS,
-                null,
-                values,
-                SQLiteDatabase.CONFLICT_REPLACE
-        );
+        Log.i(TAG, "child_analytics rebuilt in " + (SystemClock.elapsedRealtime() - start) + " ms");
     }
 
     /**
@@ -633,32 +947,152 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     // Returns all sessions for one child and module ordered by recency.
     public Cursor getSessionsForChildAndModule(String childId, String moduleId) {
         SQLiteDatabase db = getReadableDatabase();
+        return db.rawQuery(QUERY_SESSIONS_FOR_CHILD_MODULE, new String[] { childId, moduleId });
+    }
 
-        String[] columns = new String[] {
-                COLUMN_SESSION_ID,
-                COLUMN_SESSION_START_MS,
-                COLUMN_SESSION_END_MS,
-                COLUMN_SESSION_TIME_MS,
-                COLUMN_SESSION_SCORE,
-                COLUMN_SESSION_TOTAL_CORRECT,
-                COLUMN_SESSION_TOTAL_ATTEMPTS,
-                COLUMN_SESSION_STARS_EARNED,
-                COLUMN_SESSION_COMPLETED
-        };
+    // REPORT DATA
 
-        String selection = COLUMN_SESSION_CHILD_ID + " = ? AND " +
-                COLUMN_SESSION_MODULE_ID + " = ?";
-        String[] selectionArgs = new String[] { childId, moduleId };
+    /**
+     * Loads module summaries for many children with one query.
+     * Local child_analytics rows (with star totals from game_sessions) and
+     * cached cloud rows are read together. When both exist for the same
+     * child and module, the one with more sessions wins, because the cloud
+     * copy also counts play on other devices. Locally every session is one
+     * play; the cloud play count comes from the child_progress summary.
+     *
+     * @return map of child id to module summaries ordered by module id
+     */
+    public Map<String, List<ModuleSummary>> getModuleSummariesForChildren(List<String> childIds) {
+        Map<String, List<ModuleSummary>> result = new LinkedHashMap<>();
+        if (childIds == null || childIds.isEmpty()) {
+            return result;
+        }
 
-        return db.query(
-                TABLE_GAME_SESSIONS,
-                columns,
-                selection,
-                selectionArgs,
-                null,
-                null,
-                COLUMN_SESSION_END_MS + " DESC"
-        );
+        StringBuilder placeholders = new StringBuilder();
+        for (int i = 0; i < childIds.size(); i++) {
+            placeholders.append(i == 0 ? "?" : ",?");
+        }
+
+        String sql =
+                "SELECT 0 AS is_remote, " +
+                        "a." + COLUMN_ANALYTICS_CHILD_ID + " AS child_id, " +
+                        "a." + COLUMN_ANALYTICS_MODULE_ID + " AS module_id, " +
+                        "a." + COLUMN_ANALYTICS_SESSION_COUNT + ", " +
+                        "a." + COLUMN_ANALYTICS_TOTAL_SCORE + ", " +
+                        "a." + COLUMN_ANALYTICS_TOTAL_CORRECT + ", " +
+                        "a." + COLUMN_ANALYTICS_TOTAL_ATTEMPTS + ", " +
+                        "a." + COLUMN_ANALYTICS_TOTAL_TIME_MS + ", " +
+                        "(SELECT COALESCE(SUM(g." + COLUMN_SESSION_STARS_EARNED + "), 0)" +
+                        " FROM " + TABLE_GAME_SESSIONS + " g" +
+                        " WHERE g." + COLUMN_SESSION_CHILD_ID + " = a." + COLUMN_ANALYTICS_CHILD_ID +
+                        " AND g." + COLUMN_SESSION_MODULE_ID + " = a." + COLUMN_ANALYTICS_MODULE_ID +
+                        ") AS " + COLUMN_REMOTE_TOTAL_STARS + ", " +
+                        "a." + COLUMN_ANALYTICS_LAST_PLAYED_MS + ", " +
+                        "a." + COLUMN_ANALYTICS_LAST_SCORE + ", " +
+                        "a." + COLUMN_ANALYTICS_LAST_ACCURACY + ", " +
+                        "a." + COLUMN_ANALYTICS_LAST_SESSION_TIME_MS + ", " +
+                        "a." + COLUMN_ANALYTICS_BEST_SCORE + ", " +
+                        "a." + COLUMN_ANALYTICS_SESSION_COUNT + " AS " + COLUMN_REMOTE_TOTAL_PLAYS +
+                        " FROM " + TABLE_CHILD_ANALYTICS + " a" +
+                        " WHERE a." + COLUMN_ANALYTICS_CHILD_ID + " IN (" + placeholders + ")" +
+                        " UNION ALL " +
+                        "SELECT 1, " +
+                        "r." + COLUMN_REMOTE_CHILD_ID + ", " +
+                        "r." + COLUMN_REMOTE_MODULE_ID + ", " +
+                        "r." + COLUMN_ANALYTICS_SESSION_COUNT + ", " +
+                        "r." + COLUMN_ANALYTICS_TOTAL_SCORE + ", " +
+                        "r." + COLUMN_ANALYTICS_TOTAL_CORRECT + ", " +
+                        "r." + COLUMN_ANALYTICS_TOTAL_ATTEMPTS + ", " +
+                        "r." + COLUMN_ANALYTICS_TOTAL_TIME_MS + ", " +
+                        "r." + COLUMN_REMOTE_TOTAL_STARS + ", " +
+                        "0, 0, 0.0, 0, 0, " +
+                        "r." + COLUMN_REMOTE_TOTAL_PLAYS +
+                        " FROM " + TABLE_REPORT_REMOTE_CACHE + " r" +
+                        " WHERE r." + COLUMN_REMOTE_CHILD_ID + " IN (" + placeholders + ")" +
+                        " ORDER BY child_id, module_id, is_remote";
+
+        String[] args = new String[childIds.size() * 2];
+        for (int i = 0; i < childIds.size(); i++) {
+            args[i] = childIds.get(i);
+            args[i + childIds.size()] = childIds.get(i);
+        }
+
+        SQLiteDatabase db = getReadableDatabase();
+        Map<String, ModuleSummary> byKey = new LinkedHashMap<>();
+        Cursor c = db.rawQuery(sql, args);
+        try {
+            while (c.moveToNext()) {
+                boolean remote = c.getInt(0) == 1;
+                String childId = c.getString(1);
+                String moduleId = c.getString(2);
+                String key = childId + "|" + moduleId;
+
+                ModuleSummary local = byKey.get(key);
+                int sessions = c.getInt(3);
+                int stars = c.getInt(8);
+                int plays = c.getInt(14);
+
+                if (local != null) {
+                    // Local row is first; take the cloud counters only if they cover more sessions
+                    local.setTotalStars(Math.max(local.getTotalStars(), stars));
+                    local.setTotalPlays(Math.max(local.getTotalPlays(), plays));
+                    if (remote && sessions > local.getSessionCount()) {
+                        local.setSessionCount(sessions);
+                        local.setTotalScore(c.getInt(4));
+                        local.setTotalCorrect(c.getInt(5));
+                        local.setTotalAttempts(c.getInt(6));
+                        local.setTotalTimeMs(c.getLong(7));
+                    }
+                    continue;
+                }
+
+                ModuleSummary s = new ModuleSummary(moduleId, ModuleIds.getModuleDisplayName(moduleId));
+                s.setSessionCount(sessions);
+                s.setTotalScore(c.getInt(4));
+                s.setTotalCorrect(c.getInt(5));
+                s.setTotalAttempts(c.getInt(6));
+                s.setTotalTimeMs(c.getLong(7));
+                s.setTotalStars(stars);
+                s.setTotalPlays(plays);
+                s.setLastPlayedMs(c.getLong(9));
+                s.setLastScore(c.getInt(10));
+                s.setLastAccuracy(c.getDouble(11));
+                s.setLastSessionTimeMs(c.getLong(12));
+                s.setBestScore(c.getInt(13));
+                byKey.put(key, s);
+
+                List<ModuleSummary> list = result.get(childId);
+                if (list == null) {
+                    list = new ArrayList<>();
+                    result.put(childId, list);
+                }
+                list.add(s);
+            }
+        } finally {
+            c.close();
+        }
+        return result;
+    }
+
+    /**
+     * Replaces the cached cloud analytics for one parent in one transaction.
+     * Rows are built by ReportRepository from Firestore documents.
+     */
+    public void replaceRemoteReportCache(String parentId, List<ContentValues> rows) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_REPORT_REMOTE_CACHE, COLUMN_REMOTE_PARENT_ID + " = ?",
+                    new String[]{parentId});
+            for (ContentValues values : rows) {
+                db.insertWithOnConflict(TABLE_REPORT_REMOTE_CACHE, null, values,
+                        SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+        Log.d(TAG, "Report cache replaced for parent with " + rows.size() + " rows");
     }
 
     // FAMILY HELPERS
@@ -776,7 +1210,6 @@ public class DatabaseHelper extends SQLiteOpenHelper {
             if (c != null) {
                 c.close();
             }
-            db.close();
         }
 
         return result;
@@ -0,0 +1,280 @@
+package com.example.brightbuds_app.services;
+
+import android.content.res.AssetManager;
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Image;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.BaseFont;
+import com.itextpdf.text.pdf.PdfContentByte;
+import com.itextpdf.text.pdf.PdfGState;
+import com.itextpdf.text.pdf.PdfTemplate;
+import com.itextpdf.text.pdf.PdfWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * iText backend for the branded table reports.
+ *
+ * The page artwork (background image, white panel, blue header, logo and
+ * title) is drawn once into a form XObject, and every page references that
+ * one object. The background and logo are therefore stored once per file
+ * instead of once per page. Table text and rules are written as vector
+ * content. The text uses DejaVu Sans from the assets, embedded as a
+ * subset with Identity-H encoding, so parent entered names outside
+ * Windows-1252 still print.
+ *
+ * Coordinates follow android.graphics.Canvas: origin at the top left and
+ * text positioned by its baseline, so layouts move over from PdfDocument
+ * unchanged. Each page is flushed to the file when the next one starts.
+ *
+ * Not thread safe. One writer belongs to one render job.
+ */
+public class ITextReportWriter implements ReportOutput {
+
+    private static final String TAG = "ITextReportWriter";
+
+    private static final BaseColor HEADER_COLOR = new BaseColor(0x19, 0x76, 0xD2);
+    private static final BaseColor LINE_COLOR = new BaseColor(0xCC, 0xCC, 0xCC);
+    private static final float PANEL_OPACITY = 235f / 255f;
+    private static final float PANEL_RADIUS = 20f;
+    private static final float TITLE_SIZE = 20f;
+    private static final int BACKGROUND_JPEG_QUALITY = 85;
+    private static final String REGULAR_FONT = "fonts/DejaVuSans.ttf";
+    private static final String BOLD_FONT = "fonts/DejaVuSans-Bold.ttf";
+
+    // Font files read from the assets once. Guarded by the class.
+    private static final Map<String, byte[]> FONT_BYTES = new HashMap<>();
+
+    private final File output;
+    private final float pageWidth;
+    private final float pageHeight;
+    private final PageListener pageListener;
+
+    private final OutputStream out;
+    private final Document document;
+    private final PdfWriter writer;
+    private final PdfContentByte canvas;
+    private final PdfTemplate pageArt;
+    private final BaseFont regular;
+    private final BaseFont bold;
+
+    private boolean pageOpen;
+    private int pageCount;
+    private boolean closed;
+
+    ITextReportWriter(AssetManager assets,
+                      File output,
+                      int pageWidth,
+                      int pageHeight,
+                      int margin,
+                      int headerHeight,
+                      String title,
+                      @Nullable Bitmap background,
+                      @Nullable Bitmap logo,
+                      PageListener pageListener) throws IOException {
+        this.output = output;
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+        this.pageListener = pageListener;
+
+        this.out = new FileOutputStream(output);
+        try {
+            document = new Document(new Rectangle(pageWidth, pageHeight), 0, 0, 0, 0);
+            writer = PdfWriter.getInstance(document, out);
+            writer.setFullCompression();
+            document.open();
+
+            canvas = writer.getDirectContent();
+            regular = loadFont(assets, REGULAR_FONT);
+            bold = loadFont(assets, BOLD_FONT);
+            pageArt = buildPageArt(margin, headerHeight, title, background, logo);
+        } catch (DocumentException | IOException e) {
+            out.close();
+            throw e instanceof IOException ? (IOException) e
+                    : new IOException("Failed to open report writer", e);
+        }
+    }
+
+    public int getPageCount() { return pageCount; }
+
+    /** Finishes the open page, if any, and starts a new one with the page artwork. */
+    public void startPage() {
+        if (pageOpen) {
+            document.newPage();
+            onPageFinished();
+        }
+        canvas.addTemplate(pageArt, 0, 0);
+        pageOpen = true;
+    }
+
+    /** Draws black text with its baseline at y. */
+    public void drawText(String text, float x, float y, float size, boolean boldText) {
+        drawText(text, x, y, size, boldText, BaseColor.BLACK);
+    }
+
+    /** Draws a light grey one point rule. */
+    public void drawLine(float x1, float y1, float x2, float y2) {
+        canvas.saveState();
+        canvas.setColorStroke(LINE_COLOR);
+        canvas.setLineWidth(1f);
+        canvas.moveTo(x1, pageHeight - y1);
+        canvas.lineTo(x2, pageHeight - y2);
+        canvas.stroke();
+        canvas.restoreState();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (!pageOpen) {
+                startPage();
+            }
+            document.close();
+            onPageFinished();
+        } finally {
+            out.close();
+        }
+        Log.d(TAG, "Wrote " + pageCount + " pages to " + output.getName());
+    }
+
+    @Override
+    public void abort() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.close();
+        } catch (Exception e) {
+            Log.d(TAG, "Writer close after abort", e);
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            Log.w(TAG, "Could not close " + output.getName(), e);
+        }
+        if (output.exists() && !output.delete()) {
+            Log.w(TAG, "Could not delete " + output.getName());
+        }
+    }
+
+    private void onPageFinished() {
+        pageCount++;
+        if (pageListener != null) {
+            pageListener.onPageFinished(pageCount);
+        }
+    }
+
+    private void drawText(String text, float x, float y, float size, boolean boldText, BaseColor color) {
+        drawText(canvas, text, x, y, size, boldText, color);
+    }
+
+    private void drawText(PdfContentByte target, String text, float x, float y,
+                          float size, boolean boldText, BaseColor color) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+        target.beginText();
+        target.setFontAndSize(boldText ? bold : regular, size);
+        target.setColorFill(color);
+        target.setTextMatrix(x, pageHeight - y);
+        target.showText(text);
+        target.endText();
+    }
+
+    // Shared artwork, stored once and referenced by every page
+    private PdfTemplate buildPageArt(int margin,
+                                     int headerHeight,
+                                     String title,
+                                     @Nullable Bitmap background,
+                                     @Nullable Bitmap logo) throws IOException, DocumentException {
+        PdfTemplate art = canvas.createTemplate(pageWidth, pageHeight);
+
+        if (background != null) {
+            Image bg = toImage(background, Bitmap.CompressFormat.JPEG, BACKGROUND_JPEG_QUALITY);
+            art.addImage(bg, pageWidth, 0, 0, pageHeight, 0, 0);
+        }
+
+        // Translucent white panel behind the tables
+        art.saveState();
+        PdfGState panelState = new PdfGState();
+        panelState.setFillOpacity(PANEL_OPACITY);
+        art.setGState(panelState);
+        art.setColorFill(BaseColor.WHITE);
+        float panelLeft = margin / 2f;
+        float panelTop = headerHeight;
+        float panelRight = pageWidth - margin / 2f;
+        float panelBottom = pageHeight - margin / 2f;
+        art.roundRectangle(panelLeft, pageHeight - panelBottom,
+                panelRight - panelLeft, panelBottom - panelTop, PANEL_RADIUS);
+        art.fill();
+        art.restoreState();
+
+        // Header band
+        art.setColorFill(HEADER_COLOR);
+        art.rectangle(0, pageHeight - headerHeight, pageWidth, headerHeight);
+        art.fill();
+
+        float headerCenterY = headerHeight / 2f;
+        if (logo != null) {
+            Image logoImage = toImage(logo, Bitmap.CompressFormat.PNG, 100);
+            float logoTop = headerCenterY - logo.getHeight() / 2f;
+            art.addImage(logoImage, logo.getWidth(), 0, 0, logo.getHeight(),
+                    margin, pageHeight - logoTop - logo.getHeight());
+        }
+
+        drawText(art, title, margin + 100, headerCenterY + 5, TITLE_SIZE, true, BaseColor.WHITE);
+        return art;
+    }
+
+    // Embedded fonts are subset, so each file carries only the glyphs it uses
+    private static BaseFont loadFont(AssetManager assets, String path)
+            throws IOException, DocumentException {
+        byte[] bytes;
+        synchronized (ITextReportWriter.class) {
+            bytes = FONT_BYTES.get(path);
+            if (bytes == null) {
+                bytes = readAsset(assets, path);
+                FONT_BYTES.put(path, bytes);
+            }
+        }
+        return BaseFont.createFont(path, BaseFont.IDENTITY_H, BaseFont.EMBEDDED, false, bytes, null);
+    }
+
+    private static byte[] readAsset(AssetManager assets, String path) throws IOException {
+        try (InputStream in = assets.open(path)) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[16 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                bytes.write(buffer, 0, read);
+            }
+            return bytes.toByteArray();
+        }
+    }
+
+    private static Image toImage(Bitmap bitmap, Bitmap.CompressFormat format, int quality)
+            throws IOException, DocumentException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bitmap.compress(format, quality, bytes);
+        return Image.getInstance(bytes.toByteArray());
+    }
+}
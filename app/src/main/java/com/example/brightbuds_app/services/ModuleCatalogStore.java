@@ -0,0 +1,183 @@
+package com.example.brightbuds_app.services;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.brightbuds_app.models.Module;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local copy of the module catalog, kept as one JSON file.
+ *
+ * ModuleService answers from here first and revalidates against Firestore
+ * afterwards. The file is read once, off the main thread, on first use;
+ * later reads come from memory. Along with the modules it keeps the
+ * catalog version the copy was taken at, the newest module updatedAt
+ * seen, and when the copy was last checked.
+ */
+public final class ModuleCatalogStore {
+
+    private static final String TAG = "ModuleCatalogStore";
+
+    private static final String FILE_NAME = "module_catalog.json";
+
+    private static volatile ModuleCatalogStore instance;
+
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "module-catalog");
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        return t;
+    });
+
+    private final AtomicFile file;
+    private final Gson gson = new Gson();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Guarded by this. Null until the file has been read.
+    @Nullable private Snapshot snapshot;
+
+    /** What the file holds. Lists are never modified once stored. */
+    public static final class Snapshot {
+        public final List<Module> modules;
+        @Nullable public final String version;
+        public final long newestUpdatedAtMs;
+        public final long checkedAtMs;
+
+        public Snapshot(List<Module> modules, @Nullable String version,
+                        long newestUpdatedAtMs, long checkedAtMs) {
+            this.modules = Collections.unmodifiableList(new ArrayList<>(modules));
+            this.version = version;
+            this.newestUpdatedAtMs = newestUpdatedAtMs;
+            this.checkedAtMs = checkedAtMs;
+        }
+
+        boolean isEmpty() {
+            return modules.isEmpty();
+        }
+    }
+
+    // Plain shape written to disk
+    private static final class StoredCatalog {
+        List<Module> modules;
+        String version;
+        long newestUpdatedAtMs;
+        long checkedAtMs;
+    }
+
+    public interface LoadCallback {
+        /** Called on the main thread; snapshot is null when nothing is stored. */
+        void onLoaded(@Nullable Snapshot snapshot);
+    }
+
+    public static ModuleCatalogStore getInstance(Context context) {
+        ModuleCatalogStore local = instance;
+        if (local == null) {
+            synchronized (ModuleCatalogStore.class) {
+                local = instance;
+                if (local == null) {
+                    local = new ModuleCatalogStore(context.getApplicationContext());
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private ModuleCatalogStore(Context appContext) {
+        this.file = new AtomicFile(new File(appContext.getFilesDir(), FILE_NAME));
+    }
+
+    /** True once the catalog is in memory, so load answers without disk access. */
+    public synchronized boolean isInMemory() {
+        return snapshot != null;
+    }
+
+    /**
+     * The stored catalog. Answers straight away when it is in memory,
+     * otherwise after one background read of the file.
+     */
+    public void load(LoadCallback callback) {
+        Snapshot inMemory;
+        synchronized (this) {
+            inMemory = snapshot;
+        }
+        if (inMemory != null) {
+            callback.onLoaded(inMemory.isEmpty() ? null : inMemory);
+            return;
+        }
+
+        IO.execute(() -> {
+            Snapshot loaded = readFile();
+            synchronized (this) {
+                if (snapshot == null) {
+                    snapshot = loaded;
+                }
+                loaded = snapshot;
+            }
+            Snapshot result = loaded;
+            mainHandler.post(() -> callback.onLoaded(result.isEmpty() ? null : result));
+        });
+    }
+
+    /** Replaces the catalog in memory now and on disk in the background. */
+    public void save(Snapshot updated) {
+        synchronized (this) {
+            snapshot = updated;
+        }
+        IO.execute(() -> writeFile(updated));
+    }
+
+    private Snapshot readFile() {
+        if (!file.getBaseFile().exists()) {
+            return new Snapshot(Collections.emptyList(), null, 0L, 0L);
+        }
+        try {
+            String json = new String(file.readFully(), StandardCharsets.UTF_8);
+            StoredCatalog stored = gson.fromJson(json, StoredCatalog.class);
+            if (stored != null && stored.modules != null) {
+                Log.d(TAG, "📦 Read " + stored.modules.size() + " modules from disk, version " + stored.version);
+                return new Snapshot(stored.modules, stored.version,
+                        stored.newestUpdatedAtMs, stored.checkedAtMs);
+            }
+        } catch (IOException | JsonParseException e) {
+            Log.e(TAG, "❌ Failed to read module catalog", e);
+        }
+        return new Snapshot(Collections.emptyList(), null, 0L, 0L);
+    }
+
+    private void writeFile(Snapshot s) {
+        StoredCatalog stored = new StoredCatalog();
+        stored.modules = new ArrayList<>(s.modules);
+        stored.version = s.version;
+        stored.newestUpdatedAtMs = s.newestUpdatedAtMs;
+        stored.checkedAtMs = s.checkedAtMs;
+
+        FileOutputStream out = null;
+        try {
+            out = file.startWrite();
+            out.write(gson.toJson(stored).getBytes(StandardCharsets.UTF_8));
+            file.finishWrite(out);
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Failed to save module catalog", e);
+            if (out != null) {
+                file.failWrite(out);
+            }
+        }
+    }
+}
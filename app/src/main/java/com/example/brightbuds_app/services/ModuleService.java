@@ -1,77 +1,217 @@
 package com.example.brightbuds_app.services;
 
+import android.content.Context;
 import android.util.Log;
 
+import androidx.annotation.Nullable;
+
 import com.example.brightbuds_app.models.Module;
+import com.google.firebase.Timestamp;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.Query;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/*
+ Module catalog.
+
+ getAllModules is stale while revalidate: it answers from the local
+ ModuleCatalogStore, then checks Firestore in the background. The check
+ reads one version document, meta/modules, whose "version" field changes
+ whenever the catalog does. When the version moved, only modules with an
+ updatedAt newer than the copy are fetched and merged. If the version
+ document is missing, the copy is refreshed in full at most once a day.
 
+ updatedAt on module documents must be a Firestore Timestamp. The change
+ query compares against a Timestamp, and Firestore never matches values
+ of another type, so a module with a numeric updatedAt would not pick up
+ its edits.
+ */
 public class ModuleService {
 
     public interface ModulesCallback {
         void onSuccess(List<Module> modules);
         void onError(Exception e);
+
+        /**
+         * Called after onSuccess when the background check found a newer
+         * catalog than the one already delivered.
+         */
+        default void onUpdated(List<Module> modules) { }
     }
 
     private static final String TAG = "ModuleService";
+
+    private static final String VERSION_COLLECTION = "meta";
+    private static final String VERSION_DOCUMENT = "modules";
+    private static final String FIELD_VERSION = "version";
+    private static final String FIELD_COUNT = "count";
+    private static final String FIELD_UPDATED_AT = "updatedAt";
+
+    // Skip the check when the copy was checked this recently
+    private static final long MIN_REVALIDATE_MS = TimeUnit.SECONDS.toMillis(30);
+    // Without a version document, refresh the whole copy this often
+    private static final long FULL_REFRESH_MS = TimeUnit.DAYS.toMillis(1);
+
     private final FirebaseFirestore db = FirebaseFirestore.getInstance();
+    private final ModuleCatalogStore store;
+
+    public ModuleService(Context context) {
+        this.store = ModuleCatalogStore.getInstance(context);
+    }
 
     /*
-     Fetch all active modules ordered by "order" if available
-     Automatically falls back to ordering by "title" if no index exists.
+     Fetch all active modules, from the local copy when there is one.
      Ensures null or missing 'isActive' modules are still shown.
      */
     public void getAllModules(ModulesCallback callback) {
-        Log.d(TAG, "🔍 Fetching all active modules...");
+        store.load(cached -> {
+            if (cached == null) {
+                Log.d(TAG, "🔍 No local catalog, fetching all active modules...");
+                fetchAll(null, callback::onSuccess, callback::onError);
+                return;
+            }
 
-        // Use safe query: avoids index errors if "order" field is missing
-        Query query = db.collection("modules")
-                .orderBy("title", Query.Direction.ASCENDING);
+            Log.d(TAG, "📦 Serving " + cached.modules.size() + " modules from the local catalog");
+            callback.onSuccess(new ArrayList<>(cached.modules));
+            revalidate(cached, callback);
+        });
+    }
 
-        query.get()
-                .addOnSuccessListener(snapshot -> {
-                    List<Module> modules = new ArrayList<>();
-                    Log.d(TAG, "📦 Firestore returned " + snapshot.size() + " documents");
+    // region Revalidation
 
-                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
-                        try {
-                            Module module = doc.toObject(Module.class);
-                            if (module != null) {
+    private void revalidate(ModuleCatalogStore.Snapshot cached, ModulesCallback callback) {
+        long now = System.currentTimeMillis();
+        if (now - cached.checkedAtMs < MIN_REVALIDATE_MS) {
+            return;
+        }
 
-                                // Always ensure module ID is set
-                                if (module.getId() == null || module.getId().isEmpty()) {
-                                    module.setId(doc.getId());
-                                }
+        db.collection(VERSION_COLLECTION).document(VERSION_DOCUMENT).get()
+                .addOnSuccessListener(versionDoc -> {
+                    if (!versionDoc.exists() || versionDoc.get(FIELD_VERSION) == null) {
+                        if (now - cached.checkedAtMs >= FULL_REFRESH_MS) {
+                            Log.d(TAG, "No catalog version document, refreshing in full");
+                            fetchAll(null, fresh -> notifyIfChanged(cached, fresh, callback), e -> { });
+                        }
+                        return;
+                    }
 
-                                // Ensure null isActive defaults to true
-                                if (module.getIsActive() == null) {
-                                    module.setIsActive(true);
-                                }
+                    String version = String.valueOf(versionDoc.get(FIELD_VERSION));
+                    if (version.equals(cached.version)) {
+                        Log.d(TAG, "✅ Local catalog is current (version " + version + ")");
+                        store.save(new ModuleCatalogStore.Snapshot(
+                                cached.modules, version, cached.newestUpdatedAtMs, now));
+                        return;
+                    }
 
-                                if (!module.isActive()) {
-                                    Log.d(TAG, "⏸️ Skipping inactive module: " + module.getTitle());
-                                    continue;
-                                }
+                    Long expectedCount = versionDoc.getLong(FIELD_COUNT);
+                    fetchChanged(cached, version, expectedCount, callback);
+                })
+                .addOnFailureListener(e ->
+                        Log.w(TAG, "Catalog check failed, keeping local copy: " + e.getMessage()));
+    }
 
-                                modules.add(module);
-                                Log.d(TAG, String.format(
-                                        "✅ Loaded module: %s | Active: %s | ID: %s",
-                                        module.getTitle(), module.isActive(), module.getId()
-                                ));
-                            } else {
-                                Log.w(TAG, "⚠️ Null module object for document: " + doc.getId());
-                            }
-                        } catch (Exception e) {
-                            Log.e(TAG, "❌ Error converting document " + doc.getId(), e);
+    // Fetches modules changed since the copy and merges them in by id
+    private void fetchChanged(ModuleCatalogStore.Snapshot cached, String version,
+                              @Nullable Long expectedCount, ModulesCallback callback) {
+        Log.d(TAG, "🔄 Catalog version " + cached.version + " -> " + version + ", fetching changes");
+
+        db.collection("modules")
+                .whereGreaterThan(FIELD_UPDATED_AT, new Timestamp(new Date(cached.newestUpdatedAtMs)))
+                .get()
+                .addOnSuccessListener(snapshot -> {
+                    Map<String, Module> merged = new LinkedHashMap<>();
+                    for (Module m : cached.modules) {
+                        merged.put(m.getId(), m);
+                    }
+                    long newest = cached.newestUpdatedAtMs;
+                    for (DocumentSnapshot doc : snapshot.getDocuments()) {
+                        newest = Math.max(newest, updatedAtMs(doc));
+                        Module module = toModule(doc);
+                        if (module == null || !module.isActive()) {
+                            merged.remove(doc.getId());
+                        } else {
+                            merged.put(module.getId(), module);
                         }
                     }
 
+                    // Deleted documents do not show up in the change query
+                    if (expectedCount != null && expectedCount != merged.size()) {
+                        Log.w(TAG, "Merged catalog has " + merged.size() + " modules, expected "
+                                + expectedCount + ", refreshing in full");
+                        fetchAll(version, fresh -> notifyIfChanged(cached, fresh, callback), e -> { });
+                        return;
+                    }
+
+                    List<Module> modules = sortByTitle(new ArrayList<>(merged.values()));
+                    store.save(new ModuleCatalogStore.Snapshot(
+                            modules, version, newest, System.currentTimeMillis()));
+                    Log.i(TAG, "🎯 Merged " + snapshot.size() + " changed modules");
+                    if (!snapshot.isEmpty()) {
+                        callback.onUpdated(modules);
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    Log.w(TAG, "Change query failed, refreshing in full: " + e.getMessage());
+                    fetchAll(version, fresh -> notifyIfChanged(cached, fresh, callback), err -> { });
+                });
+    }
+
+    private void notifyIfChanged(ModuleCatalogStore.Snapshot cached, List<Module> fresh,
+                                 ModulesCallback callback) {
+        if (!sameModules(cached.modules, fresh)) {
+            callback.onUpdated(fresh);
+        }
+    }
+
+    private static boolean sameModules(List<Module> a, List<Module> b) {
+        if (a.size() != b.size()) return false;
+        for (int i = 0; i < a.size(); i++) {
+            if (!a.get(i).toString().equals(b.get(i).toString())
+                    || !Objects.equals(a.get(i).getStoragePath(), b.get(i).getStoragePath())
+                    || !Objects.equals(a.get(i).getIcon(), b.get(i).getIcon())
+                    || !Objects.equals(a.get(i).getDescription(), b.get(i).getDescription())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // endregion
+
+    // region Full fetch
+
+    private interface ModulesListener {
+        void onModules(List<Module> modules);
+    }
+
+    private interface ErrorListener {
+        void onError(Exception e);
+    }
+
+    /*
+     Full catalog query, saved to the local copy on success.
+     Automatically falls back to an unordered query if the ordered one fails.
+     */
+    private void fetchAll(@Nullable String version, ModulesListener onModules, ErrorListener onError) {
+        // Use safe query: avoids index errors if "order" field is missing
+        Query query = db.collection("modules")
+                .orderBy("title", Query.Direction.ASCENDING);
+
+        query.get()
+                .addOnSuccessListener(snapshot -> {
+                    Log.d(TAG, "📦 Firestore returned " + snapshot.size() + " documents");
+                    List<Module> modules = saveFull(snapshot.getDocuments(), version);
                     Log.i(TAG, "🎯 Successfully loaded " + modules.size() + " active modules");
-                    callback.onSuccess(modules);
+                    onModules.onModules(modules);
                 })
                 .addOnFailureListener(e -> {
                     Log.e(TAG, "❌ Failed to load modules, falling back to unfiltered list", e);
@@ -80,26 +220,85 @@ public class ModuleService {
                     db.collection("modules")
                             .get()
                             .addOnSuccessListener(snapshot -> {
-                                List<Module> modules = new ArrayList<>();
-                                for (DocumentSnapshot doc : snapshot.getDocuments()) {
-                                    Module module = doc.toObject(Module.class);
-                                    if (module != null) {
-                                        if (module.getId() == null || module.getId().isEmpty())
-                                            module.setId(doc.getId());
-                                        if (module.getIsActive() == null || module.getIsActive())
-                                            modules.add(module);
-                                    }
-                                }
+                                List<Module> modules = saveFull(snapshot.getDocuments(), version);
                                 Log.w(TAG, "⚠️ Fallback loaded " + modules.size() + " modules (no order applied)");
-                                callback.onSuccess(modules);
+                                onModules.onModules(modules);
                             })
                             .addOnFailureListener(inner -> {
                                 Log.e(TAG, "❌ Even fallback failed", inner);
-                                callback.onError(inner);
+                                onError.onError(inner);
                             });
                 });
     }
 
+    private List<Module> saveFull(List<DocumentSnapshot> docs, @Nullable String version) {
+        List<Module> modules = new ArrayList<>();
+        long newest = 0L;
+        for (DocumentSnapshot doc : docs) {
+            newest = Math.max(newest, updatedAtMs(doc));
+            Module module = toModule(doc);
+            if (module == null) {
+                continue;
+            }
+            if (!module.isActive()) {
+                Log.d(TAG, "⏸️ Skipping inactive module: " + module.getTitle());
+                continue;
+            }
+            modules.add(module);
+        }
+        sortByTitle(modules);
+        store.save(new ModuleCatalogStore.Snapshot(modules, version, newest, System.currentTimeMillis()));
+        return modules;
+    }
+
+    // endregion
+
+    @Nullable
+    private static Module toModule(DocumentSnapshot doc) {
+        try {
+            Module module = doc.toObject(Module.class);
+            if (module == null) {
+                Log.w(TAG, "⚠️ Null module object for document: " + doc.getId());
+                return null;
+            }
+
+            // Always ensure module ID is set
+            if (module.getId() == null || module.getId().isEmpty()) {
+                module.setId(doc.getId());
+            }
+
+            // Ensure null isActive defaults to true
+            if (module.getIsActive() == null) {
+                module.setIsActive(true);
+            }
+            return module;
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Error converting document " + doc.getId(), e);
+            return null;
+        }
+    }
+
+    // updatedAt as epoch millis; anything but a Timestamp counts as never updated
+    private static long updatedAtMs(DocumentSnapshot doc) {
+        Object value = doc.get(FIELD_UPDATED_AT);
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toDate().getTime();
+        }
+        if (value != null) {
+            Log.w(TAG, "⚠️ Module " + doc.getId() + " has a non Timestamp updatedAt, its changes will be missed");
+        }
+        return 0L;
+    }
+
+    private static List<Module> sortByTitle(List<Module> modules) {
+        Collections.sort(modules, (a, b) -> {
+            String ta = a.getTitle() != null ? a.getTitle() : "";
+            String tb = b.getTitle() != null ? b.getTitle() : "";
+            return ta.compareTo(tb);
+        });
+        return modules;
+    }
+
     /*
      Debug fetch: get ALL modules (active + inactive)
      Used for testing or admin preview.
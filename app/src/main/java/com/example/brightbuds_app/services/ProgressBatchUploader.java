@@ -0,0 +1,225 @@
+package com.example.brightbuds_app.services;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.example.brightbuds_app.interfaces.DataCallbacks;
+import com.example.brightbuds_app.models.Progress;
+import com.google.android.gms.tasks.Task;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * Uploads offline child_progress rows to Firestore in WriteBatch commits.
+ *
+ * Rows are packed into batches of up to MAX_BATCH_OPS writes and several
+ * batches are kept in flight at once. A batch rejected by the server is
+ * split in half and retried until the bad row is isolated, so one bad row
+ * never blocks the rest. Network failures are not split; those rows simply
+ * stay unsynced for the next run.
+ *
+ * All bookkeeping runs on one worker thread. The final callback is
+ * delivered on the main thread, like the Firestore listeners it replaces.
+ */
+public class ProgressBatchUploader {
+
+    private static final String TAG = "ProgressBatchUploader";
+
+    /** Firestore limit for writes in one batch. */
+    public static final int MAX_BATCH_OPS = 500;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 3;
+
+    private static final String COLLECTION = "child_progress";
+
+    // Failure state survives across uploads for the life of the process.
+    private static final Map<String, FailureState> FAILURES = new ConcurrentHashMap<>();
+
+    private static final Executor WORKER = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "progress-uploader");
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        return t;
+    });
+
+    private final DatabaseHelper localDb;
+    private final FirebaseFirestore firestore;
+    private final int maxInFlight;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    /** Last known failure for one progress row. */
+    public static final class FailureState {
+        public final int attempts;
+        public final String lastError;
+        public final long lastAttemptMs;
+
+        FailureState(int attempts, String lastError, long lastAttemptMs) {
+            this.attempts = attempts;
+            this.lastError = lastError;
+            this.lastAttemptMs = lastAttemptMs;
+        }
+    }
+
+    public ProgressBatchUploader(DatabaseHelper localDb, FirebaseFirestore firestore) {
+        this(localDb, firestore, DEFAULT_MAX_IN_FLIGHT);
+    }
+
+    public ProgressBatchUploader(DatabaseHelper localDb,
+                                 FirebaseFirestore firestore,
+                                 int maxInFlight) {
+        this.localDb = localDb;
+        this.firestore = firestore;
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    /** Progress ids that failed on their last attempt, with their failure state. */
+    public static Map<String, FailureState> getFailedRecords() {
+        return Collections.unmodifiableMap(FAILURES);
+    }
+
+    public void upload(List<Progress> rows, DataCallbacks.GenericCallback callback) {
+        List<Progress> valid = new ArrayList<>(rows.size());
+        for (Progress p : rows) {
+            String id = p.getProgressId();
+            if (id == null || id.isEmpty()) {
+                Log.w(TAG, "Skipping progress with no ID");
+                continue;
+            }
+            valid.add(p);
+        }
+
+        if (valid.isEmpty()) {
+            mainHandler.post(() -> callback.onSuccess("✅ Sync complete for all progress records"));
+            return;
+        }
+
+        UploadRun run = new UploadRun(valid.size(), callback);
+        for (int i = 0; i < valid.size(); i += MAX_BATCH_OPS) {
+            run.pending.addLast(new ArrayList<>(
+                    valid.subList(i, Math.min(valid.size(), i + MAX_BATCH_OPS))));
+        }
+
+        Log.i(TAG, "⬆️ Uploading " + valid.size() + " rows in "
+                + run.pending.size() + " batches, maxInFlight=" + maxInFlight);
+        WORKER.execute(() -> pump(run));
+    }
+
+    // Worker thread only
+    private void pump(UploadRun run) {
+        while (run.inFlight < maxInFlight && !run.pending.isEmpty()) {
+            commit(run, run.pending.pollFirst());
+        }
+
+        if (run.inFlight == 0 && run.pending.isEmpty()) {
+            finish(run);
+        }
+    }
+
+    // Worker thread only
+    private void commit(UploadRun run, List<Progress> chunk) {
+        WriteBatch batch = firestore.batch();
+        for (Progress p : chunk) {
+            batch.set(firestore.collection(COLLECTION).document(p.getProgressId()), p);
+        }
+
+        run.inFlight++;
+        Task<Void> task = batch.commit();
+        task.addOnCompleteListener(WORKER, t -> {
+            run.inFlight--;
+            if (t.isSuccessful()) {
+                onChunkSynced(run, chunk);
+            } else {
+                onChunkFailed(run, chunk, t.getException());
+            }
+            pump(run);
+        });
+    }
+
+    private void onChunkSynced(UploadRun run, List<Progress> chunk) {
+        List<String> ids = new ArrayList<>(chunk.size());
+        for (Progress p : chunk) {
+            ids.add(p.getProgressId());
+            FAILURES.remove(p.getProgressId());
+        }
+        localDb.markProgressAsSynced(ids);
+        run.synced += chunk.size();
+        Log.d(TAG, "✅ Batch of " + chunk.size() + " synced");
+    }
+
+    private void onChunkFailed(UploadRun run, List<Progress> chunk, Exception e) {
+        if (chunk.size() > 1 && !isTransient(e)) {
+            // Server rejected the batch. Split it to find the bad row.
+            int mid = chunk.size() / 2;
+            run.pending.addFirst(new ArrayList<>(chunk.subList(mid, chunk.size())));
+            run.pending.addFirst(new ArrayList<>(chunk.subList(0, mid)));
+            Log.w(TAG, "Batch of " + chunk.size() + " rejected, splitting", e);
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        String error = e != null ? e.getMessage() : "unknown";
+        for (Progress p : chunk) {
+            FailureState prev = FAILURES.get(p.getProgressId());
+            int attempts = prev != null ? prev.attempts + 1 : 1;
+            FAILURES.put(p.getProgressId(), new FailureState(attempts, error, now));
+        }
+        run.failed += chunk.size();
+        run.lastError = e;
+        Log.e(TAG, "❌ Failed to sync " + chunk.size() + " rows", e);
+    }
+
+    private void finish(UploadRun run) {
+        String msg = "Synced " + run.synced + " of " + run.total + " progress records";
+        Log.i(TAG, msg + ", failed=" + run.failed);
+
+        mainHandler.post(() -> {
+            if (run.failed == 0) {
+                run.callback.onSuccess("✅ " + msg);
+            } else if (run.synced > 0) {
+                run.callback.onSuccess("⚠️ " + msg + " (" + run.failed + " will retry)");
+            } else {
+                run.callback.onFailure(run.lastError != null
+                        ? run.lastError
+                        : new IllegalStateException("Progress upload failed"));
+            }
+        });
+    }
+
+    private static boolean isTransient(Exception e) {
+        if (!(e instanceof FirebaseFirestoreException)) {
+            return false;
+        }
+        FirebaseFirestoreException.Code code = ((FirebaseFirestoreException) e).getCode();
+        return code == FirebaseFirestoreException.Code.UNAVAILABLE
+                || code == FirebaseFirestoreException.Code.DEADLINE_EXCEEDED
+                || code == FirebaseFirestoreException.Code.RESOURCE_EXHAUSTED
+                || code == FirebaseFirestoreException.Code.UNAUTHENTICATED
+                || code == FirebaseFirestoreException.Code.CANCELLED;
+    }
+
+    // State for one upload call. Touched only on the worker thread.
+    private static final class UploadRun {
+        final int total;
+        final DataCallbacks.GenericCallback callback;
+        final Deque<List<Progress>> pending = new ArrayDeque<>();
+        int inFlight;
+        int synced;
+        int failed;
+        Exception lastError;
+
+        UploadRun(int total, DataCallbacks.GenericCallback callback) {
+            this.total = total;
+            this.callback = callback;
+        }
+    }
+}
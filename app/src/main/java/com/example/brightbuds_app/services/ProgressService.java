@@ -26,14 +26,14 @@ public class ProgressService {
     private static final int TOTAL_MODULES = 7;
 
     private final FirebaseFirestore db;
-    private final DatabaseHelper localDb;
+    private final ProgressWriteQueue writeQueue;
 
     // Analytics sync bridge
     private final FirebaseSyncService firebaseSync;
 
     public ProgressService(Context context) {
         this.db = FirebaseFirestore.getInstance();
-        this.localDb = new DatabaseHelper(context);
+        this.writeQueue = ProgressWriteQueue.getInstance(context);
         this.firebaseSync = new FirebaseSyncService();
     }
 
@@ -224,8 +224,9 @@ public class ProgressService {
         return m;
     }
 
+    // Local cache writes go through the write behind queue, never the calling thread.
     private void cacheProgressLocally(Progress p, boolean isSynced) {
-        localDb.insertOrUpdateProgress(
+        writeQueue.enqueue(DatabaseHelper.buildProgressValues(
                 p.getProgressId(),
                 p.getParentId(),
                 p.getChildId(),
@@ -235,7 +236,7 @@ public class ProgressService {
                 p.getTimestamp(),
                 p.getTimeSpent(),
                 isSynced
-        );
+        ));
     }
 
     // helper that allows callers to pass timeSpent
@@ -247,7 +248,7 @@ public class ProgressService {
                                      String status,
                                      long timeSpent,
                                      boolean isSynced) {
-        localDb.insertOrUpdateProgress(
+        writeQueue.enqueue(DatabaseHelper.buildProgressValues(
                 id,
                 parentId,
                 childId,
@@ -257,7 +258,7 @@ public class ProgressService {
                 System.currentTimeMillis(),
                 timeSpent,
                 isSynced
-        );
+        ));
     }
 
     // legacy helper where timeSpent is unknown (kept for existing calls)
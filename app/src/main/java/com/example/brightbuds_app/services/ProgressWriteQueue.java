@@ -0,0 +1,177 @@
+package com.example.brightbuds_app.services;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.util.Log;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write behind queue for the local child_progress cache.
+ *
+ * Progress upserts are collected in memory and written by one background
+ * thread in a single transaction, either when MAX_BATCH_SIZE rows are
+ * pending or when FLUSH_WINDOW_MS has passed since the first pending row.
+ * Rows with the same progress id replace each other before the flush,
+ * matching the CONFLICT_REPLACE behaviour of the table.
+ *
+ * BrightBudsApp calls flush() when an activity pauses so pending rows
+ * reach disk soon after the app leaves the screen, without holding up the
+ * main thread. A batch that fails to write goes back on the queue and is
+ * tried again after RETRY_DELAY_MS.
+ */
+public final class ProgressWriteQueue {
+
+    private static final String TAG = "ProgressWriteQueue";
+
+    private static final int MAX_BATCH_SIZE = 50;
+    private static final long FLUSH_WINDOW_MS = 300L;
+    private static final long RETRY_DELAY_MS = 5000L;
+    private static final long SYNC_FLUSH_TIMEOUT_MS = 2000L;
+
+    private static volatile ProgressWriteQueue instance;
+
+    private final DatabaseHelper localDb;
+    private final ScheduledExecutorService executor;
+
+    // Guarded by this
+    private final Map<String, ContentValues> pending = new LinkedHashMap<>();
+    private ScheduledFuture<?> scheduledFlush;
+
+    public static ProgressWriteQueue getInstance(Context context) {
+        ProgressWriteQueue local = instance;
+        if (local == null) {
+            synchronized (ProgressWriteQueue.class) {
+                local = instance;
+                if (local == null) {
+                    local = new ProgressWriteQueue(DatabaseHelper.getInstance(context));
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private ProgressWriteQueue(DatabaseHelper localDb) {
+        this.localDb = localDb;
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "progress-write-queue");
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    /**
+     * Queues one progress row built with DatabaseHelper.buildProgressValues.
+     * Returns immediately; the row is written on the queue thread.
+     */
+    public void enqueue(ContentValues values) {
+        String progressId = values.getAsString(DatabaseHelper.COLUMN_PROGRESS_ID);
+        if (progressId == null) {
+            Log.w(TAG, "Ignoring progress row with no id");
+            return;
+        }
+
+        synchronized (this) {
+            pending.put(progressId, values);
+
+            if (pending.size() >= MAX_BATCH_SIZE) {
+                cancelScheduledFlush();
+                executor.execute(this::drainAndWrite);
+            } else if (scheduledFlush == null) {
+                scheduledFlush = executor.schedule(
+                        this::drainAndWrite, FLUSH_WINDOW_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+
+    /** Starts writing everything pending now, without waiting for it. */
+    public void flush() {
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            cancelScheduledFlush();
+        }
+        executor.execute(this::drainAndWrite);
+    }
+
+    /**
+     * Writes everything pending and waits for it to reach disk.
+     * Used before reading unsynced rows for upload; call it off the main thread.
+     */
+    public void flushNow() {
+        synchronized (this) {
+            cancelScheduledFlush();
+        }
+
+        if (Thread.currentThread().getName().equals("progress-write-queue")) {
+            drainAndWrite();
+            return;
+        }
+
+        Future<?> f = executor.submit(this::drainAndWrite);
+        try {
+            f.get(SYNC_FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            Log.e(TAG, "Synchronous progress flush did not complete", e);
+        }
+    }
+
+    /** Number of rows waiting to be written. */
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private void cancelScheduledFlush() {
+        if (scheduledFlush != null) {
+            scheduledFlush.cancel(false);
+            scheduledFlush = null;
+        }
+    }
+
+    // Runs on the queue thread only
+    private void drainAndWrite() {
+        List<ContentValues> batch;
+        synchronized (this) {
+            scheduledFlush = null;
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+
+        try {
+            localDb.insertOrUpdateProgressBatch(batch);
+        } catch (Exception e) {
+            Log.e(TAG, "Failed to write " + batch.size() + " progress rows, retrying", e);
+            requeue(batch);
+        }
+    }
+
+    // Puts a failed batch back, unless a newer row for the same id came in meanwhile
+    private void requeue(List<ContentValues> batch) {
+        synchronized (this) {
+            Map<String, ContentValues> newer = new LinkedHashMap<>(pending);
+            pending.clear();
+            for (ContentValues values : batch) {
+                pending.put(values.getAsString(DatabaseHelper.COLUMN_PROGRESS_ID), values);
+            }
+            pending.putAll(newer);
+
+            if (scheduledFlush == null) {
+                scheduledFlush = executor.schedule(
+                        this::drainAndWrite, RETRY_DELAY_MS, TimeUnit.MILLISECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.brightbuds_app.services;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Shared Firestore loader for the report screens.
+ *
+ * All queries a screen needs are sent at the same time and joined once they
+ * have all completed, so load time is about one round trip instead of one
+ * round trip per query. The callback runs once on the main thread and the
+ * result carries the wall clock load time.
+ *
+ * For a family, child_profiles is required; child_progress and
+ * child_analytics are optional and a failure there only drops the metrics.
+ * Family metrics are looked up by the child_id of each loaded profile, so
+ * they follow the profiles query instead of running beside it.
+ */
+public class ReportDataLoader {
+
+    private static final String TAG = "ReportDataLoader";
+
+    // Firestore accepts at most 30 values in one whereIn filter
+    private static final int WHERE_IN_LIMIT = 30;
+
+    private static volatile long lastLoadMs = -1L;
+
+    private final FirebaseFirestore firestore;
+
+    /** Receives the joined result of one load. Called on the main thread. */
+    public interface Callback {
+        void onLoaded(ReportData data);
+        void onFailure(Exception e);
+    }
+
+    /** Snapshots returned by one load, grouped by child id. */
+    public static final class ReportData {
+        private final List<DocumentSnapshot> profiles;
+        private final List<DocumentSnapshot> progress;
+        private final List<DocumentSnapshot> analytics;
+        private final Map<String, List<DocumentSnapshot>> progressByChild;
+        private final Map<String, List<DocumentSnapshot>> analyticsByChild;
+        private final long elapsedMs;
+
+        ReportData(List<DocumentSnapshot> profiles,
+                   @Nullable List<DocumentSnapshot> progress,
+                   @Nullable List<DocumentSnapshot> analytics,
+                   long elapsedMs) {
+            this.profiles = Collections.unmodifiableList(profiles);
+            this.progress = progress;
+            this.analytics = analytics;
+            this.progressByChild = groupByChild(progress);
+            this.analyticsByChild = groupByChild(analytics);
+            this.elapsedMs = elapsedMs;
+        }
+
+        /** child_profiles documents, empty for single child loads. */
+        public List<DocumentSnapshot> getProfiles() { return profiles; }
+
+        /** Raw child_progress documents, or null if they were not loaded. */
+        @Nullable
+        public List<DocumentSnapshot> getProgress() { return progress; }
+
+        /** Raw child_analytics documents, or null if they were not loaded. */
+        @Nullable
+        public List<DocumentSnapshot> getAnalytics() { return analytics; }
+
+        public boolean hasMetrics() { return progress != null && analytics != null; }
+
+        public List<DocumentSnapshot> getProgressForChild(String childId) {
+            List<DocumentSnapshot> docs = progressByChild.get(childId);
+            return docs != null ? docs : Collections.emptyList();
+        }
+
+        public List<DocumentSnapshot> getAnalyticsForChild(String childId) {
+            List<DocumentSnapshot> docs = analyticsByChild.get(childId);
+            return docs != null ? docs : Collections.emptyList();
+        }
+
+        /** Wall clock time from sending the queries to the joined result. */
+        public long getElapsedMs() { return elapsedMs; }
+    }
+
+    public ReportDataLoader() {
+        this.firestore = FirebaseFirestore.getInstance();
+    }
+
+    /** Duration of the most recent completed load, or -1 if none has finished yet. */
+    public static long getLastLoadMs() {
+        return lastLoadMs;
+    }
+
+    /**
+     * Loads the parent's child profiles and, when includeMetrics is true,
+     * the child_progress and child_analytics documents of those children.
+     */
+    public void loadFamily(String parentId, boolean includeMetrics, Callback callback) {
+        long start = SystemClock.elapsedRealtime();
+
+        Task<QuerySnapshot> profilesTask = firestore.collection("child_profiles")
+                .whereEqualTo("parentId", parentId)
+                .get();
+
+        if (!includeMetrics) {
+            profilesTask.addOnCompleteListener(t -> {
+                if (!t.isSuccessful()) {
+                    callback.onFailure(errorOf(t));
+                    return;
+                }
+                callback.onLoaded(finish("family", start,
+                        t.getResult().getDocuments(), null, null));
+            });
+            return;
+        }
+
+        profilesTask.addOnCompleteListener(t -> {
+            if (!t.isSuccessful()) {
+                callback.onFailure(errorOf(t));
+                return;
+            }
+
+            List<DocumentSnapshot> profiles = t.getResult().getDocuments();
+            List<String> childIds = new ArrayList<>();
+            for (DocumentSnapshot doc : profiles) {
+                childIds.add(doc.getId());
+            }
+
+            List<Task<QuerySnapshot>> progressTasks =
+                    queryByChildIds(firestore, "child_progress", childIds);
+            List<Task<QuerySnapshot>> analyticsTasks =
+                    queryByChildIds(firestore, "child_analytics", childIds);
+
+            List<Task<QuerySnapshot>> all = new ArrayList<>(progressTasks);
+            all.addAll(analyticsTasks);
+            Tasks.whenAllComplete(all).addOnCompleteListener(done -> {
+                List<DocumentSnapshot> progress = null;
+                List<DocumentSnapshot> analytics = null;
+                if (allSuccessful(progressTasks) && allSuccessful(analyticsTasks)) {
+                    progress = documentsOf(progressTasks);
+                    analytics = documentsOf(analyticsTasks);
+                } else {
+                    Log.w(TAG, "Family metrics unavailable, continuing with profiles only",
+                            allSuccessful(progressTasks) ? firstError(analyticsTasks)
+                                    : firstError(progressTasks));
+                }
+
+                callback.onLoaded(finish("family", start, profiles, progress, analytics));
+            });
+        });
+    }
+
+    /** Loads child_progress and child_analytics for one child together. */
+    public void loadChild(String childId, Callback callback) {
+        long start = SystemClock.elapsedRealtime();
+
+        Task<QuerySnapshot> progressTask = firestore.collection("child_progress")
+                .whereEqualTo("child_id", childId)
+                .orderBy("module_id", Query.Direction.ASCENDING)
+                .get();
+        Task<QuerySnapshot> analyticsTask = firestore.collection("child_analytics")
+                .whereEqualTo("child_id", childId)
+                .orderBy("module_id", Query.Direction.ASCENDING)
+                .get();
+
+        Tasks.whenAllSuccess(progressTask, analyticsTask)
+                .addOnSuccessListener(results -> callback.onLoaded(finish("child", start,
+                        Collections.emptyList(),
+                        progressTask.getResult().getDocuments(),
+                        analyticsTask.getResult().getDocuments())))
+                .addOnFailureListener(callback::onFailure);
+    }
+
+    /**
+     * Queries a collection for the documents of the given children by their
+     * child_id field, one query per WHERE_IN_LIMIT children, all sent at once.
+     */
+    static List<Task<QuerySnapshot>> queryByChildIds(FirebaseFirestore firestore,
+                                                     String collection,
+                                                     List<String> childIds) {
+        List<Task<QuerySnapshot>> tasks = new ArrayList<>();
+        for (int start = 0; start < childIds.size(); start += WHERE_IN_LIMIT) {
+            List<String> chunk = new ArrayList<>(
+                    childIds.subList(start, Math.min(childIds.size(), start + WHERE_IN_LIMIT)));
+            tasks.add(firestore.collection(collection).whereIn("child_id", chunk).get());
+        }
+        return tasks;
+    }
+
+    static boolean allSuccessful(List<Task<QuerySnapshot>> tasks) {
+        for (Task<QuerySnapshot> task : tasks) {
+            if (!task.isSuccessful()) return false;
+        }
+        return true;
+    }
+
+    /** Documents from every task in order. Only call once all have succeeded. */
+    static List<DocumentSnapshot> documentsOf(List<Task<QuerySnapshot>> tasks) {
+        List<DocumentSnapshot> docs = new ArrayList<>();
+        for (Task<QuerySnapshot> task : tasks) {
+            docs.addAll(task.getResult().getDocuments());
+        }
+        return docs;
+    }
+
+    @Nullable
+    static Exception firstError(List<Task<QuerySnapshot>> tasks) {
+        for (Task<QuerySnapshot> task : tasks) {
+            if (!task.isSuccessful()) return errorOf(task);
+        }
+        return null;
+    }
+
+    private static ReportData finish(String kind,
+                                     long start,
+                                     List<DocumentSnapshot> profiles,
+                                     @Nullable List<DocumentSnapshot> progress,
+                                     @Nullable List<DocumentSnapshot> analytics) {
+        long elapsed = SystemClock.elapsedRealtime() - start;
+        lastLoadMs = elapsed;
+        Log.d(TAG, "⏱️ Report " + kind + " load in " + elapsed + " ms ("
+                + profiles.size() + " profiles, "
+                + (progress != null ? progress.size() : 0) + " progress, "
+                + (analytics != null ? analytics.size() : 0) + " analytics)");
+        return new ReportData(new ArrayList<>(profiles), progress, analytics, elapsed);
+    }
+
+    // Progress documents use child_id or childId depending on the writer
+    private static Map<String, List<DocumentSnapshot>> groupByChild(@Nullable List<DocumentSnapshot> docs) {
+        Map<String, List<DocumentSnapshot>> grouped = new HashMap<>();
+        if (docs == null) {
+            return grouped;
+        }
+        for (DocumentSnapshot doc : docs) {
+            String childId = doc.getString("child_id");
+            if (childId == null) {
+                childId = doc.getString("childId");
+            }
+            if (childId == null) continue;
+
+            List<DocumentSnapshot> forChild = grouped.get(childId);
+            if (forChild == null) {
+                forChild = new ArrayList<>();
+                grouped.put(childId, forChild);
+            }
+            forChild.add(doc);
+        }
+        return grouped;
+    }
+
+    private static Exception errorOf(Task<?> task) {
+        Exception e = task.getException();
+        return e != null ? e : new IllegalStateException("Report query failed");
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.brightbuds_app.services;
+
+import java.io.IOException;
+
+/**
+ * A PDF being written by a render job. ReportRenderEngine closes it when
+ * the job returns and aborts it when the job fails or is cancelled.
+ */
+interface ReportOutput {
+
+    /** Told after each page is finished. */
+    interface PageListener {
+        void onPageFinished(int pageCount);
+    }
+
+    /** Finishes the last page and completes the file. */
+    void close() throws IOException;
+
+    /** Drops everything written so far. */
+    void abort();
+}
@@ -0,0 +1,498 @@
+package com.example.brightbuds_app.services;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders report PDFs on one background thread.
+ *
+ * Activities submit a ReportJob under a key (one key per report type) and
+ * observe its RenderState with a Listener. Jobs draw pages through a
+ * StreamingPdfWriter (Canvas drawing) or an ITextReportWriter (branded
+ * tables), so finished pages go to disk as the job runs. A job can also
+ * split itself into sections that render in parallel on a small pool and
+ * are merged in order when it completes. The
+ * file is written under a temporary name and renamed only when the job
+ * completes, so a cancelled or failed export never leaves half a PDF
+ * behind. Submitting a job for a key that is already running cancels the
+ * older job.
+ *
+ * State changes and listener calls happen on the main thread.
+ */
+public final class ReportRenderEngine {
+
+    private static final String TAG = "ReportRenderEngine";
+
+    private static final String PART_DIR = "report_parts";
+
+    // Each section thread holds its own chart views and up to
+    // StreamingPdfWriter.PAGES_PER_PART pages, so keep the pool small
+    private static final int MAX_SECTION_THREADS = 4;
+
+    private static volatile ReportRenderEngine instance;
+
+    private final Context appContext;
+    private final ExecutorService worker;
+    private volatile ExecutorService sectionPool;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Main thread only
+    private final Map<String, RenderState> states = new HashMap<>();
+    private final Map<String, List<Listener>> listeners = new HashMap<>();
+    private final Map<String, RunningJob> running = new HashMap<>();
+
+    public enum Status { IDLE, RUNNING, COMPLETED, FAILED, CANCELLED }
+
+    /** Immutable snapshot of one job's progress. */
+    public static final class RenderState {
+        public final Status status;
+        public final int pagesWritten;
+        public final int unitsDone;
+        public final int unitsTotal;
+        @Nullable public final File file;
+        @Nullable public final Exception error;
+        public final long elapsedMs;
+
+        RenderState(Status status, int pagesWritten, int unitsDone, int unitsTotal,
+                    @Nullable File file, @Nullable Exception error, long elapsedMs) {
+            this.status = status;
+            this.pagesWritten = pagesWritten;
+            this.unitsDone = unitsDone;
+            this.unitsTotal = unitsTotal;
+            this.file = file;
+            this.error = error;
+            this.elapsedMs = elapsedMs;
+        }
+
+        static RenderState idle() {
+            return new RenderState(Status.IDLE, 0, 0, 0, null, null, 0L);
+        }
+    }
+
+    /** Receives state changes for one job key. Called on the main thread. */
+    public interface Listener {
+        void onRenderStateChanged(RenderState state);
+    }
+
+    /**
+     * Work for one export. Runs on the render thread, so it must only use
+     * data captured when it was created, never views of an activity.
+     */
+    public interface ReportJob {
+        void render(RenderContext context) throws Exception;
+    }
+
+    /**
+     * One independently rendered part of a report, for example one child.
+     * Runs on a section pool thread and writes only to its own writer.
+     */
+    public interface Section {
+        void render(StreamingPdfWriter writer) throws Exception;
+    }
+
+    /** Handed to a running job for page output, progress and cancellation. */
+    public final class RenderContext {
+        private final RunningJob job;
+
+        RenderContext(RunningJob job) {
+            this.job = job;
+        }
+
+        public Context getAppContext() {
+            return appContext;
+        }
+
+        /**
+         * Opens the writer for this job's output file. Call once per job.
+         * Finished pages update pagesWritten in the observed state.
+         */
+        public StreamingPdfWriter openPdf(int pageWidth, int pageHeight) {
+            StreamingPdfWriter pdf = new StreamingPdfWriter(job.tempFile, partDir(),
+                    pageWidth, pageHeight, pageListener());
+            job.writer = pdf;
+            return pdf;
+        }
+
+        /**
+         * Opens an iText writer for branded table reports. The background,
+         * logo and header are stored once in the file and shared by every page.
+         * Call once per job, instead of openPdf.
+         */
+        public ITextReportWriter openBrandedPdf(int pageWidth,
+                                                int pageHeight,
+                                                int margin,
+                                                int headerHeight,
+                                                String title,
+                                                @Nullable Bitmap background,
+                                                @Nullable Bitmap logo) throws IOException {
+            ITextReportWriter pdf = new ITextReportWriter(appContext.getAssets(), job.tempFile,
+                    pageWidth, pageHeight, margin, headerHeight, title, background, logo,
+                    pageListener());
+            job.writer = pdf;
+            return pdf;
+        }
+
+        private ReportOutput.PageListener pageListener() {
+            return pageCount -> {
+                job.pagesWritten = pageCount;
+                publish(job);
+            };
+        }
+
+        /**
+         * Renders each section into its own PDF on the section pool and
+         * returns when all of them have finished. The sections are merged in
+         * list order into this job's output when the job returns. Call once
+         * per job, instead of openPdf. Progress is reported in sections.
+         *
+         * If a section fails, the others are stopped at their next
+         * throwIfCancelled and the first failure is rethrown.
+         */
+        public void renderSections(int pageWidth, int pageHeight,
+                                   List<? extends Section> sections) throws Exception {
+            SectionedPdfOutput pdf = new SectionedPdfOutput(job.tempFile);
+            job.writer = pdf;
+
+            File dir = partDir();
+            int total = sections.size();
+            AtomicInteger pages = new AtomicInteger();
+            AtomicInteger done = new AtomicInteger();
+            ReportOutput.PageListener listener = pageCount -> {
+                job.pagesWritten = pages.incrementAndGet();
+                publish(job);
+            };
+
+            List<Future<?>> futures = new ArrayList<>(total);
+            for (int i = 0; i < total; i++) {
+                File file = new File(dir, job.tempFile.getName() + ".section" + i);
+                StreamingPdfWriter writer =
+                        new StreamingPdfWriter(file, dir, pageWidth, pageHeight, listener);
+                pdf.addSection(file, writer);
+
+                Section section = sections.get(i);
+                futures.add(sectionPool().submit(() -> {
+                    throwIfCancelled();
+                    section.render(writer);
+                    writer.close();
+                    setProgress(done.incrementAndGet(), total);
+                    return null;
+                }));
+            }
+            awaitSections(futures);
+        }
+
+        /** Reports progress in job defined units, for example children or table rows. */
+        public void setProgress(int done, int total) {
+            job.unitsDone = done;
+            job.unitsTotal = total;
+            publish(job);
+        }
+
+        public boolean isCancelled() {
+            return job.cancelled || job.sectionFailed
+                    || Thread.currentThread().isInterrupted();
+        }
+
+        /** Call between pages and rows so a cancel takes effect quickly. */
+        public void throwIfCancelled() {
+            if (isCancelled()) {
+                throw new CancellationException("Report render cancelled");
+            }
+        }
+
+        // Waits for every section, even after a failure, so no section is
+        // still writing when the engine closes or aborts the output
+        private void awaitSections(List<Future<?>> futures) throws Exception {
+            Exception failure = null;
+            boolean interrupted = false;
+            for (Future<?> future : futures) {
+                while (true) {
+                    try {
+                        future.get();
+                        break;
+                    } catch (InterruptedException e) {
+                        // Cancelled; sections see job.cancelled and stop
+                        interrupted = true;
+                        job.cancelled = true;
+                    } catch (ExecutionException e) {
+                        Throwable cause = e.getCause();
+                        if (failure == null && !(cause instanceof CancellationException)) {
+                            failure = cause instanceof Exception
+                                    ? (Exception) cause
+                                    : new RuntimeException(cause);
+                        }
+                        job.sectionFailed = true;
+                        break;
+                    }
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Report render cancelled");
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            throwIfCancelled();
+        }
+    }
+
+    public static ReportRenderEngine getInstance(Context context) {
+        ReportRenderEngine local = instance;
+        if (local == null) {
+            synchronized (ReportRenderEngine.class) {
+                local = instance;
+                if (local == null) {
+                    local = new ReportRenderEngine(context.getApplicationContext());
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private ReportRenderEngine(Context appContext) {
+        this.appContext = appContext;
+        this.worker = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "report-renderer");
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+    }
+
+    /**
+     * Queues a job that writes to output. Any job already running under the
+     * same key is cancelled first. Main thread only.
+     */
+    public void submit(String key, File output, ReportJob job) {
+        cancel(key);
+
+        RunningJob run = new RunningJob(key, output, job);
+        running.put(key, run);
+        setState(key, new RenderState(Status.RUNNING, 0, 0, 0, null, null, 0L));
+        run.future = worker.submit(() -> execute(run));
+    }
+
+    /** Cancels the job running under key, if any. Main thread only. */
+    public void cancel(String key) {
+        RunningJob run = running.remove(key);
+        if (run == null) {
+            return;
+        }
+        run.cancelled = true;
+        if (run.future != null) {
+            run.future.cancel(true);
+        }
+        setState(key, new RenderState(Status.CANCELLED, run.pagesWritten,
+                run.unitsDone, run.unitsTotal, null, null, 0L));
+    }
+
+    public boolean isRunning(String key) {
+        return running.containsKey(key);
+    }
+
+    /** Latest state for key. Main thread only. */
+    public RenderState getState(String key) {
+        RenderState state = states.get(key);
+        return state != null ? state : RenderState.idle();
+    }
+
+    /**
+     * Forgets a finished state once the caller has acted on it, so a screen
+     * that attaches later does not handle the same result twice.
+     */
+    public void clearState(String key) {
+        if (!running.containsKey(key)) {
+            states.remove(key);
+        }
+    }
+
+    /** Adds a listener and sends it the current state straight away. Main thread only. */
+    public void addListener(String key, Listener listener) {
+        List<Listener> list = listeners.get(key);
+        if (list == null) {
+            list = new ArrayList<>();
+            listeners.put(key, list);
+        }
+        if (!list.contains(listener)) {
+            list.add(listener);
+        }
+        listener.onRenderStateChanged(getState(key));
+    }
+
+    public void removeListener(String key, Listener listener) {
+        List<Listener> list = listeners.get(key);
+        if (list != null) {
+            list.remove(listener);
+        }
+    }
+
+    /**
+     * Renders a job on the calling thread and returns the time it took in
+     * ms. No state is published. Used by benchmarks; never call it on the
+     * main thread.
+     */
+    public long renderBlocking(File output, ReportJob job) throws Exception {
+        RunningJob run = new RunningJob("blocking:" + output.getName(), output, job);
+        long start = SystemClock.elapsedRealtime();
+        try {
+            renderTo(run);
+        } catch (Exception e) {
+            cleanUp(run);
+            throw e;
+        }
+        return SystemClock.elapsedRealtime() - start;
+    }
+
+    // Render thread
+    private void execute(RunningJob run) {
+        long start = SystemClock.elapsedRealtime();
+        try {
+            renderTo(run);
+
+            long elapsed = SystemClock.elapsedRealtime() - start;
+            Log.i(TAG, "📄 " + run.key + " rendered " + run.pagesWritten
+                    + " pages in " + elapsed + " ms");
+            finish(run, new RenderState(Status.COMPLETED, run.pagesWritten,
+                    run.unitsTotal, run.unitsTotal, run.output, null, elapsed));
+        } catch (CancellationException e) {
+            cleanUp(run);
+            Log.d(TAG, run.key + " cancelled");
+        } catch (Exception e) {
+            cleanUp(run);
+            if (run.cancelled) {
+                Log.d(TAG, run.key + " cancelled");
+                return;
+            }
+            Log.e(TAG, "❌ Failed to render " + run.key, e);
+            finish(run, new RenderState(Status.FAILED, run.pagesWritten,
+                    run.unitsDone, run.unitsTotal, null, e,
+                    SystemClock.elapsedRealtime() - start));
+        }
+    }
+
+    private void renderTo(RunningJob run) throws Exception {
+        RenderContext context = new RenderContext(run);
+        context.throwIfCancelled();
+        run.job.render(context);
+        if (run.writer != null) {
+            run.writer.close();
+        }
+        context.throwIfCancelled();
+
+        if (!run.tempFile.renameTo(run.output)) {
+            throw new IOException("Could not move report to " + run.output.getName());
+        }
+    }
+
+    private void cleanUp(RunningJob run) {
+        if (run.writer != null) {
+            run.writer.abort();
+        }
+        if (run.tempFile.exists() && !run.tempFile.delete()) {
+            Log.w(TAG, "Could not delete " + run.tempFile.getName());
+        }
+    }
+
+    private ExecutorService sectionPool() {
+        ExecutorService local = sectionPool;
+        if (local == null) {
+            synchronized (this) {
+                local = sectionPool;
+                if (local == null) {
+                    int threads = Math.max(1, Math.min(MAX_SECTION_THREADS,
+                            Runtime.getRuntime().availableProcessors()));
+                    AtomicInteger count = new AtomicInteger();
+                    local = Executors.newFixedThreadPool(threads, r -> {
+                        Thread t = new Thread(r, "report-section-" + count.incrementAndGet());
+                        t.setPriority(Thread.NORM_PRIORITY - 1);
+                        return t;
+                    });
+                    sectionPool = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private File partDir() {
+        File dir = new File(appContext.getCacheDir(), PART_DIR);
+        if (!dir.exists() && !dir.mkdirs()) {
+            Log.w(TAG, "Could not create " + dir);
+        }
+        return dir;
+    }
+
+    private void publish(RunningJob run) {
+        RenderState state = new RenderState(Status.RUNNING, run.pagesWritten,
+                run.unitsDone, run.unitsTotal, null, null, 0L);
+        mainHandler.post(() -> {
+            // Ignore updates from a job that has been replaced or cancelled
+            if (running.get(run.key) == run) {
+                setState(run.key, state);
+            }
+        });
+    }
+
+    private void finish(RunningJob run, RenderState state) {
+        mainHandler.post(() -> {
+            if (running.get(run.key) != run) {
+                return;
+            }
+            running.remove(run.key);
+            setState(run.key, state);
+        });
+    }
+
+    // Main thread only
+    private void setState(String key, RenderState state) {
+        states.put(key, state);
+        List<Listener> list = listeners.get(key);
+        if (list == null) {
+            return;
+        }
+        for (Listener l : new ArrayList<>(list)) {
+            l.onRenderStateChanged(state);
+        }
+    }
+
+    private static final class RunningJob {
+        final String key;
+        final File output;
+        final File tempFile;
+        final ReportJob job;
+        volatile boolean cancelled;
+        volatile boolean sectionFailed;
+        volatile int pagesWritten;
+        volatile int unitsDone;
+        volatile int unitsTotal;
+        ReportOutput writer;
+        Future<?> future;
+
+        RunningJob(String key, File output, ReportJob job) {
+            this.key = key;
+            this.output = output;
+            this.tempFile = new File(output.getParentFile(), output.getName() + ".tmp");
+            this.job = job;
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.example.brightbuds_app.services;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import com.example.brightbuds_app.interfaces.DataCallbacks;
+import com.example.brightbuds_app.models.ModuleSummary;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Local first data source for report screens.
+ *
+ * Module summaries for every child come from one SQLite query over
+ * child_analytics, game_sessions and report_remote_cache, so reports open
+ * straight away and work offline. When the cloud copy is older than
+ * REMOTE_TTL_MS, the children's child_analytics documents and child_progress
+ * summaries are fetched in the background (one query per collection for up
+ * to 30 children), written to report_remote_cache, and the callback fires
+ * again with merged data.
+ */
+public class ReportRepository {
+
+    private static final String TAG = "ReportRepository";
+
+    private static final long REMOTE_TTL_MS = 15 * 60 * 1000L;
+
+    private static final String PREFS_NAME = "BrightBudsPrefs";
+    private static final String KEY_REMOTE_FETCHED_PREFIX = "reportRemoteFetchedAt_";
+
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "report-repository");
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        return t;
+    });
+
+    private final DatabaseHelper localDb;
+    private final FirebaseFirestore firestore;
+    private final SharedPreferences prefs;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public ReportRepository(Context context) {
+        Context appContext = context.getApplicationContext();
+        this.localDb = DatabaseHelper.getInstance(appContext);
+        this.firestore = FirebaseFirestore.getInstance();
+        this.prefs = appContext.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * Loads summaries for all given children from the local database and
+     * delivers them on the main thread. If the cloud copy is stale, a
+     * background refresh follows and the callback is invoked again.
+     */
+    public void loadModuleSummaries(String parentId,
+                                    List<String> childIds,
+                                    DataCallbacks.ReportSummariesCallback callback) {
+        List<String> ids = new ArrayList<>(childIds);
+        IO.execute(() -> {
+            long start = SystemClock.elapsedRealtime();
+            Map<String, List<ModuleSummary>> local = localDb.getModuleSummariesForChildren(ids);
+            Log.d(TAG, "Local report data for " + ids.size() + " children in "
+                    + (SystemClock.elapsedRealtime() - start) + " ms");
+            mainHandler.post(() -> callback.onSummariesLoaded(local, false));
+
+            if (needsCloudRefresh(parentId)) {
+                mainHandler.post(() -> refreshFromCloud(parentId, ids, callback));
+            }
+        });
+    }
+
+    /**
+     * Same as loadModuleSummaries, but uses cloud snapshots the caller has
+     * already fetched through ReportDataLoader. The cache is updated first and
+     * the callback fires once with merged data, without a second round trip.
+     */
+    public void loadModuleSummaries(String parentId,
+                                    List<String> childIds,
+                                    @Nullable ReportDataLoader.ReportData prefetched,
+                                    DataCallbacks.ReportSummariesCallback callback) {
+        if (parentId == null || prefetched == null || !prefetched.hasMetrics()) {
+            loadModuleSummaries(parentId, childIds, callback);
+            return;
+        }
+
+        List<String> ids = new ArrayList<>(childIds);
+        IO.execute(() -> {
+            storeRemote(parentId, prefetched.getAnalytics(), prefetched.getProgress());
+            Map<String, List<ModuleSummary>> merged = localDb.getModuleSummariesForChildren(ids);
+            mainHandler.post(() -> callback.onSummariesLoaded(merged, true));
+        });
+    }
+
+    /**
+     * Refreshes the cached cloud copy in the background when it is stale,
+     * so the chart screens open warm later. Nothing is delivered.
+     */
+    public void refreshInBackground(@Nullable String parentId, List<String> childIds) {
+        if (!needsCloudRefresh(parentId) || childIds.isEmpty()) {
+            return;
+        }
+        refreshFromCloud(parentId, new ArrayList<>(childIds), null);
+    }
+
+    /** True when the cached cloud copy for this parent is older than REMOTE_TTL_MS. */
+    public boolean needsCloudRefresh(@Nullable String parentId) {
+        if (parentId == null) {
+            return false;
+        }
+        long fetchedAt = prefs.getLong(KEY_REMOTE_FETCHED_PREFIX + parentId, 0L);
+        return System.currentTimeMillis() - fetchedAt > REMOTE_TTL_MS;
+    }
+
+    private void refreshFromCloud(String parentId,
+                                  List<String> childIds,
+                                  @Nullable DataCallbacks.ReportSummariesCallback callback) {
+        List<Task<QuerySnapshot>> analyticsTasks =
+                ReportDataLoader.queryByChildIds(firestore, "child_analytics", childIds);
+        List<Task<QuerySnapshot>> progressTasks =
+                ReportDataLoader.queryByChildIds(firestore, "child_progress", childIds);
+
+        List<Task<QuerySnapshot>> all = new ArrayList<>(analyticsTasks);
+        all.addAll(progressTasks);
+        Tasks.whenAllComplete(all).addOnCompleteListener(IO, done -> {
+            if (!ReportDataLoader.allSuccessful(analyticsTasks)) {
+                Log.w(TAG, "Cloud report refresh failed, keeping local data",
+                        ReportDataLoader.firstError(analyticsTasks));
+                return;
+            }
+
+            storeRemote(parentId,
+                    ReportDataLoader.documentsOf(analyticsTasks),
+                    ReportDataLoader.allSuccessful(progressTasks)
+                            ? ReportDataLoader.documentsOf(progressTasks) : null);
+            if (callback == null) {
+                return;
+            }
+
+            Map<String, List<ModuleSummary>> merged = localDb.getModuleSummariesForChildren(childIds);
+            mainHandler.post(() -> callback.onSummariesLoaded(merged, true));
+        });
+    }
+
+    // IO thread only
+    private void storeRemote(String parentId,
+                             List<DocumentSnapshot> analytics,
+                             @Nullable List<DocumentSnapshot> progress) {
+        List<ContentValues> rows = buildRemoteRows(parentId, analytics, progress);
+        localDb.replaceRemoteReportCache(parentId, rows);
+        prefs.edit()
+                .putLong(KEY_REMOTE_FETCHED_PREFIX + parentId, System.currentTimeMillis())
+                .apply();
+    }
+
+    private List<ContentValues> buildRemoteRows(String parentId,
+                                                List<DocumentSnapshot> analytics,
+                                                @Nullable List<DocumentSnapshot> progress) {
+        // Latest stars and plays per child and module, from the one
+        // <childId>_<moduleId> summary that FirebaseSyncService keeps up to date
+        Map<String, DocumentSnapshot> summaryByKey = new HashMap<>();
+        if (progress != null) {
+            for (DocumentSnapshot doc : progress) {
+                String childId = doc.getString("child_id");
+                String moduleId = doc.getString("module_id");
+                if (childId == null || moduleId == null) continue;
+                summaryByKey.put(childId + "|" + moduleId, doc);
+            }
+        }
+
+        long now = System.currentTimeMillis();
+        List<ContentValues> rows = new ArrayList<>();
+        for (DocumentSnapshot doc : analytics) {
+            String childId = doc.getString("child_id");
+            String moduleId = doc.getString("module_id");
+            if (childId == null || moduleId == null) continue;
+
+            DocumentSnapshot summary = summaryByKey.get(childId + "|" + moduleId);
+
+            ContentValues v = new ContentValues();
+            v.put(DatabaseHelper.COLUMN_REMOTE_CHILD_ID, childId);
+            v.put(DatabaseHelper.COLUMN_REMOTE_MODULE_ID, moduleId);
+            v.put(DatabaseHelper.COLUMN_REMOTE_PARENT_ID, parentId);
+            v.put(DatabaseHelper.COLUMN_ANALYTICS_SESSION_COUNT, longOrZero(doc, "sessionCount"));
+            v.put(DatabaseHelper.COLUMN_ANALYTICS_TOTAL_SCORE, longOrZero(doc, "totalScore"));
+            v.put(DatabaseHelper.COLUMN_ANALYTICS_TOTAL_CORRECT, longOrZero(doc, "totalCorrect"));
+            v.put(DatabaseHelper.COLUMN_ANALYTICS_TOTAL_ATTEMPTS, longOrZero(doc, "totalAttempts"));
+            v.put(DatabaseHelper.COLUMN_ANALYTICS_TOTAL_TIME_MS, longOrZero(doc, "totalTimeMs"));
+            v.put(DatabaseHelper.COLUMN_REMOTE_TOTAL_STARS,
+                    summary != null ? longOrZero(summary, "stars") : 0L);
+            v.put(DatabaseHelper.COLUMN_REMOTE_TOTAL_PLAYS,
+                    summary != null ? longOrZero(summary, "totalPlays") : 0L);
+            v.put(DatabaseHelper.COLUMN_REMOTE_FETCHED_AT_MS, now);
+            rows.add(v);
+        }
+        return rows;
+    }
+
+    private static long longOrZero(DocumentSnapshot doc, String field) {
+        Long value = doc.getLong(field);
+        return value != null ? value : 0L;
+    }
+}
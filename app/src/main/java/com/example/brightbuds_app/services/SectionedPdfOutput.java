@@ -0,0 +1,73 @@
+package com.example.brightbuds_app.services;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Output of a job whose sections are rendered in parallel.
+ *
+ * Each section writes its own PDF through a StreamingPdfWriter. Once every
+ * section has finished, close joins the section files into the output in
+ * the order they were added. That order is the report order, so it does not
+ * matter which section finished first.
+ *
+ * Sections are added on the render thread. Section writers are used by the
+ * pool threads, but close and abort only run after all of them have stopped.
+ */
+final class SectionedPdfOutput implements ReportOutput {
+
+    private static final String TAG = "SectionedPdfOutput";
+
+    private final File output;
+    private final List<File> sectionFiles = new ArrayList<>();
+    private final List<StreamingPdfWriter> sectionWriters = new ArrayList<>();
+    private boolean closed;
+
+    SectionedPdfOutput(File output) {
+        this.output = output;
+    }
+
+    void addSection(File file, StreamingPdfWriter writer) {
+        sectionFiles.add(file);
+        sectionWriters.add(writer);
+    }
+
+    /** Closes any section writer still open, then merges the sections in order. */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            for (StreamingPdfWriter writer : sectionWriters) {
+                writer.close();
+            }
+            StreamingPdfWriter.mergeFiles(sectionFiles, output);
+        } finally {
+            deleteSections();
+        }
+        Log.d(TAG, "Merged " + sectionFiles.size() + " sections into " + output.getName());
+    }
+
+    @Override
+    public void abort() {
+        closed = true;
+        for (StreamingPdfWriter writer : sectionWriters) {
+            writer.abort();
+        }
+        deleteSections();
+    }
+
+    private void deleteSections() {
+        for (File file : sectionFiles) {
+            if (file.exists() && !file.delete()) {
+                Log.w(TAG, "Could not delete " + file.getName());
+            }
+        }
+    }
+}
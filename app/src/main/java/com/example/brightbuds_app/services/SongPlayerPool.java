@@ -0,0 +1,190 @@
+package com.example.brightbuds_app.services;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+import androidx.annotation.RawRes;
+import androidx.media3.common.MediaItem;
+import androidx.media3.common.Player;
+import androidx.media3.exoplayer.ExoPlayer;
+
+import com.example.brightbuds_app.R;
+import com.example.brightbuds_app.utils.ModuleIds;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Small pool of prepared players for the bundled song videos.
+ *
+ * A song screen takes its player with acquire and gives it back with
+ * recycle when it closes. A returned player is paused at the start but
+ * stays prepared, so opening the same song again shows the first frame
+ * straight away. preload prepares a song before anyone asks for it.
+ *
+ * At most MAX_IDLE prepared players are kept; the least recently used one
+ * is released first. BrightBudsApp releases them all once the app is in
+ * the background.
+ *
+ * Main thread only, apart from preloadFavourite which does its database
+ * read in the background.
+ */
+public final class SongPlayerPool {
+
+    private static final String TAG = "SongPlayerPool";
+
+    private static final int MAX_IDLE = 2;
+
+    private static volatile SongPlayerPool instance;
+
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "song-preload");
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        return t;
+    });
+
+    private final Context appContext;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Prepared players nobody is using. Access ordered, eldest first.
+    private final Map<Song, ExoPlayer> idle = new LinkedHashMap<>(4, 0.75f, true);
+
+    /** The bundled songs, with their analytics module id and spoken prompt. */
+    public enum Song {
+        ABC(ModuleIds.MODULE_ABC_SONG, R.raw.abc_song, "Let us sing the A B C song"),
+        NUMBERS(ModuleIds.MODULE_123_SONG, R.raw.numbers_song, "Let us sing the number song"),
+        SHAPES(ModuleIds.MODULE_SHAPES_SONG, R.raw.shapes_song, "Let us sing the shapes song");
+
+        public final String moduleId;
+        @RawRes public final int resId;
+        public final String prompt;
+
+        Song(String moduleId, @RawRes int resId, String prompt) {
+            this.moduleId = moduleId;
+            this.resId = resId;
+            this.prompt = prompt;
+        }
+
+        /** The song after this one, for preloading when this is the favourite. */
+        public Song next() {
+            Song[] all = values();
+            return all[(ordinal() + 1) % all.length];
+        }
+
+        @Nullable
+        public static Song fromModuleId(@Nullable String moduleId) {
+            for (Song song : values()) {
+                if (song.moduleId.equals(moduleId)) return song;
+            }
+            return null;
+        }
+    }
+
+    public static SongPlayerPool getInstance(Context context) {
+        SongPlayerPool local = instance;
+        if (local == null) {
+            synchronized (SongPlayerPool.class) {
+                local = instance;
+                if (local == null) {
+                    local = new SongPlayerPool(context.getApplicationContext());
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private SongPlayerPool(Context appContext) {
+        this.appContext = appContext;
+    }
+
+    /**
+     * A player for the song, looping and paused at the start. It is taken
+     * out of the pool; hand it back with recycle.
+     */
+    public ExoPlayer acquire(Song song) {
+        ExoPlayer player = idle.remove(song);
+        if (player != null) {
+            Log.d(TAG, "🎵 Reusing prepared player for " + song);
+            return player;
+        }
+        return createPlayer(song);
+    }
+
+    /** Takes a player back, ready for the next time this song opens. */
+    public void recycle(Song song, ExoPlayer player) {
+        player.pause();
+        player.seekTo(0);
+
+        ExoPlayer replaced = idle.put(song, player);
+        if (replaced != null && replaced != player) {
+            replaced.release();
+        }
+        trimIdle();
+    }
+
+    /** Prepares the song ahead of time, unless a prepared player is already waiting. */
+    public void preload(Song song) {
+        if (idle.containsKey(song)) {
+            return;
+        }
+        idle.put(song, createPlayer(song));
+        trimIdle();
+        Log.d(TAG, "Preloading " + song + " song");
+    }
+
+    /**
+     * Preloads the song the child is most likely to open next: the most
+     * played one, or the one after it when that is the song now showing.
+     * A child with no song history gets ABC.
+     */
+    public void preloadFavourite(@Nullable String childId, @Nullable Song showing) {
+        IO.execute(() -> {
+            Song favourite = childId != null
+                    ? Song.fromModuleId(DatabaseHelper.getInstance(appContext)
+                            .getFavouriteSongModuleForChild(childId))
+                    : null;
+            if (favourite == null) favourite = Song.ABC;
+            Song next = favourite == showing ? favourite.next() : favourite;
+            mainHandler.post(() -> preload(next));
+        });
+    }
+
+    /** Releases every idle player once the app is in the background. */
+    public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN && !idle.isEmpty()) {
+            Log.d(TAG, "Releasing " + idle.size() + " idle song players");
+            for (ExoPlayer player : idle.values()) {
+                player.release();
+            }
+            idle.clear();
+        }
+    }
+
+    private ExoPlayer createPlayer(Song song) {
+        ExoPlayer player = new ExoPlayer.Builder(appContext).build();
+        Uri uri = Uri.parse("android.resource://" + appContext.getPackageName() + "/" + song.resId);
+        player.setMediaItem(MediaItem.fromUri(uri));
+        player.setRepeatMode(Player.REPEAT_MODE_ONE);
+        player.setPlayWhenReady(false);
+        player.prepare();
+        return player;
+    }
+
+    private void trimIdle() {
+        Iterator<ExoPlayer> it = idle.values().iterator();
+        while (idle.size() > MAX_IDLE && it.hasNext()) {
+            ExoPlayer eldest = it.next();
+            it.remove();
+            eldest.release();
+        }
+    }
+}
@@ -0,0 +1,422 @@
+package com.example.brightbuds_app.services;
+
+import android.content.Context;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.speech.tts.TextToSpeech;
+import android.speech.tts.UtteranceProgressListener;
+import android.util.Log;
+
+import androidx.annotation.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * App wide text to speech.
+ *
+ * The engine is bound once, when the app starts, instead of once per screen.
+ * The fixed vocabulary is letters, numbers and the stock prompts and praise
+ * the games use. It is synthesized once to WAV files in the cache directory
+ * and played through the AudioEngine sound pool. Those phrases start
+ * straight away, even before the engine has bound. Other text, such as
+ * names, goes to the live engine. Text spoken before the engine is ready
+ * is held and spoken once it is.
+ *
+ * speak replaces whatever is being said; speakQueued waits for it to end.
+ *
+ * Main thread only.
+ */
+public final class SpeechService {
+
+    private static final String TAG = "SpeechService";
+
+    private static final Locale LOCALE = Locale.US;
+    private static final float PITCH = 1.1f;
+    private static final float SPEECH_RATE = 0.95f;
+
+    // Bump when the vocabulary wording or voice settings change
+    private static final String CACHE_VERSION = "v1";
+
+    private static final String SYNTH_PREFIX = "synth:";
+    private static final String LIVE_PREFIX = "live:";
+
+    private static final int WAV_HEADER_BYTES = 44;
+
+    private static final String[] STOCK_PHRASES = {
+            "Try again",
+            "Well done",
+            "Great job",
+            "Good match",
+            "Yay",
+            "Find the matching cards",
+            "Now drag the letters to spell the word.",
+            "Let us sing the A B C song",
+            "Let us sing the number song",
+            "Let us sing the shapes song"
+    };
+
+    private static final int MAX_SPOKEN_NUMBER = 20;
+    private static final int MAX_COOKIE_TARGET = 10;
+
+    private static volatile SpeechService instance;
+
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "speech-cache");
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        return t;
+    });
+
+    private final AudioEngine audio;
+    private final TextToSpeech tts;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final File cacheDir;
+
+    // Vocabulary key -> clip on disk. Filled by the cache thread and by synthesis.
+    private final Map<String, Clip> clips = new ConcurrentHashMap<>();
+
+    private final ArrayDeque<String> toSynthesize = new ArrayDeque<>();
+    @Nullable private String synthesizing;
+    @Nullable private String synthesizingId;
+    @Nullable private String lastLiveId;
+    private int utteranceSeq;
+
+    // Text spoken before the engine bound
+    private final List<String> heldText = new ArrayList<>();
+    private boolean ready;
+
+    private int clipStreamId;
+    private long clipBusyUntil;
+    private final Object queuedToken = new Object();
+
+    private static final class Clip {
+        final String path;
+        final long durationMs;
+
+        Clip(String path, long durationMs) {
+            this.path = path;
+            this.durationMs = durationMs;
+        }
+    }
+
+    public static SpeechService getInstance(Context context) {
+        SpeechService local = instance;
+        if (local == null) {
+            synchronized (SpeechService.class) {
+                local = instance;
+                if (local == null) {
+                    local = new SpeechService(context.getApplicationContext());
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private SpeechService(Context appContext) {
+        this.audio = AudioEngine.getInstance(appContext);
+        this.tts = new TextToSpeech(appContext, this::onInit);
+
+        // Clips from another engine or language would sound wrong, so each gets its own folder
+        String engine = tts.getDefaultEngine() != null ? tts.getDefaultEngine() : "default";
+        this.cacheDir = new File(appContext.getCacheDir(),
+                "tts/" + safeName(engine + "_" + LOCALE + "_" + CACHE_VERSION));
+
+        prepare(vocabulary());
+    }
+
+    // region Public API
+
+    /** Stops anything being said and says text. */
+    public void speak(String text) {
+        speak(text, TextToSpeech.QUEUE_FLUSH);
+    }
+
+    /** Says text after whatever is being said now. */
+    public void speakQueued(String text) {
+        speak(text, TextToSpeech.QUEUE_ADD);
+    }
+
+    /**
+     * Adds phrases a screen will say often, such as its word list, to the
+     * clip cache. Phrases already cached cost one file check.
+     */
+    public void prepare(Collection<String> phrases) {
+        List<String> copy = new ArrayList<>(phrases);
+        IO.execute(() -> scanCache(copy));
+    }
+
+    /** Stops anything being said or waiting to be said. */
+    public void stop() {
+        mainHandler.removeCallbacksAndMessages(queuedToken);
+        audio.stopStream(clipStreamId);
+        clipStreamId = 0;
+        clipBusyUntil = 0;
+        heldText.clear();
+        if (ready && lastLiveId != null) {
+            lastLiveId = null;
+            interruptSynthesis();
+            tts.stop();
+            mainHandler.post(this::synthesizeNext);
+        }
+    }
+
+    // endregion
+
+    private void speak(String text, int queueMode) {
+        if (text == null || text.trim().isEmpty() || audio.isMuted()) {
+            return;
+        }
+        if (queueMode == TextToSpeech.QUEUE_FLUSH) {
+            stop();
+        }
+
+        // A queued clip must not talk over live speech that is still going
+        Clip clip = clips.get(key(text));
+        if (clip != null && lastLiveId == null) {
+            playClip(clip);
+            return;
+        }
+
+        if (!ready) {
+            heldText.add(text);
+            return;
+        }
+        speakLive(text, queueMode);
+    }
+
+    private void playClip(Clip clip) {
+        long now = SystemClock.uptimeMillis();
+        long startAt = Math.max(now, clipBusyUntil);
+        clipBusyUntil = startAt + clip.durationMs;
+
+        if (startAt == now) {
+            clipStreamId = audio.playFile(clip.path, 1f);
+        } else {
+            mainHandler.postAtTime(() -> clipStreamId = audio.playFile(clip.path, 1f),
+                    queuedToken, startAt);
+        }
+    }
+
+    private void speakLive(String text, int queueMode) {
+        if (queueMode == TextToSpeech.QUEUE_FLUSH) {
+            interruptSynthesis();
+        }
+        String utteranceId = LIVE_PREFIX + (++utteranceSeq);
+        lastLiveId = utteranceId;
+
+        // The engine would start a queued utterance at once and talk over a
+        // clip, so it waits for the clips like playClip does. The id is taken
+        // now so later queued text lines up behind it.
+        long now = SystemClock.uptimeMillis();
+        if (queueMode == TextToSpeech.QUEUE_ADD && clipBusyUntil > now) {
+            mainHandler.postAtTime(() -> startLive(text, TextToSpeech.QUEUE_ADD, utteranceId),
+                    queuedToken, clipBusyUntil);
+            return;
+        }
+        startLive(text, queueMode, utteranceId);
+    }
+
+    private void startLive(String text, int queueMode, String utteranceId) {
+        tts.speak(text, queueMode, null, utteranceId);
+        mainHandler.post(this::synthesizeNext);
+    }
+
+    // A flush drops the clip being synthesized too, so put it back at the front
+    private void interruptSynthesis() {
+        if (synthesizing != null) {
+            toSynthesize.addFirst(synthesizing);
+            synthesizing = null;
+            synthesizingId = null;
+        }
+    }
+
+    // region Engine
+
+    private void onInit(int status) {
+        if (status != TextToSpeech.SUCCESS) {
+            Log.e(TAG, "❌ Text to speech failed to start: " + status);
+            heldText.clear();
+            return;
+        }
+        tts.setLanguage(LOCALE);
+        tts.setPitch(PITCH);
+        tts.setSpeechRate(SPEECH_RATE);
+        tts.setOnUtteranceProgressListener(new UtteranceProgressListener() {
+            @Override
+            public void onStart(String utteranceId) { }
+
+            @Override
+            public void onDone(String utteranceId) {
+                mainHandler.post(() -> onUtteranceFinished(utteranceId, true));
+            }
+
+            @Override
+            public void onError(String utteranceId) {
+                mainHandler.post(() -> onUtteranceFinished(utteranceId, false));
+            }
+        });
+        ready = true;
+        Log.d(TAG, "🗣️ Text to speech ready");
+
+        for (String text : heldText) {
+            speakLive(text, TextToSpeech.QUEUE_ADD);
+        }
+        heldText.clear();
+
+        synthesizeNext();
+    }
+
+    // endregion
+
+    // region Vocabulary cache
+
+    // Cache thread: registers clips already on disk, then queues the rest for synthesis
+    private void scanCache(Collection<String> phrases) {
+        if (!cacheDir.isDirectory() && !cacheDir.mkdirs()) {
+            Log.w(TAG, "Could not create " + cacheDir);
+            return;
+        }
+        List<String> missing = new ArrayList<>();
+        for (String text : phrases) {
+            if (clips.containsKey(key(text))) {
+                continue;
+            }
+            File file = clipFile(text);
+            long duration = file.isFile() ? wavDurationMs(file) : 0;
+            if (duration > 0) {
+                clips.put(key(text), new Clip(file.getAbsolutePath(), duration));
+            } else {
+                missing.add(text);
+            }
+        }
+        Log.d(TAG, "Speech cache has " + clips.size() + " clips, " + missing.size() + " to synthesize");
+
+        mainHandler.post(() -> {
+            for (String text : missing) {
+                if (!toSynthesize.contains(text) && !text.equals(synthesizing)) {
+                    toSynthesize.add(text);
+                }
+            }
+            synthesizeNext();
+        });
+    }
+
+    // One clip at a time, so a live flush never drops more than the current one
+    private void synthesizeNext() {
+        if (!ready || synthesizing != null || toSynthesize.isEmpty()) {
+            return;
+        }
+        String text = toSynthesize.poll();
+        File tmp = new File(cacheDir, clipFile(text).getName() + ".tmp");
+        synthesizing = text;
+        synthesizingId = SYNTH_PREFIX + (++utteranceSeq);
+        int result = tts.synthesizeToFile(text, new Bundle(), tmp, synthesizingId);
+        if (result != TextToSpeech.SUCCESS) {
+            Log.w(TAG, "Could not synthesize \"" + text + "\"");
+            synthesizing = null;
+            synthesizingId = null;
+        }
+    }
+
+    private void onUtteranceFinished(@Nullable String utteranceId, boolean success) {
+        if (utteranceId == null) {
+            return;
+        }
+        if (utteranceId.equals(lastLiveId)) {
+            lastLiveId = null;
+            return;
+        }
+        if (!utteranceId.equals(synthesizingId)) {
+            return;
+        }
+        String text = synthesizing;
+        synthesizing = null;
+        synthesizingId = null;
+
+        if (success) {
+            IO.execute(() -> {
+                File tmp = new File(cacheDir, clipFile(text).getName() + ".tmp");
+                File file = clipFile(text);
+                long duration = wavDurationMs(tmp);
+                if (duration > 0 && tmp.renameTo(file)) {
+                    clips.put(key(text), new Clip(file.getAbsolutePath(), duration));
+                } else if (tmp.exists() && !tmp.delete()) {
+                    Log.w(TAG, "Could not delete " + tmp.getName());
+                }
+            });
+        } else {
+            Log.w(TAG, "Synthesis failed for \"" + text + "\"");
+        }
+        synthesizeNext();
+    }
+
+    private static Set<String> vocabulary() {
+        Set<String> words = new LinkedHashSet<>();
+        for (char c = 'A'; c <= 'Z'; c++) {
+            words.add(String.valueOf(c));
+        }
+        for (int n = 1; n <= MAX_SPOKEN_NUMBER; n++) {
+            words.add(String.valueOf(n));
+        }
+        Collections.addAll(words, STOCK_PHRASES);
+        for (char c = 'A'; c <= 'Z'; c++) {
+            words.add("Find the letter " + c);
+        }
+        for (int n = 1; n <= MAX_COOKIE_TARGET; n++) {
+            words.add("Feed me " + n + " cookies");
+        }
+        return words;
+    }
+
+    private File clipFile(String text) {
+        return new File(cacheDir, safeName(key(text)) + ".wav");
+    }
+
+    // Case and closing punctuation do not change how a phrase is said
+    private static String key(String text) {
+        String k = text.trim().toLowerCase(Locale.US).replaceAll("\\s+", " ");
+        while (k.endsWith(".") || k.endsWith("!")) {
+            k = k.substring(0, k.length() - 1);
+        }
+        return k;
+    }
+
+    private static String safeName(String s) {
+        return s.replaceAll("[^A-Za-z0-9]+", "_");
+    }
+
+    // Length of a PCM WAV file from its header, or 0 if it is not usable
+    private static long wavDurationMs(File file) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            if (raf.length() <= WAV_HEADER_BYTES) {
+                return 0;
+            }
+            raf.seek(28);
+            int byteRate = Integer.reverseBytes(raf.readInt());
+            if (byteRate <= 0) {
+                return 0;
+            }
+            return (raf.length() - WAV_HEADER_BYTES) * 1000L / byteRate;
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    // endregion
+}
@@ -2,6 +2,8 @@ package com.example.brightbuds_app.services;
 
 import android.content.Context;
 import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 
 import com.google.firebase.storage.FirebaseStorage;
@@ -9,15 +11,36 @@ import com.google.firebase.storage.StorageReference;
 import com.google.firebase.storage.StorageException;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /*
  Handles Firebase Storage downloads and local caching.
+
+ Downloads are kept in ContentCache, a size limited LRU cache on disk.
+ Several callers asking for the same path at once share one lookup and one
+ download. Callbacks run on the main thread.
  */
 public class StorageService {
 
     private static final String TAG = "StorageService";
     private static StorageService instance;
     private final FirebaseStorage storage;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Cache lookups, hashing and renames stay off the main thread
+    private static final ExecutorService IO = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "storage-cache");
+        t.setPriority(Thread.NORM_PRIORITY - 1);
+        return t;
+    });
+
+    // Path -> callers waiting on the lookup or download already running for it
+    private final Map<String, List<Waiter>> inFlight = new HashMap<>();
 
     private StorageService() {
         storage = FirebaseStorage.getInstance();
@@ -36,6 +59,16 @@ public class StorageService {
         void onFailure(Exception e);
     }
 
+    private static final class Waiter {
+        final OnSuccessCallback onSuccess;
+        final OnFailureCallback onFailure;
+
+        Waiter(OnSuccessCallback onSuccess, OnFailureCallback onFailure) {
+            this.onSuccess = onSuccess;
+            this.onFailure = onFailure;
+        }
+    }
+
     /*
      Downloads file from Firebase Storage if not cached locally.
      Works for both Glide/ExoPlayer and cached access.
@@ -45,47 +78,94 @@ public class StorageService {
     public void getOrDownloadFile(Context context, String path,
                                   OnSuccessCallback onSuccess,
                                   OnFailureCallback onFailure) {
-        try {
-            // Clean path for cache file name
-            String safeName = path.replaceAll("[^a-zA-Z0-9._-]", "_");
-            File localFile = new File(context.getCacheDir(), safeName);
-
-            if (localFile.exists() && localFile.length() > 0) {
-                Log.d(TAG, "Cache hit: " + safeName);
-                onSuccess.onSuccess(Uri.fromFile(localFile));
+        synchronized (inFlight) {
+            List<Waiter> waiters = inFlight.get(path);
+            if (waiters != null) {
+                Log.d(TAG, "Joining download already running for " + path);
+                waiters.add(new Waiter(onSuccess, onFailure));
                 return;
             }
+            waiters = new ArrayList<>();
+            waiters.add(new Waiter(onSuccess, onFailure));
+            inFlight.put(path, waiters);
+        }
 
-            Log.d(TAG, "Downloading from Firebase: " + path);
-            StorageReference ref = storage.getReference().child(path);
-
-            ref.getFile(localFile)
-                    .addOnSuccessListener(task -> {
-                        Log.d(TAG, "File downloaded: " + localFile.getAbsolutePath());
-                        onSuccess.onSuccess(Uri.fromFile(localFile));
-                    })
-                    .addOnFailureListener(e -> {
-                        // Clean up partial downloads
-                        if (localFile.exists()) localFile.delete();
-
-                        // Fallback: try HTTPS URL (e.g., for Glide)
-                        if (e instanceof StorageException &&
-                                ((StorageException) e).getErrorCode() == StorageException.ERROR_OBJECT_NOT_FOUND) {
-                            Log.w(TAG, "File not found in Firebase Storage: " + path);
-                        } else {
-                            Log.e(TAG, "Download failed: " + e.getMessage());
-                        }
-
-                        ref.getDownloadUrl()
-                                .addOnSuccessListener(onSuccess::onSuccess)
-                                .addOnFailureListener(err -> {
-                                    Log.e(TAG, "Fallback getDownloadUrl() failed: " + err.getMessage());
-                                    onFailure.onFailure(err);
-                                });
-                    });
-        } catch (Exception e) {
-            Log.e(TAG, "Error in getOrDownloadFile: " + e.getMessage());
-            onFailure.onFailure(e);
+        ContentCache cache = ContentCache.getInstance(context);
+        IO.execute(() -> {
+            try {
+                File cached = cache.get(path);
+                if (cached != null) {
+                    Log.d(TAG, "Cache hit: " + path);
+                    deliverSuccess(path, Uri.fromFile(cached));
+                    return;
+                }
+                download(cache, path);
+            } catch (Exception e) {
+                Log.e(TAG, "Error in getOrDownloadFile: " + e.getMessage());
+                deliverFailure(path, e);
+            }
+        });
+    }
+
+    /** Hit, miss and eviction counts of the download cache. */
+    public ContentCache.Stats getCacheStats(Context context) {
+        return ContentCache.getInstance(context).getStats();
+    }
+
+    private void download(ContentCache cache, String path) {
+        Log.d(TAG, "Downloading from Firebase: " + path);
+        StorageReference ref = storage.getReference().child(path);
+        File tmp = cache.newTempFile(path);
+
+        ref.getFile(tmp)
+                .addOnSuccessListener(IO, snapshot -> {
+                    File file = cache.commit(path, tmp, snapshot.getTotalByteCount());
+                    if (file != null) {
+                        Log.d(TAG, "File downloaded: " + file.getAbsolutePath());
+                        deliverSuccess(path, Uri.fromFile(file));
+                    } else {
+                        deliverFailure(path, new IllegalStateException("Incomplete download: " + path));
+                    }
+                })
+                .addOnFailureListener(IO, e -> {
+                    // Clean up partial downloads
+                    if (tmp.exists()) tmp.delete();
+
+                    // Fallback: try HTTPS URL (e.g., for Glide)
+                    if (e instanceof StorageException &&
+                            ((StorageException) e).getErrorCode() == StorageException.ERROR_OBJECT_NOT_FOUND) {
+                        Log.w(TAG, "File not found in Firebase Storage: " + path);
+                    } else {
+                        Log.e(TAG, "Download failed: " + e.getMessage());
+                    }
+
+                    ref.getDownloadUrl()
+                            .addOnSuccessListener(uri -> deliverSuccess(path, uri))
+                            .addOnFailureListener(err -> {
+                                Log.e(TAG, "Fallback getDownloadUrl() failed: " + err.getMessage());
+                                deliverFailure(path, err);
+                            });
+                });
+    }
+
+    private List<Waiter> takeWaiters(String path) {
+        synchronized (inFlight) {
+            List<Waiter> waiters = inFlight.remove(path);
+            return waiters != null ? waiters : new ArrayList<>();
         }
     }
+
+    private void deliverSuccess(String path, Uri uri) {
+        List<Waiter> waiters = takeWaiters(path);
+        mainHandler.post(() -> {
+            for (Waiter w : waiters) w.onSuccess.onSuccess(uri);
+        });
+    }
+
+    private void deliverFailure(String path, Exception e) {
+        List<Waiter> waiters = takeWaiters(path);
+        mainHandler.post(() -> {
+            for (Waiter w : waiters) w.onFailure.onFailure(e);
+        });
+    }
 }
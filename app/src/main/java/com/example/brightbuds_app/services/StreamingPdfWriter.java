@@ -0,0 +1,197 @@
+package com.example.brightbuds_app.services;
+
+import android.graphics.Canvas;
+import android.graphics.pdf.PdfDocument;
+import android.util.Log;
+
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.pdf.PdfCopy;
+import com.itextpdf.text.pdf.PdfReader;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Page by page PDF writer built on android.graphics.pdf.PdfDocument.
+ *
+ * PdfDocument keeps every finished page in memory until writeTo. This
+ * writer flushes a part file every PAGES_PER_PART pages, so only a few pages
+ * are ever held at once. On close the parts are joined into the output
+ * file with iText PdfCopy, which copies one part at a time. A report that
+ * fits in a single part is written directly with no merge step.
+ *
+ * Not thread safe. One writer belongs to one render job.
+ */
+public class StreamingPdfWriter implements ReportOutput {
+
+    private static final String TAG = "StreamingPdfWriter";
+
+    static final int PAGES_PER_PART = 4;
+
+    private final File output;
+    private final File partDir;
+    private final int pageWidth;
+    private final int pageHeight;
+    private final PageListener pageListener;
+
+    private final List<File> parts = new ArrayList<>();
+    private PdfDocument current;
+    private PdfDocument.Page openPage;
+    private int pagesInPart;
+    private int pageCount;
+    private boolean closed;
+
+    StreamingPdfWriter(File output,
+                       File partDir,
+                       int pageWidth,
+                       int pageHeight,
+                       PageListener pageListener) {
+        this.output = output;
+        this.partDir = partDir;
+        this.pageWidth = pageWidth;
+        this.pageHeight = pageHeight;
+        this.pageListener = pageListener;
+    }
+
+    public int getPageWidth() { return pageWidth; }
+
+    public int getPageHeight() { return pageHeight; }
+
+    /** Number of finished pages so far. */
+    public int getPageCount() { return pageCount; }
+
+    /**
+     * Finishes the open page, if any, and starts a new one.
+     * The returned canvas is valid until the next call.
+     */
+    public Canvas startPage() throws IOException {
+        finishPage();
+        if (current == null) {
+            current = new PdfDocument();
+        }
+        PdfDocument.PageInfo info = new PdfDocument.PageInfo.Builder(
+                pageWidth, pageHeight, pageCount + 1).create();
+        openPage = current.startPage(info);
+        return openPage.getCanvas();
+    }
+
+    /** Finishes the open page. Safe to call when no page is open. */
+    public void finishPage() throws IOException {
+        if (openPage == null) {
+            return;
+        }
+        current.finishPage(openPage);
+        openPage = null;
+        pageCount++;
+        pagesInPart++;
+
+        if (pagesInPart >= PAGES_PER_PART) {
+            flushPart();
+        }
+        if (pageListener != null) {
+            pageListener.onPageFinished(pageCount);
+        }
+    }
+
+    /** Finishes the last page and writes the complete file. */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        finishPage();
+        closed = true;
+
+        if (parts.isEmpty()) {
+            // Short report, everything is still in one document
+            writeCurrentTo(output);
+            return;
+        }
+
+        flushPart();
+        mergeParts();
+    }
+
+    /** Drops everything written so far. Used on cancel and failure. */
+    @Override
+    public void abort() {
+        closed = true;
+        if (current != null) {
+            if (openPage != null) {
+                current.finishPage(openPage);
+                openPage = null;
+            }
+            current.close();
+            current = null;
+        }
+        deleteParts();
+    }
+
+    private void flushPart() throws IOException {
+        if (current == null || pagesInPart == 0) {
+            return;
+        }
+        File part = new File(partDir, output.getName() + ".part" + parts.size());
+        writeCurrentTo(part);
+        parts.add(part);
+    }
+
+    private void writeCurrentTo(File file) throws IOException {
+        if (current == null) {
+            current = new PdfDocument();
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            current.writeTo(out);
+        } finally {
+            current.close();
+            current = null;
+            pagesInPart = 0;
+        }
+    }
+
+    private void mergeParts() throws IOException {
+        try {
+            mergeFiles(parts, output);
+        } finally {
+            deleteParts();
+        }
+        Log.d(TAG, "Merged " + pageCount + " pages from part files into " + output.getName());
+    }
+
+    /**
+     * Copies the pages of each input, in list order, into output. Inputs are
+     * read one at a time, so memory does not grow with the number of files.
+     */
+    static void mergeFiles(List<File> inputs, File output) throws IOException {
+        Document document = new Document();
+        try (OutputStream out = new FileOutputStream(output)) {
+            PdfCopy copy = new PdfCopy(document, out);
+            document.open();
+            for (File input : inputs) {
+                PdfReader reader = new PdfReader(input.getAbsolutePath());
+                try {
+                    copy.addDocument(reader);
+                } finally {
+                    reader.close();
+                }
+            }
+            document.close();
+        } catch (DocumentException e) {
+            throw new IOException("Failed to merge report parts", e);
+        }
+    }
+
+    private void deleteParts() {
+        for (File part : parts) {
+            if (part.exists() && !part.delete()) {
+                Log.w(TAG, "Could not delete " + part.getName());
+            }
+        }
+        parts.clear();
+    }
+}
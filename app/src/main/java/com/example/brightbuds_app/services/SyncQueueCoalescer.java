@@ -0,0 +1,111 @@
+package com.example.brightbuds_app.services;
+
+import com.example.brightbuds_app.models.SyncItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Collapses pending SyncQueue rows so each (table_name, record_id) pair is
+ * uploaded at most once.
+ *
+ * Rules, applied in queue order:
+ *  - insert then update     becomes insert
+ *  - update then update     becomes one update
+ *  - anything then delete   becomes delete
+ *  - delete then insert     becomes insert (the record is recreated)
+ *
+ * The surviving row keeps the sync id of the newest row it replaces, and
+ * every other sync id is reported as superseded so the caller can mark it
+ * done without uploading it.
+ *
+ * Nothing in the app calls DatabaseHelper.addToSyncQueue at the moment,
+ * so this only acts on rows already stored in SyncQueue.
+ */
+public final class SyncQueueCoalescer {
+
+    private static final String OP_INSERT = "insert";
+    private static final String OP_UPDATE = "update";
+    private static final String OP_DELETE = "delete";
+
+    private SyncQueueCoalescer() {
+        // Prevent instantiation
+    }
+
+    /** Output of one coalescing pass. */
+    public static final class Result {
+        private final List<SyncItem> items;
+        private final List<String> supersededIds;
+
+        Result(List<SyncItem> items, List<String> supersededIds) {
+            this.items = Collections.unmodifiableList(items);
+            this.supersededIds = Collections.unmodifiableList(supersededIds);
+        }
+
+        /** Operations left to upload, in order of first appearance. */
+        public List<SyncItem> getItems() { return items; }
+
+        /** Sync ids of queue rows that no longer need an upload. */
+        public List<String> getSupersededIds() { return supersededIds; }
+
+        /** Number of operations removed by coalescing. */
+        public int getRemovedCount() { return supersededIds.size(); }
+    }
+
+    public static Result coalesce(List<SyncItem> queue) {
+        Map<String, SyncItem> merged = new LinkedHashMap<>();
+        List<String> superseded = new ArrayList<>();
+
+        for (SyncItem item : queue) {
+            String key = item.getTableName() + "\u0000" + item.getRecordId();
+            SyncItem previous = merged.get(key);
+
+            if (previous == null) {
+                merged.put(key, copyOf(item, normalize(item.getOperation())));
+                continue;
+            }
+
+            String mergedOp = mergeOperations(
+                    previous.getOperation(), normalize(item.getOperation()));
+
+            if (previous.getId() != null) {
+                superseded.add(previous.getId());
+            }
+            previous.setId(item.getId());
+            previous.setOperation(mergedOp);
+        }
+
+        return new Result(new ArrayList<>(merged.values()), superseded);
+    }
+
+    private static String mergeOperations(String first, String next) {
+        if (OP_DELETE.equals(next)) {
+            return OP_DELETE;
+        }
+        if (OP_INSERT.equals(next)) {
+            // Insert writes the full record, so nothing before it matters.
+            return OP_INSERT;
+        }
+        if (OP_UPDATE.equals(next)) {
+            if (OP_INSERT.equals(first) || OP_DELETE.equals(first)) {
+                // An update after a delete has nothing to update; keep the delete.
+                return first;
+            }
+            return OP_UPDATE;
+        }
+        // Unknown operations are kept as the latest value.
+        return next;
+    }
+
+    private static String normalize(String operation) {
+        return operation == null ? "" : operation.toLowerCase(Locale.ROOT);
+    }
+
+    private static SyncItem copyOf(SyncItem item, String operation) {
+        return new SyncItem(item.getId(), item.getTableName(), item.getRecordId(), operation);
+    }
+}
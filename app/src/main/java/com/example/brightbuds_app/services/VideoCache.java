@@ -0,0 +1,154 @@
+package com.example.brightbuds_app.services;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import androidx.annotation.OptIn;
+import androidx.media3.common.MediaItem;
+import androidx.media3.common.util.UnstableApi;
+import androidx.media3.database.StandaloneDatabaseProvider;
+import androidx.media3.datasource.DataSpec;
+import androidx.media3.datasource.DefaultDataSource;
+import androidx.media3.datasource.DefaultHttpDataSource;
+import androidx.media3.datasource.cache.CacheDataSource;
+import androidx.media3.datasource.cache.CacheWriter;
+import androidx.media3.datasource.cache.ContentMetadata;
+import androidx.media3.datasource.cache.LeastRecentlyUsedCacheEvictor;
+import androidx.media3.datasource.cache.SimpleCache;
+
+import com.example.brightbuds_app.utils.SecureSettingsStore;
+import com.google.firebase.storage.FirebaseStorage;
+
+import java.io.File;
+
+/**
+ * Streaming cache for module videos.
+ *
+ * Videos are played from their Firebase download URL through a
+ * CacheDataSource backed by one bounded SimpleCache. Playback starts once
+ * the first part has arrived, everything read is kept on disk, and later
+ * plays read from disk without touching the network.
+ *
+ * Entries are keyed by storage path, not by URL, because the download
+ * token in the URL can change. Resolved URLs are kept in
+ * SecureSettingsStore so a fully cached video can start with no network
+ * lookup at all. A URL that the server rejects is forgotten with
+ * invalidateUrl and resolved again.
+ */
+@OptIn(markerClass = UnstableApi.class)
+public final class VideoCache {
+
+    private static final String TAG = "VideoCache";
+
+    private static final String DIR_NAME = "video_stream";
+    private static final long MAX_BYTES = 300L * 1024 * 1024;
+    private static final String URL_KEY_PREFIX = "video_url:";
+
+    private static volatile VideoCache instance;
+
+    private final Context appContext;
+    private final SimpleCache cache;
+    private final SecureSettingsStore settings;
+    private final CacheDataSource.Factory dataSourceFactory;
+
+    public interface UrlCallback {
+        void onResolved(Uri uri);
+        void onFailure(Exception e);
+    }
+
+    public static VideoCache getInstance(Context context) {
+        VideoCache local = instance;
+        if (local == null) {
+            synchronized (VideoCache.class) {
+                local = instance;
+                if (local == null) {
+                    local = new VideoCache(context.getApplicationContext());
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private VideoCache(Context appContext) {
+        this.appContext = appContext;
+        this.settings = SecureSettingsStore.getInstance(appContext);
+        this.cache = new SimpleCache(
+                new File(appContext.getCacheDir(), DIR_NAME),
+                new LeastRecentlyUsedCacheEvictor(MAX_BYTES),
+                new StandaloneDatabaseProvider(appContext));
+
+        DefaultHttpDataSource.Factory http = new DefaultHttpDataSource.Factory()
+                .setAllowCrossProtocolRedirects(true);
+        this.dataSourceFactory = new CacheDataSource.Factory()
+                .setCache(cache)
+                .setUpstreamDataSourceFactory(new DefaultDataSource.Factory(appContext, http))
+                .setFlags(CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR);
+    }
+
+    /** Data sources that read through the cache. Give it to the player's media source factory. */
+    public CacheDataSource.Factory dataSourceFactory() {
+        return dataSourceFactory;
+    }
+
+    /** A media item for uri, cached under the storage path. */
+    public MediaItem mediaItem(String path, Uri uri) {
+        return new MediaItem.Builder()
+                .setUri(uri)
+                .setCustomCacheKey(path)
+                .build();
+    }
+
+    /** True when every byte of the video at path is on disk. */
+    public boolean isFullyCached(String path) {
+        long length = ContentMetadata.getContentLength(cache.getContentMetadata(path));
+        return length > 0 && cache.isCached(path, 0, length);
+    }
+
+    /** Bytes of the video at path that are on disk. */
+    public long cachedBytes(String path) {
+        return cache.getCachedBytes(path, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * A writer that downloads the whole video at path into the cache, for
+     * prefetching. cache() blocks, so run it off the main thread; parts
+     * already on disk are skipped.
+     */
+    public CacheWriter newCacheWriter(String path, Uri uri) {
+        DataSpec spec = new DataSpec.Builder()
+                .setUri(uri)
+                .setKey(path)
+                .build();
+        return new CacheWriter(dataSourceFactory.createDataSource(), spec, null, null);
+    }
+
+    /**
+     * The download URL for a storage path. A stored URL is returned straight
+     * away; otherwise Firebase is asked and the answer stored. Callbacks run
+     * on the main thread.
+     */
+    public void resolveUrl(String path, UrlCallback callback) {
+        String stored = settings.get(URL_KEY_PREFIX + path);
+        if (stored != null) {
+            callback.onResolved(Uri.parse(stored));
+            return;
+        }
+
+        FirebaseStorage.getInstance().getReference().child(path).getDownloadUrl()
+                .addOnSuccessListener(uri -> {
+                    settings.put(URL_KEY_PREFIX + path, uri.toString());
+                    callback.onResolved(uri);
+                })
+                .addOnFailureListener(e -> {
+                    Log.e(TAG, "❌ Could not resolve video URL for " + path + ": " + e.getMessage());
+                    callback.onFailure(e);
+                });
+    }
+
+    /** Forgets a stored URL, for example after the server rejected its token. */
+    public void invalidateUrl(String path) {
+        settings.remove(URL_KEY_PREFIX + path);
+    }
+}
@@ -0,0 +1,566 @@
+package com.example.brightbuds_app.ui.games;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.os.SystemClock;
+import android.util.AttributeSet;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.MotionEvent;
+import android.view.View;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.example.brightbuds_app.R;
+
+import java.util.Random;
+
+/**
+ * Render layer for the Feed the Monster cookies.
+ *
+ * All cookies are drawn by this one view from a single bitmap, decoded once
+ * at the sprite size. Cookie state lives in fixed size arrays, so starting
+ * a round only moves sprites and allocates nothing. Dragging is handled
+ * here and the drop is reported to a Listener.
+ *
+ * Every animation of the game runs from one Choreographer frame callback.
+ * That covers the cookie pop in and gulp, and also the short effects on the
+ * surrounding views (target pulse, monster wiggle and shake, star flash).
+ * The callback is only registered while something is animating. Effects
+ * use preallocated slots instead of an ObjectAnimator per property and
+ * postDelayed chains.
+ *
+ * Main thread only.
+ */
+public class CookieSpriteView extends View implements Choreographer.FrameCallback {
+
+    private static final String TAG = "CookieSpriteView";
+
+    public static final int MAX_COOKIES = 16;
+
+    /** Scale up and back, about 340 ms. */
+    public static final int EFFECT_PULSE = 0;
+    /** Rotate left, right and back, about 260 ms. */
+    public static final int EFFECT_WIGGLE = 1;
+    /** Move left, right and back, about 230 ms. */
+    public static final int EFFECT_SHAKE = 2;
+    /** Show, grow to 1.4x, then hide after 600 ms. */
+    public static final int EFFECT_STAR_FLASH = 3;
+
+    /** Receives cookie drops. Bounds are in this view's coordinates. */
+    public interface Listener {
+        void onCookieDropped(int index, RectF bounds);
+    }
+
+    private static final int MAX_EFFECTS = 6;
+
+    private static final long POP_IN_MS = 220;
+    private static final long POP_STAGGER_MS = 35;
+    private static final long GULP_MS = 180;
+
+    private static final long PULSE_MS = 340;
+    private static final long WIGGLE_MS = 260;
+    private static final long SHAKE_MS = 230;
+    private static final long STAR_GROW_MS = 120;
+    private static final long STAR_FLASH_MS = 600;
+
+    private static final byte ANIM_NONE = 0;
+    private static final byte ANIM_POP = 1;
+    private static final byte ANIM_GULP = 2;
+
+    // Cookie sprites, one slot per cookie
+    private final float[] spriteX = new float[MAX_COOKIES];
+    private final float[] spriteY = new float[MAX_COOKIES];
+    private final boolean[] spriteVisible = new boolean[MAX_COOKIES];
+    private final byte[] spriteAnim = new byte[MAX_COOKIES];
+    private final long[] spriteAnimStart = new long[MAX_COOKIES];
+    private int cookieCount;
+
+    private final Effect[] effects = new Effect[MAX_EFFECTS];
+
+    private final Paint bitmapPaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    private final RectF dropBounds = new RectF();
+    private final float shakeDistancePx;
+
+    @Nullable private Bitmap cookieBitmap;
+    private int spriteSizePx;
+    private int edgeMarginPx;
+
+    @Nullable private Listener listener;
+    @Nullable private Random pendingRandom;
+    private int pendingCookieCount = -1;
+
+    private boolean touchEnabled = true;
+    private int dragIndex = -1;
+    private float dragOffsetX;
+    private float dragOffsetY;
+
+    private boolean frameScheduled;
+
+    public CookieSpriteView(Context context) {
+        this(context, null);
+    }
+
+    public CookieSpriteView(Context context, @Nullable AttributeSet attrs) {
+        super(context, attrs);
+        shakeDistancePx = 8 * getResources().getDisplayMetrics().density;
+        for (int i = 0; i < MAX_EFFECTS; i++) {
+            effects[i] = new Effect();
+        }
+    }
+
+    public void setListener(@Nullable Listener listener) {
+        this.listener = listener;
+    }
+
+    /** Sets the cookie size and the gap kept to the edges, and decodes the bitmap once. */
+    public void setSpriteSize(int sizePx, int edgeMarginPx) {
+        this.edgeMarginPx = edgeMarginPx;
+        if (sizePx == spriteSizePx && cookieBitmap != null) {
+            return;
+        }
+        spriteSizePx = sizePx;
+        cookieBitmap = decodeScaled(R.drawable.cookie, sizePx);
+        invalidate();
+    }
+
+    /** When false, new drags are refused. A drag already running finishes normally. */
+    public void setTouchEnabled(boolean enabled) {
+        touchEnabled = enabled;
+    }
+
+    /**
+     * Places count cookies at random spots in the right half and pops them
+     * in. If the view has no size yet, this runs once it is laid out.
+     */
+    public void resetCookies(int count, Random random) {
+        int n = Math.min(count, MAX_COOKIES);
+        if (getWidth() <= 0 || getHeight() <= 0) {
+            pendingCookieCount = n;
+            pendingRandom = random;
+            return;
+        }
+        pendingCookieCount = -1;
+        pendingRandom = null;
+
+        int width = getWidth();
+        int height = getHeight();
+        float minX = width / 2f;
+        float maxX = width - spriteSizePx - edgeMarginPx;
+
+        long now = SystemClock.uptimeMillis();
+        for (int i = 0; i < n; i++) {
+            spriteX[i] = minX + random.nextFloat() * Math.max(1, maxX - minX);
+            spriteY[i] = edgeMarginPx
+                    + random.nextFloat() * Math.max(1, height - spriteSizePx - edgeMarginPx);
+            spriteVisible[i] = true;
+            spriteAnim[i] = ANIM_POP;
+            spriteAnimStart[i] = now + i * POP_STAGGER_MS;
+        }
+        cookieCount = n;
+        dragIndex = -1;
+        scheduleFrame();
+        invalidate();
+    }
+
+    /** Plays the gulp animation on a cookie and then hides it. */
+    public void feedCookie(int index) {
+        if (index < 0 || index >= cookieCount || !spriteVisible[index]) {
+            return;
+        }
+        spriteAnim[index] = ANIM_GULP;
+        spriteAnimStart[index] = SystemClock.uptimeMillis();
+        scheduleFrame();
+    }
+
+    /**
+     * Runs one of the EFFECT_ animations on another view. Playing the same
+     * effect on the same view again restarts it.
+     */
+    public void playEffect(@NonNull View target, int type) {
+        Effect slot = null;
+        for (Effect e : effects) {
+            if (e.active && e.target == target && e.type == type) {
+                slot = e;
+                break;
+            }
+        }
+        if (slot == null) {
+            for (Effect e : effects) {
+                if (!e.active) {
+                    slot = e;
+                    break;
+                }
+            }
+        }
+        if (slot == null) {
+            // All slots busy; finish the first one early
+            slot = effects[0];
+            finishEffect(slot);
+        }
+
+        slot.target = target;
+        slot.type = type;
+        slot.start = SystemClock.uptimeMillis();
+        slot.active = true;
+        if (type == EFFECT_STAR_FLASH) {
+            target.setVisibility(View.VISIBLE);
+        }
+        scheduleFrame();
+    }
+
+    // region Drawing and animation
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        if (pendingCookieCount >= 0 && pendingRandom != null && w > 0 && h > 0) {
+            resetCookies(pendingCookieCount, pendingRandom);
+        }
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        Bitmap bitmap = cookieBitmap;
+        if (bitmap == null) {
+            return;
+        }
+
+        long now = SystemClock.uptimeMillis();
+        for (int i = 0; i < cookieCount; i++) {
+            if (i != dragIndex) {
+                drawSprite(canvas, bitmap, i, now);
+            }
+        }
+        // The dragged cookie stays on top
+        if (dragIndex >= 0) {
+            drawSprite(canvas, bitmap, dragIndex, now);
+        }
+    }
+
+    private void drawSprite(Canvas canvas, Bitmap bitmap, int i, long now) {
+        if (!spriteVisible[i]) {
+            return;
+        }
+        float scale = spriteScale(i, now);
+        if (scale <= 0f) {
+            return;
+        }
+        float half = spriteSizePx / 2f;
+        int save = canvas.save();
+        canvas.translate(spriteX[i] + half, spriteY[i] + half);
+        canvas.scale(scale, scale);
+        canvas.drawBitmap(bitmap, -bitmap.getWidth() / 2f, -bitmap.getHeight() / 2f, bitmapPaint);
+        canvas.restoreToCount(save);
+    }
+
+    private float spriteScale(int i, long now) {
+        long elapsed = now - spriteAnimStart[i];
+        switch (spriteAnim[i]) {
+            case ANIM_POP: {
+                if (elapsed <= 0) {
+                    return 0f;
+                }
+                float t = Math.min(1f, elapsed / (float) POP_IN_MS);
+                // Ease out
+                return 1f - (1f - t) * (1f - t);
+            }
+            case ANIM_GULP:
+                return Math.max(0f, 1f - elapsed / (float) GULP_MS);
+            default:
+                return 1f;
+        }
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        frameScheduled = false;
+        long now = SystemClock.uptimeMillis();
+        boolean running = false;
+        boolean spritesChanged = false;
+
+        for (int i = 0; i < cookieCount; i++) {
+            if (spriteAnim[i] == ANIM_NONE) {
+                continue;
+            }
+            spritesChanged = true;
+            long elapsed = now - spriteAnimStart[i];
+            if (spriteAnim[i] == ANIM_POP) {
+                if (elapsed >= POP_IN_MS) {
+                    spriteAnim[i] = ANIM_NONE;
+                } else {
+                    running = true;
+                }
+            } else if (spriteAnim[i] == ANIM_GULP) {
+                if (elapsed >= GULP_MS) {
+                    spriteAnim[i] = ANIM_NONE;
+                    spriteVisible[i] = false;
+                } else {
+                    running = true;
+                }
+            }
+        }
+        if (spritesChanged) {
+            invalidate();
+        }
+
+        for (Effect effect : effects) {
+            if (effect.active) {
+                running |= stepEffect(effect, now);
+            }
+        }
+
+        if (running) {
+            scheduleFrame();
+        }
+    }
+
+    // Returns true while the effect still needs frames
+    private boolean stepEffect(Effect effect, long now) {
+        View v = effect.target;
+        long elapsed = now - effect.start;
+        switch (effect.type) {
+            case EFFECT_PULSE: {
+                if (elapsed >= PULSE_MS) {
+                    finishEffect(effect);
+                    return false;
+                }
+                float s = 1f + 0.1f * (float) Math.sin(Math.PI * elapsed / PULSE_MS);
+                v.setScaleX(s);
+                v.setScaleY(s);
+                return true;
+            }
+            case EFFECT_WIGGLE: {
+                if (elapsed >= WIGGLE_MS) {
+                    finishEffect(effect);
+                    return false;
+                }
+                v.setRotation(leftRightBack(elapsed / (float) WIGGLE_MS, 8f));
+                return true;
+            }
+            case EFFECT_SHAKE: {
+                if (elapsed >= SHAKE_MS) {
+                    finishEffect(effect);
+                    return false;
+                }
+                v.setTranslationX(leftRightBack(elapsed / (float) SHAKE_MS, shakeDistancePx));
+                return true;
+            }
+            case EFFECT_STAR_FLASH: {
+                if (elapsed >= STAR_FLASH_MS) {
+                    finishEffect(effect);
+                    return false;
+                }
+                float s = 1f + 0.4f * Math.min(1f, elapsed / (float) STAR_GROW_MS);
+                v.setScaleX(s);
+                v.setScaleY(s);
+                return true;
+            }
+            default:
+                effect.active = false;
+                return false;
+        }
+    }
+
+    // Sets the effect's end state and frees its slot
+    private void finishEffect(Effect effect) {
+        View v = effect.target;
+        if (v != null) {
+            switch (effect.type) {
+                case EFFECT_PULSE:
+                    v.setScaleX(1f);
+                    v.setScaleY(1f);
+                    break;
+                case EFFECT_WIGGLE:
+                    v.setRotation(0f);
+                    break;
+                case EFFECT_SHAKE:
+                    v.setTranslationX(0f);
+                    break;
+                case EFFECT_STAR_FLASH:
+                    v.setScaleX(1f);
+                    v.setScaleY(1f);
+                    v.setVisibility(View.GONE);
+                    break;
+                default:
+                    break;
+            }
+        }
+        effect.active = false;
+        effect.target = null;
+    }
+
+    // 0 to -amount, to +amount, back to 0, in three equal steps
+    private static float leftRightBack(float t, float amount) {
+        if (t < 1f / 3f) {
+            return -amount * (t * 3f);
+        }
+        if (t < 2f / 3f) {
+            return -amount + 2f * amount * ((t - 1f / 3f) * 3f);
+        }
+        return amount * (1f - (t - 2f / 3f) * 3f);
+    }
+
+    private void scheduleFrame() {
+        if (!frameScheduled && isAttachedToWindow()) {
+            frameScheduled = true;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        scheduleFrame();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        if (frameScheduled) {
+            Choreographer.getInstance().removeFrameCallback(this);
+            frameScheduled = false;
+        }
+        for (Effect effect : effects) {
+            if (effect.active) {
+                finishEffect(effect);
+            }
+        }
+        super.onDetachedFromWindow();
+    }
+
+    // endregion
+
+    // region Touch
+
+    @SuppressLint("ClickableViewAccessibility")
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN: {
+                if (!touchEnabled) {
+                    return false;
+                }
+                int hit = findCookieAt(event.getX(), event.getY());
+                if (hit < 0) {
+                    return false;
+                }
+                dragIndex = hit;
+                dragOffsetX = spriteX[hit] - event.getX();
+                dragOffsetY = spriteY[hit] - event.getY();
+                if (getParent() != null) {
+                    getParent().requestDisallowInterceptTouchEvent(true);
+                }
+                invalidate();
+                return true;
+            }
+            case MotionEvent.ACTION_MOVE: {
+                if (dragIndex < 0) {
+                    return false;
+                }
+                float maxX = getWidth() - spriteSizePx;
+                float maxY = getHeight() - spriteSizePx;
+                spriteX[dragIndex] = Math.max(0, Math.min(event.getX() + dragOffsetX, maxX));
+                spriteY[dragIndex] = Math.max(0, Math.min(event.getY() + dragOffsetY, maxY));
+                invalidate();
+                return true;
+            }
+            case MotionEvent.ACTION_UP: {
+                if (dragIndex < 0) {
+                    return false;
+                }
+                int dropped = dragIndex;
+                dragIndex = -1;
+                performClick();
+                invalidate();
+                if (listener != null) {
+                    dropBounds.set(spriteX[dropped], spriteY[dropped],
+                            spriteX[dropped] + spriteSizePx, spriteY[dropped] + spriteSizePx);
+                    listener.onCookieDropped(dropped, dropBounds);
+                }
+                return true;
+            }
+            case MotionEvent.ACTION_CANCEL:
+                dragIndex = -1;
+                invalidate();
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public boolean performClick() {
+        return super.performClick();
+    }
+
+    // Topmost cookie under the point, or -1
+    private int findCookieAt(float x, float y) {
+        for (int i = cookieCount - 1; i >= 0; i--) {
+            if (!spriteVisible[i] || spriteAnim[i] == ANIM_GULP) {
+                continue;
+            }
+            if (x >= spriteX[i] && x < spriteX[i] + spriteSizePx
+                    && y >= spriteY[i] && y < spriteY[i] + spriteSizePx) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // endregion
+
+    // Decodes close to the target with inSampleSize, then fits it inside a size square
+    @Nullable
+    private Bitmap decodeScaled(@DrawableRes int resId, int sizePx) {
+        if (sizePx <= 0) {
+            return null;
+        }
+        try {
+            BitmapFactory.Options bounds = new BitmapFactory.Options();
+            bounds.inJustDecodeBounds = true;
+            BitmapFactory.decodeResource(getResources(), resId, bounds);
+
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            int sample = 1;
+            while (bounds.outWidth / (sample * 2) >= sizePx
+                    && bounds.outHeight / (sample * 2) >= sizePx) {
+                sample *= 2;
+            }
+            options.inSampleSize = sample;
+
+            Bitmap decoded = BitmapFactory.decodeResource(getResources(), resId, options);
+            if (decoded == null) {
+                return null;
+            }
+
+            // Fit centre, like ImageView.ScaleType.FIT_CENTER
+            float fit = Math.min(sizePx / (float) decoded.getWidth(),
+                    sizePx / (float) decoded.getHeight());
+            int w = Math.max(1, Math.round(decoded.getWidth() * fit));
+            int h = Math.max(1, Math.round(decoded.getHeight() * fit));
+            Bitmap scaled = Bitmap.createScaledBitmap(decoded, w, h, true);
+            if (scaled != decoded) {
+                decoded.recycle();
+            }
+            return scaled;
+        } catch (Exception | OutOfMemoryError e) {
+            Log.e(TAG, "Error loading cookie bitmap", e);
+            return null;
+        }
+    }
+
+    private static final class Effect {
+        View target;
+        int type;
+        long start;
+        boolean active;
+    }
+}
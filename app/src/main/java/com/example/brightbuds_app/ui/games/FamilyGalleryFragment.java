@@ -4,12 +4,8 @@ import android.animation.AnimatorSet;
 import android.animation.ObjectAnimator;
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.media.MediaPlayer;
-import android.media.SoundPool;
-import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
-import android.speech.tts.TextToSpeech;
 import android.util.Log;
 import android.view.GestureDetector;
 import android.view.LayoutInflater;
@@ -29,8 +25,10 @@ import com.example.brightbuds_app.R;
 import com.example.brightbuds_app.adapters.FamilyGalleryAdapter;
 import com.example.brightbuds_app.interfaces.DataCallbacks;
 import com.example.brightbuds_app.models.FamilyMember;
+import com.example.brightbuds_app.services.AudioEngine;
 import com.example.brightbuds_app.services.DatabaseHelper;
 import com.example.brightbuds_app.services.ProgressService;
+import com.example.brightbuds_app.services.SpeechService;
 import com.example.brightbuds_app.utils.AnalyticsSessionManager;
 import com.example.brightbuds_app.utils.Constants;
 import com.example.brightbuds_app.utils.CurrentChildManager;
@@ -83,11 +81,8 @@ public class FamilyGalleryFragment extends Fragment {
     private Handler timerHandler;
     private Runnable timerRunnable;
 
-    private MediaPlayer bgMusicPlayer;
-    private SoundPool soundPool;
-    private int soundFlipId;
-    private int soundClapId;
-    private TextToSpeech tts;
+    private AudioEngine audio;
+    private SpeechService speech;
     private Handler ttsHandler;
 
     private ProgressService progressService;
@@ -108,7 +103,7 @@ public class FamilyGalleryFragment extends Fragment {
         Context context = requireContext();
 
         progressService = new ProgressService(context);
-        localDb = new DatabaseHelper(context);
+        localDb = DatabaseHelper.getInstance(context);
 
         SharedPreferences parentPrefs =
                 context.getSharedPreferences("BrightBudsPrefs", Context.MODE_PRIVATE);
@@ -122,15 +117,8 @@ public class FamilyGalleryFragment extends Fragment {
         timerHandler = new Handler();
         ttsHandler = new Handler();
 
-        tts = new TextToSpeech(context, status -> {
-            if (status == TextToSpeech.SUCCESS) {
-                tts.setLanguage(Locale.ENGLISH);
-                tts.setPitch(1.0f);
-                tts.setSpeechRate(0.95f);
-            }
-        });
-
-        initSounds(context);
+        speech = SpeechService.getInstance(context);
+        audio = AudioEngine.getInstance(context);
         initGestureDetector(context);
 
         // Child for analytics
@@ -251,7 +239,6 @@ public class FamilyGalleryFragment extends Fragment {
                     Toast.LENGTH_LONG).show();
         }
 
-        startBackgroundMusic();
         sessionStartMs = System.currentTimeMillis();
         startTimer();
         updateHud();
@@ -284,59 +271,17 @@ public class FamilyGalleryFragment extends Fragment {
 
     // region Sounds and music
 
-    private void initSounds(Context context) {
-        soundPool = new SoundPool.Builder().setMaxStreams(3).build();
-        soundFlipId = soundPool.load(context, R.raw.card_flip, 1);
-        soundClapId = soundPool.load(context, R.raw.clap_sound, 1);
-    }
-
-    private void startBackgroundMusic() {
-        try {
-            bgMusicPlayer = MediaPlayer.create(requireContext(), R.raw.classical_music);
-            if (bgMusicPlayer != null) {
-                bgMusicPlayer.setLooping(true);
-                bgMusicPlayer.setVolume(0.2f, 0.2f);
-                bgMusicPlayer.start();
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error starting classical music", e);
-        }
-    }
-
     private void playFlipSound() {
-        if (soundPool != null && soundFlipId != 0) {
-            soundPool.play(soundFlipId, 1f, 1f, 1, 0, 1f);
-        }
+        audio.playEffect(R.raw.card_flip);
     }
 
     private void playClapSound() {
-        if (soundPool != null && soundClapId != 0) {
-            soundPool.play(soundClapId, 1f, 1f, 1, 0, 1f);
-        }
+        audio.playEffect(R.raw.clap_sound);
     }
 
     private void stopAllAudio() {
-        if (bgMusicPlayer != null) {
-            try {
-                if (bgMusicPlayer.isPlaying()) {
-                    bgMusicPlayer.stop();
-                }
-            } catch (Exception ignored) { }
-            bgMusicPlayer.release();
-            bgMusicPlayer = null;
-        }
-
-        if (soundPool != null) {
-            soundPool.release();
-            soundPool = null;
-        }
-
-        if (tts != null) {
-            try {
-                tts.stop();
-            } catch (Exception ignored) { }
-            tts.shutdown();
-            tts = null;
+        if (speech != null) {
+            speech.stop();
         }
     }
 
@@ -496,17 +441,9 @@ public class FamilyGalleryFragment extends Fragment {
         }
     }
 
+    // Names are new text, so these lines go to the live engine
     private void speakNow(String text) {
-        if (tts == null) return;
-        try {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                tts.speak(text, TextToSpeech.QUEUE_FLUSH, null, "family_tts");
-            } else {
-                tts.speak(text, TextToSpeech.QUEUE_FLUSH, null);
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "TTS speak error", e);
-        }
+        speech.speak(text);
     }
 
     private void speakDelayed(String text, long delayMs) {
@@ -640,18 +577,13 @@ public class FamilyGalleryFragment extends Fragment {
     public void onPause() {
         super.onPause();
         stopTimer();
-        if (bgMusicPlayer != null && bgMusicPlayer.isPlaying()) {
-            bgMusicPlayer.pause();
-        }
         endAnalyticsSession(hasViewedAllPhotosAtLeastOnce());
     }
 
     @Override
     public void onResume() {
         super.onResume();
-        if (bgMusicPlayer != null && !bgMusicPlayer.isPlaying()) {
-            bgMusicPlayer.start();
-        }
+        audio.playMusic(R.raw.classical_music, 0.2f);
         if (!timerRunning && !familyMembers.isEmpty()) {
             sessionStartMs = System.currentTimeMillis() - elapsedMs;
             startTimer();
@@ -1,16 +1,11 @@
 package com.example.brightbuds_app.ui.games;
 
-import android.animation.ObjectAnimator;
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.graphics.Rect;
-import android.media.MediaPlayer;
-import android.os.Build;
+import android.graphics.RectF;
 import android.os.Bundle;
 import android.os.SystemClock;
-import android.speech.tts.TextToSpeech;
 import android.view.LayoutInflater;
-import android.view.MotionEvent;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.FrameLayout;
@@ -25,12 +20,14 @@ import androidx.fragment.app.Fragment;
 
 import com.example.brightbuds_app.R;
 import com.example.brightbuds_app.interfaces.DataCallbacks;
+import com.example.brightbuds_app.services.AudioEngine;
 import com.example.brightbuds_app.services.ProgressService;
+import com.example.brightbuds_app.services.SpeechService;
 import com.example.brightbuds_app.utils.AnalyticsSessionManager;
 import com.example.brightbuds_app.utils.CurrentChildManager;
 import com.example.brightbuds_app.utils.ModuleIds;
+import com.example.brightbuds_app.utils.DrawableRegistry;
 
-import java.util.Locale;
 import java.util.Random;
 
 /**
@@ -55,6 +52,13 @@ public class FeedTheMonsterFragment extends Fragment {
     private ImageButton btnHomeIcon;
     private ImageButton btnCloseIcon;
 
+    // Cookies and all game animations; see CookieSpriteView
+    private CookieSpriteView cookieLayer;
+    private final int[] monsterLocation = new int[2];
+    private final int[] layerLocation = new int[2];
+    private final RectF monsterRect = new RectF();
+    private final Runnable advanceRoundTask = this::advanceRound;
+
     // Game state
     private final Random rng = new Random();
     private int score = 0;
@@ -77,8 +81,7 @@ public class FeedTheMonsterFragment extends Fragment {
     private static final String KEY_TIMES_PLAYED = "feed_monster_times_played";
 
     // Audio
-    private MediaPlayer bgMusic;
-    private TextToSpeech tts;
+    private SpeechService speech;
 
     // Analytics
     private AnalyticsSessionManager analyticsManager;
@@ -112,6 +115,12 @@ public class FeedTheMonsterFragment extends Fragment {
         btnHomeIcon = v.findViewById(R.id.btnHomeIcon);
         btnCloseIcon = v.findViewById(R.id.btnCloseIcon);
 
+        cookieLayer = new CookieSpriteView(requireContext());
+        cookieLayer.setSpriteSize(dp(110), dp(6));
+        cookieLayer.setListener(this::handleCookieDrop);
+        playArea.addView(cookieLayer, new FrameLayout.LayoutParams(
+                ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+
         // Child id
         childId = CurrentChildManager.getCurrentChildId(requireContext());
 
@@ -132,22 +141,8 @@ public class FeedTheMonsterFragment extends Fragment {
         timesPlayed = sp.getInt(KEY_TIMES_PLAYED, 0) + 1;
         sp.edit().putInt(KEY_TIMES_PLAYED, timesPlayed).apply();
 
-        // Background music setup
-        bgMusic = MediaPlayer.create(requireContext(), R.raw.monster_music);
-        if (bgMusic != null) {
-            bgMusic.setLooping(true);
-            bgMusic.setVolume(0.25f, 0.25f);
-            bgMusic.start();
-        }
-
-        // Text to speech setup
-        tts = new TextToSpeech(requireContext(), status -> {
-            if (status == TextToSpeech.SUCCESS) {
-                tts.setLanguage(Locale.ENGLISH);
-                tts.setPitch(1.1f);
-                tts.setSpeechRate(0.95f);
-            }
-        });
+        // Shared text to speech, already bound by the app
+        speech = SpeechService.getInstance(requireContext());
 
         // Close game and finish Activity
         View.OnClickListener endGame = view1 -> {
@@ -167,6 +162,7 @@ public class FeedTheMonsterFragment extends Fragment {
 
     private void startRound(boolean firstRound) {
         roundLocked = false;
+        cookieLayer.setTouchEnabled(true);
         cookiesFedThisRound = 0;
         wrongStreak = 0;
 
@@ -184,29 +180,15 @@ public class FeedTheMonsterFragment extends Fragment {
 
         updateTargetNumberImage(targetNumber);
 
-        // Remove any cookies left from previous round
-        playArea.removeAllViews();
-        createCookiesForRound(10);
+        // Cookies left from the previous round are moved, not recreated
+        cookieLayer.resetCookies(10, rng);
 
         speakPrompt("Feed me " + targetNumber + " cookies");
-        pulse(tvTarget);
+        cookieLayer.playEffect(tvTarget, CookieSpriteView.EFFECT_PULSE);
     }
 
     private void updateTargetNumberImage(int number) {
-        int resId;
-        switch (number) {
-            case 1:  resId = R.drawable.number_1;  break;
-            case 2:  resId = R.drawable.number_2;  break;
-            case 3:  resId = R.drawable.number_3;  break;
-            case 4:  resId = R.drawable.number_4;  break;
-            case 5:  resId = R.drawable.number_5;  break;
-            case 6:  resId = R.drawable.number_6;  break;
-            case 7:  resId = R.drawable.number_7;  break;
-            case 8:  resId = R.drawable.number_8;  break;
-            case 9:  resId = R.drawable.number_9;  break;
-            case 10: resId = R.drawable.number_10; break;
-            default: resId = 0; break;
-        }
+        int resId = DrawableRegistry.number(number);
 
         if (resId != 0) {
             imgTargetNumber.setVisibility(View.VISIBLE);
@@ -216,108 +198,32 @@ public class FeedTheMonsterFragment extends Fragment {
         }
     }
 
-    private void createCookiesForRound(int cookieCount) {
-        playArea.post(() -> {
-            int width = playArea.getWidth();
-            int height = playArea.getHeight();
-            if (width <= 0 || height <= 0) return;
-
-            int size = dp(110);
-            int margin = dp(6);
-
-            for (int i = 0; i < cookieCount; i++) {
-                ImageView cookie = new ImageView(requireContext());
-                cookie.setImageResource(R.drawable.cookie);
-                cookie.setScaleType(ImageView.ScaleType.FIT_CENTER);
-
-                FrameLayout.LayoutParams lp =
-                        new FrameLayout.LayoutParams(size, size);
-                cookie.setLayoutParams(lp);
-
-                int totalMaxX = width - size - margin;
-                int halfWidth = width / 2;
-                int minX = halfWidth;
-                int maxX = totalMaxX;
-
-                float startX = minX + rng.nextFloat() * Math.max(1, (maxX - minX));
-                float startY = margin + rng.nextFloat() * Math.max(1, (height - size - margin));
-
-                cookie.setX(startX);
-                cookie.setY(startY);
-
-                cookie.setOnTouchListener(cookieDragListener);
-                playArea.addView(cookie);
-            }
-        });
-    }
-
     // endregion
 
     // region Drag and drop logic
 
-    private final View.OnTouchListener cookieDragListener = new View.OnTouchListener() {
-
-        float dX;
-        float dY;
-        final int[] playAreaLocation = new int[2];
-
-        @Override
-        public boolean onTouch(View view, MotionEvent event) {
-            if (roundLocked) return false;
-
-            playArea.getLocationOnScreen(playAreaLocation);
-
-            switch (event.getActionMasked()) {
-                case MotionEvent.ACTION_DOWN: {
-                    float touchX = event.getRawX() - playAreaLocation[0];
-                    float touchY = event.getRawY() - playAreaLocation[1];
-                    dX = view.getX() - touchX;
-                    dY = view.getY() - touchY;
-                    return true;
-                }
-                case MotionEvent.ACTION_MOVE: {
-                    float newX = event.getRawX() - playAreaLocation[0] + dX;
-                    float newY = event.getRawY() - playAreaLocation[1] + dY;
-
-                    float maxX = playArea.getWidth() - view.getWidth();
-                    float maxY = playArea.getHeight() - view.getHeight();
-                    newX = Math.max(0, Math.min(newX, maxX));
-                    newY = Math.max(0, Math.min(newY, maxY));
-
-                    view.setX(newX);
-                    view.setY(newY);
-                    return true;
-                }
-                case MotionEvent.ACTION_UP: {
-                    handleCookieDrop(view);
-                    return true;
-                }
-                default:
-                    return false;
-            }
-        }
-    };
-
-    private void handleCookieDrop(View cookieView) {
+    // Called by the cookie layer when a dragged cookie is released
+    private void handleCookieDrop(int cookieIndex, RectF cookieBounds) {
         if (roundLocked) return;
 
-        Rect monsterRect = new Rect();
-        Rect cookieRect = new Rect();
+        // Monster bounds in the cookie layer's coordinates
+        imgMonster.getLocationInWindow(monsterLocation);
+        cookieLayer.getLocationInWindow(layerLocation);
+        float left = monsterLocation[0] - layerLocation[0];
+        float top = monsterLocation[1] - layerLocation[1];
+        monsterRect.set(left, top, left + imgMonster.getWidth(), top + imgMonster.getHeight());
 
-        imgMonster.getGlobalVisibleRect(monsterRect);
-        cookieView.getGlobalVisibleRect(cookieRect);
-
-        boolean hitMonster = Rect.intersects(monsterRect, cookieRect);
+        boolean hitMonster = RectF.intersects(monsterRect, cookieBounds);
 
         if (hitMonster) {
-            handleCookieFed(cookieView);
+            handleCookieFed(cookieIndex);
         } else {
             handleMiss();
         }
     }
 
-    private void handleCookieFed(View cookieView) {
-        cookieView.setVisibility(View.INVISIBLE);
+    private void handleCookieFed(int cookieIndex) {
+        cookieLayer.feedCookie(cookieIndex);
         cookiesFedThisRound++;
 
         progressRound.setProgress(Math.min(cookiesFedThisRound, targetNumber));
@@ -333,31 +239,33 @@ public class FeedTheMonsterFragment extends Fragment {
         totalIncorrect++;
         wrongStreak++;
         imgMonster.setImageResource(R.drawable.monster_sad);
-        shake(imgMonster);
+        cookieLayer.playEffect(imgMonster, CookieSpriteView.EFFECT_SHAKE);
         speakPrompt("Try again");
         updateStats();
 
         if (wrongStreak >= 5 && !roundLocked) {
             roundLocked = true;
-            imgMonster.postDelayed(this::advanceRound, 800);
+            cookieLayer.setTouchEnabled(false);
+            imgMonster.postDelayed(advanceRoundTask, 800);
         }
     }
 
     private void handleCorrectAnswer() {
         roundLocked = true;
+        cookieLayer.setTouchEnabled(false);
         totalCorrect++;
         wrongStreak = 0;
         score += 10;
         stars++;
 
         imgMonster.setImageResource(R.drawable.monster_happy);
-        showStarFlash();
-        wiggle(imgMonster);
+        cookieLayer.playEffect(imgStar, CookieSpriteView.EFFECT_STAR_FLASH);
+        cookieLayer.playEffect(imgMonster, CookieSpriteView.EFFECT_WIGGLE);
 
         speakPraise("Yay");
         updateStats();
 
-        imgMonster.postDelayed(this::advanceRound, 900);
+        imgMonster.postDelayed(advanceRoundTask, 900);
     }
 
     private void advanceRound() {
@@ -379,66 +287,6 @@ public class FeedTheMonsterFragment extends Fragment {
         );
     }
 
-    private void showStarFlash() {
-        imgStar.setVisibility(View.VISIBLE);
-        animateScale(imgStar, 1.4f);
-        imgStar.postDelayed(() -> {
-            animateScale(imgStar, 1.0f);
-            imgStar.setVisibility(View.GONE);
-        }, 600);
-    }
-
-    private void animateScale(View v, float toScale) {
-        ObjectAnimator sx = ObjectAnimator.ofFloat(v, View.SCALE_X, toScale);
-        ObjectAnimator sy = ObjectAnimator.ofFloat(v, View.SCALE_Y, toScale);
-        sx.setDuration(120);
-        sy.setDuration(120);
-        sx.start();
-        sy.start();
-    }
-
-    private void pulse(View v) {
-        ObjectAnimator upX = ObjectAnimator.ofFloat(v, View.SCALE_X, 1f, 1.1f);
-        ObjectAnimator upY = ObjectAnimator.ofFloat(v, View.SCALE_Y, 1f, 1.1f);
-        upX.setDuration(160);
-        upY.setDuration(160);
-        upX.start();
-        upY.start();
-
-        v.postDelayed(() -> {
-            ObjectAnimator downX = ObjectAnimator.ofFloat(v, View.SCALE_X, 1.1f, 1f);
-            ObjectAnimator downY = ObjectAnimator.ofFloat(v, View.SCALE_Y, 1.1f, 1f);
-            downX.setDuration(160);
-            downY.setDuration(160);
-            downX.start();
-            downY.start();
-        }, 180);
-    }
-
-    private void wiggle(View v) {
-        ObjectAnimator r1 = ObjectAnimator.ofFloat(v, View.ROTATION, -8f);
-        ObjectAnimator r2 = ObjectAnimator.ofFloat(v, View.ROTATION, 8f);
-        ObjectAnimator r3 = ObjectAnimator.ofFloat(v, View.ROTATION, 0f);
-        r1.setDuration(80);
-        r2.setDuration(80);
-        r3.setDuration(80);
-        r1.start();
-        v.postDelayed(r2::start, 90);
-        v.postDelayed(r3::start, 180);
-    }
-
-    private void shake(View v) {
-        ObjectAnimator r1 = ObjectAnimator.ofFloat(v, View.TRANSLATION_X, -dp(8));
-        ObjectAnimator r2 = ObjectAnimator.ofFloat(v, View.TRANSLATION_X, dp(8));
-        ObjectAnimator r3 = ObjectAnimator.ofFloat(v, View.TRANSLATION_X, 0);
-        r1.setDuration(70);
-        r2.setDuration(70);
-        r3.setDuration(70);
-        r1.start();
-        v.postDelayed(r2::start, 80);
-        v.postDelayed(r3::start, 160);
-    }
-
     // endregion
 
     // region Analytics end and lifecycle
@@ -491,22 +339,18 @@ public class FeedTheMonsterFragment extends Fragment {
     @Override
     public void onPause() {
         super.onPause();
-        if (bgMusic != null && bgMusic.isPlaying()) {
-            bgMusic.pause();
-        }
         endAnalyticsSession();
     }
 
     @Override
     public void onResume() {
         super.onResume();
-        if (bgMusic != null) {
-            bgMusic.start();
-        }
+        AudioEngine.getInstance(requireContext()).playMusic(R.raw.monster_music, 0.25f);
     }
 
     @Override
     public void onDestroyView() {
+        imgMonster.removeCallbacks(advanceRoundTask);
         endAnalyticsSession();
         super.onDestroyView();
         stopAudioTts();
@@ -517,25 +361,15 @@ public class FeedTheMonsterFragment extends Fragment {
     // region Audio and helpers
 
     private void speakPrompt(String text) {
-        speakInternal(text, TextToSpeech.QUEUE_FLUSH);
+        speech.speak(text);
     }
 
     private void speakNumber(String text) {
-        speakInternal(text, TextToSpeech.QUEUE_FLUSH);
+        speech.speak(text);
     }
 
     private void speakPraise(String text) {
-        speakInternal(text, TextToSpeech.QUEUE_ADD);
-    }
-
-    private void speakInternal(String text, int mode) {
-        if (tts == null) return;
-
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            tts.speak(text, mode, null, "feed_monster_tts");
-        } else {
-            tts.speak(text, mode, null);
-        }
+        speech.speakQueued(text);
     }
 
     private int dp(int value) {
@@ -544,20 +378,8 @@ public class FeedTheMonsterFragment extends Fragment {
     }
 
     private void stopAudioTts() {
-        if (bgMusic != null) {
-            try {
-                if (bgMusic.isPlaying()) bgMusic.stop();
-            } catch (Exception ignored) { }
-            bgMusic.release();
-            bgMusic = null;
-        }
-
-        if (tts != null) {
-            try {
-                tts.stop();
-            } catch (Exception ignored) { }
-            tts.shutdown();
-            tts = null;
+        if (speech != null) {
+            speech.stop();
         }
     }
 
@@ -0,0 +1,78 @@
+package com.example.brightbuds_app.ui.games;
+
+import android.view.View;
+import android.widget.ImageView;
+import android.widget.LinearLayout;
+
+/**
+ * Recycles the letter tiles of one row across rounds.
+ *
+ * Tiles stay attached to their container. A new round rebinds the first
+ * tiles it needs and hides the rest with GONE, instead of removing every
+ * view and inflating new ones. Tiles are only created when a word needs
+ * more than any earlier word did, so after the longest word has been shown
+ * a round allocates no views. Layout params are changed only when the tile
+ * size actually differs, which avoids a layout pass for every tile on every
+ * word.
+ *
+ * Main thread only.
+ */
+final class LetterTilePool {
+
+    /** Creates a tile and attaches its listeners. Called once per tile. */
+    interface TileFactory {
+        ImageView createTile();
+    }
+
+    private final LinearLayout container;
+    private final TileFactory factory;
+
+    LetterTilePool(LinearLayout container, TileFactory factory) {
+        this.container = container;
+        this.factory = factory;
+    }
+
+    /**
+     * Returns the tile at index, creating it if the row is not that long
+     * yet. The tile is visible, opaque and unfiltered, and has the given
+     * size and margins. The caller binds the image and tag.
+     */
+    ImageView obtain(int index, int sizePx, int marginHorizontalPx, int marginVerticalPx) {
+        ImageView tile;
+        if (index < container.getChildCount()) {
+            tile = (ImageView) container.getChildAt(index);
+        } else {
+            tile = factory.createTile();
+            container.addView(tile, new LinearLayout.LayoutParams(sizePx, sizePx));
+        }
+
+        LinearLayout.LayoutParams lp = (LinearLayout.LayoutParams) tile.getLayoutParams();
+        if (lp.width != sizePx
+                || lp.height != sizePx
+                || lp.leftMargin != marginHorizontalPx
+                || lp.rightMargin != marginHorizontalPx
+                || lp.topMargin != marginVerticalPx
+                || lp.bottomMargin != marginVerticalPx) {
+            lp.width = sizePx;
+            lp.height = sizePx;
+            lp.setMargins(marginHorizontalPx, marginVerticalPx,
+                    marginHorizontalPx, marginVerticalPx);
+            tile.setLayoutParams(lp);
+        }
+
+        tile.setVisibility(View.VISIBLE);
+        tile.setAlpha(1f);
+        tile.clearColorFilter();
+        return tile;
+    }
+
+    /** Hides every tile from index used onwards. */
+    void hideFrom(int used) {
+        for (int i = used; i < container.getChildCount(); i++) {
+            View tile = container.getChildAt(i);
+            if (tile.getVisibility() != View.GONE) {
+                tile.setVisibility(View.GONE);
+            }
+        }
+    }
+}
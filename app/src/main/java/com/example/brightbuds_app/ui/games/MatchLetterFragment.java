@@ -4,12 +4,9 @@ import android.animation.ObjectAnimator;
 import android.content.Context;
 import android.content.SharedPreferences;
 import android.graphics.Color; // <-- YOU ADDED THIS
-import android.media.MediaPlayer;
-import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.SystemClock;
-import android.speech.tts.TextToSpeech;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -27,7 +24,9 @@ import com.bumptech.glide.Glide;
 import com.example.brightbuds_app.R;
 import com.example.brightbuds_app.adapters.MatchLetterAdapter;
 import com.example.brightbuds_app.interfaces.DataCallbacks;
+import com.example.brightbuds_app.services.AudioEngine;
 import com.example.brightbuds_app.services.ProgressService;
+import com.example.brightbuds_app.services.SpeechService;
 import com.example.brightbuds_app.utils.AnalyticsSessionManager;
 import com.example.brightbuds_app.utils.Constants;
 import com.example.brightbuds_app.utils.CurrentChildManager;
@@ -36,7 +35,6 @@ import com.example.brightbuds_app.utils.ModuleIds;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
 import java.util.Random;
 
 /**
@@ -94,8 +92,7 @@ public class MatchLetterFragment extends Fragment implements MatchLetterAdapter.
     private long elapsedMs = 0L;
 
     // Audio
-    private MediaPlayer bgMusic;
-    private TextToSpeech tts;
+    private SpeechService speech;
 
     // Progress + child link
     private ProgressService progressService;
@@ -125,14 +122,8 @@ public class MatchLetterFragment extends Fragment implements MatchLetterAdapter.
         timesPlayed = sp.getInt(KEY_TIMES_PLAYED, 0) + 1;
         sp.edit().putInt(KEY_TIMES_PLAYED, timesPlayed).apply();
 
-        // Init TTS
-        tts = new TextToSpeech(context, status -> {
-            if (status == TextToSpeech.SUCCESS) {
-                tts.setLanguage(Locale.ENGLISH);
-                tts.setPitch(1.1f);
-                tts.setSpeechRate(0.95f);
-            }
-        });
+        // Shared text to speech, already bound by the app
+        speech = SpeechService.getInstance(context);
     }
 
     @Nullable
@@ -177,18 +168,6 @@ public class MatchLetterFragment extends Fragment implements MatchLetterAdapter.
         adapter = new MatchLetterAdapter(optionLetters, optionBackgrounds, this);
         rvOptions.setAdapter(adapter);
 
-        // Background music
-        try {
-            bgMusic = MediaPlayer.create(getContext(), R.raw.happy_children);
-            if (bgMusic != null) {
-                bgMusic.setLooping(true);
-                bgMusic.setVolume(0.4f, 0.4f);
-                bgMusic.start();
-            }
-        } catch (Exception ex) {
-            Log.e(TAG, "Error starting match letter bg music", ex);
-        }
-
         // Navigation exit
         View.OnClickListener exitClick = v -> {
             endAnalyticsSession();
@@ -379,12 +358,7 @@ public class MatchLetterFragment extends Fragment implements MatchLetterAdapter.
     }
 
     private void speak(String text) {
-        if (tts == null) return;
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            tts.speak(text, TextToSpeech.QUEUE_FLUSH, null, "match_letter_tts");
-        } else {
-            tts.speak(text, TextToSpeech.QUEUE_FLUSH, null);
-        }
+        speech.speak(text);
     }
 
     private void showHappyCharacter() {
@@ -426,23 +400,8 @@ public class MatchLetterFragment extends Fragment implements MatchLetterAdapter.
     }
 
     private void stopAudioAndTts() {
-        if (bgMusic != null) {
-            try {
-                if (bgMusic.isPlaying()) {
-                    bgMusic.stop();
-                }
-            } catch (Exception ignored) {
-            }
-            bgMusic.release();
-            bgMusic = null;
-        }
-        if (tts != null) {
-            try {
-                tts.stop();
-            } catch (Exception ignored) {
-            }
-            tts.shutdown();
-            tts = null;
+        if (speech != null) {
+            speech.stop();
         }
     }
 
@@ -479,18 +438,13 @@ public class MatchLetterFragment extends Fragment implements MatchLetterAdapter.
     public void onPause() {
         super.onPause();
         stopTimer();
-        if (bgMusic != null && bgMusic.isPlaying()) {
-            bgMusic.pause();
-        }
         endAnalyticsSession();
     }
 
     @Override
     public void onResume() {
         super.onResume();
-        if (bgMusic != null && !bgMusic.isPlaying()) {
-            bgMusic.start();
-        }
+        AudioEngine.getInstance(requireContext()).playMusic(R.raw.happy_children, 0.4f);
         if (!timerRunning) {
             sessionStartMs = SystemClock.elapsedRealtime() - elapsedMs;
             startTimer();
@@ -3,13 +3,9 @@ package com.example.brightbuds_app.ui.games;
 import android.animation.ObjectAnimator;
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.media.MediaPlayer;
-import android.media.SoundPool;
-import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.SystemClock;
-import android.speech.tts.TextToSpeech;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -27,7 +23,9 @@ import com.example.brightbuds_app.R;
 import com.example.brightbuds_app.adapters.MemoryMatchAdapter;
 import com.example.brightbuds_app.interfaces.DataCallbacks;
 import com.example.brightbuds_app.models.MemoryCard;
+import com.example.brightbuds_app.services.AudioEngine;
 import com.example.brightbuds_app.services.ProgressService;
+import com.example.brightbuds_app.services.SpeechService;
 import com.example.brightbuds_app.utils.AnalyticsSessionManager;
 import com.example.brightbuds_app.utils.Constants;
 import com.example.brightbuds_app.utils.CurrentChildManager;
@@ -36,7 +34,6 @@ import com.example.brightbuds_app.utils.ModuleIds;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.Locale;
 
 public class MemoryMatchFragment extends Fragment implements MemoryMatchAdapter.OnCardClickListener {
 
@@ -80,16 +77,12 @@ public class MemoryMatchFragment extends Fragment implements MemoryMatchAdapter.
     private long totalTimeMs;
     private int totalGames;
 
-    private MediaPlayer bgMusicPlayer;
-    private SoundPool soundPool;
-    private int soundCorrectId;
-    private int soundWrongId;
-    private int flipSoundId;
+    private AudioEngine audio;
 
     private ProgressService progressService;
     private String selectedChildId;
 
-    private TextToSpeech tts;
+    private SpeechService speech;
 
     // Analytics
     private AnalyticsSessionManager analyticsManager;
@@ -149,11 +142,10 @@ public class MemoryMatchFragment extends Fragment implements MemoryMatchAdapter.
         analyticsSaved = false;
 
         setupCards();
-        initSounds();
-        startBackgroundMusic();
+        audio = AudioEngine.getInstance(requireContext());
         initTextToSpeech();
 
-        adapter = new MemoryMatchAdapter(cards, this, soundPool, flipSoundId);
+        adapter = new MemoryMatchAdapter(cards, this, audio);
         recyclerView.setAdapter(adapter);
 
         sessionStartMs = SystemClock.elapsedRealtime();
@@ -208,34 +200,8 @@ public class MemoryMatchFragment extends Fragment implements MemoryMatchAdapter.
         cards.addAll(tempCards);
     }
 
-    private void initSounds() {
-        soundPool = new SoundPool.Builder().setMaxStreams(3).build();
-        soundCorrectId = soundPool.load(getContext(), R.raw.memory_correct, 1);
-        soundWrongId = soundPool.load(getContext(), R.raw.memory_wrong, 1);
-        flipSoundId = soundPool.load(getContext(), R.raw.card_flip, 1);
-    }
-
-    private void startBackgroundMusic() {
-        try {
-            bgMusicPlayer = MediaPlayer.create(getContext(), R.raw.memory_match_bg);
-            if (bgMusicPlayer != null) {
-                bgMusicPlayer.setLooping(true);
-                bgMusicPlayer.setVolume(0.4f, 0.4f);
-                bgMusicPlayer.start();
-            }
-        } catch (Exception ex) {
-            Log.e(TAG, "Error starting memory bg music", ex);
-        }
-    }
-
     private void initTextToSpeech() {
-        tts = new TextToSpeech(requireContext(), status -> {
-            if (status == TextToSpeech.SUCCESS) {
-                tts.setLanguage(Locale.ENGLISH);
-                tts.setPitch(1.1f);
-                tts.setSpeechRate(0.95f);
-            }
-        });
+        speech = SpeechService.getInstance(requireContext());
     }
 
     // endregion
@@ -336,15 +302,11 @@ public class MemoryMatchFragment extends Fragment implements MemoryMatchAdapter.
     }
 
     private void playCorrectSound() {
-        if (soundPool != null) {
-            soundPool.play(soundCorrectId, 1f, 1f, 1, 0, 1f);
-        }
+        audio.playEffect(R.raw.memory_correct);
     }
 
     private void playWrongSound() {
-        if (soundPool != null) {
-            soundPool.play(soundWrongId, 1f, 1f, 1, 0, 1f);
-        }
+        audio.playEffect(R.raw.memory_wrong);
     }
 
     private void showHintForPair() {
@@ -501,22 +463,11 @@ public class MemoryMatchFragment extends Fragment implements MemoryMatchAdapter.
     // region Text to speech
 
     private void speakPrompt(String text) {
-        speakInternal(text, TextToSpeech.QUEUE_FLUSH);
+        speech.speak(text);
     }
 
     private void speakPositive(String text) {
-        speakInternal(text, TextToSpeech.QUEUE_ADD);
-    }
-
-    private void speakInternal(String text, int queueMode) {
-        if (tts == null) {
-            return;
-        }
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            tts.speak(text, queueMode, null, "memory_match_tts");
-        } else {
-            tts.speak(text, queueMode, null);
-        }
+        speech.speakQueued(text);
     }
 
     // endregion
@@ -589,18 +540,13 @@ public class MemoryMatchFragment extends Fragment implements MemoryMatchAdapter.
     public void onPause() {
         super.onPause();
         stopTimer();
-        if (bgMusicPlayer != null && bgMusicPlayer.isPlaying()) {
-            bgMusicPlayer.pause();
-        }
         endAnalyticsSession(matchesFound == totalPairs);
     }
 
     @Override
     public void onResume() {
         super.onResume();
-        if (bgMusicPlayer != null && !bgMusicPlayer.isPlaying()) {
-            bgMusicPlayer.start();
-        }
+        AudioEngine.getInstance(requireContext()).playMusic(R.raw.memory_match_bg, 0.4f);
         if (!timerRunning && matchesFound < totalPairs) {
             sessionStartMs = SystemClock.elapsedRealtime() - elapsedMs;
             startTimer();
@@ -613,25 +559,8 @@ public class MemoryMatchFragment extends Fragment implements MemoryMatchAdapter.
         stopTimer();
         endAnalyticsSession(matchesFound == totalPairs);
 
-        if (bgMusicPlayer != null) {
-            try {
-                if (bgMusicPlayer.isPlaying()) bgMusicPlayer.stop();
-            } catch (Exception ignored) { }
-            bgMusicPlayer.release();
-            bgMusicPlayer = null;
-        }
-
-        if (soundPool != null) {
-            soundPool.release();
-            soundPool = null;
-        }
-
-        if (tts != null) {
-            try {
-                tts.stop();
-            } catch (Exception ignored) { }
-            tts.shutdown();
-            tts = null;
+        if (speech != null) {
+            speech.stop();
         }
     }
 
@@ -4,11 +4,9 @@ import android.content.ClipData;
 import android.content.ClipDescription;
 import android.graphics.Color;
 import android.graphics.PorterDuff;
-import android.media.MediaPlayer;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.SystemClock;
-import android.speech.tts.TextToSpeech;
 import android.util.Log;
 import android.view.DragEvent;
 import android.view.LayoutInflater;
@@ -26,11 +24,14 @@ import androidx.fragment.app.Fragment;
 
 import com.example.brightbuds_app.R;
 import com.example.brightbuds_app.interfaces.DataCallbacks;
+import com.example.brightbuds_app.services.AudioEngine;
 import com.example.brightbuds_app.services.ProgressService;
+import com.example.brightbuds_app.services.SpeechService;
 import com.example.brightbuds_app.utils.AnalyticsSessionManager;
 
 import com.example.brightbuds_app.models.ChildProfile;
 import com.example.brightbuds_app.services.ChildProfileDAO;
+import com.example.brightbuds_app.utils.DrawableRegistry;
 
 
 import java.util.ArrayList;
@@ -62,13 +63,15 @@ public class WordBuilderFragment extends Fragment implements
     private ImageButton btnHomeIcon;
     private ImageButton btnCloseIcon;
 
+    // Tiles are reused across words; see LetterTilePool
+    private LetterTilePool slotPool;
+    private LetterTilePool trayTopPool;
+    private LetterTilePool trayBottomPool;
+
 
     // Audio
-    private MediaPlayer bgMusic;
-    private MediaPlayer correctSound;
-    private MediaPlayer wrongSound;
-    private MediaPlayer clapSound;
-    private TextToSpeech tts;
+    private AudioEngine audio;
+    private SpeechService speech;
 
     // Game data
     private final List<String> wordPool = new ArrayList<>();
@@ -127,9 +130,9 @@ public class WordBuilderFragment extends Fragment implements
             moduleIdWordBuilder = args.getString("module_id");
         }
 
-        loadWordsForChild();
         setupAudio();
         setupTts();
+        loadWordsForChild();
 
         sessionStartMs = SystemClock.elapsedRealtime();
 
@@ -169,6 +172,21 @@ public class WordBuilderFragment extends Fragment implements
             tvChildName.setText(childName);
         }
 
+        slotPool = new LetterTilePool(targetSlotsContainer, () -> {
+            ImageView slot = new ImageView(requireContext());
+            slot.setOnDragListener(this);
+            return slot;
+        });
+        LetterTilePool.TileFactory trayTileFactory = () -> {
+            ImageView tile = new ImageView(requireContext());
+            tile.setOnTouchListener(this);
+            return tile;
+        };
+        trayTopPool = draggableRowTop != null
+                ? new LetterTilePool(draggableRowTop, trayTileFactory) : null;
+        trayBottomPool = draggableRowBottom != null
+                ? new LetterTilePool(draggableRowBottom, trayTileFactory) : null;
+
         btnReplay.setOnClickListener(v -> speakWordOnly());
 
         View.OnClickListener exitListener = v -> {
@@ -183,21 +201,9 @@ public class WordBuilderFragment extends Fragment implements
         return view;
     }
 
-    @Override
-    public void onResume() {
-        super.onResume();
-        if (bgMusic != null) {
-            bgMusic.setLooping(true);
-            bgMusic.start();
-        }
-    }
-
     @Override
     public void onPause() {
         super.onPause();
-        if (bgMusic != null && bgMusic.isPlaying()) {
-            bgMusic.pause();
-        }
         saveSessionMetricsIfNeeded();
     }
 
@@ -205,29 +211,20 @@ public class WordBuilderFragment extends Fragment implements
     public void onDestroy() {
         super.onDestroy();
         saveSessionMetricsIfNeeded();
-        releaseAudio();
-        if (tts != null) {
-            tts.stop();
-            tts.shutdown();
+        if (speech != null) {
+            speech.stop();
         }
     }
 
     // Setup
 
     private void setupAudio() {
-        // Background music removed (no looped music)
-        bgMusic = null;
-        correctSound = MediaPlayer.create(requireContext(), R.raw.memory_correct);
-        wrongSound = MediaPlayer.create(requireContext(), R.raw.memory_wrong);
-        clapSound = MediaPlayer.create(requireContext(), R.raw.clap_sound);
+        // No looped music here; effects come from the shared sound pool
+        audio = AudioEngine.getInstance(requireContext());
     }
 
     private void setupTts() {
-        tts = new TextToSpeech(requireContext(), status -> {
-            if (status == TextToSpeech.SUCCESS) {
-                tts.setLanguage(Locale.US);
-            }
-        });
+        speech = SpeechService.getInstance(requireContext());
     }
 
     private void loadWordsForChild() {
@@ -276,6 +273,9 @@ public class WordBuilderFragment extends Fragment implements
         wordPool.clear();
         wordPool.addAll(parentWords);
         wordPool.addAll(defaultWords);
+
+        // Cache the words as clips so each round starts speaking at once
+        speech.prepare(wordPool);
     }
 
     private boolean isEmpty(String s) {
@@ -318,13 +318,14 @@ public class WordBuilderFragment extends Fragment implements
     }
 
     private void buildBoardForCurrentWord() {
-        targetSlotsContainer.removeAllViews();
-        if (draggableRowTop != null) draggableRowTop.removeAllViews();
-        if (draggableRowBottom != null) draggableRowBottom.removeAllViews();
-
         // ----- DYNAMIC SLOT SIZE CALCULATION -----
         int letterCount = targetLetters.size();          // e.g. 3..8
-        if (letterCount == 0) return;
+        if (letterCount == 0) {
+            slotPool.hideFrom(0);
+            if (trayTopPool != null) trayTopPool.hideFrom(0);
+            if (trayBottomPool != null) trayBottomPool.hideFrom(0);
+            return;
+        }
 
         // Full screen width in pixels
         int screenWidthPx = requireContext()
@@ -355,11 +356,7 @@ public class WordBuilderFragment extends Fragment implements
 
         // ----- CREATE GREY TARGET SLOTS -----
         for (int i = 0; i < targetLetters.size(); i++) {
-            ImageView slot = new ImageView(requireContext());
-            LinearLayout.LayoutParams lp =
-                    new LinearLayout.LayoutParams(slotSizePx, slotSizePx);
-            lp.setMargins(slotSideMarginPx, 0, slotSideMarginPx, 0);
-            slot.setLayoutParams(lp);
+            ImageView slot = slotPool.obtain(i, slotSizePx, slotSideMarginPx, 0);
 
             char letter = targetLetters.get(i);
             int resId = getLetterDrawable(letter);
@@ -369,9 +366,8 @@ public class WordBuilderFragment extends Fragment implements
                     PorterDuff.Mode.SRC_ATOP
             );
             slot.setTag(i);
-            slot.setOnDragListener(this);
-            targetSlotsContainer.addView(slot);
         }
+        slotPool.hideFrom(targetLetters.size());
 
         // ----- BUILD TRAY LETTERS -----
         List<Character> trayLetters = new ArrayList<>(targetLetters);
@@ -388,36 +384,35 @@ public class WordBuilderFragment extends Fragment implements
 
         Collections.shuffle(trayLetters);
 
+        int tileSizePx = dpToPx(60);
+        int tileMarginPx = dpToPx(4);
+        int topCount = 0;
+        int bottomCount = 0;
+
         for (int i = 0; i < trayLetters.size(); i++) {
             char letter = trayLetters.get(i);
 
-            ImageView tile = new ImageView(requireContext());
-            LinearLayout.LayoutParams lp =
-                    new LinearLayout.LayoutParams(dpToPx(60), dpToPx(60));
-            lp.setMargins(dpToPx(4), dpToPx(4), dpToPx(4), dpToPx(4));
-            tile.setLayoutParams(lp);
+            ImageView tile;
+            if (i < 4 && trayTopPool != null) {
+                tile = trayTopPool.obtain(topCount++, tileSizePx, tileMarginPx, tileMarginPx);
+            } else if (trayBottomPool != null) {
+                tile = trayBottomPool.obtain(bottomCount++, tileSizePx, tileMarginPx, tileMarginPx);
+            } else {
+                continue;
+            }
 
             int resId = getLetterDrawable(letter);
             tile.setImageResource(resId);
             tile.setTag(letter);
-            tile.setOnTouchListener(this);
-
-            if (i < 4 && draggableRowTop != null) {
-                draggableRowTop.addView(tile);
-            } else if (draggableRowBottom != null) {
-                draggableRowBottom.addView(tile);
-            }
         }
+
+        if (trayTopPool != null) trayTopPool.hideFrom(topCount);
+        if (trayBottomPool != null) trayBottomPool.hideFrom(bottomCount);
     }
 
 
     private int getLetterDrawable(char letter) {
-        String resName = "letter_" + Character.toLowerCase(letter);
-        return getResources().getIdentifier(
-                resName,
-                "drawable",
-                requireContext().getPackageName()
-        );
+        return DrawableRegistry.letter(letter);
     }
 
     private int dpToPx(int dp) {
@@ -511,9 +506,7 @@ public class WordBuilderFragment extends Fragment implements
             defaultCorrectLetters++;
         }
 
-        if (correctSound != null) {
-            correctSound.start();
-        }
+        audio.playEffect(R.raw.memory_correct);
 
         int resId = getLetterDrawable(letter);
         slot.setImageResource(resId);
@@ -530,9 +523,7 @@ public class WordBuilderFragment extends Fragment implements
     }
 
     private void onWrongLetterDrop(ImageView tile) {
-        if (wrongSound != null) {
-            wrongSound.start();
-        }
+        audio.playEffect(R.raw.memory_wrong);
         updateStatsLabel();
     }
 
@@ -540,9 +531,7 @@ public class WordBuilderFragment extends Fragment implements
         long roundTime = SystemClock.elapsedRealtime() - roundStartTime;
         Log.d(TAG, "Word " + currentWord + " completed in " + roundTime + " ms");
 
-        if (clapSound != null) {
-            clapSound.start();
-        }
+        audio.playEffect(R.raw.clap_sound);
 
         // Say full word when completed
         speakWordOnly();
@@ -653,55 +642,16 @@ public class WordBuilderFragment extends Fragment implements
     // TTS helpers
 
     private void speakWordOnly() {
-        if (tts != null && currentWord != null) {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                tts.speak(currentWord, TextToSpeech.QUEUE_FLUSH, null, "WB_WORD");
-            } else {
-                tts.speak(currentWord, TextToSpeech.QUEUE_FLUSH, null);
-            }
+        if (currentWord != null) {
+            speech.speak(currentWord);
         }
     }
 
     private void speakLetter(char letter) {
-        if (tts == null) return;
-        String text = String.valueOf(letter);
-        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-            tts.speak(text, TextToSpeech.QUEUE_FLUSH, null, "WB_LETTER");
-        } else {
-            tts.speak(text, TextToSpeech.QUEUE_FLUSH, null);
-        }
+        speech.speak(String.valueOf(letter));
     }
 
     private void speakInstruction(String text) {
-        if (tts != null) {
-            if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
-                tts.speak(text, TextToSpeech.QUEUE_ADD, null, "WB_TTS");
-            } else {
-                tts.speak(text, TextToSpeech.QUEUE_ADD, null);
-            }
-        }
-    }
-
-    private void releaseAudio() {
-        try {
-            if (bgMusic != null) {
-                bgMusic.release();
-                bgMusic = null;
-            }
-            if (correctSound != null) {
-                correctSound.release();
-                correctSound = null;
-            }
-            if (wrongSound != null) {
-                wrongSound.release();
-                wrongSound = null;
-            }
-            if (clapSound != null) {
-                clapSound.release();
-                clapSound = null;
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error releasing audio", e);
-        }
+        speech.speakQueued(text);
     }
 }
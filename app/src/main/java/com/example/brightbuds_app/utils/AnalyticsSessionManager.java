@@ -33,7 +33,7 @@ public class AnalyticsSessionManager {
         this.appContext = context.getApplicationContext();
         this.childId = childId;
         this.moduleId = moduleId;
-        this.localDb = new DatabaseHelper(appContext);
+        this.localDb = DatabaseHelper.getInstance(appContext);
     }
 
     /**
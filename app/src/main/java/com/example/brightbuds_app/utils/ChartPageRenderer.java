@@ -0,0 +1,160 @@
+package com.example.brightbuds_app.utils;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Picture;
+import android.view.View;
+import android.view.ViewGroup;
+
+import com.github.mikephil.charting.charts.BarChart;
+import com.github.mikephil.charting.charts.Chart;
+import com.github.mikephil.charting.charts.RadarChart;
+import com.github.mikephil.charting.components.Legend;
+import com.github.mikephil.charting.components.XAxis;
+import com.github.mikephil.charting.components.YAxis;
+import com.github.mikephil.charting.data.BarData;
+import com.github.mikephil.charting.data.RadarData;
+import com.github.mikephil.charting.formatter.IndexAxisValueFormatter;
+
+import java.util.List;
+
+/**
+ * Draws report charts onto a target canvas without a window.
+ *
+ * One BarChart and one RadarChart are created, configured and laid out
+ * once at the requested size, then reused for every chart by swapping
+ * their data. Each chart is recorded into a Picture and played back onto
+ * the target canvas, so a PDF page gets vector output and no intermediate
+ * bitmap is allocated.
+ *
+ * Not thread safe. Use one instance per render thread. MPAndroidChart's
+ * Utils measures text with static scratch objects, so instances on
+ * different threads take a shared lock while they compute and record a
+ * chart. Recording only captures drawing commands and is cheap. Playback
+ * onto the page, where the PDF canvas converts paths and text, happens
+ * outside the lock and runs in parallel with other threads.
+ */
+public final class ChartPageRenderer {
+
+    private static final Object DRAW_LOCK = new Object();
+
+    private final int width;
+    private final int height;
+    private final BarChart barChart;
+    private final RadarChart radarChart;
+
+    public ChartPageRenderer(Context context, int width, int height) {
+        this.width = width;
+        this.height = height;
+
+        synchronized (DRAW_LOCK) {
+            barChart = new BarChart(context);
+            configureBarChart(barChart);
+            layout(barChart);
+
+            radarChart = new RadarChart(context);
+            configureRadarChart(radarChart);
+            layout(radarChart);
+        }
+    }
+
+    public int getWidth() { return width; }
+
+    public int getHeight() { return height; }
+
+    /** Draws a bar chart with the given x labels with its top left corner at (left, top). */
+    public void drawBarChart(Canvas canvas, float left, float top,
+                             BarData data, List<String> xLabels) {
+        Picture picture;
+        synchronized (DRAW_LOCK) {
+            barChart.getXAxis().setValueFormatter(new IndexAxisValueFormatter(xLabels));
+            barChart.setData(data);
+            picture = record(barChart);
+        }
+        drawAt(picture, canvas, left, top);
+    }
+
+    /** Draws a radar chart with the given axis labels with its top left corner at (left, top). */
+    public void drawRadarChart(Canvas canvas, float left, float top,
+                               RadarData data, String[] axisLabels) {
+        Picture picture;
+        synchronized (DRAW_LOCK) {
+            radarChart.getXAxis().setValueFormatter(new IndexAxisValueFormatter(axisLabels));
+            radarChart.setData(data);
+            picture = record(radarChart);
+        }
+        drawAt(picture, canvas, left, top);
+    }
+
+    // Caller holds DRAW_LOCK
+    private Picture record(Chart<?> chart) {
+        Picture picture = new Picture();
+        Canvas recording = picture.beginRecording(width, height);
+        try {
+            chart.draw(recording);
+        } finally {
+            picture.endRecording();
+        }
+        return picture;
+    }
+
+    private void drawAt(Picture picture, Canvas canvas, float left, float top) {
+        int save = canvas.save();
+        try {
+            canvas.translate(left, top);
+            canvas.clipRect(0, 0, width, height);
+            canvas.drawPicture(picture);
+        } finally {
+            canvas.restoreToCount(save);
+        }
+    }
+
+    private void layout(View chart) {
+        chart.setLayoutParams(new ViewGroup.LayoutParams(width, height));
+        int widthSpec = View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY);
+        int heightSpec = View.MeasureSpec.makeMeasureSpec(height, View.MeasureSpec.EXACTLY);
+        chart.measure(widthSpec, heightSpec);
+        chart.layout(0, 0, width, height);
+    }
+
+    private static void configureBarChart(BarChart chart) {
+        chart.getDescription().setEnabled(false);
+        chart.setDrawGridBackground(false);
+        chart.setTouchEnabled(false);
+        chart.setNoDataText("No data");
+        chart.getAxisRight().setEnabled(false);
+
+        XAxis xAxis = chart.getXAxis();
+        xAxis.setPosition(XAxis.XAxisPosition.BOTTOM);
+        xAxis.setGranularity(1f);
+        xAxis.setDrawGridLines(false);
+        xAxis.setTextColor(Color.WHITE);
+
+        YAxis left = chart.getAxisLeft();
+        left.setTextColor(Color.WHITE);
+        left.setAxisMinimum(0f);
+
+        Legend legend = chart.getLegend();
+        legend.setTextColor(Color.WHITE);
+    }
+
+    private static void configureRadarChart(RadarChart radar) {
+        radar.getDescription().setEnabled(false);
+        radar.setDrawWeb(true);
+        radar.setWebLineWidth(0.5f);
+        radar.setWebColor(Color.LTGRAY);
+        radar.setWebLineWidthInner(0.4f);
+        radar.setWebColorInner(Color.LTGRAY);
+        radar.setWebAlpha(120);
+        radar.setTouchEnabled(false);
+
+        radar.getYAxis().setAxisMinimum(0f);
+        radar.getYAxis().setAxisMaximum(100f);
+        radar.getYAxis().setTextColor(Color.WHITE);
+        radar.getXAxis().setTextColor(Color.WHITE);
+
+        Legend legend = radar.getLegend();
+        legend.setTextColor(Color.WHITE);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.brightbuds_app.utils;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.Nullable;
+
+import com.example.brightbuds_app.R;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Direct lookup of the game and avatar drawables.
+ *
+ * Letters, numbers and avatar keys map straight to R.drawable ids through
+ * arrays and one map built when the class loads. Games and profile screens
+ * use these instead of Resources.getIdentifier, which builds a name string
+ * and does a reflective lookup on every call.
+ *
+ * When a drawable is added under one of these names, add it here as well.
+ */
+public final class DrawableRegistry {
+
+    /** Avatar key stored for profiles without a chosen avatar. */
+    public static final String AVATAR_PLACEHOLDER_KEY = "ic_child_avatar_placeholder";
+
+    public static final int MIN_NUMBER = 1;
+    public static final int MAX_NUMBER = 10;
+
+    // Index 0 is 'a'
+    private static final int[] LETTERS = {
+            R.drawable.letter_a, R.drawable.letter_b, R.drawable.letter_c,
+            R.drawable.letter_d, R.drawable.letter_e, R.drawable.letter_f,
+            R.drawable.letter_g, R.drawable.letter_h, R.drawable.letter_i,
+            R.drawable.letter_j, R.drawable.letter_k, R.drawable.letter_l,
+            R.drawable.letter_m, R.drawable.letter_n, R.drawable.letter_o,
+            R.drawable.letter_p, R.drawable.letter_q, R.drawable.letter_r,
+            R.drawable.letter_s, R.drawable.letter_t, R.drawable.letter_u,
+            R.drawable.letter_v, R.drawable.letter_w, R.drawable.letter_x,
+            R.drawable.letter_y, R.drawable.letter_z
+    };
+
+    // Index 0 is MIN_NUMBER
+    private static final int[] NUMBERS = {
+            R.drawable.number_1, R.drawable.number_2, R.drawable.number_3,
+            R.drawable.number_4, R.drawable.number_5, R.drawable.number_6,
+            R.drawable.number_7, R.drawable.number_8, R.drawable.number_9,
+            R.drawable.number_10
+    };
+
+    // Avatars offered in the avatar picker, in display order
+    private static final int[] AVATARS = {
+            R.drawable.avatar_1, R.drawable.avatar_2, R.drawable.avatar_3,
+            R.drawable.avatar_4, R.drawable.avatar_5, R.drawable.avatar_6
+    };
+
+    private static final Map<String, Integer> AVATAR_BY_KEY = new HashMap<>();
+    private static final Map<Integer, String> KEY_BY_AVATAR = new HashMap<>();
+
+    static {
+        for (int i = 0; i < AVATARS.length; i++) {
+            putAvatar("avatar_" + (i + 1), AVATARS[i]);
+        }
+        putAvatar(AVATAR_PLACEHOLDER_KEY, R.drawable.ic_child_avatar_placeholder);
+        putAvatar("ic_child_placeholder", R.drawable.ic_child_placeholder);
+        putAvatar("ic_child_avatar", R.drawable.ic_child_avatar);
+        putAvatar("ic_default_avatar", R.drawable.ic_default_avatar);
+    }
+
+    private DrawableRegistry() { }
+
+    /** Letter tile for a to z in either case, or 0 for any other character. */
+    @DrawableRes
+    public static int letter(char c) {
+        char lower = Character.toLowerCase(c);
+        if (lower < 'a' || lower > 'z') {
+            return 0;
+        }
+        return LETTERS[lower - 'a'];
+    }
+
+    /** Number image for MIN_NUMBER to MAX_NUMBER, or 0 outside that range. */
+    @DrawableRes
+    public static int number(int n) {
+        if (n < MIN_NUMBER || n > MAX_NUMBER) {
+            return 0;
+        }
+        return NUMBERS[n - MIN_NUMBER];
+    }
+
+    /** Avatar drawable for a stored avatar key, or fallback if the key is empty or unknown. */
+    @DrawableRes
+    public static int avatar(@Nullable String avatarKey, @DrawableRes int fallback) {
+        if (avatarKey == null) {
+            return fallback;
+        }
+        Integer resId = AVATAR_BY_KEY.get(avatarKey.trim());
+        return resId != null ? resId : fallback;
+    }
+
+    /** Avatar key stored for a drawable, or the placeholder key if it is not an avatar. */
+    public static String avatarKey(@DrawableRes int resId) {
+        String key = KEY_BY_AVATAR.get(resId);
+        return key != null ? key : AVATAR_PLACEHOLDER_KEY;
+    }
+
+    /** Copy of the avatars offered in the avatar picker. */
+    public static int[] avatarChoices() {
+        return AVATARS.clone();
+    }
+
+    private static void putAvatar(String key, @DrawableRes int resId) {
+        AVATAR_BY_KEY.put(key, resId);
+        KEY_BY_AVATAR.put(resId, key);
+    }
+}
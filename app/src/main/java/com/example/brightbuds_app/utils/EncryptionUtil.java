@@ -6,7 +6,11 @@ import android.util.Log;
 import com.example.brightbuds_app.BuildConfig;
 
 import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.SecretKeyFactory;
@@ -22,44 +26,78 @@ import javax.crypto.spec.SecretKeySpec;
  *
  * The secret key is read from an environment variable `BRIGHTBUDS_KEY`
  * so that no sensitive keys are hardcoded in source control.
+ *
+ * PBKDF2 is slow on purpose, so the key is derived once per process and
+ * kept in memory until clearKey is called on logout. Each thread reuses
+ * its own Cipher instead of looking one up for every value.
  */
 public class EncryptionUtil {
 
     private static final String TAG = "EncryptionUtil";
     private static final String AES_MODE = "AES/CBC/PKCS5Padding";
     private static final String SALT = "brightbuds_salt_value"; // non-sensitive static salt
+    private static final int KEY_ITERATIONS = 65536;
+    private static final int KEY_BITS = 256;
+    private static final int IV_BYTES = 16;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Derived on first use, dropped on logout
+    private static volatile SecretKeySpec cachedKey;
+
+    // Cipher is not thread safe, so each thread gets its own
+    private static final ThreadLocal<Cipher> CIPHER = new ThreadLocal<Cipher>() {
+        @Override
+        protected Cipher initialValue() {
+            try {
+                return Cipher.getInstance(AES_MODE);
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("AES cipher unavailable", e);
+            }
+        }
+    };
 
     /** Derive AES key from passphrase */
-    private static SecretKeySpec generateKey() throws Exception {
+    private static SecretKeySpec deriveKey() throws GeneralSecurityException {
         String keyString = BuildConfig.BRIGHTBUDS_KEY;
         if (keyString == null || keyString.isEmpty()) {
             throw new IllegalStateException("Missing BRIGHTBUDS_KEY environment variable");
         }
 
         SecretKeyFactory factory = SecretKeyFactory.getInstance("PBKDF2WithHmacSHA256");
-        PBEKeySpec spec = new PBEKeySpec(keyString.toCharArray(), SALT.getBytes(StandardCharsets.UTF_8), 65536, 256);
-        SecretKey tmp = factory.generateSecret(spec);
-        return new SecretKeySpec(tmp.getEncoded(), "AES");
+        PBEKeySpec spec = new PBEKeySpec(keyString.toCharArray(),
+                SALT.getBytes(StandardCharsets.UTF_8), KEY_ITERATIONS, KEY_BITS);
+        try {
+            SecretKey tmp = factory.generateSecret(spec);
+            return new SecretKeySpec(tmp.getEncoded(), "AES");
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private static SecretKeySpec key() throws GeneralSecurityException {
+        SecretKeySpec key = cachedKey;
+        if (key == null) {
+            synchronized (EncryptionUtil.class) {
+                key = cachedKey;
+                if (key == null) {
+                    key = deriveKey();
+                    cachedKey = key;
+                }
+            }
+        }
+        return key;
+    }
+
+    /** Forgets the derived key. The next call derives it again. */
+    public static void clearKey() {
+        cachedKey = null;
     }
 
     public static String encrypt(String data) {
         if (data == null) return "";
         try {
-            Cipher cipher = Cipher.getInstance(AES_MODE);
-            SecretKeySpec key = generateKey();
-
-            byte[] iv = new byte[16];
-            new SecureRandom().nextBytes(iv);
-            IvParameterSpec ivSpec = new IvParameterSpec(iv);
-
-            cipher.init(Cipher.ENCRYPT_MODE, key, ivSpec);
-            byte[] encrypted = cipher.doFinal(data.getBytes(StandardCharsets.UTF_8));
-
-            byte[] combined = new byte[iv.length + encrypted.length];
-            System.arraycopy(iv, 0, combined, 0, iv.length);
-            System.arraycopy(encrypted, 0, combined, iv.length, encrypted.length);
-
-            return Base64.encodeToString(combined, Base64.DEFAULT);
+            return encryptWith(CIPHER.get(), key(), data);
         } catch (Exception e) {
             Log.e(TAG, "❌ Encryption failed: " + e.getMessage());
             return "";
@@ -69,23 +107,91 @@ public class EncryptionUtil {
     public static String decrypt(String base64Data) {
         if (base64Data == null || base64Data.trim().isEmpty()) return "";
         try {
-            byte[] combined = Base64.decode(base64Data, Base64.DEFAULT);
-            if (combined.length < 17) return "";
-
-            byte[] iv = new byte[16];
-            byte[] encrypted = new byte[combined.length - 16];
-            System.arraycopy(combined, 0, iv, 0, 16);
-            System.arraycopy(combined, 16, encrypted, 0, encrypted.length);
+            return decryptWith(CIPHER.get(), key(), base64Data);
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Decryption failed: " + e.getMessage());
+            return "";
+        }
+    }
 
-            Cipher cipher = Cipher.getInstance(AES_MODE);
-            SecretKeySpec key = generateKey();
-            cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(iv));
+    /** Encrypts each value in order. Values that fail come back as "". */
+    public static List<String> encryptAll(List<String> values) {
+        List<String> out = new ArrayList<>(values.size());
+        Cipher cipher;
+        SecretKeySpec key;
+        try {
+            cipher = CIPHER.get();
+            key = key();
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Encryption failed: " + e.getMessage());
+            for (int i = 0; i < values.size(); i++) out.add("");
+            return out;
+        }
+        for (String value : values) {
+            if (value == null) {
+                out.add("");
+                continue;
+            }
+            try {
+                out.add(encryptWith(cipher, key, value));
+            } catch (Exception e) {
+                Log.e(TAG, "❌ Encryption failed: " + e.getMessage());
+                out.add("");
+            }
+        }
+        return out;
+    }
 
-            byte[] decrypted = cipher.doFinal(encrypted);
-            return new String(decrypted, StandardCharsets.UTF_8);
+    /** Decrypts each value in order. Values that fail come back as "". */
+    public static List<String> decryptAll(List<String> values) {
+        List<String> out = new ArrayList<>(values.size());
+        Cipher cipher;
+        SecretKeySpec key;
+        try {
+            cipher = CIPHER.get();
+            key = key();
         } catch (Exception e) {
             Log.e(TAG, "❌ Decryption failed: " + e.getMessage());
-            return "";
+            for (int i = 0; i < values.size(); i++) out.add("");
+            return out;
         }
+        for (String value : values) {
+            if (value == null || value.trim().isEmpty()) {
+                out.add("");
+                continue;
+            }
+            try {
+                out.add(decryptWith(cipher, key, value));
+            } catch (Exception e) {
+                Log.e(TAG, "❌ Decryption failed: " + e.getMessage());
+                out.add("");
+            }
+        }
+        return out;
+    }
+
+    private static String encryptWith(Cipher cipher, SecretKeySpec key, String data)
+            throws GeneralSecurityException {
+        byte[] iv = new byte[IV_BYTES];
+        RANDOM.nextBytes(iv);
+
+        cipher.init(Cipher.ENCRYPT_MODE, key, new IvParameterSpec(iv));
+        byte[] encrypted = cipher.doFinal(data.getBytes(StandardCharsets.UTF_8));
+
+        byte[] combined = new byte[iv.length + encrypted.length];
+        System.arraycopy(iv, 0, combined, 0, iv.length);
+        System.arraycopy(encrypted, 0, combined, iv.length, encrypted.length);
+
+        return Base64.encodeToString(combined, Base64.DEFAULT);
+    }
+
+    private static String decryptWith(Cipher cipher, SecretKeySpec key, String base64Data)
+            throws GeneralSecurityException {
+        byte[] combined = Base64.decode(base64Data, Base64.DEFAULT);
+        if (combined.length < IV_BYTES + 1) return "";
+
+        cipher.init(Cipher.DECRYPT_MODE, key, new IvParameterSpec(combined, 0, IV_BYTES));
+        byte[] decrypted = cipher.doFinal(combined, IV_BYTES, combined.length - IV_BYTES);
+        return new String(decrypted, StandardCharsets.UTF_8);
     }
 }
@@ -0,0 +1,143 @@
+package com.example.brightbuds_app.utils;
+
+import android.content.ComponentCallbacks2;
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.util.Log;
+
+import androidx.annotation.DrawableRes;
+import androidx.annotation.Nullable;
+
+import com.example.brightbuds_app.R;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Decode once cache for report page artwork.
+ *
+ * The page background and the logo are decoded with a sample size close to
+ * the target, scaled once to the exact size and kept as immutable bitmaps
+ * keyed by resource and size. Later exports reuse them instead of decoding
+ * the full resolution drawables again.
+ *
+ * BrightBudsApp releases the cache from onTrimMemory. Released bitmaps are
+ * only dereferenced, never recycled, because a render job may still be
+ * drawing with them.
+ */
+public final class ReportAssetCache {
+
+    private static final String TAG = "ReportAssetCache";
+
+    public static final int LOGO_SIZE = 70;
+
+    private static volatile ReportAssetCache instance;
+
+    private final Resources resources;
+
+    // Guarded by this
+    private final Map<String, Bitmap> bitmaps = new HashMap<>();
+
+    public static ReportAssetCache getInstance(Context context) {
+        ReportAssetCache local = instance;
+        if (local == null) {
+            synchronized (ReportAssetCache.class) {
+                local = instance;
+                if (local == null) {
+                    local = new ReportAssetCache(context.getApplicationContext().getResources());
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private ReportAssetCache(Resources resources) {
+        this.resources = resources;
+    }
+
+    /** The star background scaled to a full page, or null if it cannot be decoded. */
+    @Nullable
+    public Bitmap getPageBackground(int pageWidth, int pageHeight) {
+        return get(R.drawable.bluestar_background, pageWidth, pageHeight);
+    }
+
+    /** The BrightBuds logo scaled to a LOGO_SIZE square, or null if it cannot be decoded. */
+    @Nullable
+    public Bitmap getLogo() {
+        return get(R.drawable.ic_brightbuds_logo, LOGO_SIZE, LOGO_SIZE);
+    }
+
+    /** Drops all cached bitmaps. */
+    public synchronized void clear() {
+        if (!bitmaps.isEmpty()) {
+            Log.d(TAG, "Releasing " + bitmaps.size() + " report bitmaps");
+        }
+        bitmaps.clear();
+    }
+
+    /** Called from Application.onTrimMemory. Keeps the cache while the app is only hidden. */
+    public void onTrimMemory(int level) {
+        if (level >= ComponentCallbacks2.TRIM_MEMORY_RUNNING_LOW
+                && level != ComponentCallbacks2.TRIM_MEMORY_UI_HIDDEN) {
+            clear();
+        }
+    }
+
+    @Nullable
+    private synchronized Bitmap get(@DrawableRes int resId, int width, int height) {
+        String key = resId + ":" + width + "x" + height;
+        Bitmap cached = bitmaps.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        Bitmap scaled = decodeScaled(resId, width, height);
+        if (scaled != null) {
+            bitmaps.put(key, scaled);
+        }
+        return scaled;
+    }
+
+    @Nullable
+    private Bitmap decodeScaled(@DrawableRes int resId, int width, int height) {
+        try {
+            BitmapFactory.Options bounds = new BitmapFactory.Options();
+            bounds.inJustDecodeBounds = true;
+            bounds.inScaled = false;
+            BitmapFactory.decodeResource(resources, resId, bounds);
+
+            BitmapFactory.Options options = new BitmapFactory.Options();
+            options.inScaled = false;
+            options.inSampleSize = sampleSizeFor(bounds.outWidth, bounds.outHeight, width, height);
+
+            Bitmap decoded = BitmapFactory.decodeResource(resources, resId, options);
+            if (decoded == null) {
+                return null;
+            }
+
+            Bitmap scaled = Bitmap.createScaledBitmap(decoded, width, height, true);
+            if (scaled != decoded) {
+                decoded.recycle();
+            }
+            return scaled.isMutable() ? scaled.copy(scaled.getConfig(), false) : scaled;
+        } catch (Exception | OutOfMemoryError e) {
+            Log.e(TAG, "Error loading report image " + resId, e);
+            return null;
+        }
+    }
+
+    // Largest power of two that keeps the decoded image at least as big as the target
+    private static int sampleSizeFor(int srcWidth, int srcHeight, int dstWidth, int dstHeight) {
+        int sample = 1;
+        if (srcWidth <= 0 || srcHeight <= 0) {
+            return sample;
+        }
+        while (srcWidth / (sample * 2) >= dstWidth && srcHeight / (sample * 2) >= dstHeight) {
+            sample *= 2;
+        }
+        return sample;
+    }
+}
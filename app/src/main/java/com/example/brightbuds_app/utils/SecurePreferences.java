@@ -1,11 +1,16 @@
 package com.example.brightbuds_app.utils;
 
 import android.content.Context;
-import android.content.SharedPreferences;
 import android.util.Log;
 
+import java.util.Map;
+
 /*
- SecurePreferences - A wrapper around SharedPreferences that encrypts/decrypts data using EncryptionUtil before saving or retrieving.
+ SecurePreferences - Typed access to encrypted app settings.
+
+ Values live in SecureSettingsStore, which keeps them decrypted in memory
+ and saves them as one encrypted file off the main thread. Reads cost a
+ map lookup; writes are batched into one save.
 
  Used for securely storing sensitive user or app settings such as:
  - Login state
@@ -16,23 +21,16 @@ import android.util.Log;
 public class SecurePreferences {
 
     private static final String TAG = "SecurePreferences";
-    private static final String PREF_NAME = "brightbuds_secure_prefs";
 
-    private final SharedPreferences sharedPreferences;
+    private final SecureSettingsStore store;
 
     public SecurePreferences(Context context) {
-        this.sharedPreferences = context.getApplicationContext()
-                .getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        this.store = SecureSettingsStore.getInstance(context);
     }
 
     // Generic Save Methods
     public void putString(String key, String value) {
-        try {
-            String encryptedValue = EncryptionUtil.encrypt(value);
-            sharedPreferences.edit().putString(key, encryptedValue).apply();
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to save encrypted string for key: " + key, e);
-        }
+        store.put(key, value);
     }
 
     public void putBoolean(String key, boolean value) {
@@ -49,16 +47,8 @@ public class SecurePreferences {
 
     // Generic Get Methods
     public String getString(String key, String defaultValue) {
-        try {
-            String encryptedValue = sharedPreferences.getString(key, null);
-            if (encryptedValue == null) return defaultValue;
-
-            String decryptedValue = EncryptionUtil.decrypt(encryptedValue);
-            return decryptedValue != null ? decryptedValue : defaultValue;
-        } catch (Exception e) {
-            Log.e(TAG, "Failed to decrypt string for key: " + key, e);
-            return defaultValue;
-        }
+        String value = store.get(key);
+        return value != null ? value : defaultValue;
     }
 
     public boolean getBoolean(String key, boolean defaultValue) {
@@ -77,16 +67,16 @@ public class SecurePreferences {
 
     // Utility Methods
     public boolean contains(String key) {
-        return sharedPreferences.contains(key);
+        return store.contains(key);
     }
 
     public void remove(String key) {
-        sharedPreferences.edit().remove(key).apply();
+        store.remove(key);
         Log.d(TAG, "Removed key: " + key);
     }
 
     public void clearAll() {
-        sharedPreferences.edit().clear().apply();
+        store.clear();
         Log.i(TAG, "All secure preferences cleared");
     }
 
@@ -95,9 +85,8 @@ public class SecurePreferences {
      Use only in development
      */
     public void logAll() {
-        for (String key : sharedPreferences.getAll().keySet()) {
-            String decrypted = getString(key, "N/A");
-            Log.d(TAG, "Key: " + key + " | Value: " + decrypted);
+        for (Map.Entry<String, String> entry : store.getAll().entrySet()) {
+            Log.d(TAG, "Key: " + entry.getKey() + " | Value: " + entry.getValue());
         }
     }
 }
@@ -0,0 +1,369 @@
+package com.example.brightbuds_app.utils;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encrypted settings kept in memory and saved as one file.
+ *
+ * The file is loaded and decrypted once on a background thread when the
+ * store is created. After that, reads come straight from the in-memory map.
+ * A write updates the map and schedules one save of the whole map. Saves
+ * run on the store thread, WRITE_WINDOW_MS after the first unsaved change,
+ * so a run of writes costs one encryption and one file write. The file is
+ * replaced atomically through AtomicFile, so a crash mid-write keeps the
+ * previous version.
+ *
+ * A file that cannot be decrypted or parsed is renamed aside with an
+ * ".unreadable" suffix and the store starts empty, so the next save does
+ * not destroy it. If it cannot be renamed, nothing is saved over it and
+ * changes stay in memory.
+ *
+ * On the first load with no file, the entries of the old per value
+ * encrypted brightbuds_secure_prefs SharedPreferences are decrypted, saved
+ * here, and removed from the old file. Entries that fail to decrypt stay in
+ * the old file.
+ *
+ * BrightBudsApp creates the store at startup and calls flush() when an
+ * activity pauses.
+ */
+public final class SecureSettingsStore {
+
+    private static final String TAG = "SecureSettingsStore";
+
+    private static final String FILE_NAME = "secure_settings.bin";
+    private static final String LEGACY_PREFS_NAME = "brightbuds_secure_prefs";
+    private static final String THREAD_NAME = "secure-settings";
+
+    private static final long WRITE_WINDOW_MS = 250L;
+    private static final long SYNC_FLUSH_TIMEOUT_MS = 2000L;
+
+    private static volatile SecureSettingsStore instance;
+
+    private final AtomicFile file;
+    private final SharedPreferences legacyPrefs;
+    private final ScheduledExecutorService executor;
+    private final CountDownLatch loaded = new CountDownLatch(1);
+
+    // Guarded by this
+    private final Map<String, String> values = new HashMap<>();
+    private ScheduledFuture<?> scheduledWrite;
+    private boolean dirty;
+
+    // Set when an unreadable file could not be moved aside; it is then never overwritten
+    private volatile boolean saveBlocked;
+
+    public static SecureSettingsStore getInstance(Context context) {
+        SecureSettingsStore local = instance;
+        if (local == null) {
+            synchronized (SecureSettingsStore.class) {
+                local = instance;
+                if (local == null) {
+                    local = new SecureSettingsStore(context.getApplicationContext());
+                    instance = local;
+                }
+            }
+        }
+        return local;
+    }
+
+    private SecureSettingsStore(Context appContext) {
+        this.file = new AtomicFile(new File(appContext.getFilesDir(), FILE_NAME));
+        this.legacyPrefs = appContext.getSharedPreferences(LEGACY_PREFS_NAME, Context.MODE_PRIVATE);
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, THREAD_NAME);
+            t.setPriority(Thread.NORM_PRIORITY - 1);
+            return t;
+        });
+        executor.execute(this::load);
+    }
+
+    // region Reads
+
+    /** Stored value, or null. Waits for the first load only. */
+    public String get(String key) {
+        awaitLoad();
+        synchronized (this) {
+            return values.get(key);
+        }
+    }
+
+    public boolean contains(String key) {
+        awaitLoad();
+        synchronized (this) {
+            return values.containsKey(key);
+        }
+    }
+
+    /** Copy of every stored entry. */
+    public Map<String, String> getAll() {
+        awaitLoad();
+        synchronized (this) {
+            return new HashMap<>(values);
+        }
+    }
+
+    // endregion
+
+    // region Writes
+
+    public void put(String key, String value) {
+        awaitLoad();
+        synchronized (this) {
+            if (value == null) {
+                if (values.remove(key) == null) return;
+            } else if (value.equals(values.put(key, value))) {
+                return;
+            }
+            markDirty();
+        }
+    }
+
+    public void remove(String key) {
+        put(key, null);
+    }
+
+    public void clear() {
+        awaitLoad();
+        synchronized (this) {
+            if (values.isEmpty()) return;
+            values.clear();
+            markDirty();
+        }
+    }
+
+    /**
+     * Starts saving any unsaved change now instead of at the end of the
+     * write window. Does not wait, so it is safe on the main thread.
+     */
+    public void flush() {
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            cancelScheduledWrite();
+        }
+        executor.execute(this::writeToDisk);
+    }
+
+    /**
+     * Saves any unsaved change and waits for it to reach disk.
+     * Returns at once when nothing is waiting.
+     */
+    public void flushNow() {
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            cancelScheduledWrite();
+        }
+
+        if (Thread.currentThread().getName().equals(THREAD_NAME)) {
+            writeToDisk();
+            return;
+        }
+
+        Future<?> f = executor.submit(this::writeToDisk);
+        try {
+            f.get(SYNC_FLUSH_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            Log.e(TAG, "Synchronous settings flush did not complete", e);
+        }
+    }
+
+    // Caller holds this
+    private void markDirty() {
+        dirty = true;
+        if (scheduledWrite == null) {
+            scheduledWrite = executor.schedule(
+                    this::writeToDisk, WRITE_WINDOW_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // Caller holds this
+    private void cancelScheduledWrite() {
+        if (scheduledWrite != null) {
+            scheduledWrite.cancel(false);
+            scheduledWrite = null;
+        }
+    }
+
+    // endregion
+
+    // region Disk, store thread only
+
+    private void load() {
+        Map<String, String> fromDisk = new HashMap<>();
+        try {
+            if (file.getBaseFile().exists()) {
+                if (!readFile(fromDisk)) {
+                    moveAside();
+                }
+            } else {
+                migrateLegacy(fromDisk);
+            }
+        } catch (Exception e) {
+            Log.e(TAG, "❌ Failed to load secure settings", e);
+        } finally {
+            synchronized (this) {
+                values.putAll(fromDisk);
+            }
+            loaded.countDown();
+        }
+        Log.d(TAG, "Loaded " + fromDisk.size() + " secure settings");
+    }
+
+    // Returns false when the file exists but cannot be read, decrypted or parsed
+    private boolean readFile(Map<String, String> out) {
+        try {
+            String encrypted = new String(file.readFully(), StandardCharsets.UTF_8);
+            String json = EncryptionUtil.decrypt(encrypted);
+            if (json.isEmpty()) {
+                Log.e(TAG, "❌ Secure settings file could not be decrypted");
+                return false;
+            }
+            JSONObject object = new JSONObject(json);
+            Map<String, String> parsed = new HashMap<>();
+            Iterator<String> keys = object.keys();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                parsed.put(key, object.getString(key));
+            }
+            out.putAll(parsed);
+            return true;
+        } catch (IOException | JSONException e) {
+            Log.e(TAG, "❌ Secure settings file could not be read", e);
+            return false;
+        }
+    }
+
+    // Keeps an unreadable file for recovery instead of letting the next save replace it
+    private void moveAside() {
+        File base = file.getBaseFile();
+        File aside = new File(base.getParentFile(),
+                FILE_NAME + ".unreadable." + System.currentTimeMillis());
+        if (base.renameTo(aside)) {
+            Log.w(TAG, "Moved unreadable secure settings to " + aside.getName());
+        } else {
+            saveBlocked = true;
+            Log.e(TAG, "❌ Could not move unreadable secure settings aside, changes will not be saved");
+        }
+    }
+
+    // One time move from the per value encrypted SharedPreferences file
+    private void migrateLegacy(Map<String, String> out) {
+        Map<String, ?> legacy = legacyPrefs.getAll();
+        if (legacy.isEmpty()) {
+            return;
+        }
+
+        List<String> keys = new ArrayList<>();
+        List<String> encrypted = new ArrayList<>();
+        for (Map.Entry<String, ?> entry : legacy.entrySet()) {
+            if (entry.getValue() instanceof String) {
+                keys.add(entry.getKey());
+                encrypted.add((String) entry.getValue());
+            }
+        }
+        List<String> decrypted = EncryptionUtil.decryptAll(encrypted);
+        List<String> migrated = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (!decrypted.get(i).isEmpty()) {
+                out.put(keys.get(i), decrypted.get(i));
+                migrated.add(keys.get(i));
+            }
+        }
+        if (migrated.isEmpty()) {
+            // Nothing decrypted; leave the old file alone and try again next start
+            Log.w(TAG, "No legacy secure preferences could be decrypted");
+            return;
+        }
+
+        if (save(out)) {
+            SharedPreferences.Editor editor = legacyPrefs.edit();
+            for (String key : migrated) {
+                editor.remove(key);
+            }
+            editor.apply();
+            Log.i(TAG, "✅ Migrated " + migrated.size() + " secure preferences to " + FILE_NAME
+                    + ", " + (legacy.size() - migrated.size()) + " left in " + LEGACY_PREFS_NAME);
+        }
+    }
+
+    private void writeToDisk() {
+        Map<String, String> snapshot;
+        synchronized (this) {
+            scheduledWrite = null;
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            snapshot = new HashMap<>(values);
+        }
+
+        if (!save(snapshot)) {
+            synchronized (this) {
+                dirty = true;
+            }
+        }
+    }
+
+    private boolean save(Map<String, String> snapshot) {
+        if (saveBlocked) {
+            return false;
+        }
+        String encrypted = EncryptionUtil.encrypt(new JSONObject(snapshot).toString());
+        if (encrypted.isEmpty()) {
+            Log.e(TAG, "❌ Secure settings could not be encrypted, not saved");
+            return false;
+        }
+
+        FileOutputStream out = null;
+        try {
+            out = file.startWrite();
+            out.write(encrypted.getBytes(StandardCharsets.UTF_8));
+            file.finishWrite(out);
+            return true;
+        } catch (IOException e) {
+            Log.e(TAG, "❌ Failed to save secure settings", e);
+            if (out != null) {
+                file.failWrite(out);
+            }
+            return false;
+        }
+    }
+
+    // endregion
+
+    private void awaitLoad() {
+        if (loaded.getCount() == 0) {
+            return;
+        }
+        try {
+            loaded.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}